@@ -37,7 +37,7 @@ public final class ArrayUnion extends FixedTypeTransitiveAggregation<ArrayNode<I
 		final IArrayNode<?> node = (IArrayNode<?>) element;
 		for (int index = 0; index < node.size(); index++)
 			if (aggregator.get(index) == MissingNode.getInstance() && node.get(index) != MissingNode.getInstance())
-				aggregator.set(index, node.get(index));
+				aggregator.set(index, node.get(index).clone());
 	}
 
 	/*
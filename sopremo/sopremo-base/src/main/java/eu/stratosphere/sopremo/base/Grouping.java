@@ -26,6 +26,8 @@ import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IStreamNode;
 import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.SpillingStreamNode;
+import eu.stratosphere.sopremo.type.StreamNode;
 import eu.stratosphere.util.CollectionUtil;
 
 @InputCardinality(min = 1, max = 2)
@@ -190,6 +192,19 @@ public class Grouping extends CompositeOperator<Grouping> {
 				this.streams.set(1, values2);
 				out.collect(this.streams);
 			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see eu.stratosphere.sopremo.pact.GenericSopremoCoGroup#createStreamNode(int)
+			 */
+			@Override
+			protected <T extends IJsonNode> StreamNode<T> createStreamNode(final int inputIndex) {
+				// only record the group if the result projection iterates over it several times
+				if (ExpressionUtil.countStreamPasses(this.getContext().getResultProjection(),
+					new InputSelection(inputIndex)) > 1)
+					return new SpillingStreamNode<T>();
+				return super.createStreamNode(inputIndex);
+			}
 		}
 	}
 
@@ -218,6 +233,19 @@ public class Grouping extends CompositeOperator<Grouping> {
 			protected void reduce(final IStreamNode<IJsonNode> values, final JsonCollector<IJsonNode> out) {
 				out.collect(values);
 			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see eu.stratosphere.sopremo.pact.GenericSopremoReduce#createStreamNode()
+			 */
+			@Override
+			protected StreamNode<IJsonNode> createStreamNode() {
+				// only record the group if the result projection iterates over it several times
+				if (ExpressionUtil.countStreamPasses(this.getContext().getResultProjection(),
+					EvaluationExpression.VALUE) > 1)
+					return new SpillingStreamNode<IJsonNode>();
+				return super.createStreamNode();
+			}
 		}
 	}
 }
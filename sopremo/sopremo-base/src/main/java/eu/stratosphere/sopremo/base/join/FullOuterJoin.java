@@ -3,11 +3,12 @@ package eu.stratosphere.sopremo.base.join;
 import eu.stratosphere.sopremo.pact.JsonCollector;
 import eu.stratosphere.sopremo.pact.SopremoCoGroup;
 import eu.stratosphere.sopremo.type.ArrayNode;
-import eu.stratosphere.sopremo.type.CachingArrayNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IStreamNode;
 import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.SpillingStreamNode;
+import eu.stratosphere.sopremo.type.StreamNode;
 
 public class FullOuterJoin extends TwoSourceJoinBase<FullOuterJoin> {
 	public static class Implementation extends SopremoCoGroup {
@@ -29,19 +30,24 @@ public class FullOuterJoin extends TwoSourceJoinBase<FullOuterJoin> {
 			}
 		}
 
-		private transient CachingArrayNode<IJsonNode> firstSourceNodes = new CachingArrayNode<IJsonNode>();
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.sopremo.pact.GenericSopremoCoGroup#createStreamNode(int)
+		 */
+		@Override
+		protected <T extends IJsonNode> StreamNode<T> createStreamNode(final int inputIndex) {
+			// the values of the first source are replayed for each value of the second source
+			if (inputIndex == 0)
+				return new SpillingStreamNode<T>();
+			return super.createStreamNode(inputIndex);
+		}
 
 		protected void cogroupJoin(IArrayNode<IJsonNode> result, IStreamNode<IJsonNode> values1,
 				IStreamNode<IJsonNode> values2, JsonCollector<IJsonNode> out) {
-			this.firstSourceNodes.setSize(0);
-			// TODO: use resettable iterator to avoid OOME
 			// TODO: can we estimate if first or second source is smaller?
-			for (final IJsonNode value : values1)
-				this.firstSourceNodes.addClone(value);
-
 			for (final IJsonNode secondSourceNode : values2) {
 				result.set(1, secondSourceNode);
-				for (final IJsonNode firstSourceNode : this.firstSourceNodes) {
+				for (final IJsonNode firstSourceNode : values1) {
 					result.set(0, firstSourceNode);
 					out.collect(result);
 				}
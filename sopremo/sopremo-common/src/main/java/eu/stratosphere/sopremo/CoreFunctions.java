@@ -5,10 +5,12 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.TimeZone;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,6 +26,8 @@ import eu.stratosphere.sopremo.expressions.ArithmeticExpression.ArithmeticOperat
 import eu.stratosphere.sopremo.expressions.ComparativeExpression;
 import eu.stratosphere.sopremo.expressions.ConstantExpression;
 import eu.stratosphere.sopremo.expressions.EvaluationExpression;
+import eu.stratosphere.sopremo.expressions.OptimizerHints;
+import eu.stratosphere.sopremo.expressions.Scope;
 import eu.stratosphere.sopremo.expressions.TernaryExpression;
 import eu.stratosphere.sopremo.function.ExpressionFunction;
 import eu.stratosphere.sopremo.function.SopremoFunction;
@@ -38,6 +42,7 @@ import eu.stratosphere.sopremo.tokenizer.RegexTokenizer;
 import eu.stratosphere.sopremo.type.ArrayNode;
 import eu.stratosphere.sopremo.type.BooleanNode;
 import eu.stratosphere.sopremo.type.CachingArrayNode;
+import eu.stratosphere.sopremo.type.DateNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.INumericNode;
@@ -114,7 +119,8 @@ public class CoreFunctions implements BuiltinProvider {
 
 		@Override
 		protected IJsonNode aggregate(IJsonNode aggregator, IJsonNode element) {
-			return aggregator == NullNode.getInstance() ? element : aggregator;
+			// the element may be reused for the next record
+			return aggregator == NullNode.getInstance() ? element.clone() : aggregator;
 		}
 	};
 
@@ -168,7 +174,7 @@ public class CoreFunctions implements BuiltinProvider {
 				return node.clone();
 			else if (ComparativeExpression.BinaryOperator.LESS.evaluate(node,
 					aggregator))
-				return node;
+				return node.clone();
 			return aggregator;
 		}
 	};
@@ -212,7 +218,7 @@ public class CoreFunctions implements BuiltinProvider {
 				IJsonNode element) {
 			IArrayNode<?> part = (IArrayNode<?>) element;
 			aggregator.add(((INumericNode) part.get(0)).getIntValue(),
-					part.get(1));
+					part.get(1).clone());
 		}
 	};
 
@@ -299,6 +305,7 @@ public class CoreFunctions implements BuiltinProvider {
 			.withDefaultParameters(NullNode.getInstance());
 
 	@Name(verb = "extract")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class EXTRACT extends
 			SopremoFunction3<TextNode, TextNode, IJsonNode> {
 		EXTRACT() {
@@ -354,6 +361,7 @@ public class CoreFunctions implements BuiltinProvider {
 	public static final FORMAT FORMAT = new FORMAT();
 
 	@Name(noun = "format", verb = "format")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class FORMAT extends SopremoVarargFunction1<TextNode> {
 		FORMAT() {
 			super("format");
@@ -388,6 +396,7 @@ public class CoreFunctions implements BuiltinProvider {
 	public static final SUBTRACT SUBTRACT = new SUBTRACT();
 
 	@Name(verb = "subtract")
+	@OptimizerHints(scope = Scope.ARRAY)
 	public static class SUBTRACT extends
 			SopremoVarargFunction1<IArrayNode<IJsonNode>> {
 		SUBTRACT() {
@@ -423,6 +432,7 @@ public class CoreFunctions implements BuiltinProvider {
 	public static SopremoFunction LIKE = new LIKE().withDefaultParameters(TextNode.valueOf(""));
 
 	@Name(noun = "like")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class LIKE extends SopremoFunction2<TextNode, TextNode> {
 
 		private static final transient String PLACEHOLDER = "%%";
@@ -446,6 +456,7 @@ public class CoreFunctions implements BuiltinProvider {
 	public static final LENGTH LENGTH = new LENGTH();
 
 	@Name(noun = "length")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class LENGTH extends SopremoFunction1<TextNode> {
 		LENGTH() {
 			super("length");
@@ -464,6 +475,7 @@ public class CoreFunctions implements BuiltinProvider {
 			.withDefaultParameters(TextNode.EMPTY_STRING);
 
 	@Name(verb = "replace")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class REPLACE extends
 			SopremoFunction3<TextNode, TextNode, TextNode> {
 		REPLACE() {
@@ -501,6 +513,7 @@ public class CoreFunctions implements BuiltinProvider {
 			.withDefaultParameters(WHITESPACES);
 
 	@Name(verb = "split")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class SPLIT extends SopremoFunction2<TextNode, TextNode> {
 		SPLIT() {
 			super("split");
@@ -539,6 +552,7 @@ public class CoreFunctions implements BuiltinProvider {
 			.withDefaultParameters(new IntNode(-1));;
 
 	@Name(noun = "substring")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class SUBSTRING extends			SopremoFunction3<TextNode, IntNode, IntNode> {
 		SUBSTRING() {
 			super("substring");
@@ -568,6 +582,7 @@ public class CoreFunctions implements BuiltinProvider {
 	public static final TRIM TRIM = new TRIM();
 
 	@Name(verb = "trim")
+	@OptimizerHints(scope = Scope.STRING)
 	public static class TRIM extends SopremoFunction1<TextNode> {
 		TRIM() {
 			super("trim");
@@ -661,112 +676,137 @@ public class CoreFunctions implements BuiltinProvider {
 		}
 	};
 	
+	/**
+	 * Caches the {@link SimpleDateFormat} of the most recently used pattern, such that the date functions do not
+	 * create a new format for each call.
+	 */
+	private static final class DateFormatCache {
+		private final TimeZone timeZone;
+
+		private String pattern;
+
+		private DateFormat format;
+
+		/**
+		 * Initializes a DateFormatCache that creates formats for the given time zone or for the default time zone if
+		 * the given time zone is null.
+		 */
+		DateFormatCache(final TimeZone timeZone) {
+			this.timeZone = timeZone;
+		}
+
+		public DateFormat get(final CharSequence pattern) {
+			if (this.format == null || !this.pattern.contentEquals(pattern)) {
+				this.pattern = pattern.toString();
+				this.format = new SimpleDateFormat(this.pattern);
+				if (this.timeZone != null)
+					this.format.setTimeZone(this.timeZone);
+			}
+			return this.format;
+		}
+	}
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
 	public static final WEEK_OF_YEAR WEEK_OF_YEAR = new WEEK_OF_YEAR();
 
+	/**
+	 * Returns the week of the year of a {@link DateNode} or of a text that is parsed with the given format, both in
+	 * UTC.
+	 */
 	@Name(noun = "weekOfYear")
-	public static class WEEK_OF_YEAR extends SopremoFunction2<TextNode, TextNode> {
+	public static class WEEK_OF_YEAR extends SopremoFunction2<IJsonNode, TextNode> {
 		WEEK_OF_YEAR() {
 			super("weekOfYear");
 		}
 
 		private final transient IntNode result = new IntNode();
 
-		@Override
-		protected IJsonNode call(TextNode input, TextNode dateformat) {
-			String tmpIn = input.toString();
-
-			wov(this.result, tmpIn, dateformat.toString());
-			return this.result;
-		}
-		
-		private void wov(IntNode output, String input, String dateformat) {
-			// other format for given Date will be illegal
-			DateFormat formatter = new SimpleDateFormat(dateformat);
-			Date date;
-			SimpleDateFormat f;
-
-			try {// we parse a String/text into a Date
+		private final transient DateFormatCache parser = new DateFormatCache(UTC);
 
-				date = formatter.parse(input);
+		private final transient Calendar calendar = Calendar.getInstance(UTC);
 
-				/*
-				 * SimpleDateFormat f = new SimpleDateFormat("YYYY-'W'ww-u");you can
-				 * also define another TimeFormat in caseSimpleDateFormat sdf = new
-				 * SimpleDateFormat("dd/MM/yyyy");
-				 */
-				f = new SimpleDateFormat("w");
-				final String s = f.format(date).intern();
-
-				output.setValue(Integer.parseInt(s));
-
-			} catch (ParseException e1) {
-				System.out.println("Exception :" + e1);
-				System.out
-						.println("Exception : Given Text does not fit our Date-Format.");
-			}
+		@Override
+		protected IJsonNode call(IJsonNode input, TextNode dateformat) {
+			if (input instanceof DateNode) {
+				this.calendar.setTimeInMillis(((DateNode) input).getMillis());
+				this.result.setValue(this.calendar.get(Calendar.WEEK_OF_YEAR));
+			} else
+				try {
+					this.calendar.setTime(this.parser.get(dateformat).parse(input.toString()));
+					this.result.setValue(this.calendar.get(Calendar.WEEK_OF_YEAR));
+				} catch (ParseException e1) {
+					throw new EvaluationException(String.format("Cannot parse date %s with format %s", input,
+						dateformat), e1);
+				}
+			return this.result;
 		}
 	};
-	
-	
+
 	public static final GET_YEAR GET_YEAR = new GET_YEAR();
 
+	/**
+	 * Returns the year of a {@link DateNode} or of a text that is parsed with the given format, both in UTC.
+	 */
 	@Name(noun = "getYear")
-	public static class GET_YEAR extends SopremoFunction2<TextNode, TextNode> {
+	public static class GET_YEAR extends SopremoFunction2<IJsonNode, TextNode> {
 		GET_YEAR() {
 			super("getYear");
 		}
 
 		private final transient IntNode result = new IntNode();
 
-		@Override
-		protected IJsonNode call(TextNode input, TextNode dateformat) {
-			String tmpIn = input.toString();
-
-			DateFormat formatter = new SimpleDateFormat(dateformat.toString());
-			Date date;
-			SimpleDateFormat f;
-
-			try {
-				date = formatter.parse(tmpIn);
-
-				// SimpleDateFormat f = new SimpleDateFormat("YYYY-'W'ww-u");
+		private final transient DateFormatCache parser = new DateFormatCache(UTC);
 
-				f = new SimpleDateFormat("yyyy");
-				final String s = f.format(date).intern();
+		private final transient Calendar calendar = Calendar.getInstance(UTC);
 
-				this.result.setValue(Integer.parseInt(s));
-				// System.out.println(result);
-			} catch (ParseException e1) {
-				System.out.println("Exception :" + e1);
-				System.out.println("Exception : Given Text does not fit our Date-Format.");
-			}
+		@Override
+		protected IJsonNode call(IJsonNode input, TextNode dateformat) {
+			if (input instanceof DateNode)
+				this.result.setValue(((DateNode) input).getYear());
+			else
+				try {
+					this.calendar.setTime(this.parser.get(dateformat).parse(input.toString()));
+					this.result.setValue(this.calendar.get(Calendar.YEAR));
+				} catch (ParseException e1) {
+					throw new EvaluationException(String.format("Cannot parse date %s with format %s", input,
+						dateformat), e1);
+				}
 			return this.result;
 		}
 	};
-	
+
 	public static final FORMAT_DATE FORMAT_DATE = new FORMAT_DATE();
 
+	/**
+	 * Formats a {@link DateNode} in UTC or a text that is parsed with the source format with the target format.
+	 */
 	@Name(noun = "formatDate")
-	public static class FORMAT_DATE extends SopremoFunction3<TextNode, TextNode, TextNode> {
+	public static class FORMAT_DATE extends SopremoFunction3<IJsonNode, TextNode, TextNode> {
 		FORMAT_DATE() {
 			super("formatDate");
 		}
 
 		private final transient TextNode result = new TextNode();
 
+		private final transient DateFormatCache parser = new DateFormatCache(null),
+				formatter = new DateFormatCache(null), utcFormatter = new DateFormatCache(UTC);
+
+		private final transient Date date = new Date();
+
 		@Override
-		protected IJsonNode call(TextNode input, TextNode sourceformat, TextNode targetformat) {
-			String tmpIn = input.toString();
-			DateFormat parsedf = new SimpleDateFormat(sourceformat.toString());
-			DateFormat targetdf = new SimpleDateFormat(targetformat.toString());
-			try {
-				Date date = parsedf.parse(tmpIn);
-				final String s = targetdf.format(date);
-				this.result.setValue(s);
-			} catch (ParseException e) {
-				System.out.println("Exception :" + e);
-				System.out.println("Exception : Given Text does not fit our Date-Format.");
-			}
+		protected IJsonNode call(IJsonNode input, TextNode sourceformat, TextNode targetformat) {
+			if (input instanceof DateNode) {
+				this.date.setTime(((DateNode) input).getMillis());
+				this.result.setValue(this.utcFormatter.get(targetformat).format(this.date));
+			} else
+				try {
+					final Date date = this.parser.get(sourceformat).parse(input.toString());
+					this.result.setValue(this.formatter.get(targetformat).format(date));
+				} catch (ParseException e) {
+					throw new EvaluationException(String.format("Cannot parse date %s with format %s", input,
+						sourceformat), e);
+				}
 			return this.result;
 		}
 	};
@@ -774,6 +814,7 @@ public class CoreFunctions implements BuiltinProvider {
 	public static final SopremoFunction STRPOS = new STRPOS();
 
 	@Name(noun = { "indexOf", "strpos" })
+	@OptimizerHints(scope = Scope.STRING)
 	public static class STRPOS extends SopremoFunction2<TextNode, TextNode> {
 		STRPOS() {
 			super("strpos");
@@ -22,12 +22,18 @@ import eu.stratosphere.sopremo.packages.EvaluationScope;
 import eu.stratosphere.sopremo.packages.IConstantRegistry;
 import eu.stratosphere.sopremo.packages.IFunctionRegistry;
 import eu.stratosphere.sopremo.packages.ITypeRegistry;
+import eu.stratosphere.sopremo.serialization.NodeTypeTags;
 import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DateNode;
+import eu.stratosphere.sopremo.type.DoubleArrayNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.IntArrayNode;
+import eu.stratosphere.sopremo.type.LongArrayNode;
 import eu.stratosphere.sopremo.type.MissingNode;
 import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.TextDictionary;
 import eu.stratosphere.sopremo.type.TextNode;
 import eu.stratosphere.sopremo.type.TypeCoercer;
 
@@ -58,6 +64,10 @@ public class EvaluationContext extends AbstractSopremoType implements ISopremoTy
 
 	private final transient Kryo kryo;
 
+	private final transient NodeTypeTags nodeTypeTags;
+
+	private final transient TextDictionary textDictionary = new TextDictionary();
+
 	private final Map<String, Object> contextParameters;
 
 	/**
@@ -87,7 +97,8 @@ public class EvaluationContext extends AbstractSopremoType implements ISopremoTy
 		@SuppressWarnings("unchecked")
 		List<Class<? extends Object>> defaultTypes =
 			Arrays.asList(BooleanNode.class, TextNode.class, IObjectNode.class, IArrayNode.class, NullNode.class,
-				MissingNode.class, TreeMap.class, ArrayList.class, BigInteger.class, BigDecimal.class);
+				MissingNode.class, TreeMap.class, ArrayList.class, BigInteger.class, BigDecimal.class, IntArrayNode.class,
+				LongArrayNode.class, DoubleArrayNode.class, DateNode.class);
 		for (Class<?> type : defaultTypes)
 			register(type);
 
@@ -95,6 +106,7 @@ public class EvaluationContext extends AbstractSopremoType implements ISopremoTy
 		for (Class<? extends IJsonNode> type : types)
 			register(type);
 		this.kryo.setReferences(false);
+		this.nodeTypeTags = new NodeTypeTags(types);
 	}
 
 	private void register(Class<?> type) {
@@ -117,6 +129,24 @@ public class EvaluationContext extends AbstractSopremoType implements ISopremoTy
 		return this.kryo;
 	}
 
+	/**
+	 * Returns the tags of the node types that are known in this context.
+	 * 
+	 * @return the node type tags
+	 */
+	public NodeTypeTags getNodeTypeTags() {
+		return this.nodeTypeTags;
+	}
+
+	/**
+	 * Returns the dictionary of the low-cardinality texts of the task that uses this context.
+	 * 
+	 * @return the text dictionary
+	 */
+	public TextDictionary getTextDictionary() {
+		return this.textDictionary;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
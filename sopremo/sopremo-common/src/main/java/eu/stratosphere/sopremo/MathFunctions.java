@@ -18,6 +18,8 @@ import eu.stratosphere.sopremo.cache.NodeCache;
 import eu.stratosphere.sopremo.expressions.ArithmeticExpression;
 import eu.stratosphere.sopremo.expressions.ConstantExpression;
 import eu.stratosphere.sopremo.expressions.EvaluationExpression;
+import eu.stratosphere.sopremo.expressions.OptimizerHints;
+import eu.stratosphere.sopremo.expressions.Scope;
 import eu.stratosphere.sopremo.function.SopremoFunction1;
 import eu.stratosphere.sopremo.operator.Name;
 import eu.stratosphere.sopremo.packages.BuiltinProvider;
@@ -32,6 +34,7 @@ public class MathFunctions implements BuiltinProvider {
 	public static final EvaluationExpression PI = new ConstantExpression(Math.PI), E = new ConstantExpression(Math.E);
 
 	@Name(verb = "sqrt")
+	@OptimizerHints(scope = Scope.NUMBER)
 	public static final class SQRT extends SopremoFunction1<INumericNode> {
 		SQRT() {
 			super("sqrt");
@@ -47,6 +50,7 @@ public class MathFunctions implements BuiltinProvider {
 	};
 
 	@Name(verb = "sqr")
+	@OptimizerHints(scope = Scope.NUMBER)
 	public static final class SQR extends SopremoFunction1<INumericNode> {
 		SQR() {
 			super("sqr");
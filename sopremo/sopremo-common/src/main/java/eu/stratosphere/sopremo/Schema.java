@@ -19,7 +19,11 @@ import it.unimi.dsi.fastutil.ints.IntCollection;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import javolution.text.TextFormat;
 import eu.stratosphere.sopremo.expressions.ArrayAccess;
@@ -31,7 +35,14 @@ import eu.stratosphere.sopremo.expressions.EvaluationExpression;
 public class Schema extends AbstractSopremoType {
 	private final List<EvaluationExpression> keyExpressions = new ArrayList<EvaluationExpression>();
 
+	private final SortedSet<String> fieldNames = new TreeSet<String>();
+
 	public Schema(List<EvaluationExpression> keyExpressions) {
+		this(keyExpressions, Collections.<String> emptySet());
+	}
+
+	public Schema(List<EvaluationExpression> keyExpressions, Collection<String> fieldNames) {
+		this.fieldNames.addAll(fieldNames);
 		for (EvaluationExpression keyExpression : keyExpressions) {
 			if (keyExpression instanceof ArrayAccess && ((ArrayAccess) keyExpression).isFixedSize())
 				this.keyExpressions.addAll(((ArrayAccess) keyExpression).decompose());
@@ -55,6 +66,15 @@ public class Schema extends AbstractSopremoType {
 		return this.keyExpressions;
 	}
 
+	/**
+	 * Returns the field names that are known to occur in the records.
+	 * 
+	 * @return the field names
+	 */
+	public SortedSet<String> getFieldNames() {
+		return this.fieldNames;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
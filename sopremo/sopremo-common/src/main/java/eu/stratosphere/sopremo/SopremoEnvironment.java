@@ -106,6 +106,8 @@ public class SopremoEnvironment {
 		this.configuration = configuration;
 		this.classLoader = configuration.getClassLoader();
 		this.evaluationContext = SopremoUtil.getEvaluationContext(configuration);
+		this.evaluationContext.setResultProjection(
+			SopremoUtil.optimizeAndCompile(this.evaluationContext.getResultProjection()));
 		this.layout = SopremoUtil.getLayout(configuration);
 	}
 }
@@ -25,12 +25,16 @@ import eu.stratosphere.sopremo.type.BooleanNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 
 /**
- * Represents a logical AND.
+ * Represents a logical AND.<br>
+ * Pure predicates are evaluated in the order that is most efficient for the processed data, see
+ * {@link PredicateOrder}.
  */
 @OptimizerHints(scope = Scope.ANY)
 public class AndExpression extends BooleanExpression {
 	private final List<BooleanExpression> expressions;
 
+	private transient PredicateOrder predicateOrder;
+
 	/**
 	 * Initializes an AndExpression with the given {@link EvaluationExpression}s.
 	 * 
@@ -60,6 +64,7 @@ public class AndExpression extends BooleanExpression {
 
 	public AndExpression addExpression(final BooleanExpression expression) {
 		this.expressions.add(expression);
+		this.predicateOrder = null;
 		return this;
 	}
 
@@ -74,11 +79,9 @@ public class AndExpression extends BooleanExpression {
 	@Override
 	public BooleanNode evaluate(final IJsonNode node) {
 		// we can ignore 'target' because no new Object is created
-		for (final EvaluationExpression booleanExpression : this.expressions)
-			if (booleanExpression.evaluate(node) == BooleanNode.FALSE)
-				return BooleanNode.FALSE;
-
-		return BooleanNode.TRUE;
+		if (this.predicateOrder == null)
+			this.predicateOrder = new PredicateOrder(this.expressions, BooleanNode.FALSE);
+		return this.predicateOrder.evaluate(node);
 	}
 
 	/**
@@ -90,6 +93,15 @@ public class AndExpression extends BooleanExpression {
 		return this.expressions;
 	}
 
+	/**
+	 * Returns the order in which the expressions are evaluated or null if this expression has not been evaluated yet.
+	 * 
+	 * @return the order of the expressions
+	 */
+	PredicateOrder getPredicateOrder() {
+		return this.predicateOrder;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 41;
@@ -120,8 +132,20 @@ public class AndExpression extends BooleanExpression {
 			 */
 			@Override
 			protected BooleanExpression convert(EvaluationExpression childExpression) {
+				// the child is added or replaced
+				AndExpression.this.predicateOrder = null;
 				return BooleanExpression.ensureBooleanExpression(childExpression);
 			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see eu.stratosphere.sopremo.expressions.tree.GenericListChildIterator#remove()
+			 */
+			@Override
+			public void remove() {
+				super.remove();
+				AndExpression.this.predicateOrder = null;
+			}
 		};
 	}
 
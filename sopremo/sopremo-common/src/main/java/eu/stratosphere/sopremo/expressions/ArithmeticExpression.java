@@ -178,6 +178,12 @@ public class ArithmeticExpression extends EvaluationExpression {
 			protected long evaluate(final long left, final long right) {
 				return left + right;
 			}
+
+			@Override
+			protected boolean overflows(final long left, final long right, final long result) {
+				// both operands have a different sign than the result
+				return ((left ^ result) & (right ^ result)) < 0;
+			}
 		}, new DoubleEvaluator() {
 			@Override
 			protected double evaluate(final double left, final double right) {
@@ -207,6 +213,12 @@ public class ArithmeticExpression extends EvaluationExpression {
 			protected long evaluate(final long left, final long right) {
 				return left - right;
 			}
+
+			@Override
+			protected boolean overflows(final long left, final long right, final long result) {
+				// the operands have different signs and the sign of the result differs from the left operand
+				return ((left ^ right) & (left ^ result)) < 0;
+			}
 		}, new DoubleEvaluator() {
 			@Override
 			protected double evaluate(final double left, final double right) {
@@ -236,6 +248,14 @@ public class ArithmeticExpression extends EvaluationExpression {
 			protected long evaluate(final long left, final long right) {
 				return left * right;
 			}
+
+			@Override
+			protected boolean overflows(final long left, final long right, final long result) {
+				// the product of two operands with at most 31 bits always fits
+				if (((Math.abs(left) | Math.abs(right)) >>> 31) == 0)
+					return false;
+				return right != 0 && result / right != left || left == Long.MIN_VALUE && right == -1;
+			}
 		}, new DoubleEvaluator() {
 			@Override
 			protected double evaluate(final double left, final double right) {
@@ -267,21 +287,29 @@ public class ArithmeticExpression extends EvaluationExpression {
 		private final Map<Class<? extends INumericNode>, NumberEvaluator<INumericNode>> typeEvaluators =
 			new IdentityHashMap<Class<? extends INumericNode>, NumberEvaluator<INumericNode>>();
 
+		private final IntegralEvaluator integralEvaluator;
+
+		private final DoubleEvaluator doubleEvaluator;
+
 		@SuppressWarnings({ "rawtypes", "unchecked" })
 		private ArithmeticOperator(final String sign, final NumberEvaluator integerEvaluator,
-				final NumberEvaluator longEvaluator,
-				final NumberEvaluator doubleEvaluator, final NumberEvaluator bigIntegerEvaluator,
+				final IntegralEvaluator longEvaluator,
+				final DoubleEvaluator doubleEvaluator, final NumberEvaluator bigIntegerEvaluator,
 				final NumberEvaluator bigDecimalEvaluator) {
 			this.sign = sign;
+			this.integralEvaluator = longEvaluator;
+			this.doubleEvaluator = doubleEvaluator;
 			this.typeEvaluators.put(IntNode.class, integerEvaluator);
-			this.typeEvaluators.put(LongNode.class, longEvaluator);
-			this.typeEvaluators.put(DoubleNode.class, doubleEvaluator);
+			this.typeEvaluators.put(LongNode.class, (NumberEvaluator) longEvaluator);
+			this.typeEvaluators.put(DoubleNode.class, (NumberEvaluator) doubleEvaluator);
 			this.typeEvaluators.put(BigIntegerNode.class, bigIntegerEvaluator);
 			this.typeEvaluators.put(DecimalNode.class, bigDecimalEvaluator);
 		}
 
 		/**
-		 * Performs the binary operation on the two operands after coercing both values to a common number type.
+		 * Performs the binary operation on the two operands after coercing both values to a common number type.<br />
+		 * Int and long operands as well as pairs of double operands are directly evaluated on primitives. If the result
+		 * of int or long operands overflows, it is promoted to the next wider type.
 		 * 
 		 * @param left
 		 *        the left operand
@@ -290,8 +318,28 @@ public class ArithmeticExpression extends EvaluationExpression {
 		 * @return the result of the operation
 		 */
 		public INumericNode evaluate(final INumericNode left, final INumericNode right, final NodeCache cache) {
+			final Class<?> leftType = left.getClass(), rightType = right.getClass();
+			if ((leftType == IntNode.class || leftType == LongNode.class) &&
+				(rightType == IntNode.class || rightType == LongNode.class)) {
+				final INumericNode result = this.integralEvaluator.evaluate(left.getLongValue(), right.getLongValue(),
+					leftType == IntNode.class && rightType == IntNode.class, cache);
+				if (result != null)
+					return result;
+				return this.evaluate(left, right, BigIntegerNode.class, cache);
+			}
+			if (leftType == DoubleNode.class && rightType == DoubleNode.class) {
+				final DoubleNode numericTarget = cache.getNode(DoubleNode.class);
+				numericTarget.setValue(this.doubleEvaluator.evaluate(left.getDoubleValue(), right.getDoubleValue()));
+				return numericTarget;
+			}
+
 			final Class<? extends INumericNode> widerType =
 				(left.getGeneralilty() > right.getGeneralilty() ? left : right).getClass();
+			return this.evaluate(left, right, widerType, cache);
+		}
+
+		private INumericNode evaluate(final INumericNode left, final INumericNode right,
+				final Class<? extends INumericNode> widerType, final NodeCache cache) {
 			final NumberEvaluator<INumericNode> evaluator = this.typeEvaluators.get(widerType);
 			final Class<? extends INumericNode> implementationType = evaluator.getReturnType();
 			final INumericNode numericTarget = cache.getNode(implementationType);
@@ -310,7 +358,7 @@ public class ArithmeticExpression extends EvaluationExpression {
 	 * 
 	 * @author Arvid Heise
 	 */
-	static class DivisionEvaluator implements NumberEvaluator<DecimalNode> {
+	static class DivisionEvaluator implements NumberEvaluator<DecimalNode>, IntegralEvaluator {
 		private static final DivisionEvaluator INSTANCE = new DivisionEvaluator();
 
 		// This is an arbitrary value, picked as a reasonable choice for a precision
@@ -332,6 +380,23 @@ public class ArithmeticExpression extends EvaluationExpression {
 			numericTarget.setValue(divideImpl(left.getDecimalValue(), right.getDecimalValue()));
 		}
 
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.sopremo.expressions.ArithmeticExpression.IntegralEvaluator#evaluate(long, long, boolean,
+		 * eu.stratosphere.sopremo.cache.NodeCache)
+		 */
+		@Override
+		public INumericNode evaluate(final long left, final long right, final boolean intOperands,
+				final NodeCache cache) {
+			final DecimalNode numericTarget = cache.getNode(DecimalNode.class);
+			// exact quotients do not need a BigDecimal division
+			if (right != 0 && left % right == 0 && (left != Long.MIN_VALUE || right != -1))
+				numericTarget.setValue(BigDecimal.valueOf(left / right));
+			else
+				numericTarget.setValue(divideImpl(BigDecimal.valueOf(left), BigDecimal.valueOf(right)));
+			return numericTarget;
+		}
+
 		@Override
 		public Class<DecimalNode> getReturnType() {
 			return DecimalNode.class;
@@ -414,18 +479,44 @@ public class ArithmeticExpression extends EvaluationExpression {
 		protected abstract int evaluate(int left, int right);
 	}
 
-	private abstract static class LongEvaluator implements NumberEvaluator<LongNode> {
+	private abstract static class LongEvaluator implements NumberEvaluator<LongNode>, IntegralEvaluator {
 		@Override
 		public void evaluate(final INumericNode left, final INumericNode right, final LongNode numericTarget) {
 			numericTarget.setValue(this.evaluate(left.getLongValue(), right.getLongValue()));
 		}
 
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.sopremo.expressions.ArithmeticExpression.IntegralEvaluator#evaluate(long, long, boolean,
+		 * eu.stratosphere.sopremo.cache.NodeCache)
+		 */
+		@Override
+		public INumericNode evaluate(final long left, final long right, final boolean intOperands,
+				final NodeCache cache) {
+			final long result = this.evaluate(left, right);
+			if (intOperands && (int) result == result) {
+				final IntNode numericTarget = cache.getNode(IntNode.class);
+				numericTarget.setValue((int) result);
+				return numericTarget;
+			}
+			if (this.overflows(left, right, result))
+				return null;
+			final LongNode numericTarget = cache.getNode(LongNode.class);
+			numericTarget.setValue(result);
+			return numericTarget;
+		}
+
 		@Override
 		public Class<LongNode> getReturnType() {
 			return LongNode.class;
 		}
 
 		protected abstract long evaluate(long left, long right);
+
+		/**
+		 * Returns true if the given result of {@link #evaluate(long, long)} is not the exact result of the operation.
+		 */
+		protected abstract boolean overflows(long left, long right, long result);
 	}
 
 	private static interface NumberEvaluator<ReturnType extends INumericNode> {
@@ -433,4 +524,15 @@ public class ArithmeticExpression extends EvaluationExpression {
 
 		public Class<ReturnType> getReturnType();
 	}
+
+	private static interface IntegralEvaluator {
+		/**
+		 * Performs the operation on the values of two int or long operands.
+		 * 
+		 * @param intOperands
+		 *        true if both operands are ints, such that the result should be an int if it fits
+		 * @return the result or null if the result cannot be represented as a long
+		 */
+		public INumericNode evaluate(long left, long right, boolean intOperands, NodeCache cache);
+	}
 }
\ No newline at end of file
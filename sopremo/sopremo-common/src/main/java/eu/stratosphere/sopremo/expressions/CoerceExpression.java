@@ -59,6 +59,15 @@ public class CoerceExpression extends PathSegmentExpression {
 		return (CoerceExpression) super.withInputExpression(inputExpression);
 	}
 
+	/**
+	 * Returns the class of the node the result is converted to.
+	 * 
+	 * @return the target type
+	 */
+	public Class<IJsonNode> getTargetType() {
+		return this.targetType;
+	}
+
 	private final transient NodeCache nodeCache = new NodeCache();
 
 	@Override
@@ -0,0 +1,166 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.io.IOException;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import eu.stratosphere.sopremo.EvaluationException;
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * References a subexpression of the enclosing {@link CommonSubexpressionScope}. All references to the same
+ * subexpression share its value, which is evaluated at most once per evaluation of the scope and only if one of the
+ * references is actually evaluated.
+ */
+@DefaultSerializer(CommonSubexpression.CommonSubexpressionSerializer.class)
+public class CommonSubexpression extends EvaluationExpression {
+	private final int index;
+
+	private transient Value value;
+
+	/**
+	 * Initializes CommonSubexpression.
+	 * 
+	 * @param index
+	 *        the index of the referenced subexpression in the enclosing scope
+	 */
+	public CommonSubexpression(final int index) {
+		this.index = index;
+	}
+
+	/**
+	 * Initializes CommonSubexpression.
+	 */
+	CommonSubexpression() {
+		this(0);
+	}
+
+	/**
+	 * Returns the index of the referenced subexpression in the enclosing scope.
+	 * 
+	 * @return the index
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	void bind(final Value value) {
+		this.value = value;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#evaluate(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public IJsonNode evaluate(final IJsonNode node) {
+		if (this.value == null)
+			throw new EvaluationException("Common subexpression evaluated outside of its scope");
+		return this.value.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (!super.equals(obj))
+			return false;
+		return this.index == ((CommonSubexpression) obj).index;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 59 * super.hashCode() + this.index;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
+	 */
+	@Override
+	public void appendAsString(final Appendable appendable) throws IOException {
+		appendable.append('#').append(String.valueOf(this.index));
+	}
+
+	/**
+	 * The lazily evaluated value of a subexpression that is shared by all references.
+	 */
+	static final class Value {
+		private final EvaluationExpression expression;
+
+		private IJsonNode input, result;
+
+		Value(final EvaluationExpression expression) {
+			this.expression = expression;
+		}
+
+		void reset(final IJsonNode input) {
+			this.input = input;
+			this.result = null;
+		}
+
+		IJsonNode get() {
+			if (this.result == null)
+				this.result = this.expression.evaluate(this.input);
+			return this.result;
+		}
+	}
+
+	/**
+	 * Only transfers the index, so that copies are bound to the values of the copied scope.
+	 */
+	public static class CommonSubexpressionSerializer extends Serializer<CommonSubexpression> {
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#write(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Output, java.lang.Object)
+		 */
+		@Override
+		public void write(final Kryo kryo, final Output output, final CommonSubexpression object) {
+			output.writeInt(object.index, true);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#read(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Input, java.lang.Class)
+		 */
+		@Override
+		public CommonSubexpression read(final Kryo kryo, final Input input, final Class<CommonSubexpression> type) {
+			return new CommonSubexpression(input.readInt(true));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#copy(com.esotericsoftware.kryo.Kryo, java.lang.Object)
+		 */
+		@Override
+		public CommonSubexpression copy(final Kryo kryo, final CommonSubexpression original) {
+			return new CommonSubexpression(original.index);
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import eu.stratosphere.sopremo.expressions.CommonSubexpression.Value;
+import eu.stratosphere.sopremo.expressions.tree.ChildIterator;
+import eu.stratosphere.sopremo.expressions.tree.NamedChildIterator;
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * Evaluates an expression that contains {@link CommonSubexpression}s. Each subexpression of this scope is evaluated
+ * with the input node of the scope when it is referenced for the first time, and all further references reuse the
+ * value until the scope is evaluated with the next node.
+ */
+@DefaultSerializer(CommonSubexpressionScope.CommonSubexpressionScopeSerializer.class)
+public class CommonSubexpressionScope extends EvaluationExpression {
+	private EvaluationExpression expression;
+
+	private final List<EvaluationExpression> subexpressions;
+
+	private transient Value[] values;
+
+	/**
+	 * Initializes CommonSubexpressionScope.
+	 * 
+	 * @param expression
+	 *        the expression that references the subexpressions
+	 * @param subexpressions
+	 *        the subexpressions that are referenced by their index
+	 */
+	public CommonSubexpressionScope(final EvaluationExpression expression,
+			final List<? extends EvaluationExpression> subexpressions) {
+		this.expression = expression;
+		this.subexpressions = new ArrayList<EvaluationExpression>(subexpressions);
+	}
+
+	/**
+	 * Initializes CommonSubexpressionScope.
+	 */
+	CommonSubexpressionScope() {
+		this(EvaluationExpression.VALUE, new ArrayList<EvaluationExpression>());
+	}
+
+	/**
+	 * Returns the expression that references the subexpressions.
+	 * 
+	 * @return the expression
+	 */
+	public EvaluationExpression getExpression() {
+		return this.expression;
+	}
+
+	/**
+	 * Returns the subexpressions.
+	 * 
+	 * @return the subexpressions
+	 */
+	public List<EvaluationExpression> getSubexpressions() {
+		return this.subexpressions;
+	}
+
+	/**
+	 * Discards the values of the previous evaluation, so that the subexpressions are evaluated with the given node
+	 * on demand.
+	 * 
+	 * @param node
+	 *        the input node of the scope
+	 */
+	public void bind(final IJsonNode node) {
+		if (this.values == null)
+			this.link();
+		for (final Value value : this.values)
+			value.reset(node);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#evaluate(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public IJsonNode evaluate(final IJsonNode node) {
+		this.bind(node);
+		return this.expression.evaluate(node);
+	}
+
+	private void link() {
+		this.values = new Value[this.subexpressions.size()];
+		for (int index = 0; index < this.values.length; index++)
+			this.values[index] = new Value(this.subexpressions.get(index));
+
+		this.link(this.expression);
+		for (final EvaluationExpression subexpression : this.subexpressions)
+			this.link(subexpression);
+	}
+
+	private void link(final EvaluationExpression expression) {
+		if (expression instanceof CommonSubexpression) {
+			final CommonSubexpression reference = (CommonSubexpression) expression;
+			reference.bind(this.values[reference.getIndex()]);
+		} else if (!(expression instanceof CommonSubexpressionScope))
+			// nested scopes bind their own references
+			for (final EvaluationExpression child : expression)
+				this.link(child);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#iterator()
+	 */
+	@Override
+	public ChildIterator iterator() {
+		final String[] childNames = new String[this.subexpressions.size() + 1];
+		childNames[0] = "expression";
+		for (int index = 1; index < childNames.length; index++)
+			childNames[index] = "#" + (index - 1);
+		return new NamedChildIterator(childNames) {
+			@Override
+			protected void set(final int index, final EvaluationExpression childExpression) {
+				if (index == 0)
+					CommonSubexpressionScope.this.expression = childExpression;
+				else
+					CommonSubexpressionScope.this.subexpressions.set(index - 1, childExpression);
+				CommonSubexpressionScope.this.values = null;
+			}
+
+			@Override
+			protected EvaluationExpression get(final int index) {
+				if (index == 0)
+					return CommonSubexpressionScope.this.expression;
+				return CommonSubexpressionScope.this.subexpressions.get(index - 1);
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (!super.equals(obj))
+			return false;
+		final CommonSubexpressionScope other = (CommonSubexpressionScope) obj;
+		return this.expression.equals(other.expression) && this.subexpressions.equals(other.subexpressions);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 61;
+		int result = super.hashCode();
+		result = prime * result + this.expression.hashCode();
+		result = prime * result + this.subexpressions.hashCode();
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
+	 */
+	@Override
+	public void appendAsString(final Appendable appendable) throws IOException {
+		this.expression.appendAsString(appendable);
+		appendable.append(" WHERE ");
+		for (int index = 0; index < this.subexpressions.size(); index++) {
+			if (index > 0)
+				appendable.append(", ");
+			appendable.append('#').append(String.valueOf(index)).append(" = ");
+			this.subexpressions.get(index).appendAsString(appendable);
+		}
+	}
+
+	/**
+	 * Transfers the expression and the subexpressions, so that the references of a copy are bound to the copied
+	 * subexpressions.
+	 */
+	public static class CommonSubexpressionScopeSerializer extends Serializer<CommonSubexpressionScope> {
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#write(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Output, java.lang.Object)
+		 */
+		@Override
+		public void write(final Kryo kryo, final Output output, final CommonSubexpressionScope object) {
+			kryo.writeClassAndObject(output, object.expression);
+			output.writeInt(object.subexpressions.size(), true);
+			for (final EvaluationExpression subexpression : object.subexpressions)
+				kryo.writeClassAndObject(output, subexpression);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#read(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Input, java.lang.Class)
+		 */
+		@Override
+		public CommonSubexpressionScope read(final Kryo kryo, final Input input,
+				final Class<CommonSubexpressionScope> type) {
+			final EvaluationExpression expression = (EvaluationExpression) kryo.readClassAndObject(input);
+			final int size = input.readInt(true);
+			final List<EvaluationExpression> subexpressions = new ArrayList<EvaluationExpression>(size);
+			for (int index = 0; index < size; index++)
+				subexpressions.add((EvaluationExpression) kryo.readClassAndObject(input));
+			return new CommonSubexpressionScope(expression, subexpressions);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#copy(com.esotericsoftware.kryo.Kryo, java.lang.Object)
+		 */
+		@Override
+		public CommonSubexpressionScope copy(final Kryo kryo, final CommonSubexpressionScope original) {
+			final List<EvaluationExpression> subexpressions =
+				new ArrayList<EvaluationExpression>(original.subexpressions.size());
+			for (final EvaluationExpression subexpression : original.subexpressions)
+				subexpressions.add(kryo.copy(subexpression));
+			return new CommonSubexpressionScope(kryo.copy(original.expression), subexpressions);
+		}
+	}
+}
@@ -20,10 +20,18 @@ import eu.stratosphere.sopremo.expressions.tree.ChildIterator;
 import eu.stratosphere.sopremo.expressions.tree.NamedChildIterator;
 import eu.stratosphere.sopremo.type.AbstractNumericNode;
 import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DoubleNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.INumericNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.LongNode;
+import eu.stratosphere.sopremo.type.TextNode;
 
 /**
- * Represents basic binary comparative expressions covering all operators specified in {@link BinaryOperator}.
+ * Represents basic binary comparative expressions covering all operators specified in {@link BinaryOperator}.<br>
+ * The expression observes the types of the compared nodes and specializes the comparison for pairs of int, long,
+ * double, and text nodes. If other types are compared, the generic comparison of the operator is used and the
+ * expression specializes for the new types. Comparisons with too many different types remain generic.
  */
 @OptimizerHints(scope = Scope.ANY, minNodes = 2, maxNodes = 2)
 public class ComparativeExpression extends BinaryBooleanExpression {
@@ -33,6 +41,15 @@ public class ComparativeExpression extends BinaryBooleanExpression {
 
 	private final BinaryOperator binaryOperator;
 
+	/**
+	 * The maximum number of specializations before the comparison remains generic.
+	 */
+	private static final int MAX_SPECIALIZATIONS = 4;
+
+	private transient TypeSpecialization specialization;
+
+	private transient int specializations;
+
 	/**
 	 * Initializes a ComparativeExpression with the given binaryOperator and both expressions.
 	 * 
@@ -75,8 +92,36 @@ public class ComparativeExpression extends BinaryBooleanExpression {
 	@Override
 	public BooleanNode evaluate(final IJsonNode node) {
 		// // we can ignore 'target' because no new Object is created
-		return BooleanNode.valueOf(this.binaryOperator.evaluate(this.expr1.evaluate(node),
-			this.expr2.evaluate(node)));
+		return BooleanNode.valueOf(this.evaluate(this.expr1.evaluate(node), this.expr2.evaluate(node)));
+	}
+
+	/**
+	 * Compares the given nodes with the operator of this expression.
+	 * 
+	 * @param value1
+	 *        the value of the first expression
+	 * @param value2
+	 *        the value of the second expression
+	 * @return the result of the comparison
+	 */
+	public boolean evaluate(final IJsonNode value1, final IJsonNode value2) {
+		final TypeSpecialization specialization = this.specialization;
+		if (specialization != null && specialization.type1 == value1.getClass() &&
+			specialization.type2 == value2.getClass())
+			return this.binaryOperator.isTrue(specialization.compare(value1, value2));
+
+		if (this.specializations < MAX_SPECIALIZATIONS) {
+			// keeps the current specialization if the types cannot be specialized, e.g., for occasional null values
+			final TypeSpecialization newSpecialization = TypeSpecialization.valueOf(value1.getClass(),
+				value2.getClass());
+			if (newSpecialization != null) {
+				this.specialization = newSpecialization;
+				this.specializations++;
+				return this.binaryOperator.isTrue(newSpecialization.compare(value1, value2));
+			}
+		} else
+			this.specialization = null;
+		return this.binaryOperator.evaluate(value1, value2);
 	}
 
 	/*
@@ -267,4 +312,94 @@ public class ComparativeExpression extends BinaryBooleanExpression {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Compares nodes of two fixed classes without dispatching over the types of the nodes. The comparison results are
+	 * the same as the results of {@link BinaryOperator#evaluate(IJsonNode, IJsonNode)}.
+	 */
+	abstract static class TypeSpecialization {
+		private final Class<?> type1, type2;
+
+		TypeSpecialization(final Class<?> type1, final Class<?> type2) {
+			this.type1 = type1;
+			this.type2 = type2;
+		}
+
+		abstract int compare(IJsonNode value1, IJsonNode value2);
+
+		private static final TypeSpecialization INT = new TypeSpecialization(IntNode.class, IntNode.class) {
+			@Override
+			int compare(final IJsonNode value1, final IJsonNode value2) {
+				final int int1 = ((IntNode) value1).getIntValue(), int2 = ((IntNode) value2).getIntValue();
+				return int1 < int2 ? -1 : (int1 == int2 ? 0 : 1);
+			}
+		};
+
+		private static final TypeSpecialization LONG = new TypeSpecialization(LongNode.class, LongNode.class) {
+			@Override
+			int compare(final IJsonNode value1, final IJsonNode value2) {
+				final long long1 = ((LongNode) value1).getLongValue(), long2 = ((LongNode) value2).getLongValue();
+				return long1 < long2 ? -1 : (long1 == long2 ? 0 : 1);
+			}
+		};
+
+		private static final TypeSpecialization DOUBLE = new TypeSpecialization(DoubleNode.class, DoubleNode.class) {
+			@Override
+			int compare(final IJsonNode value1, final IJsonNode value2) {
+				return Double.compare(((DoubleNode) value1).getDoubleValue(), ((DoubleNode) value2).getDoubleValue());
+			}
+		};
+
+		private static final TypeSpecialization TEXT = new TypeSpecialization(TextNode.class, TextNode.class) {
+			@Override
+			int compare(final IJsonNode value1, final IJsonNode value2) {
+				return ((TextNode) value1).compareToSameType(value2);
+			}
+		};
+
+		/**
+		 * Mixed numeric types are compared by their double values like in
+		 * {@link AbstractNumericNode#compareTo(IJsonNode)}.
+		 */
+		private static final class MixedNumbers extends TypeSpecialization {
+			MixedNumbers(final Class<?> type1, final Class<?> type2) {
+				super(type1, type2);
+			}
+
+			@Override
+			int compare(final IJsonNode value1, final IJsonNode value2) {
+				return Double.compare(((INumericNode) value1).getDoubleValue(),
+					((INumericNode) value2).getDoubleValue());
+			}
+		}
+
+		private static boolean isSpecializedNumber(final Class<?> type) {
+			return type == IntNode.class || type == LongNode.class || type == DoubleNode.class;
+		}
+
+		/**
+		 * Returns the specialization for the given classes of nodes.
+		 * 
+		 * @param type1
+		 *        the class of the first node
+		 * @param type2
+		 *        the class of the second node
+		 * @return the specialization or null if the classes cannot be specialized
+		 */
+		static TypeSpecialization valueOf(final Class<?> type1, final Class<?> type2) {
+			if (type1 == type2) {
+				if (type1 == IntNode.class)
+					return INT;
+				if (type1 == LongNode.class)
+					return LONG;
+				if (type1 == DoubleNode.class)
+					return DOUBLE;
+				if (type1 == TextNode.class)
+					return TEXT;
+				return null;
+			}
+			if (isSpecializedNumber(type1) && isSpecializedNumber(type2))
+				return new MixedNumbers(type1, type2);
+			return null;
+		}
+	}
+}
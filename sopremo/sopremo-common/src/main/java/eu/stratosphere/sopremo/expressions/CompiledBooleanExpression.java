@@ -0,0 +1,104 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.io.IOException;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+
+import eu.stratosphere.sopremo.expressions.ExpressionCompiler.Evaluator;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * The {@link BooleanExpression} counterpart of {@link CompiledExpression}, so that compiled conditions can be used
+ * wherever a BooleanExpression is expected.
+ */
+@DefaultSerializer(CompiledExpression.CompiledExpressionSerializer.class)
+public class CompiledBooleanExpression extends BooleanExpression {
+	private final BooleanExpression originalExpression;
+
+	private final transient Evaluator evaluator;
+
+	/**
+	 * Initializes CompiledBooleanExpression.
+	 * 
+	 * @param originalExpression
+	 *        the expression that has been compiled
+	 * @param evaluator
+	 *        the generated evaluator
+	 */
+	CompiledBooleanExpression(final BooleanExpression originalExpression, final Evaluator evaluator) {
+		this.originalExpression = originalExpression;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Returns the expression that has been compiled.
+	 * 
+	 * @return the original expression
+	 */
+	public BooleanExpression getOriginalExpression() {
+		return this.originalExpression;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.BooleanExpression#evaluate(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public BooleanNode evaluate(final IJsonNode node) {
+		return (BooleanNode) this.evaluator.evaluate(node);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#clone()
+	 */
+	@Override
+	public BooleanExpression clone() {
+		// the evaluator holds the state of the evaluation and cannot be shared
+		return ExpressionCompiler.INSTANCE.compile((BooleanExpression) this.originalExpression.clone());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (!super.equals(obj))
+			return false;
+		return this.originalExpression.equals(((CompiledBooleanExpression) obj).originalExpression);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return this.originalExpression.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
+	 */
+	@Override
+	public void appendAsString(final Appendable appendable) throws IOException {
+		this.originalExpression.appendAsString(appendable);
+	}
+}
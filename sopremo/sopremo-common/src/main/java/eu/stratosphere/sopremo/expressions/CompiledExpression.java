@@ -0,0 +1,149 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.io.IOException;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import eu.stratosphere.sopremo.expressions.ExpressionCompiler.Evaluator;
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * Evaluates an expression with an {@link Evaluator} that has been generated by the {@link ExpressionCompiler}. The
+ * compiled expression behaves like the original expression, which is retained for the textual representation,
+ * comparisons, and serialization.
+ */
+@DefaultSerializer(CompiledExpression.CompiledExpressionSerializer.class)
+public class CompiledExpression extends EvaluationExpression {
+	private final EvaluationExpression originalExpression;
+
+	private final transient Evaluator evaluator;
+
+	/**
+	 * Initializes CompiledExpression.
+	 * 
+	 * @param originalExpression
+	 *        the expression that has been compiled
+	 * @param evaluator
+	 *        the generated evaluator
+	 */
+	CompiledExpression(final EvaluationExpression originalExpression, final Evaluator evaluator) {
+		this.originalExpression = originalExpression;
+		this.evaluator = evaluator;
+	}
+
+	/**
+	 * Returns the expression that has been compiled.
+	 * 
+	 * @return the original expression
+	 */
+	public EvaluationExpression getOriginalExpression() {
+		return this.originalExpression;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#evaluate(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public IJsonNode evaluate(final IJsonNode node) {
+		return this.evaluator.evaluate(node);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#clone()
+	 */
+	@Override
+	public EvaluationExpression clone() {
+		// the evaluator holds the state of the evaluation and cannot be shared
+		return ExpressionCompiler.INSTANCE.compile(this.originalExpression.clone());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (!super.equals(obj))
+			return false;
+		return this.originalExpression.equals(((CompiledExpression) obj).originalExpression);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.expressions.EvaluationExpression#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return this.originalExpression.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
+	 */
+	@Override
+	public void appendAsString(final Appendable appendable) throws IOException {
+		this.originalExpression.appendAsString(appendable);
+	}
+
+	/**
+	 * Serializes the original expression of {@link CompiledExpression}s and {@link CompiledBooleanExpression}s and
+	 * compiles it again during deserialization.
+	 */
+	public static class CompiledExpressionSerializer extends Serializer<EvaluationExpression> {
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#write(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Output, java.lang.Object)
+		 */
+		@Override
+		public void write(final Kryo kryo, final Output output, final EvaluationExpression object) {
+			kryo.writeClassAndObject(output, getOriginalExpression(object));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#read(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Input, java.lang.Class)
+		 */
+		@Override
+		public EvaluationExpression read(final Kryo kryo, final Input input, final Class<EvaluationExpression> type) {
+			return ExpressionCompiler.INSTANCE.compile((EvaluationExpression) kryo.readClassAndObject(input));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#copy(com.esotericsoftware.kryo.Kryo, java.lang.Object)
+		 */
+		@Override
+		public EvaluationExpression copy(final Kryo kryo, final EvaluationExpression original) {
+			return ExpressionCompiler.INSTANCE.compile(kryo.copy(getOriginalExpression(original)));
+		}
+
+		private static EvaluationExpression getOriginalExpression(final EvaluationExpression object) {
+			if (object instanceof CompiledBooleanExpression)
+				return ((CompiledBooleanExpression) object).getOriginalExpression();
+			return ((CompiledExpression) object).getOriginalExpression();
+		}
+	}
+}
@@ -14,18 +14,30 @@
  **********************************************************************************************************************/
 package eu.stratosphere.sopremo.expressions;
 
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import eu.stratosphere.sopremo.expressions.tree.ChildIterator;
 import eu.stratosphere.sopremo.expressions.tree.NamedChildIterator;
 import eu.stratosphere.sopremo.type.BooleanNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IPrimitiveNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.LongNode;
 
 /**
- * Determines a set contains an element or not.
+ * Determines a set contains an element or not.<br>
+ * If the set is given by a {@link ConstantExpression}, the elements are hashed once and each element is probed in
+ * constant time instead of scanning the set for every evaluation.
  */
 @OptimizerHints(scope = Scope.ANY, iterating = true)
 public class ElementInSetExpression extends BinaryBooleanExpression {
@@ -35,6 +47,8 @@ public class ElementInSetExpression extends BinaryBooleanExpression {
 
 	private final Quantor quantor;
 
+	private transient ConstantSet constantSet;
+
 	/**
 	 * Initializes an ElementInSetExpression.
 	 * 
@@ -64,6 +78,12 @@ public class ElementInSetExpression extends BinaryBooleanExpression {
 	@Override
 	public BooleanNode evaluate(final IJsonNode node) {
 		// we can ignore 'target' because no new Object is created
+		if (this.setExpr instanceof ConstantExpression) {
+			if (this.constantSet == null)
+				this.constantSet = new ConstantSet(ElementInSetExpression.asIterator(
+					((ConstantExpression) this.setExpr).getConstant()));
+			return this.quantor.evaluate(this.elementExpr.evaluate(node), this.constantSet);
+		}
 		return this.quantor.evaluate(this.elementExpr.evaluate(node),
 			ElementInSetExpression.asIterator(this.setExpr.evaluate(node)));
 	}
@@ -80,8 +100,10 @@ public class ElementInSetExpression extends BinaryBooleanExpression {
 			protected void set(int index, EvaluationExpression childExpression) {
 				if (index == 0)
 					ElementInSetExpression.this.elementExpr = childExpression;
-				else
+				else {
 					ElementInSetExpression.this.setExpr = childExpression;
+					ElementInSetExpression.this.constantSet = null;
+				}
 			}
 
 			@Override
@@ -183,6 +205,11 @@ public class ElementInSetExpression extends BinaryBooleanExpression {
 			protected BooleanNode evaluate(final IJsonNode element, final Iterator<IJsonNode> set) {
 				return super.evaluate(element, set).negate();
 			}
+
+			@Override
+			BooleanNode evaluate(final IJsonNode element, final ConstantSet set) {
+				return super.evaluate(element, set).negate();
+			}
 		};
 
 		protected BooleanNode evaluate(final IJsonNode element, final Iterator<IJsonNode> set) {
@@ -191,6 +218,53 @@ public class ElementInSetExpression extends BinaryBooleanExpression {
 					return BooleanNode.TRUE;
 			return BooleanNode.FALSE;
 		}
+
+		BooleanNode evaluate(final IJsonNode element, final ConstantSet set) {
+			return BooleanNode.valueOf(set.contains(element));
+		}
+	}
+
+	/**
+	 * Hashes the elements of a constant set. Int and long elements are kept in primitive sets, so that probing them
+	 * does not require boxing. Arrays and objects are still compared linearly, since the hash codes of the different
+	 * array implementations are not consistent with their equality.
+	 */
+	static final class ConstantSet {
+		private final IntOpenHashSet ints = new IntOpenHashSet();
+
+		private final LongOpenHashSet longs = new LongOpenHashSet();
+
+		private final Set<IJsonNode> primitives = new HashSet<IJsonNode>();
+
+		private final List<IJsonNode> others = new ArrayList<IJsonNode>();
+
+		ConstantSet(final Iterator<IJsonNode> elements) {
+			while (elements.hasNext()) {
+				final IJsonNode element = elements.next();
+				if (element.getClass() == IntNode.class)
+					this.ints.add(((IntNode) element).getIntValue());
+				else if (element.getClass() == LongNode.class)
+					this.longs.add(((LongNode) element).getLongValue());
+				else if (element instanceof IPrimitiveNode)
+					this.primitives.add(element);
+				else
+					this.others.add(element);
+			}
+		}
+
+		boolean contains(final IJsonNode element) {
+			// primitive nodes are only equal to nodes of the same class, so each element is probed in one set
+			if (element.getClass() == IntNode.class)
+				return this.ints.contains(((IntNode) element).getIntValue());
+			if (element.getClass() == LongNode.class)
+				return this.longs.contains(((LongNode) element).getLongValue());
+			if (element instanceof IPrimitiveNode)
+				return this.primitives.contains(element);
+			for (final IJsonNode other : this.others)
+				if (element.equals(other))
+					return true;
+			return false;
+		}
 	}
 
 	@Override
@@ -0,0 +1,593 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import eu.stratosphere.sopremo.EvaluationException;
+import eu.stratosphere.sopremo.cache.NodeCache;
+import eu.stratosphere.sopremo.expressions.ArithmeticExpression.ArithmeticOperator;
+import eu.stratosphere.sopremo.expressions.ObjectCreation.CopyFields;
+import eu.stratosphere.sopremo.expressions.ObjectCreation.FieldAssignment;
+import eu.stratosphere.sopremo.expressions.ObjectCreation.Mapping;
+import eu.stratosphere.sopremo.function.SopremoFunction;
+import eu.stratosphere.sopremo.pact.SopremoUtil;
+import eu.stratosphere.sopremo.type.ArrayNode;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.IArrayNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.INumericNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.ObjectNode;
+import eu.stratosphere.sopremo.type.TypeCoercer;
+
+/**
+ * Compiles a tree of {@link EvaluationExpression}s into one class that is generated with the ASM framework. The
+ * generated {@link Evaluator} evaluates the whole tree in a single method, so that the evaluation of a record does not
+ * dispatch through the nodes of the tree anymore.<br>
+ * Paths, constants, comparisons, arithmetic and boolean expressions, coercions, function calls, and the creation of
+ * objects and arrays are compiled. All other expressions are embedded as they are and interpreted by the generated
+ * code.<br>
+ * The generated classes are cached by their bytecode, such that structurally equal expressions share the same class.
+ */
+public class ExpressionCompiler {
+	/**
+	 * The default instance.
+	 */
+	public static final ExpressionCompiler INSTANCE = new ExpressionCompiler();
+
+	/**
+	 * The maximum number of generated classes that are cached.
+	 */
+	private static final int MAX_CACHED_CLASSES = 256;
+
+	/**
+	 * The least recently used classes are evicted, so that their class loaders can be garbage collected as soon as no
+	 * compiled expression refers to them anymore.
+	 */
+	private final Map<ByteBuffer, Class<?>> evaluatorClasses = new LinkedHashMap<ByteBuffer, Class<?>>(16, 0.75f,
+		true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, Class<?>> eldest) {
+			return this.size() > MAX_CACHED_CLASSES;
+		}
+	};
+
+	/**
+	 * Compiles the given expression. If the expression does not profit from a compilation or cannot be compiled, it
+	 * is returned unmodified.<br>
+	 * The compiled expression wraps the given expression, which must not be modified afterwards.
+	 * 
+	 * @param expression
+	 *        the expression to compile
+	 * @return the compiled expression or the given expression
+	 */
+	public EvaluationExpression compile(final EvaluationExpression expression) {
+		if (expression instanceof BooleanExpression)
+			return this.compile((BooleanExpression) expression);
+		if (expression instanceof CompiledExpression)
+			return expression;
+
+		final Evaluator evaluator = this.createEvaluator(expression);
+		if (evaluator == null)
+			return expression;
+		return new CompiledExpression(expression, evaluator);
+	}
+
+	/**
+	 * Compiles the given boolean expression. If the expression does not profit from a compilation or cannot be
+	 * compiled, it is returned unmodified.<br>
+	 * The compiled expression wraps the given expression, which must not be modified afterwards.
+	 * 
+	 * @param expression
+	 *        the expression to compile
+	 * @return the compiled expression or the given expression
+	 */
+	public BooleanExpression compile(final BooleanExpression expression) {
+		if (expression instanceof CompiledBooleanExpression)
+			return expression;
+
+		final Evaluator evaluator = this.createEvaluator(expression);
+		if (evaluator == null)
+			return expression;
+		return new CompiledBooleanExpression(expression, evaluator);
+	}
+
+	private Evaluator createEvaluator(final EvaluationExpression expression) {
+		// interpreting single leaves or unknown expressions is as fast as the generated code
+		if (expression == EvaluationExpression.VALUE || expression.getClass() == ConstantExpression.class ||
+			!EvaluatorBuilder.isCompilable(expression))
+			return null;
+
+		try {
+			final EvaluatorBuilder builder = new EvaluatorBuilder();
+			builder.addEvaluateMethod(expression);
+			final Class<?> evaluatorClass = this.getEvaluatorClass(builder.dump());
+			return (Evaluator) evaluatorClass.getConstructor(Object[].class).newInstance(
+				(Object) builder.getFieldValues());
+		} catch (final Exception e) {
+			SopremoUtil.LOG.warn(String.format("Cannot compile expression %s; falling back to interpretation: %s",
+				expression, e));
+			return null;
+		}
+	}
+
+	private synchronized Class<?> getEvaluatorClass(final byte[] bytecode) {
+		final ByteBuffer key = ByteBuffer.wrap(bytecode);
+		Class<?> evaluatorClass = this.evaluatorClasses.get(key);
+		if (evaluatorClass == null) {
+			evaluatorClass = new EvaluatorClassLoader(ExpressionCompiler.class.getClassLoader()).define(
+				EvaluatorBuilder.ClassName, bytecode);
+			this.evaluatorClasses.put(key, evaluatorClass);
+		}
+		return evaluatorClass;
+	}
+
+	/**
+	 * Base class of all generated evaluators. The helper methods implement the semantics of the expressions that are
+	 * too complex to be generated inline.
+	 */
+	public abstract static class Evaluator {
+		/**
+		 * Evaluates the compiled expression for the given node.
+		 * 
+		 * @param node
+		 *        the node that should be evaluated
+		 * @return the result of the evaluation
+		 */
+		public abstract IJsonNode evaluate(IJsonNode node);
+
+		/**
+		 * Implements {@link ObjectAccess}.
+		 */
+		protected static IJsonNode getField(final IJsonNode node, final String field) {
+			if (!(node instanceof IObjectNode))
+				return MissingNode.getInstance();
+			final IJsonNode value = ((IObjectNode) node).get(field);
+			return value == null ? NullNode.getInstance() : value;
+		}
+
+		/**
+		 * Implements {@link ArrayAccess} with a single index.
+		 */
+		protected static IJsonNode getElement(final IJsonNode node, final int index) {
+			if (!(node instanceof IArrayNode<?>))
+				return MissingNode.getInstance();
+			final IArrayNode<?> arrayNode = (IArrayNode<?>) node;
+			final IJsonNode value = arrayNode.get(index < 0 ? arrayNode.size() + index : index);
+			return value == null ? NullNode.getInstance() : value;
+		}
+
+		/**
+		 * Implements {@link InputSelection}.
+		 */
+		protected static IJsonNode selectInput(final IJsonNode node, final int index) {
+			if (!(node instanceof IArrayNode<?>))
+				throw new EvaluationException("Cannot select input " + node.getClass().getSimpleName());
+			return ((IArrayNode<?>) node).get(index);
+		}
+
+		/**
+		 * Implements {@link CoerceExpression}.
+		 */
+		protected static IJsonNode coerce(final IJsonNode node, final NodeCache nodeCache,
+				final Class<IJsonNode> targetType) {
+			return TypeCoercer.INSTANCE.coerce(node, nodeCache, targetType);
+		}
+
+		/**
+		 * Coerces the result of a non-boolean expression that is used as a condition.
+		 */
+		protected static BooleanNode toBoolean(final IJsonNode node, final NodeCache nodeCache) {
+			return TypeCoercer.INSTANCE.coerce(node, nodeCache, BooleanNode.class);
+		}
+
+		/**
+		 * Implements the invocation of the function of a {@link FunctionCall}.
+		 */
+		protected static IJsonNode call(final SopremoFunction function, final IArrayNode<IJsonNode> params) {
+			try {
+				return function.call(params);
+			} catch (final Exception e) {
+				throw new EvaluationException(e);
+			}
+		}
+	}
+
+	private static class EvaluatorClassLoader extends ClassLoader {
+		private EvaluatorClassLoader(final ClassLoader parent) {
+			super(parent);
+		}
+
+		private Class<?> define(final String className, final byte[] b) {
+			return this.defineClass(className, b, 0, b.length);
+		}
+	}
+
+	/**
+	 * Generates the subclass of {@link Evaluator} for one expression tree. The code for an expression leaves its
+	 * result on the operand stack; the evaluated node is always the first parameter of the evaluate method. All
+	 * objects that the generated code needs, such as constants, caches, or embedded expressions, are stored in final
+	 * fields that are initialized from the array of {@link #getFieldValues()}.
+	 */
+	private static class EvaluatorBuilder implements Opcodes {
+		/**
+		 * Each evaluator class is defined in its own class loader, so that all generated classes can have the same
+		 * name and structurally equal expressions result in the same bytecode.
+		 */
+		private final static String ClassName = ExpressionCompiler.class.getName() + "$$Evaluator";
+
+		private final static String InternalClassName = ClassName.replace('.', '/');
+
+		private final static String BaseClassName = Type.getInternalName(Evaluator.class);
+
+		private final static String BooleanNodeName = Type.getInternalName(BooleanNode.class),
+				BooleanNodeDescriptor = Type.getDescriptor(BooleanNode.class);
+
+		private final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+		private final List<Object> fieldValues = new ArrayList<Object>();
+
+		private final List<Class<?>> fieldTypes = new ArrayList<Class<?>>();
+
+		private MethodVisitor methodVisitor;
+
+		public EvaluatorBuilder() {
+			this.classWriter.visit(V1_5, ACC_PUBLIC + ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, InternalClassName, null,
+				BaseClassName, null);
+		}
+
+		/**
+		 * Returns true if the expression is compiled instead of being embedded for interpretation.
+		 */
+		static boolean isCompilable(final EvaluationExpression expression) {
+			final Class<?> type = expression.getClass();
+			if (type == ObjectCreation.class) {
+				for (final Mapping<?> mapping : ((ObjectCreation) expression).getMappings())
+					if (mapping.getClass() != FieldAssignment.class && mapping.getClass() != CopyFields.class)
+						return false;
+				return true;
+			}
+			if (type == ArrayAccess.class)
+				return !((ArrayAccess) expression).isSelectingRange();
+			if (type == CommonSubexpressionScope.class)
+				return isCompilable(((CommonSubexpressionScope) expression).getExpression());
+			return expression == EvaluationExpression.VALUE || type == ConstantExpression.class ||
+				type == ObjectAccess.class || type == InputSelection.class || type == CoerceExpression.class ||
+				type == ComparativeExpression.class || type == ArithmeticExpression.class ||
+				type == AndExpression.class || type == OrExpression.class || type == UnaryExpression.class ||
+				type == TernaryExpression.class || type == ArrayCreation.class || type == FunctionCall.class;
+		}
+
+		public Object[] getFieldValues() {
+			return this.fieldValues.toArray();
+		}
+
+		public byte[] dump() throws Exception {
+			this.addCtor();
+
+			this.classWriter.visitEnd();
+			return this.classWriter.toByteArray();
+		}
+
+		private void addCtor() throws Exception {
+			final MethodVisitor methodVisitor =
+				this.classWriter.visitMethod(ACC_PUBLIC, "<init>", "([Ljava/lang/Object;)V", null, null);
+			methodVisitor.visitCode();
+			methodVisitor.visitVarInsn(ALOAD, 0);
+			methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "<init>", "()V");
+
+			// this.fieldX = (Type) values[X]
+			for (int index = 0; index < this.fieldTypes.size(); index++) {
+				final Class<?> fieldType = this.fieldTypes.get(index);
+				methodVisitor.visitVarInsn(ALOAD, 0);
+				methodVisitor.visitVarInsn(ALOAD, 1);
+				pushInt(methodVisitor, index);
+				methodVisitor.visitInsn(AALOAD);
+				methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(fieldType));
+				methodVisitor.visitFieldInsn(PUTFIELD, InternalClassName, getFieldName(index),
+					Type.getDescriptor(fieldType));
+			}
+
+			methodVisitor.visitInsn(RETURN);
+			methodVisitor.visitMaxs(0, 0);
+			methodVisitor.visitEnd();
+		}
+
+		/**
+		 * Adds <code>evaluate(IJsonNode)</code> that evaluates the given expression.
+		 */
+		public void addEvaluateMethod(final EvaluationExpression expression) throws Exception {
+			this.methodVisitor = this.classWriter.visitMethod(ACC_PUBLIC, "evaluate",
+				Type.getMethodDescriptor(Evaluator.class.getMethod("evaluate", IJsonNode.class)), null, null);
+			this.methodVisitor.visitCode();
+			this.addEvaluation(expression);
+			this.methodVisitor.visitInsn(ARETURN);
+			this.methodVisitor.visitMaxs(0, 0);
+			this.methodVisitor.visitEnd();
+		}
+
+		private void addEvaluation(final EvaluationExpression expression) throws Exception {
+			final Class<?> type = expression.getClass();
+			if (!isCompilable(expression))
+				this.addInterpretation(expression);
+			else if (expression == EvaluationExpression.VALUE)
+				this.methodVisitor.visitVarInsn(ALOAD, 1);
+			else if (type == ConstantExpression.class)
+				this.loadField(IJsonNode.class, ((ConstantExpression) expression).getConstant());
+			else if (type == ObjectAccess.class) {
+				final ObjectAccess objectAccess = (ObjectAccess) expression;
+				this.addEvaluation(objectAccess.getInputExpression());
+				this.methodVisitor.visitLdcInsn(objectAccess.getField());
+				this.invokeHelper("getField", IJsonNode.class, String.class);
+			} else if (type == ArrayAccess.class) {
+				final ArrayAccess arrayAccess = (ArrayAccess) expression;
+				this.addEvaluation(arrayAccess.getInputExpression());
+				pushInt(this.methodVisitor, arrayAccess.getStartIndex());
+				this.invokeHelper("getElement", IJsonNode.class, Integer.TYPE);
+			} else if (type == InputSelection.class) {
+				final InputSelection inputSelection = (InputSelection) expression;
+				this.addEvaluation(inputSelection.getInputExpression());
+				pushInt(this.methodVisitor, inputSelection.getIndex());
+				this.invokeHelper("selectInput", IJsonNode.class, Integer.TYPE);
+			} else if (type == CoerceExpression.class) {
+				final CoerceExpression coerceExpression = (CoerceExpression) expression;
+				this.addEvaluation(coerceExpression.getInputExpression());
+				this.loadField(NodeCache.class, new NodeCache());
+				this.loadField(Class.class, coerceExpression.getTargetType());
+				this.invokeHelper("coerce", IJsonNode.class, NodeCache.class, Class.class);
+			} else if (type == ComparativeExpression.class)
+				this.addComparison((ComparativeExpression) expression);
+			else if (type == ArithmeticExpression.class)
+				this.addArithmetic((ArithmeticExpression) expression);
+			else if (type == AndExpression.class) {
+				final List<BooleanExpression> predicates = ((AndExpression) expression).getExpressions();
+				if (PredicateOrder.isAdaptive(predicates))
+					this.addInterpretation(new AndExpression(compilePredicates(predicates)));
+				else
+					this.addJunction(predicates, "FALSE", "TRUE");
+			} else if (type == OrExpression.class) {
+				final List<BooleanExpression> predicates = ((OrExpression) expression).getExpressions();
+				if (PredicateOrder.isAdaptive(predicates))
+					this.addInterpretation(new OrExpression(compilePredicates(predicates)));
+				else
+					this.addJunction(predicates, "TRUE", "FALSE");
+			}
+			else if (type == UnaryExpression.class)
+				this.addUnary((UnaryExpression) expression);
+			else if (type == TernaryExpression.class)
+				this.addTernary((TernaryExpression) expression);
+			else if (type == ObjectCreation.class)
+				this.addObjectCreation((ObjectCreation) expression);
+			else if (type == ArrayCreation.class) {
+				this.loadField(IArrayNode.class, new ArrayNode<IJsonNode>());
+				this.addElements(((ArrayCreation) expression).getElements());
+			} else if (type == FunctionCall.class) {
+				final FunctionCall functionCall = (FunctionCall) expression;
+				this.loadField(SopremoFunction.class, functionCall.getFunction());
+				this.loadField(IArrayNode.class, new ArrayNode<IJsonNode>());
+				this.addElements(functionCall.getParameters());
+				this.invokeHelper("call", SopremoFunction.class, IArrayNode.class);
+			} else if (type == CommonSubexpressionScope.class) {
+				// the references to the subexpressions are interpreted and use the values of the bound scope
+				final CommonSubexpressionScope scope = (CommonSubexpressionScope) expression;
+				this.loadField(CommonSubexpressionScope.class, scope);
+				this.methodVisitor.visitVarInsn(ALOAD, 1);
+				this.invoke(INVOKEVIRTUAL, CommonSubexpressionScope.class, "bind", IJsonNode.class);
+				this.addEvaluation(scope.getExpression());
+			} else
+				throw new IllegalStateException("Unhandled expression " + type);
+		}
+
+		private void addInterpretation(final EvaluationExpression expression) throws Exception {
+			// expression.evaluate(node)
+			this.loadField(EvaluationExpression.class, expression);
+			this.methodVisitor.visitVarInsn(ALOAD, 1);
+			this.invoke(INVOKEVIRTUAL, EvaluationExpression.class, "evaluate", IJsonNode.class);
+		}
+
+		/**
+		 * Leaves the result of the given expression coerced to a {@link BooleanNode} on the stack.
+		 */
+		private void addCondition(final EvaluationExpression expression) throws Exception {
+			this.addEvaluation(expression);
+			// boolean expressions always return BooleanNode.TRUE or BooleanNode.FALSE
+			if (!(expression instanceof BooleanExpression)) {
+				this.loadField(NodeCache.class, new NodeCache());
+				this.invokeHelper("toBoolean", IJsonNode.class, NodeCache.class);
+			}
+		}
+
+		private void addComparison(final ComparativeExpression expression) throws Exception {
+			// BooleanNode.valueOf(expression.evaluate(expr1, expr2)) to share the type specialization
+			this.loadField(ComparativeExpression.class, expression);
+			this.addEvaluation(expression.getExpr1());
+			this.addEvaluation(expression.getExpr2());
+			this.invoke(INVOKEVIRTUAL, ComparativeExpression.class, "evaluate", IJsonNode.class, IJsonNode.class);
+			this.invoke(INVOKESTATIC, BooleanNode.class, "valueOf", Boolean.TYPE);
+		}
+
+		private void addArithmetic(final ArithmeticExpression expression) throws Exception {
+			// operator.evaluate((INumericNode) first, (INumericNode) second, cache)
+			final String numericNodeName = Type.getInternalName(INumericNode.class);
+			this.methodVisitor.visitFieldInsn(GETSTATIC, Type.getInternalName(ArithmeticOperator.class),
+				expression.getOperator().name(), Type.getDescriptor(ArithmeticOperator.class));
+			this.addEvaluation(expression.getFirstOperand());
+			this.methodVisitor.visitTypeInsn(CHECKCAST, numericNodeName);
+			this.addEvaluation(expression.getSecondOperand());
+			this.methodVisitor.visitTypeInsn(CHECKCAST, numericNodeName);
+			this.loadField(NodeCache.class, new NodeCache());
+			this.invoke(INVOKEVIRTUAL, ArithmeticOperator.class, "evaluate", INumericNode.class, INumericNode.class,
+				NodeCache.class);
+		}
+
+		/**
+		 * Compiles the predicates of a junction separately, so that the junction can adapt their order at runtime.
+		 */
+		private static List<BooleanExpression> compilePredicates(final List<BooleanExpression> predicates) {
+			final List<BooleanExpression> compiledPredicates = new ArrayList<BooleanExpression>(predicates.size());
+			for (final BooleanExpression predicate : predicates)
+				compiledPredicates.add(ExpressionCompiler.INSTANCE.compile(predicate));
+			return compiledPredicates;
+		}
+
+		/**
+		 * Adds a short-circuit evaluation of the given expressions that returns the decisive value as soon as one
+		 * expression evaluates to it.
+		 */
+		private void addJunction(final List<? extends EvaluationExpression> expressions, final String decisiveValue,
+				final String defaultValue) throws Exception {
+			final Label decisiveLabel = new Label(), endLabel = new Label();
+			for (final EvaluationExpression expression : expressions) {
+				// if(expression.evaluate(node) == BooleanNode.decisiveValue) goto decisive
+				this.addEvaluation(expression);
+				this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, decisiveValue, BooleanNodeDescriptor);
+				this.methodVisitor.visitJumpInsn(IF_ACMPEQ, decisiveLabel);
+			}
+			this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, defaultValue, BooleanNodeDescriptor);
+			this.methodVisitor.visitJumpInsn(GOTO, endLabel);
+			this.methodVisitor.visitLabel(decisiveLabel);
+			this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, decisiveValue, BooleanNodeDescriptor);
+			this.methodVisitor.visitLabel(endLabel);
+		}
+
+		private void addUnary(final UnaryExpression expression) throws Exception {
+			this.addCondition(expression.getExpr());
+			if (expression.isNegate()) {
+				// result == BooleanNode.TRUE ? BooleanNode.FALSE : BooleanNode.TRUE
+				final Label trueLabel = new Label(), endLabel = new Label();
+				this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, "TRUE", BooleanNodeDescriptor);
+				this.methodVisitor.visitJumpInsn(IF_ACMPEQ, trueLabel);
+				this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, "TRUE", BooleanNodeDescriptor);
+				this.methodVisitor.visitJumpInsn(GOTO, endLabel);
+				this.methodVisitor.visitLabel(trueLabel);
+				this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, "FALSE", BooleanNodeDescriptor);
+				this.methodVisitor.visitLabel(endLabel);
+			}
+		}
+
+		private void addTernary(final TernaryExpression expression) throws Exception {
+			// condition == BooleanNode.TRUE ? ifExpression : thenExpression
+			final Label elseLabel = new Label(), endLabel = new Label();
+			this.addCondition(expression.getIfClause());
+			this.methodVisitor.visitFieldInsn(GETSTATIC, BooleanNodeName, "TRUE", BooleanNodeDescriptor);
+			this.methodVisitor.visitJumpInsn(IF_ACMPNE, elseLabel);
+			this.addEvaluation(expression.getIfExpression());
+			this.methodVisitor.visitJumpInsn(GOTO, endLabel);
+			this.methodVisitor.visitLabel(elseLabel);
+			this.addEvaluation(expression.getThenExpression());
+			this.methodVisitor.visitLabel(endLabel);
+		}
+
+		private void addObjectCreation(final ObjectCreation expression) throws Exception {
+			// result.clear()
+			this.loadField(IObjectNode.class, new ObjectNode());
+			this.methodVisitor.visitInsn(DUP);
+			this.invoke(INVOKEINTERFACE, IObjectNode.class, "clear");
+
+			for (final Mapping<?> mapping : expression.getMappings()) {
+				this.methodVisitor.visitInsn(DUP);
+				if (mapping.getClass() == CopyFields.class) {
+					// result.putAll((IObjectNode) expression.evaluate(node))
+					this.addEvaluation(mapping.getExpression());
+					this.methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(IObjectNode.class));
+					this.invoke(INVOKEINTERFACE, IObjectNode.class, "putAll", IObjectNode.class);
+				} else {
+					// result.put(target, expression.evaluate(node))
+					this.methodVisitor.visitLdcInsn(mapping.getTarget());
+					this.addEvaluation(mapping.getExpression());
+					this.invoke(INVOKEINTERFACE, IObjectNode.class, "put", String.class, IJsonNode.class);
+				}
+				this.methodVisitor.visitInsn(POP);
+			}
+		}
+
+		/**
+		 * Clears the array on top of the stack and adds the results of the given expressions.
+		 */
+		private void addElements(final List<EvaluationExpression> expressions) throws Exception {
+			this.methodVisitor.visitInsn(DUP);
+			this.invoke(INVOKEINTERFACE, IArrayNode.class, "clear");
+
+			for (final EvaluationExpression expression : expressions) {
+				// array.add(expression.evaluate(node))
+				this.methodVisitor.visitInsn(DUP);
+				this.addEvaluation(expression);
+				this.invoke(INVOKEINTERFACE, IArrayNode.class, "add", IJsonNode.class);
+				this.methodVisitor.visitInsn(POP);
+			}
+		}
+
+		/**
+		 * Adds a final field with the given value and pushes it on the stack.
+		 */
+		private void loadField(final Class<?> fieldType, final Object value) {
+			final int index = this.fieldTypes.size();
+			this.fieldTypes.add(fieldType);
+			this.fieldValues.add(value);
+
+			final String fieldDescriptor = Type.getDescriptor(fieldType);
+			final FieldVisitor fieldVisitor = this.classWriter.visitField(ACC_PRIVATE + ACC_FINAL,
+				getFieldName(index), fieldDescriptor, null, null);
+			fieldVisitor.visitEnd();
+
+			this.methodVisitor.visitVarInsn(ALOAD, 0);
+			this.methodVisitor.visitFieldInsn(GETFIELD, InternalClassName, getFieldName(index), fieldDescriptor);
+		}
+
+		private void invokeHelper(final String name, final Class<?>... parameterTypes) throws Exception {
+			final Method method = Evaluator.class.getDeclaredMethod(name, parameterTypes);
+			this.methodVisitor.visitMethodInsn(INVOKESTATIC, BaseClassName, name, Type.getMethodDescriptor(method));
+		}
+
+		private void invoke(final int opcode, final Class<?> owner, final String name,
+				final Class<?>... parameterTypes) throws Exception {
+			final Method method = owner.getMethod(name, parameterTypes);
+			this.methodVisitor.visitMethodInsn(opcode, Type.getInternalName(owner), name,
+				Type.getMethodDescriptor(method));
+		}
+
+		private static String getFieldName(final int index) {
+			return "field" + index;
+		}
+
+		private static void pushInt(final MethodVisitor methodVisitor, final int value) {
+			if (value >= -1 && value <= 5)
+				methodVisitor.visitInsn(ICONST_0 + value);
+			else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+				methodVisitor.visitIntInsn(BIPUSH, value);
+			else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+				methodVisitor.visitIntInsn(SIPUSH, value);
+			else
+				methodVisitor.visitLdcInsn(Integer.valueOf(value));
+		}
+	}
+}
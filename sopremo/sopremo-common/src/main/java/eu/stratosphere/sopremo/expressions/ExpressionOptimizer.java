@@ -0,0 +1,370 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import eu.stratosphere.sopremo.cache.NodeCache;
+import eu.stratosphere.sopremo.expressions.ObjectCreation.Mapping;
+import eu.stratosphere.sopremo.expressions.ObjectCreation.TagMapping;
+import eu.stratosphere.sopremo.expressions.tree.ChildIterator;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.TypeCoercer;
+
+/**
+ * Rewrites expression trees with the help of the {@link OptimizerHints} of the expressions and functions. The
+ * optimizer
+ * <ul>
+ * <li>evaluates pure expressions and calls of pure functions with constant parameters once,
+ * <li>simplifies {@link AndExpression}s, {@link OrExpression}s, {@link UnaryExpression}s, and
+ * {@link TernaryExpression}s with constant or redundant parts, and
+ * <li>evaluates pure subexpressions that occur several times in an {@link ObjectCreation} only once per input node
+ * by moving them into a {@link CommonSubexpressionScope}.
+ * </ul>
+ * Expressions without hints are treated as black boxes.
+ */
+public class ExpressionOptimizer {
+	/**
+	 * The default instance.
+	 */
+	public static final ExpressionOptimizer INSTANCE = new ExpressionOptimizer();
+
+	/**
+	 * Subexpressions with a lower cost, such as <code>$.field</code> or <code>$[0]</code>, are cheaper to evaluate
+	 * than to share, see {@link #getCost(EvaluationExpression)}.
+	 */
+	private static final int MIN_SHARED_COST = 2;
+
+	/**
+	 * Optimizes the given expression. The expression is modified in-place; to retain the original expression, use
+	 * {@link EvaluationExpression#clone()}.
+	 * 
+	 * @param expression
+	 *        the expression to optimize
+	 * @return the optimized expression
+	 */
+	public EvaluationExpression optimize(final EvaluationExpression expression) {
+		if (expression instanceof BooleanExpression)
+			return this.optimize((BooleanExpression) expression);
+		return this.shareSubexpressions(this.simplify(expression));
+	}
+
+	/**
+	 * Optimizes the given boolean expression. The expression is modified in-place; to retain the original expression,
+	 * use {@link EvaluationExpression#clone()}.
+	 * 
+	 * @param expression
+	 *        the expression to optimize
+	 * @return the optimized expression
+	 */
+	public BooleanExpression optimize(final BooleanExpression expression) {
+		return BooleanExpression.ensureBooleanExpression(this.shareSubexpressions(this.simplify(expression)));
+	}
+
+	private EvaluationExpression simplify(final EvaluationExpression expression) {
+		return expression.transformRecursively(new TransformFunction() {
+			@Override
+			public EvaluationExpression apply(final EvaluationExpression argument) {
+				return ExpressionOptimizer.this.foldConstants(ExpressionOptimizer.this.simplifyLogic(argument));
+			}
+		});
+	}
+
+	private EvaluationExpression simplifyLogic(final EvaluationExpression expression) {
+		final Class<?> type = expression.getClass();
+		if (type == AndExpression.class)
+			return this.simplifyJunction(expression, ((AndExpression) expression).getExpressions(), BooleanNode.FALSE);
+		if (type == OrExpression.class)
+			return this.simplifyJunction(expression, ((OrExpression) expression).getExpressions(), BooleanNode.TRUE);
+		if (type == UnaryExpression.class)
+			return this.simplifyUnary((UnaryExpression) expression);
+		if (type == TernaryExpression.class) {
+			final TernaryExpression ternary = (TernaryExpression) expression;
+			if (isConstant(ternary.getIfClause()))
+				return this.evaluateConstant(ternary.getIfClause(), BooleanNode.class) == BooleanNode.TRUE ?
+					ternary.getIfExpression() : ternary.getThenExpression();
+		}
+		return expression;
+	}
+
+	/**
+	 * Flattens nested junctions of the same type and removes neutral constants and duplicates. The junction is
+	 * replaced by its decisive value if it contains that value as a constant.
+	 */
+	private EvaluationExpression simplifyJunction(final EvaluationExpression junction,
+			final List<BooleanExpression> expressions, final BooleanNode decisiveValue) {
+		final List<BooleanExpression> flattened = new ArrayList<BooleanExpression>();
+		this.flatten(junction.getClass(), expressions, flattened);
+
+		final boolean pure = this.isPure(junction);
+		final Set<BooleanExpression> distinctExpressions = new HashSet<BooleanExpression>();
+		final List<BooleanExpression> simplified = new ArrayList<BooleanExpression>();
+		for (final BooleanExpression expression : flattened)
+			if (isConstant(expression)) {
+				if (expression.evaluate(MissingNode.getInstance()) == decisiveValue) {
+					// the remaining expressions are never evaluated
+					if (pure)
+						return new ConstantExpression(decisiveValue);
+					simplified.add(expression);
+					break;
+				}
+			} else if (!pure || distinctExpressions.add(expression))
+				simplified.add(expression);
+
+		if (simplified.size() == expressions.size() && flattened.size() == expressions.size())
+			return junction;
+		if (simplified.isEmpty())
+			return new ConstantExpression(BooleanNode.valueOf(decisiveValue == BooleanNode.FALSE));
+		if (simplified.size() == 1)
+			return simplified.get(0);
+		if (junction instanceof AndExpression)
+			return new AndExpression(simplified);
+		return new OrExpression(simplified);
+	}
+
+	private void flatten(final Class<?> junctionType, final List<BooleanExpression> expressions,
+			final List<BooleanExpression> flattened) {
+		for (final BooleanExpression expression : expressions)
+			if (expression.getClass() != junctionType)
+				flattened.add(expression);
+			else if (junctionType == AndExpression.class)
+				this.flatten(junctionType, ((AndExpression) expression).getExpressions(), flattened);
+			else
+				this.flatten(junctionType, ((OrExpression) expression).getExpressions(), flattened);
+	}
+
+	private EvaluationExpression simplifyUnary(final UnaryExpression unary) {
+		final EvaluationExpression expr = unary.getExpr();
+		// NOT NOT a = a
+		if (expr.getClass() == UnaryExpression.class) {
+			final UnaryExpression inner = (UnaryExpression) expr;
+			return this.simplifyUnary(new UnaryExpression(inner.getExpr(), unary.isNegate() != inner.isNegate()));
+		}
+		// boolean expressions do not need to be coerced
+		if (!unary.isNegate() && expr instanceof BooleanExpression)
+			return expr;
+		return unary;
+	}
+
+	/**
+	 * Replaces pure expressions that do not depend on the input with their value.
+	 */
+	private EvaluationExpression foldConstants(final EvaluationExpression expression) {
+		if (expression instanceof ConstantExpression || !this.isPureNode(expression))
+			return expression;
+
+		boolean hasChildren = false;
+		for (final EvaluationExpression child : expression) {
+			if (!isConstant(child))
+				return expression;
+			hasChildren = true;
+		}
+		// expressions without children only ignore the input if they do not expect any input nodes
+		if (!hasChildren && (expression == EvaluationExpression.VALUE || getHints(expression).minNodes() > 0))
+			return expression;
+
+		try {
+			// the result may be a cached node of the expression
+			return new ConstantExpression(expression.evaluate(MissingNode.getInstance()).clone());
+		} catch (final RuntimeException e) {
+			// the expression fails for all inputs; keep it to report the error during evaluation
+			return expression;
+		}
+	}
+
+	private <T extends IJsonNode> T evaluateConstant(final EvaluationExpression expression, final Class<T> type) {
+		return TypeCoercer.INSTANCE.coerce(expression.evaluate(MissingNode.getInstance()), new NodeCache(), type);
+	}
+
+	/**
+	 * Moves pure subexpressions that occur several times in an {@link ObjectCreation} into a
+	 * {@link CommonSubexpressionScope}.
+	 */
+	private EvaluationExpression shareSubexpressions(final EvaluationExpression expression) {
+		final EvaluationExpression result = expression instanceof ObjectCreation ?
+			this.shareSubexpressions((ObjectCreation) expression) : expression;
+
+		// nested object creations may be evaluated with other nodes, e.g., in array projections
+		final ChildIterator iterator = result.iterator();
+		while (iterator.hasNext()) {
+			final EvaluationExpression child = iterator.next();
+			final EvaluationExpression sharedChild = this.shareSubexpressions(child);
+			if (sharedChild != child)
+				iterator.set(sharedChild);
+		}
+		return result;
+	}
+
+	private EvaluationExpression shareSubexpressions(final ObjectCreation objectCreation) {
+		final List<EvaluationExpression> subexpressions = new ArrayList<EvaluationExpression>();
+		while (true) {
+			final Map<EvaluationExpression, Integer> occurrences = new LinkedHashMap<EvaluationExpression, Integer>();
+			final TransformFunction counter = new TransformFunction() {
+				@Override
+				public EvaluationExpression apply(final EvaluationExpression argument) {
+					if (ExpressionOptimizer.this.isShareable(argument)) {
+						final Integer count = occurrences.get(argument);
+						occurrences.put(argument, count == null ? 1 : count + 1);
+					}
+					return argument;
+				}
+			};
+			this.transformWithSameInput(objectCreation, counter);
+			for (final EvaluationExpression subexpression : subexpressions)
+				this.transformWithSameInput(subexpression, counter);
+
+			// share the most expensive subexpressions first, as their parts have at least as many occurrences
+			EvaluationExpression shared = null;
+			int sharedCost = 0;
+			for (final Entry<EvaluationExpression, Integer> occurrence : occurrences.entrySet()) {
+				final int cost = getCost(occurrence.getKey());
+				if (occurrence.getValue() > 1 && cost > sharedCost) {
+					shared = occurrence.getKey();
+					sharedCost = cost;
+				}
+			}
+			if (shared == null)
+				break;
+
+			final EvaluationExpression sharedExpression = shared;
+			final CommonSubexpression reference = new CommonSubexpression(subexpressions.size());
+			final TransformFunction replacer = new TransformFunction() {
+				@Override
+				public EvaluationExpression apply(final EvaluationExpression argument) {
+					return argument.equals(sharedExpression) ? reference : argument;
+				}
+			};
+			this.transformWithSameInput(objectCreation, replacer);
+			for (int index = 0; index < subexpressions.size(); index++)
+				subexpressions.set(index, this.transformWithSameInput(subexpressions.get(index), replacer));
+			subexpressions.add(sharedExpression.clone());
+		}
+
+		if (subexpressions.isEmpty())
+			return objectCreation;
+		return new CommonSubexpressionScope(objectCreation, subexpressions);
+	}
+
+	/**
+	 * Applies the function top-down to all parts of the expression that are evaluated with the same node as the
+	 * expression itself. Parts that are replaced by the function are not visited any further.
+	 */
+	private EvaluationExpression transformWithSameInput(final EvaluationExpression expression,
+			final TransformFunction function) {
+		final EvaluationExpression transformed = function.apply(expression);
+		if (transformed != expression || expression == EvaluationExpression.VALUE)
+			return transformed;
+
+		if (expression instanceof ObjectCreation) {
+			// the targets of the mappings are not evaluated with the input
+			for (final Mapping<?> mapping : ((ObjectCreation) expression).getMappings())
+				if (!(mapping instanceof TagMapping))
+					mapping.setExpression(this.transformWithSameInput(mapping.getExpression(), function));
+		} else if (this.isTransparent(expression)) {
+			final ChildIterator iterator = expression.iterator();
+			while (iterator.hasNext()) {
+				final EvaluationExpression child = iterator.next();
+				final EvaluationExpression transformedChild = this.transformWithSameInput(child, function);
+				if (transformedChild != child)
+					iterator.set(transformedChild);
+			}
+		} else if (expression instanceof PathSegmentExpression) {
+			// iterating path segments still evaluate their input expression with the same node
+			final PathSegmentExpression segment = (PathSegmentExpression) expression;
+			segment.setInputExpression(this.transformWithSameInput(segment.getInputExpression(), function));
+		}
+		return expression;
+	}
+
+	/**
+	 * Returns true if all children of the expression are evaluated with the same node as the expression itself.
+	 */
+	private boolean isTransparent(final EvaluationExpression expression) {
+		final OptimizerHints hints = getHints(expression);
+		return hints != null && hints.pure() && !hints.iterating();
+	}
+
+	private boolean isShareable(final EvaluationExpression expression) {
+		return expression.getClass() != InputSelection.class && getCost(expression) >= MIN_SHARED_COST &&
+			this.isPure(expression);
+	}
+
+	/**
+	 * Returns true if the expression and all its children are pure.
+	 */
+	boolean isPure(final EvaluationExpression expression) {
+		// compiled expressions are as pure as the expressions they were compiled from
+		if (expression instanceof CompiledExpression)
+			return this.isPure(((CompiledExpression) expression).getOriginalExpression());
+		if (expression instanceof CompiledBooleanExpression)
+			return this.isPure(((CompiledBooleanExpression) expression).getOriginalExpression());
+		if (!this.isPureNode(expression))
+			return false;
+		for (final EvaluationExpression child : expression)
+			if (!this.isPure(child))
+				return false;
+		return true;
+	}
+
+	private boolean isPureNode(final EvaluationExpression expression) {
+		if (expression == EvaluationExpression.VALUE)
+			return true;
+		final OptimizerHints hints = getHints(expression);
+		if (hints == null || !hints.pure())
+			return false;
+		if (expression instanceof FunctionCall) {
+			final OptimizerHints functionHints = ((FunctionCall) expression).getFunction().getOptimizerHints();
+			return functionHints != null && functionHints.pure();
+		}
+		return true;
+	}
+
+	private static OptimizerHints getHints(final EvaluationExpression expression) {
+		// subclasses may change the semantics, so the hints are not inherited
+		return expression.getClass().getAnnotation(OptimizerHints.class);
+	}
+
+	private static boolean isConstant(final EvaluationExpression expression) {
+		// constants in boolean contexts are wrapped in a unary expression
+		return expression instanceof ConstantExpression || expression.getClass() == UnaryExpression.class &&
+			((UnaryExpression) expression).getExpr() instanceof ConstantExpression;
+	}
+
+	/**
+	 * Estimates the cost of evaluating the expression. Selecting the input and constants are free, a field or element
+	 * access costs 1, and all other expressions, which usually create or convert nodes, cost 2.
+	 */
+	private static int getCost(final EvaluationExpression expression) {
+		int cost;
+		if (expression == EvaluationExpression.VALUE || expression instanceof InputSelection ||
+			expression instanceof ConstantExpression)
+			cost = 0;
+		else if (expression instanceof ObjectAccess || expression instanceof ArrayAccess)
+			cost = 1;
+		else
+			cost = 2;
+		for (final EvaluationExpression child : expression)
+			cost += getCost(child);
+		return cost;
+	}
+}
@@ -18,9 +18,12 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.google.common.base.Predicates;
 
@@ -156,6 +159,71 @@ public class ExpressionUtil {
 			}).simplify();
 	}
 
+	/**
+	 * Adds all field names that are accessed with {@link ObjectAccess} or created with {@link ObjectCreation} in the
+	 * given expression to the given collection.
+	 * 
+	 * @param expression
+	 *        the expression to scan
+	 * @param fieldNames
+	 *        the collection of field names
+	 */
+	public static void collectFieldNames(EvaluationExpression expression, Collection<String> fieldNames) {
+		if (expression instanceof ObjectAccess)
+			fieldNames.add(((ObjectAccess) expression).getField());
+		else if (expression instanceof ObjectCreation)
+			for (ObjectCreation.Mapping<?> mapping : ((ObjectCreation) expression).getMappings())
+				if (mapping instanceof ObjectCreation.FieldAssignment)
+					fieldNames.add(((ObjectCreation.FieldAssignment) mapping).getTarget());
+
+		for (EvaluationExpression child : expression)
+			collectFieldNames(child, fieldNames);
+	}
+
+	/**
+	 * Returns how often the given expression iterates over the stream that is selected by the given selection, e.g.,
+	 * to decide whether the values of a group need to be recorded for several passes. All partial aggregations of a
+	 * {@link BatchAggregationExpression} share one pass. Only the input expressions of {@link PathSegmentExpression}s
+	 * are scanned, since their other parts, such as the projection of an {@link ArrayProjection}, are evaluated with
+	 * the elements of the input.
+	 * 
+	 * @param expression
+	 *        the expression that is evaluated with the stream or with an array of streams
+	 * @param streamSelection
+	 *        the expression that selects the stream, i.e., {@link EvaluationExpression#VALUE} or an
+	 *        {@link InputSelection}
+	 * @return the number of passes over the stream
+	 */
+	public static int countStreamPasses(EvaluationExpression expression, EvaluationExpression streamSelection) {
+		return countStreamPasses(expression, streamSelection,
+			Collections.newSetFromMap(new IdentityHashMap<BatchAggregationExpression, Boolean>()));
+	}
+
+	private static int countStreamPasses(EvaluationExpression expression, EvaluationExpression streamSelection,
+			Set<BatchAggregationExpression> batches) {
+		if (expression instanceof CompiledExpression)
+			return countStreamPasses(((CompiledExpression) expression).getOriginalExpression(), streamSelection,
+				batches);
+		if (expression.equals(streamSelection))
+			return 1;
+		if (expression == EvaluationExpression.VALUE)
+			return 0;
+
+		if (expression instanceof BatchAggregationExpression.Partial &&
+			((BatchAggregationExpression.Partial) expression).getBatch() != null)
+			expression = ((BatchAggregationExpression.Partial) expression).getBatch();
+		if (expression instanceof BatchAggregationExpression && !batches.add((BatchAggregationExpression) expression))
+			return 0;
+		if (expression instanceof PathSegmentExpression)
+			return countStreamPasses(((PathSegmentExpression) expression).getInputExpression(), streamSelection,
+				batches);
+
+		int passes = 0;
+		for (EvaluationExpression child : expression)
+			passes += countStreamPasses(child, streamSelection, batches);
+		return passes;
+	}
+
 	private final static ThreadLocal<NodeCache> NodeCache = new ThreadLocal<NodeCache>() {
 		@Override
 		protected NodeCache initialValue() {
@@ -34,6 +34,12 @@ public @interface OptimizerHints {
 
 	int minNodes() default 1;
 
+	/**
+	 * Pure expressions and functions always return the same value for the same input and have no side effects. Calls
+	 * of pure functions with constant parameters are evaluated once during optimization.
+	 */
+	boolean pure() default true;
+
 	Scope[] scope() default { Scope.ANY };
 
 	boolean transitive() default false;
@@ -25,12 +25,16 @@ import eu.stratosphere.sopremo.type.BooleanNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 
 /**
- * Represents a logical OR.
+ * Represents a logical OR.<br>
+ * Pure predicates are evaluated in the order that is most efficient for the processed data, see
+ * {@link PredicateOrder}.
  */
 @OptimizerHints(scope = Scope.ANY)
 public class OrExpression extends BooleanExpression {
 	private final List<BooleanExpression> expressions;
 
+	private transient PredicateOrder predicateOrder;
+
 	/**
 	 * Initializes an OrExpression with the given {@link EvaluationExpression}s.
 	 * 
@@ -69,10 +73,18 @@ public class OrExpression extends BooleanExpression {
 	@Override
 	public BooleanNode evaluate(final IJsonNode node) {
 		// we can ignore 'target' because no new Object is created
-		for (final EvaluationExpression booleanExpression : this.expressions)
-			if (booleanExpression.evaluate(node) == BooleanNode.TRUE)
-				return BooleanNode.TRUE;
-		return BooleanNode.FALSE;
+		if (this.predicateOrder == null)
+			this.predicateOrder = new PredicateOrder(this.expressions, BooleanNode.TRUE);
+		return this.predicateOrder.evaluate(node);
+	}
+
+	/**
+	 * Returns the order in which the expressions are evaluated or null if this expression has not been evaluated yet.
+	 * 
+	 * @return the order of the expressions
+	 */
+	PredicateOrder getPredicateOrder() {
+		return this.predicateOrder;
 	}
 
 	/*
@@ -90,8 +102,20 @@ public class OrExpression extends BooleanExpression {
 			 */
 			@Override
 			protected BooleanExpression convert(EvaluationExpression childExpression) {
+				// the child is added or replaced
+				OrExpression.this.predicateOrder = null;
 				return BooleanExpression.ensureBooleanExpression(childExpression);
 			}
+
+			/*
+			 * (non-Javadoc)
+			 * @see eu.stratosphere.sopremo.expressions.tree.GenericListChildIterator#remove()
+			 */
+			@Override
+			public void remove() {
+				super.remove();
+				OrExpression.this.predicateOrder = null;
+			}
 		};
 	}
 
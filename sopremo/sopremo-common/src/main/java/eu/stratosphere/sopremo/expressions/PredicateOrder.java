@@ -0,0 +1,170 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * Evaluates the predicates of an {@link AndExpression} or {@link OrExpression} with short-circuiting and adapts their
+ * order to the observed data.<br>
+ * Every {@value #SAMPLING_INTERVAL}th evaluation is sampled to measure the average time of each predicate and how
+ * often it decides the result of the junction. After {@value #WINDOW_SIZE} samples, the predicates are sorted by
+ * their average time per decision, so that cheap and selective predicates are evaluated first.<br>
+ * Only pure predicates are reordered, which return the same result in any order. If a reordered predicate fails,
+ * e.g., because a preceding predicate guarded it in the original order, the original order is restored permanently
+ * and the node is evaluated again.
+ */
+final class PredicateOrder {
+	private static final int SAMPLING_INTERVAL = 16;
+
+	private static final int WINDOW_SIZE = 64;
+
+	private final BooleanExpression[] originalPredicates;
+
+	private BooleanExpression[] predicates;
+
+	private final BooleanNode decisiveValue, defaultValue;
+
+	private boolean adaptive, reordered;
+
+	private int evaluations, samples;
+
+	private final long[] times;
+
+	private final int[] decisions;
+
+	/**
+	 * Initializes PredicateOrder.
+	 * 
+	 * @param predicates
+	 *        the predicates in their original order
+	 * @param decisiveValue
+	 *        the value that decides the result of the junction, i.e., FALSE for conjunctions and TRUE for
+	 *        disjunctions
+	 */
+	PredicateOrder(final List<BooleanExpression> predicates, final BooleanNode decisiveValue) {
+		this.originalPredicates = predicates.toArray(new BooleanExpression[predicates.size()]);
+		this.predicates = this.originalPredicates;
+		this.decisiveValue = decisiveValue;
+		this.defaultValue = decisiveValue.negate();
+		this.adaptive = isAdaptive(predicates);
+		this.times = new long[this.predicates.length];
+		this.decisions = new int[this.predicates.length];
+	}
+
+	/**
+	 * Returns true if the order of the given predicates can be adapted without changing the result.
+	 * 
+	 * @param predicates
+	 *        the predicates of a junction
+	 * @return true if the predicates are reordered at runtime
+	 */
+	static boolean isAdaptive(final List<BooleanExpression> predicates) {
+		if (predicates.size() < 2)
+			return false;
+		for (final BooleanExpression predicate : predicates)
+			if (!ExpressionOptimizer.INSTANCE.isPure(predicate))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns the predicates in the order in which they are currently evaluated.
+	 * 
+	 * @return the current order of the predicates
+	 */
+	List<BooleanExpression> getPredicates() {
+		return Arrays.asList(this.predicates);
+	}
+
+	/**
+	 * Evaluates the junction of the predicates for the given node.
+	 * 
+	 * @param node
+	 *        the node that should be evaluated
+	 * @return the decisive value if one predicate returns it, the default value otherwise
+	 */
+	BooleanNode evaluate(final IJsonNode node) {
+		try {
+			if (this.adaptive && ++this.evaluations == SAMPLING_INTERVAL) {
+				this.evaluations = 0;
+				return this.sample(node);
+			}
+
+			for (final BooleanExpression predicate : this.predicates)
+				if (predicate.evaluate(node) == this.decisiveValue)
+					return this.decisiveValue;
+			return this.defaultValue;
+		} catch (final RuntimeException e) {
+			if (!this.reordered)
+				throw e;
+			this.predicates = this.originalPredicates;
+			this.adaptive = this.reordered = false;
+			return this.evaluate(node);
+		}
+	}
+
+	private BooleanNode sample(final IJsonNode node) {
+		BooleanNode result = this.defaultValue;
+		for (int index = 0; index < this.predicates.length; index++) {
+			final long start = System.nanoTime();
+			final boolean decisive = this.predicates[index].evaluate(node) == this.decisiveValue;
+			this.times[index] += System.nanoTime() - start;
+			if (decisive) {
+				this.decisions[index]++;
+				result = this.decisiveValue;
+				break;
+			}
+		}
+
+		if (++this.samples == WINDOW_SIZE)
+			this.reorder();
+		return result;
+	}
+
+	private void reorder() {
+		final int count = this.predicates.length;
+		final Integer[] order = new Integer[count];
+		final double[] ranks = new double[count];
+		for (int index = 0; index < count; index++) {
+			order[index] = index;
+			// predicates that never decided the result are evaluated last in their current order
+			ranks[index] = this.decisions[index] == 0 ? Double.POSITIVE_INFINITY :
+				(double) this.times[index] / this.decisions[index];
+		}
+		// the sort is stable, so that predicates with equal ranks keep their relative order
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(final Integer index1, final Integer index2) {
+				return Double.compare(ranks[index1], ranks[index2]);
+			}
+		});
+
+		final BooleanExpression[] reorderedPredicates = new BooleanExpression[count];
+		for (int index = 0; index < count; index++)
+			reorderedPredicates[index] = this.predicates[order[index]];
+		this.predicates = reorderedPredicates;
+		this.reordered = !Arrays.equals(this.predicates, this.originalPredicates);
+
+		this.samples = 0;
+		Arrays.fill(this.times, 0);
+		Arrays.fill(this.decisions, 0);
+	}
+}
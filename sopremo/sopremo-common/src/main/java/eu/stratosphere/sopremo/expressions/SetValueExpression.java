@@ -23,7 +23,7 @@ import eu.stratosphere.sopremo.type.IJsonNode;
  * 
  * @author Arvid Heise
  */
-@OptimizerHints(scope = Scope.OBJECT)
+@OptimizerHints(scope = Scope.OBJECT, pure = false)
 public class SetValueExpression extends PathSegmentExpression {
 	private final PathSegmentExpression valueLocator;
 
@@ -26,6 +26,7 @@ import eu.stratosphere.sopremo.type.TypeCoercer;
 /**
  * Represents a if-then-else clause.
  */
+@OptimizerHints(scope = Scope.ANY)
 public class TernaryExpression extends EvaluationExpression {
 
 	private EvaluationExpression ifClause;
@@ -73,6 +73,24 @@ public class UnaryExpression extends BooleanExpression {
 		return this.expr.equals(other.expr) && this.negate == other.negate;
 	}
 
+	/**
+	 * Returns the expression whose boolean value is represented by this expression.
+	 * 
+	 * @return the expression
+	 */
+	public EvaluationExpression getExpr() {
+		return this.expr;
+	}
+
+	/**
+	 * Returns true if the boolean value of the expression is negated.
+	 * 
+	 * @return true if the value is negated
+	 */
+	public boolean isNegate() {
+		return this.negate;
+	}
+
 	private transient final NodeCache nodeCache = new NodeCache();
 
 	@Override
@@ -19,6 +19,7 @@ import java.util.Collection;
 
 import eu.stratosphere.sopremo.EvaluationException;
 import eu.stratosphere.sopremo.cache.ArrayCache;
+import eu.stratosphere.sopremo.expressions.OptimizerHints;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.util.reflect.DynamicMethod;
@@ -81,6 +82,22 @@ public class JavaMethod extends SopremoFunction {
 		return this.method.getSignatures();
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.function.SopremoFunction#getOptimizerHints()
+	 */
+	@Override
+	public OptimizerHints getOptimizerHints() {
+		// the hints are only valid if all overloaded methods declare a pure implementation
+		OptimizerHints hints = null;
+		for (final Signature signature : this.getSignatures()) {
+			hints = this.method.getMethod(signature).getAnnotation(OptimizerHints.class);
+			if (hints == null || !hints.pure())
+				return hints;
+		}
+		return hints;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
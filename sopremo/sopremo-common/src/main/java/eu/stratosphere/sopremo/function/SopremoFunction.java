@@ -2,6 +2,7 @@ package eu.stratosphere.sopremo.function;
 
 import java.io.IOException;
 
+import eu.stratosphere.sopremo.expressions.OptimizerHints;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 
@@ -76,6 +77,16 @@ public abstract class SopremoFunction extends Callable<IJsonNode, IArrayNode<IJs
 		return this.minimumNumberOfParameters;
 	}
 
+	/**
+	 * Returns the {@link OptimizerHints} that are declared for this function or null if the function does not provide
+	 * any hints. Functions without hints are treated as black boxes by the optimizer.
+	 * 
+	 * @return the hints or null
+	 */
+	public OptimizerHints getOptimizerHints() {
+		return this.getClass().getAnnotation(OptimizerHints.class);
+	}
+
 	/**
 	 * Returns the name.
 	 * 
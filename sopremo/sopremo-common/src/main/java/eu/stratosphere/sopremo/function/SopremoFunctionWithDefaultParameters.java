@@ -14,6 +14,7 @@
  **********************************************************************************************************************/
 package eu.stratosphere.sopremo.function;
 
+import eu.stratosphere.sopremo.expressions.OptimizerHints;
 import eu.stratosphere.sopremo.type.ArrayNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
@@ -69,6 +70,15 @@ public class SopremoFunctionWithDefaultParameters extends SopremoFunction {
 		return this.originalFunction.call(params);
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.function.SopremoFunction#getOptimizerHints()
+	 */
+	@Override
+	public OptimizerHints getOptimizerHints() {
+		return this.originalFunction.getOptimizerHints();
+	}
+
 	public IJsonNode getDefaultParameter(int index) {
 		return this.defaultParameters.get(index);
 	}
@@ -15,6 +15,7 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CoderResult;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
@@ -34,10 +35,12 @@ import eu.stratosphere.nephele.fs.LineReader;
 import eu.stratosphere.nephele.fs.Path;
 import eu.stratosphere.sopremo.operator.Name;
 import eu.stratosphere.sopremo.operator.Property;
+import eu.stratosphere.sopremo.type.DateNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IObjectNode;
 import eu.stratosphere.sopremo.type.ObjectNode;
+import eu.stratosphere.sopremo.type.TextDictionary;
 import eu.stratosphere.sopremo.type.TextNode;
 import eu.stratosphere.util.Equaler;
 
@@ -57,6 +60,12 @@ public class CsvFormat extends SopremoFormat {
 
 	private String[] keyNames = new String[0];
 
+	private String[] dictionaryColumns = new String[0];
+
+	private String[] dateColumns = new String[0];
+
+	private String dateFormat;
+
 	private int numLineSamples = DEFAULT_NUM_SAMPLES;
 
 	private enum State {
@@ -126,6 +135,115 @@ public class CsvFormat extends SopremoFormat {
 		return this.keyNames;
 	}
 
+	/**
+	 * Sets the columns with few distinct values. The values of these columns are encoded with a {@link TextDictionary}
+	 * per task, such that equal values share their characters and are compared by their ids.
+	 * 
+	 * @param dictionaryColumns
+	 *        the dictionaryColumns to set
+	 */
+	@Property
+	@Name(noun = "dictionary")
+	public void setDictionaryColumns(String... dictionaryColumns) {
+		if (dictionaryColumns == null)
+			throw new NullPointerException("dictionaryColumns must not be null");
+
+		this.dictionaryColumns = dictionaryColumns;
+	}
+
+	/**
+	 * Sets the dictionaryColumns to the specified value.
+	 * 
+	 * @param dictionaryColumns
+	 *        the dictionaryColumns to set
+	 */
+	public CsvFormat withDictionaryColumns(String... dictionaryColumns) {
+		this.setDictionaryColumns(dictionaryColumns);
+		return this;
+	}
+
+	/**
+	 * Returns the dictionaryColumns.
+	 * 
+	 * @return the dictionaryColumns
+	 */
+	public String[] getDictionaryColumns() {
+		return this.dictionaryColumns;
+	}
+
+	/**
+	 * Sets the columns that contain dates. The values of these columns are parsed into
+	 * {@link eu.stratosphere.sopremo.type.DateNode}s with the {@link #setDateFormat(String) date format}; values that
+	 * cannot be parsed remain texts.
+	 * 
+	 * @param dateColumns
+	 *        the dateColumns to set
+	 */
+	@Property
+	@Name(noun = "dates")
+	public void setDateColumns(String... dateColumns) {
+		if (dateColumns == null)
+			throw new NullPointerException("dateColumns must not be null");
+
+		this.dateColumns = dateColumns;
+	}
+
+	/**
+	 * Sets the dateColumns to the specified value.
+	 * 
+	 * @param dateColumns
+	 *        the dateColumns to set
+	 */
+	public CsvFormat withDateColumns(String... dateColumns) {
+		this.setDateColumns(dateColumns);
+		return this;
+	}
+
+	/**
+	 * Returns the dateColumns.
+	 * 
+	 * @return the dateColumns
+	 */
+	public String[] getDateColumns() {
+		return this.dateColumns;
+	}
+
+	/**
+	 * Sets the pattern of {@link java.text.SimpleDateFormat} that is used to parse the date columns in UTC. If no
+	 * pattern is set, the dates are parsed as ISO-8601.
+	 * 
+	 * @param dateFormat
+	 *        the dateFormat to set
+	 */
+	@Property
+	@Name(noun = "dateFormat")
+	public void setDateFormat(String dateFormat) {
+		if (dateFormat != null)
+			// validates the pattern
+			new SimpleDateFormat(dateFormat);
+		this.dateFormat = dateFormat;
+	}
+
+	/**
+	 * Sets the dateFormat to the specified value.
+	 * 
+	 * @param dateFormat
+	 *        the dateFormat to set
+	 */
+	public CsvFormat withDateFormat(String dateFormat) {
+		this.setDateFormat(dateFormat);
+		return this;
+	}
+
+	/**
+	 * Returns the dateFormat.
+	 * 
+	 * @return the dateFormat
+	 */
+	public String getDateFormat() {
+		return this.dateFormat;
+	}
+
 	/**
 	 * Sets the quotation to the specified value.
 	 * 
@@ -224,6 +342,9 @@ public class CsvFormat extends SopremoFormat {
 		int result = super.hashCode();
 		result = prime * result + this.fieldDelimiter;
 		result = prime * result + Arrays.hashCode(this.keyNames);
+		result = prime * result + Arrays.hashCode(this.dictionaryColumns);
+		result = prime * result + Arrays.hashCode(this.dateColumns);
+		result = prime * result + (this.dateFormat == null ? 0 : this.dateFormat.hashCode());
 		result = prime * result + this.numLineSamples;
 		result = prime * result + (this.quotation == null ? 0 : this.quotation.hashCode());
 		return result;
@@ -241,7 +362,10 @@ public class CsvFormat extends SopremoFormat {
 		return this.fieldDelimiter == other.fieldDelimiter
 			&& this.numLineSamples == other.numLineSamples
 			&& Equaler.SafeEquals.equal(this.quotation, other.quotation)
-			&& Arrays.equals(this.keyNames, other.keyNames);
+			&& Arrays.equals(this.keyNames, other.keyNames)
+			&& Arrays.equals(this.dictionaryColumns, other.dictionaryColumns)
+			&& Arrays.equals(this.dateColumns, other.dateColumns)
+			&& Equaler.SafeEquals.equal(this.dateFormat, other.dateFormat);
 	}
 
 	public static class CsvOutputFormat extends SopremoFileOutputFormat {
@@ -401,8 +525,28 @@ public class CsvFormat extends SopremoFormat {
 
 		private String[] keyNames;
 
+		private String[] dictionaryColumns;
+
+		private String[] dateColumns;
+
+		private String dateFormat;
+
 		private int numLineSamples;
 
+		private transient TextDictionary[] dictionaries;
+
+		/**
+		 * The text nodes of the fields, which are reused for each record like {@link #objectNode}.
+		 */
+		private transient TextNode[] texts;
+
+		private transient DateColumnParser[] dateParsers;
+
+		/**
+		 * The date nodes of the date columns, which are reused for each record like {@link #texts}.
+		 */
+		private transient DateNode[] dates;
+
 		private Deque<State> state = new LinkedList<State>();
 
 		private CountingReader reader;
@@ -429,6 +573,26 @@ public class CsvFormat extends SopremoFormat {
 				this.keyNames = this.extractKeyNames();
 			}
 
+			this.texts = new TextNode[this.keyNames.length];
+			for (int index = 0; index < this.texts.length; index++)
+				this.texts[index] = new TextNode();
+			this.dictionaries = new TextDictionary[this.keyNames.length];
+			final List<String> keyNameList = Arrays.asList(this.keyNames);
+			for (String dictionaryColumn : this.dictionaryColumns) {
+				final int fieldIndex = keyNameList.indexOf(dictionaryColumn);
+				if (fieldIndex != -1)
+					this.dictionaries[fieldIndex] = this.getContext().getTextDictionary();
+			}
+			this.dateParsers = new DateColumnParser[this.keyNames.length];
+			this.dates = new DateNode[this.keyNames.length];
+			for (String dateColumn : this.dateColumns) {
+				final int fieldIndex = keyNameList.indexOf(dateColumn);
+				if (fieldIndex != -1) {
+					this.dateParsers[fieldIndex] = new DateColumnParser(this.dateFormat);
+					this.dates[fieldIndex] = new DateNode();
+				}
+			}
+
 			// skip to beginning of the first record
 			if (this.splitStart > 0)
 				if (this.usesQuotation) {
@@ -480,10 +644,9 @@ public class CsvFormat extends SopremoFormat {
 				final char ch = (char) character;
 				switch (this.getCurrentState()) {
 				case TOP_LEVEL:
-					if (ch == this.fieldDelimiter) {
-						this.builder.toString();
+					if (ch == this.fieldDelimiter)
 						break readLoop;
-					} else if (ch == '\n') {
+					else if (ch == '\n') {
 						final int lastCharPos = this.builder.length() - 1;
 						if (this.builder.charAt(lastCharPos) == '\r')
 							this.builder.setLength(lastCharPos);
@@ -546,7 +709,7 @@ public class CsvFormat extends SopremoFormat {
 				// ignore empty line
 				if (lastCharacter <= 0 && fieldIndex == 0 && this.builder.length() == 0)
 					break;
-				this.addToObject(fieldIndex++, this.builder.toString());
+				this.addToObject(fieldIndex++, this.builder);
 				this.builder.setLength(0);
 			} while (lastCharacter != -1 && lastCharacter != '\n');
 
@@ -565,12 +728,30 @@ public class CsvFormat extends SopremoFormat {
 		}
 
 		/**
+		 * Adds the value to the field with the given index. Texts are copied from the given characters into the reused
+		 * text node of the field or, for dictionary columns, looked up in the dictionary without creating a string.
+		 * Dates are parsed into the reused date node of the field.
+		 * 
 		 * @param fieldIndex
-		 * @param string
+		 * @param value
 		 */
-		private void addToObject(int fieldIndex, String string) {
-			if (fieldIndex < this.keyNames.length)
-				this.objectNode.put(this.keyNames[fieldIndex], TextNode.valueOf(string));
+		private void addToObject(int fieldIndex, CharSequence value) {
+			if (fieldIndex < this.keyNames.length) {
+				final DateColumnParser dateParser = this.dateParsers[fieldIndex];
+				final DateNode date = dateParser == null ? null : dateParser.parse(value, this.dates[fieldIndex]);
+				if (date != null) {
+					this.objectNode.put(this.keyNames[fieldIndex], date);
+					return;
+				}
+				final TextDictionary dictionary = this.dictionaries[fieldIndex];
+				final int id = dictionary == null ? TextDictionary.NOT_ENCODED : dictionary.encode(value);
+				final TextNode text = this.texts[fieldIndex];
+				if (id == TextDictionary.NOT_ENCODED)
+					text.setValue(value);
+				else
+					text.setValue(dictionary, id);
+				this.objectNode.put(this.keyNames[fieldIndex], text);
+			}
 		}
 
 		/*
@@ -0,0 +1,87 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.io;
+
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import eu.stratosphere.sopremo.type.DateNode;
+
+/**
+ * Parses the values of date columns into {@link DateNode}s. Without a pattern, the values are parsed as ISO-8601 with
+ * {@link DateNode#parse(CharSequence)}; otherwise, a {@link SimpleDateFormat} with the pattern in UTC is used.
+ */
+class DateColumnParser {
+	private final DateFormat format;
+
+	private final ParsePosition position = new ParsePosition(0);
+
+	private String lastText;
+
+	private boolean lastTextMatches;
+
+	private long lastMillis;
+
+	/**
+	 * Initializes DateColumnParser with the given pattern.
+	 * 
+	 * @param pattern
+	 *        the pattern of {@link SimpleDateFormat} or null for ISO-8601
+	 */
+	public DateColumnParser(final String pattern) {
+		if (pattern == null)
+			this.format = null;
+		else {
+			this.format = new SimpleDateFormat(pattern);
+			this.format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		}
+	}
+
+	/**
+	 * Parses the given text into the given date node. {@link SimpleDateFormat} only parses strings, so a string is
+	 * only created when the text differs from the previously parsed text.
+	 * 
+	 * @param text
+	 *        the text to parse
+	 * @param target
+	 *        the node that receives the parsed date
+	 * @return the target or null if the text does not match the pattern
+	 */
+	public DateNode parse(final CharSequence text, final DateNode target) {
+		if (this.format == null)
+			try {
+				target.setMillis(DateNode.parse(text));
+				return target;
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+
+		if (this.lastText == null || !this.lastText.contentEquals(text)) {
+			this.lastText = text.toString();
+			this.position.setIndex(0);
+			final Date date = this.format.parse(this.lastText, this.position);
+			this.lastTextMatches = date != null && this.position.getIndex() == this.lastText.length();
+			if (this.lastTextMatches)
+				this.lastMillis = date.getTime();
+		}
+		if (!this.lastTextMatches)
+			return null;
+		target.setMillis(this.lastMillis);
+		return target;
+	}
+}
@@ -18,6 +18,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
 
 import eu.stratosphere.nephele.fs.BlockLocation;
 import eu.stratosphere.nephele.fs.FSDataInputStream;
@@ -28,7 +30,12 @@ import eu.stratosphere.nephele.fs.FileSystem;
 import eu.stratosphere.nephele.fs.Path;
 import eu.stratosphere.pact.common.io.statistics.BaseStatistics;
 import eu.stratosphere.sopremo.operator.Name;
+import eu.stratosphere.sopremo.operator.Property;
+import eu.stratosphere.sopremo.type.DateNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.TextNode;
+import eu.stratosphere.util.Equaler;
 
 /**
  * Format for reading and writing json files. The structure of the file naturally translates into the Sopremo data model
@@ -38,8 +45,112 @@ import eu.stratosphere.sopremo.type.IJsonNode;
 @Name(noun = "json")
 public class JsonFormat extends SopremoFormat {
 
+	private String[] dateFields = new String[0];
+
+	private String dateFormat;
+
+	/**
+	 * Sets the fields of top-level objects that contain dates. The text values of these fields are parsed into
+	 * {@link DateNode}s with the {@link #setDateFormat(String) date format}; values that cannot be parsed remain texts.
+	 * 
+	 * @param dateFields
+	 *        the dateFields to set
+	 */
+	@Property
+	@Name(noun = "dates")
+	public void setDateFields(String... dateFields) {
+		if (dateFields == null)
+			throw new NullPointerException("dateFields must not be null");
+
+		this.dateFields = dateFields;
+	}
+
+	/**
+	 * Sets the dateFields to the specified value.
+	 * 
+	 * @param dateFields
+	 *        the dateFields to set
+	 */
+	public JsonFormat withDateFields(String... dateFields) {
+		this.setDateFields(dateFields);
+		return this;
+	}
+
+	/**
+	 * Returns the dateFields.
+	 * 
+	 * @return the dateFields
+	 */
+	public String[] getDateFields() {
+		return this.dateFields;
+	}
+
+	/**
+	 * Sets the pattern of {@link SimpleDateFormat} that is used to parse the date fields in UTC. If no pattern is set,
+	 * the dates are parsed as ISO-8601.
+	 * 
+	 * @param dateFormat
+	 *        the dateFormat to set
+	 */
+	@Property
+	@Name(noun = "dateFormat")
+	public void setDateFormat(String dateFormat) {
+		if (dateFormat != null)
+			// validates the pattern
+			new SimpleDateFormat(dateFormat);
+		this.dateFormat = dateFormat;
+	}
+
+	/**
+	 * Sets the dateFormat to the specified value.
+	 * 
+	 * @param dateFormat
+	 *        the dateFormat to set
+	 */
+	public JsonFormat withDateFormat(String dateFormat) {
+		this.setDateFormat(dateFormat);
+		return this;
+	}
+
+	/**
+	 * Returns the dateFormat.
+	 * 
+	 * @return the dateFormat
+	 */
+	public String getDateFormat() {
+		return this.dateFormat;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		result = prime * result + Arrays.hashCode(this.dateFields);
+		result = prime * result + (this.dateFormat == null ? 0 : this.dateFormat.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		if (this.getClass() != obj.getClass())
+			return false;
+		JsonFormat other = (JsonFormat) obj;
+		return Arrays.equals(this.dateFields, other.dateFields)
+			&& Equaler.SafeEquals.equal(this.dateFormat, other.dateFormat);
+	}
+
 	public static class JsonInputFormat extends SopremoFileInputFormat {
 
+		private String[] dateFields;
+
+		private String dateFormat;
+
+		private transient DateColumnParser dateParser;
+
 		private JsonParser parser;
 
 		@Override
@@ -59,6 +170,7 @@ public class JsonFormat extends SopremoFormat {
 			try {
 				this.parser = new JsonParser(new InputStreamReader(stream, this.getEncoding()));
 				this.parser.setWrappingArraySkipping(true);
+				this.dateParser = this.dateFields.length == 0 ? null : new DateColumnParser(this.dateFormat);
 
 				if (this.parser.checkEnd())
 					this.endReached();
@@ -76,9 +188,22 @@ public class JsonFormat extends SopremoFormat {
 			final IJsonNode value = this.parser.readValueAsTree();
 			if (this.parser.checkEnd())
 				this.endReached();
+			if (this.dateParser != null && value instanceof IObjectNode)
+				this.parseDates((IObjectNode) value);
 			return value;
 		}
 
+		private void parseDates(IObjectNode object) {
+			for (String dateField : this.dateFields) {
+				final IJsonNode fieldValue = object.get(dateField);
+				if (fieldValue instanceof TextNode) {
+					final DateNode date = this.dateParser.parse((TextNode) fieldValue, new DateNode());
+					if (date != null)
+						object.put(dateField, date);
+				}
+			}
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * @see eu.stratosphere.pact.common.io.FileInputFormat#createInputSplits(int)
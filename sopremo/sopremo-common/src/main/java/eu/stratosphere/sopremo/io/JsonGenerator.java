@@ -10,6 +10,7 @@ import java.io.Writer;
 import java.util.IdentityHashMap;
 import java.util.Map;
 
+import eu.stratosphere.sopremo.type.DateNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IObjectNode;
@@ -217,6 +218,21 @@ public class JsonGenerator {
 		}
 	}
 
+	/**
+	 * This class implements the JSON-Serialization for DateNodes as quoted ISO-8601 strings
+	 */
+	private static class DateNodeTypeWriter implements JsonTypeWriter<DateNode> {
+
+		private static DateNodeTypeWriter Instance = new DateNodeTypeWriter();
+
+		@Override
+		public void write(DateNode node, Writer writer) throws IOException {
+			writer.append('\"');
+			node.appendAsString(writer);
+			writer.append('\"');
+		}
+	}
+
 	/**
 	 * This class implements the JSON-Serialization for all IJsonNodes without
 	 * an explicit TypeWriter
@@ -243,8 +259,9 @@ public class JsonGenerator {
 		private static Map<Class<? extends IJsonNode>, JsonTypeWriter<IJsonNode>> writerMap;
 
 		static {
-			writerMap = new IdentityHashMap<Class<? extends IJsonNode>, JsonGenerator.JsonTypeWriter<IJsonNode>>(4);
+			writerMap = new IdentityHashMap<Class<? extends IJsonNode>, JsonGenerator.JsonTypeWriter<IJsonNode>>(5);
 			writerMap.put(TextNode.class, (JsonTypeWriter) TextNodeTypeWriter.Instance);
+			writerMap.put(DateNode.class, (JsonTypeWriter) DateNodeTypeWriter.Instance);
 			writerMap.put(IObjectNode.class, (JsonTypeWriter) ObjectNodeTypeWriter.Instance);
 			writerMap.put(IStreamNode.class, (JsonTypeWriter) ArrayNodeTypeWriter.Instance);
 			writerMap.put(IArrayNode.class, (JsonTypeWriter) ArrayNodeTypeWriter.Instance);
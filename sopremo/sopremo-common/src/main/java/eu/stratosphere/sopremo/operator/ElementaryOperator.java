@@ -30,6 +30,7 @@ import eu.stratosphere.pact.generic.contract.GenericMatchContract;
 import eu.stratosphere.pact.generic.contract.GenericReduceContract;
 import eu.stratosphere.sopremo.EvaluationContext;
 import eu.stratosphere.sopremo.expressions.EvaluationExpression;
+import eu.stratosphere.sopremo.expressions.ExpressionUtil;
 import eu.stratosphere.sopremo.expressions.InputSelection;
 import eu.stratosphere.sopremo.expressions.OrderingExpression;
 import eu.stratosphere.sopremo.expressions.UnevaluableExpression;
@@ -508,6 +509,36 @@ public abstract class ElementaryOperator<Self extends ElementaryOperator<Self>>
 		return allKeys;
 	}
 
+	/**
+	 * Returns all field names that are accessed or created by the expressions of this operator. The field names are
+	 * used to compactly encode the records that are processed by the operator.
+	 * 
+	 * @return the field names used by this operator
+	 */
+	public Set<String> getFieldNames() {
+		final Set<String> fieldNames = new HashSet<String>();
+		for (final EvaluationExpression keyExpression : this.getAllKeyExpressions())
+			ExpressionUtil.collectFieldNames(keyExpression, fieldNames);
+		ExpressionUtil.collectFieldNames(this.resultProjection, fieldNames);
+
+		Class<?> clazz = this.getClass();
+		do {
+			for (final Field field : clazz.getDeclaredFields())
+				if ((field.getModifiers() & Modifier.STATIC) == 0 &&
+					EvaluationExpression.class.isAssignableFrom(field.getType()))
+					try {
+						field.setAccessible(true);
+						final EvaluationExpression expression = (EvaluationExpression) field.get(this);
+						if (expression != null)
+							ExpressionUtil.collectFieldNames(expression, fieldNames);
+					} catch (final IllegalAccessException e) {
+						LOG.warn(String.format("Could not access field %s of class %s: %s", field.getName(),
+							this.getClass().getSimpleName(), e));
+					}
+		} while ((clazz = clazz.getSuperclass()) != ElementaryOperator.class);
+		return fieldNames;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
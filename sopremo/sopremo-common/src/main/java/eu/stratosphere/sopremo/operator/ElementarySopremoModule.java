@@ -251,7 +251,22 @@ public class ElementarySopremoModule extends SopremoModule {
 	 * @return a list of Pact sinks
 	 */
 	public Collection<Contract> assemblePact(final EvaluationContext context) {
-		return new PactAssembler(context).assemble(SopremoRecordLayout.create(this.schema.getKeyExpressions()));
+		return this.assemblePact(context, SopremoRecordLayout.create(this.schema.getKeyExpressions(),
+			this.schema.getFieldNames()));
+	}
+
+	/**
+	 * Assembles the Pacts of the contained Sopremo operators with the given record layout and returns a list of all
+	 * Pact sinks.
+	 * 
+	 * @param context
+	 *        the evaluation context of the Pact contracts
+	 * @param layout
+	 *        the layout of the records that are exchanged between the Pact contracts
+	 * @return a list of Pact sinks
+	 */
+	public Collection<Contract> assemblePact(final EvaluationContext context, final SopremoRecordLayout layout) {
+		return new PactAssembler(context).assemble(layout);
 	}
 
 	/**
@@ -259,10 +274,13 @@ public class ElementarySopremoModule extends SopremoModule {
 	 */
 	public void inferSchema() {
 		final Set<EvaluationExpression> keyExpressions = new HashSet<EvaluationExpression>();
-		for (final ElementaryOperator<?> operator : this.getReachableNodes()) 
+		final Set<String> fieldNames = new HashSet<String>();
+		for (final ElementaryOperator<?> operator : this.getReachableNodes()) {
 			keyExpressions.addAll(operator.getAllKeyExpressions());
+			fieldNames.addAll(operator.getFieldNames());
+		}
 
-		this.schema = new Schema(new ArrayList<EvaluationExpression>(keyExpressions));
+		this.schema = new Schema(new ArrayList<EvaluationExpression>(keyExpressions), fieldNames);
 	}
 
 	/**
@@ -13,6 +13,7 @@ import eu.stratosphere.pact.generic.contract.Contract;
 import eu.stratosphere.sopremo.AbstractSopremoType;
 import eu.stratosphere.sopremo.CoreFunctions;
 import eu.stratosphere.sopremo.EvaluationContext;
+import eu.stratosphere.sopremo.Schema;
 import eu.stratosphere.sopremo.io.Sink;
 import eu.stratosphere.sopremo.packages.EvaluationScope;
 import eu.stratosphere.sopremo.packages.IConstantRegistry;
@@ -37,6 +38,8 @@ public class SopremoPlan extends AbstractSopremoType implements Serializable, Ev
 
 	private SopremoRecordLayout layout;
 
+	private boolean compressingRecords;
+
 	public SopremoPlan() {
 		this.module = new SopremoModule(0, 0);
 		this.context.getFunctionRegistry().put(CoreFunctions.class);
@@ -107,6 +110,26 @@ public class SopremoPlan extends AbstractSopremoType implements Serializable, Ev
 		return this.layout;
 	}
 
+	/**
+	 * Returns true if the records of this plan are compressed when they are spilled or shipped over the network.
+	 * 
+	 * @return true if records are compressed
+	 */
+	public boolean isCompressingRecords() {
+		return this.compressingRecords;
+	}
+
+	/**
+	 * Sets whether the records of this plan are compressed with a fast block codec when they are spilled or shipped
+	 * over the network. Compression trades CPU time for less I/O and is disabled by default.
+	 * 
+	 * @param compressingRecords
+	 *        true if records should be compressed
+	 */
+	public void setCompressingRecords(boolean compressingRecords) {
+		this.compressingRecords = compressingRecords;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
@@ -126,8 +149,10 @@ public class SopremoPlan extends AbstractSopremoType implements Serializable, Ev
 	public Collection<Contract> assemblePact() {
 		final ElementarySopremoModule elementaryModule = this.module.asElementary(this.context);
 		elementaryModule.inferSchema();
-		this.layout = SopremoRecordLayout.create(elementaryModule.getSchema().getKeyExpressions());
-		return elementaryModule.assemblePact(this.context);
+		final Schema schema = elementaryModule.getSchema();
+		this.layout = SopremoRecordLayout.create(schema.getKeyExpressions(), schema.getFieldNames());
+		this.layout.setCompressed(this.compressingRecords);
+		return elementaryModule.assemblePact(this.context, this.layout);
 	}
 
 	/**
@@ -13,6 +13,7 @@ import eu.stratosphere.sopremo.serialization.SopremoRecordLayout;
 import eu.stratosphere.sopremo.type.ArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IStreamNode;
+import eu.stratosphere.sopremo.type.SpillingStreamNode;
 import eu.stratosphere.sopremo.type.StreamNode;
 
 /**
@@ -31,9 +32,9 @@ public abstract class GenericSopremoCoGroup<LeftElem extends IJsonNode, RightEle
 
 	private RecordToJsonIterator<RightElem> cachedIterator2;
 
-	private final StreamNode<LeftElem> leftArray = new StreamNode<LeftElem>();
+	private StreamNode<LeftElem> leftArray;
 
-	private final StreamNode<RightElem> rightArray = new StreamNode<RightElem>();
+	private StreamNode<RightElem> rightArray;
 
 	/**
 	 * This method must be overridden by CoGoup UDFs that want to make use of the combining feature
@@ -86,6 +87,8 @@ public abstract class GenericSopremoCoGroup<LeftElem extends IJsonNode, RightEle
 		this.collector.configure(out, this.context);
 		this.cachedIterator1.setIterator(records1);
 		this.cachedIterator2.setIterator(records2);
+		this.leftArray.setNodeIterator(this.cachedIterator1);
+		this.rightArray.setNodeIterator(this.cachedIterator2);
 
 		try {
 			if (SopremoUtil.DEBUG && SopremoUtil.LOG.isTraceEnabled()) {
@@ -117,14 +120,41 @@ public abstract class GenericSopremoCoGroup<LeftElem extends IJsonNode, RightEle
 		this.cachedIterator1 = new RecordToJsonIterator<LeftElem>();
 		this.cachedIterator2 = new RecordToJsonIterator<RightElem>();
 		SopremoUtil.configureWithTransferredState(this, GenericSopremoCoGroup.class, parameters);
-		this.leftArray.setNodeIterator(this.cachedIterator1);
-		this.rightArray.setNodeIterator(this.cachedIterator2);
+		this.leftArray = this.<LeftElem> createStreamNode(0);
+		this.rightArray = this.<RightElem> createStreamNode(1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.pact.generic.stub.AbstractStub#close()
+	 */
+	@Override
+	public void close() throws Exception {
+		// releases the spill files of SpillingStreamNodes; the nodes are missing if open failed
+		if (this.leftArray != null)
+			this.leftArray.clear();
+		if (this.rightArray != null)
+			this.rightArray.clear();
+		super.close();
 	}
 
 	protected JsonCollector<Out> createCollector(final SopremoRecordLayout layout) {
 		return new JsonCollector<Out>(layout);
 	}
 
+	/**
+	 * Creates the {@link StreamNode} that provides the values of the given input of a group. CoGroup stubs that
+	 * iterate over the values of an input more than once should return a {@link SpillingStreamNode} for that input
+	 * instead of materializing the values.
+	 * 
+	 * @param inputIndex
+	 *        0 for the first and 1 for the second input
+	 * @return the stream node for the values of the input
+	 */
+	protected <T extends IJsonNode> StreamNode<T> createStreamNode(final int inputIndex) {
+		return new StreamNode<T>();
+	}
+
 	/**
 	 * This method must be implemented to provide a user implementation of a CoGroup.
 	 * 
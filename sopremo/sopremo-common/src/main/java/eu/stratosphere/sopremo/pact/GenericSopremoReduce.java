@@ -13,6 +13,7 @@ import eu.stratosphere.sopremo.serialization.SopremoRecordLayout;
 import eu.stratosphere.sopremo.type.ArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IStreamNode;
+import eu.stratosphere.sopremo.type.SpillingStreamNode;
 import eu.stratosphere.sopremo.type.StreamNode;
 
 /**
@@ -28,7 +29,7 @@ public abstract class GenericSopremoReduce<Elem extends IJsonNode, Out extends I
 
 	private RecordToJsonIterator<? extends Elem> iterator;
 
-	private final StreamNode<Elem> array = new StreamNode<Elem>();
+	private StreamNode<Elem> array;
 
 	/*
 	 * (non-Javadoc)
@@ -41,13 +42,33 @@ public abstract class GenericSopremoReduce<Elem extends IJsonNode, Out extends I
 		this.iterator = createIterator();
 		this.collector = createCollector(SopremoEnvironment.getInstance().getLayout());
 		SopremoUtil.configureWithTransferredState(this, GenericSopremoReduce.class, parameters);
-		this.array.setNodeIterator(this.iterator);
+		this.array = createStreamNode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.pact.generic.stub.AbstractStub#close()
+	 */
+	@Override
+	public void close() throws Exception {
+		// releases the spill file of a SpillingStreamNode; the node is missing if open failed
+		if (this.array != null)
+			this.array.clear();
+		super.close();
 	}
 
 	protected JsonCollector<Out> createCollector(final SopremoRecordLayout layout) {
 		return new JsonCollector<Out>(layout);
 	}
 
+	/**
+	 * Creates the {@link StreamNode} that provides the values of a group. Reduce stubs that iterate over the values
+	 * more than once should return a {@link SpillingStreamNode} instead of materializing the values.
+	 */
+	protected StreamNode<Elem> createStreamNode() {
+		return new StreamNode<Elem>();
+	}
+
 	protected RecordToJsonIterator<? extends Elem> createIterator() {
 		return new RecordToJsonIterator<Elem>();
 	}
@@ -76,6 +97,7 @@ public abstract class GenericSopremoReduce<Elem extends IJsonNode, Out extends I
 	public void combine(Iterator<SopremoRecord> records, Collector<SopremoRecord> out) throws Exception {
 		this.collector.configure(out, this.context);
 		this.iterator.setIterator(records);
+		this.array.setNodeIterator(this.iterator);
 
 		try {
 			if (SopremoUtil.DEBUG && SopremoUtil.LOG.isTraceEnabled()) {
@@ -125,6 +147,7 @@ public abstract class GenericSopremoReduce<Elem extends IJsonNode, Out extends I
 	public void reduce(final Iterator<SopremoRecord> records, final Collector<SopremoRecord> out) {
 		this.collector.configure(out, this.context);
 		this.iterator.setIterator(records);
+		this.array.setNodeIterator(this.iterator);
 
 		try {
 			if (SopremoUtil.DEBUG && SopremoUtil.LOG.isTraceEnabled()) {
@@ -34,7 +34,10 @@ import eu.stratosphere.sopremo.EvaluationContext;
 import eu.stratosphere.sopremo.ISopremoType;
 import eu.stratosphere.sopremo.SopremoEnvironment;
 import eu.stratosphere.sopremo.cache.NodeCache;
+import eu.stratosphere.sopremo.expressions.BooleanExpression;
 import eu.stratosphere.sopremo.expressions.EvaluationExpression;
+import eu.stratosphere.sopremo.expressions.ExpressionCompiler;
+import eu.stratosphere.sopremo.expressions.ExpressionOptimizer;
 import eu.stratosphere.sopremo.expressions.UnevaluableExpression;
 import eu.stratosphere.sopremo.function.SopremoFunction;
 import eu.stratosphere.sopremo.serialization.SopremoRecordLayout;
@@ -79,11 +82,15 @@ public class SopremoUtil {
 		for (Class<?> clazz = instance.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
 			for (final Field stubField : clazz.getDeclaredFields())
 				if ((stubField.getModifiers() & (Modifier.TRANSIENT | Modifier.FINAL | Modifier.STATIC)) == 0) {
-					final Object fieldValue = SopremoUtil.getObject(parameters, stubField.getName(), null);
+					Object fieldValue = SopremoUtil.getObject(parameters, stubField.getName(), null);
 					if (fieldValue != null)
 						try {
+							// expressions only evaluated by the stub are replaced by optimized and compiled versions
+							final Class<?> fieldType = stubField.getType();
+							if (fieldType == EvaluationExpression.class || fieldType == BooleanExpression.class)
+								fieldValue = optimizeAndCompile((EvaluationExpression) fieldValue);
 							stubField.setAccessible(true);
-							stubField.set(instance, SopremoUtil.getObject(parameters, stubField.getName(), null));
+							stubField.set(instance, fieldValue);
 						} catch (final Exception e) {
 							LOG.error(String.format("Could not set field %s of class %s: %s",
 								stubField.getName(), clazz, StringUtils.stringifyException(e)));
@@ -94,6 +101,36 @@ public class SopremoUtil {
 		}
 	}
 
+	/**
+	 * Optimizes and compiles the given expression. If the expression cannot be optimized, the given expression is
+	 * compiled unmodified, and if it cannot be compiled, it is returned and interpreted instead.
+	 * 
+	 * @param expression
+	 *        the expression that is only evaluated by the current task
+	 * @return the expression that should be evaluated
+	 */
+	public static EvaluationExpression optimizeAndCompile(final EvaluationExpression expression) {
+		EvaluationExpression optimizedExpression = expression;
+		try {
+			// the optimizer modifies the expression in place, so a failed optimization must not touch the original
+			optimizedExpression = ExpressionOptimizer.INSTANCE.optimize(expression.clone());
+		} catch (final RuntimeException e) {
+			LOG.warn(String.format("Cannot optimize expression %s; falling back to the unoptimized expression: %s",
+				expression, StringUtils.stringifyException(e)));
+		}
+		try {
+			return ExpressionCompiler.INSTANCE.compile(optimizedExpression);
+		} catch (final Exception e) {
+			LOG.warn(String.format("Cannot compile expression %s; falling back to interpretation: %s",
+				optimizedExpression, StringUtils.stringifyException(e)));
+		} catch (final LinkageError e) {
+			// the generated class has been rejected by the class loader
+			LOG.warn(String.format("Cannot compile expression %s; falling back to interpretation: %s",
+				optimizedExpression, StringUtils.stringifyException(e)));
+		}
+		return optimizedExpression;
+	}
+
 	/**
 	 * Transfers the state of an object to the given {@link Configuration}, so that the state can be used to initialize
 	 * a class of the given target class.
@@ -389,7 +426,8 @@ public class SopremoUtil {
 	@SuppressWarnings("unchecked")
 	public static <T> T deserializeInto(Kryo kryo, Input input, T oldNode) {
 		final Registration registration = kryo.readClass(input);
-
+		if (registration == null)
+			return null;
 		final Serializer<T> serializer = registration.getSerializer();
 		if (serializer instanceof ReusingSerializer<?> && registration.getType() == oldNode.getClass())
 			return ((ReusingSerializer<T>) serializer).read(kryo, input, oldNode, registration.getType());
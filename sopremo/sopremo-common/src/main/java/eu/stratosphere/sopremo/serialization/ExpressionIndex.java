@@ -99,6 +99,15 @@ public class ExpressionIndex extends AbstractSopremoType {
 		return this.arrayAccesses.get(index);
 	}
 
+	/**
+	 * Returns true if this index contains expressions that access elements of an array.
+	 * 
+	 * @return true if there are array accesses
+	 */
+	public boolean hasArrayAccesses() {
+		return !this.arrayAccesses.isEmpty();
+	}
+
 	private final static Set<Class<?>> SupportedClasses = new HashSet<Class<?>>();
 
 	static {
@@ -0,0 +1,180 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.serialization;
+
+import java.io.IOException;
+
+/**
+ * A fast block codec in the format of LZF that trades compression ratio for speed. It is used to compress the binary
+ * representation of {@link SopremoRecord}s that are spilled or shipped over the network.<br />
+ * A compressed block consists of literal runs, which start with a control byte below 32 that contains the number of
+ * literals minus one, and back references, which encode the length minus two in the upper three bits of the control
+ * byte (plus an additional byte if all three bits are set) and the distance minus one in the lower five bits of the
+ * control byte and the following byte.
+ */
+final class LZFCodec {
+	private static final int HASH_LOG = 13, HASH_SIZE = 1 << HASH_LOG;
+
+	private static final int MAX_LITERAL = 1 << 5, MAX_DISTANCE = 1 << 13, MAX_LENGTH = (1 << 8) + (1 << 3);
+
+	private static final ThreadLocal<int[]> HASH_TABLE = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[HASH_SIZE];
+		};
+	};
+
+	private LZFCodec() {
+	}
+
+	/**
+	 * Compresses the given bytes into the given output range.
+	 *
+	 * @param in
+	 *        the array that contains the uncompressed bytes
+	 * @param inOffset
+	 *        the offset of the uncompressed bytes
+	 * @param inLength
+	 *        the number of uncompressed bytes
+	 * @param out
+	 *        the array that receives the compressed bytes
+	 * @param outOffset
+	 *        the offset of the compressed bytes
+	 * @param outLength
+	 *        the maximum number of compressed bytes
+	 * @return the number of compressed bytes or -1 if the compressed bytes do not fit into the output range
+	 */
+	public static int compress(final byte[] in, final int inOffset, final int inLength, final byte[] out,
+			final int outOffset, final int outLength) {
+		// the table may contain positions of previous invocations, which are validated below
+		final int[] hashTable = HASH_TABLE.get();
+		final int inEnd = inOffset + inLength, outEnd = outOffset + outLength;
+		int inPos = inOffset, outPos = outOffset, literals = 0;
+		// the control byte of the current literal run is reserved in advance
+		int controlPos = outPos++;
+
+		while (inPos < inEnd) {
+			if (inPos < inEnd - 2) {
+				final int hash = hash(in, inPos);
+				final int reference = hashTable[hash];
+				hashTable[hash] = inPos;
+				final int distance = inPos - reference - 1;
+				if (reference >= inOffset && distance >= 0 && distance < MAX_DISTANCE &&
+					in[reference] == in[inPos] && in[reference + 1] == in[inPos + 1] &&
+					in[reference + 2] == in[inPos + 2]) {
+					final int maxLength = Math.min(inEnd - inPos, MAX_LENGTH);
+					int length = 3;
+					while (length < maxLength && in[reference + length] == in[inPos + length])
+						length++;
+
+					if (literals == 0)
+						outPos--;
+					else
+						out[controlPos] = (byte) (literals - 1);
+					final int encodedLength = length - 2;
+					if (outPos + (encodedLength < 7 ? 2 : 3) > outEnd)
+						return -1;
+					if (encodedLength < 7)
+						out[outPos++] = (byte) ((encodedLength << 5) + (distance >> 8));
+					else {
+						out[outPos++] = (byte) ((7 << 5) + (distance >> 8));
+						out[outPos++] = (byte) (encodedLength - 7);
+					}
+					out[outPos++] = (byte) distance;
+
+					inPos += length;
+					literals = 0;
+					controlPos = outPos++;
+					continue;
+				}
+			}
+
+			if (outPos >= outEnd)
+				return -1;
+			out[outPos++] = in[inPos++];
+			if (++literals == MAX_LITERAL) {
+				out[controlPos] = (byte) (MAX_LITERAL - 1);
+				literals = 0;
+				controlPos = outPos++;
+			}
+		}
+
+		if (literals == 0)
+			outPos--;
+		else
+			out[controlPos] = (byte) (literals - 1);
+		return outPos - outOffset;
+	}
+
+	private static int hash(final byte[] in, final int pos) {
+		final int value = (in[pos] & 0xFF) << 16 | (in[pos + 1] & 0xFF) << 8 | in[pos + 2] & 0xFF;
+		return value * 0x9E3779B1 >>> 32 - HASH_LOG;
+	}
+
+	/**
+	 * Decompresses the given block into the given output range.
+	 *
+	 * @param in
+	 *        the array that contains the compressed bytes
+	 * @param inOffset
+	 *        the offset of the compressed bytes
+	 * @param inLength
+	 *        the number of compressed bytes
+	 * @param out
+	 *        the array that receives the uncompressed bytes
+	 * @param outOffset
+	 *        the offset of the uncompressed bytes
+	 * @param outLength
+	 *        the number of uncompressed bytes
+	 * @throws IOException
+	 *         if the block is corrupt or does not decompress to the given number of bytes
+	 */
+	public static void decompress(final byte[] in, final int inOffset, final int inLength, final byte[] out,
+			final int outOffset, final int outLength) throws IOException {
+		final int inEnd = inOffset + inLength, outEnd = outOffset + outLength;
+		int inPos = inOffset, outPos = outOffset;
+
+		while (inPos < inEnd) {
+			final int control = in[inPos++] & 0xFF;
+			if (control < MAX_LITERAL) {
+				final int literals = control + 1;
+				if (inPos + literals > inEnd || outPos + literals > outEnd)
+					throw new IOException("Corrupt compressed block");
+				System.arraycopy(in, inPos, out, outPos, literals);
+				inPos += literals;
+				outPos += literals;
+			} else {
+				int length = control >> 5;
+				if (length == 7) {
+					if (inPos >= inEnd)
+						throw new IOException("Corrupt compressed block");
+					length += in[inPos++] & 0xFF;
+				}
+				length += 2;
+				if (inPos >= inEnd)
+					throw new IOException("Corrupt compressed block");
+				final int reference = outPos - ((control & 0x1F) << 8 | in[inPos++] & 0xFF) - 1;
+				if (reference < outOffset || outPos + length > outEnd)
+					throw new IOException("Corrupt compressed block");
+				// the ranges may overlap, so the bytes are copied one by one
+				for (int index = 0; index < length; index++)
+					out[outPos++] = out[reference + index];
+			}
+		}
+
+		if (outPos != outEnd)
+			throw new IOException("Corrupt compressed block");
+	}
+}
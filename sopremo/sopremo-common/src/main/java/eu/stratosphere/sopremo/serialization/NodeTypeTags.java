@@ -0,0 +1,115 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.serialization;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.stratosphere.sopremo.type.BigIntegerNode;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DateNode;
+import eu.stratosphere.sopremo.type.DecimalNode;
+import eu.stratosphere.sopremo.type.DoubleArrayNode;
+import eu.stratosphere.sopremo.type.DoubleNode;
+import eu.stratosphere.sopremo.type.IArrayNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.IntArrayNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.LongArrayNode;
+import eu.stratosphere.sopremo.type.LongNode;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.TextNode;
+
+/**
+ * Assigns one-byte tags to the types of {@link IJsonNode}s that are written in front of each node in the binary
+ * representation of a {@link SopremoRecord}.<br />
+ * The built-in node types have fixed tags. Arrays of primitives are tagged with their classes, such that they can
+ * be written without a tag per element. The types of a {@link eu.stratosphere.sopremo.packages.ITypeRegistry}
+ * receive the subsequent tags in the order of the registry, which is the same on all nodes that execute a plan. All
+ * other types are tagged with {@link #UNKNOWN} and need to be written with their Kryo class registration.
+ */
+public final class NodeTypeTags {
+	/**
+	 * The tag of types without a fixed tag.
+	 */
+	public static final int UNKNOWN = 0;
+
+	/**
+	 * The maximum number of types that can be tagged.
+	 */
+	public static final int MAX_TAGS = 256;
+
+	@SuppressWarnings("unchecked")
+	private static final List<Class<? extends IJsonNode>> BUILTIN_TYPES = Arrays.asList(IObjectNode.class,
+		IArrayNode.class, IntNode.class, LongNode.class, DoubleNode.class, BigIntegerNode.class, DecimalNode.class,
+		TextNode.class, BooleanNode.class, NullNode.class, MissingNode.class, IntArrayNode.class, LongArrayNode.class,
+		DoubleArrayNode.class, DateNode.class);
+
+	private final Map<Class<? extends IJsonNode>, Integer> tags =
+		new IdentityHashMap<Class<? extends IJsonNode>, Integer>();
+
+	@SuppressWarnings("unchecked")
+	private final Class<? extends IJsonNode>[] types = new Class[MAX_TAGS];
+
+	private int numTags = UNKNOWN + 1;
+
+	/**
+	 * Initializes NodeTypeTags with the built-in types and the given additional types.
+	 *
+	 * @param additionalTypes
+	 *        the types that are provided by packages
+	 */
+	public NodeTypeTags(List<Class<? extends IJsonNode>> additionalTypes) {
+		for (Class<? extends IJsonNode> type : BUILTIN_TYPES)
+			this.add(type);
+		for (Class<? extends IJsonNode> type : additionalTypes)
+			this.add(type);
+	}
+
+	private void add(Class<? extends IJsonNode> type) {
+		// types beyond the maximum number of tags are written with their class registration
+		if (this.numTags == MAX_TAGS || this.tags.containsKey(type))
+			return;
+		this.tags.put(type, this.numTags);
+		this.types[this.numTags++] = type;
+	}
+
+	/**
+	 * Returns the tag of the given type.
+	 *
+	 * @param type
+	 *        the type of a node
+	 * @return the tag or {@link #UNKNOWN}
+	 */
+	public int getTag(Class<? extends IJsonNode> type) {
+		final Integer tag = this.tags.get(type);
+		return tag == null ? UNKNOWN : tag.intValue();
+	}
+
+	/**
+	 * Returns the type with the given tag.
+	 *
+	 * @param tag
+	 *        a tag other than {@link #UNKNOWN}
+	 * @return the type or null if the tag has not been assigned
+	 */
+	public Class<? extends IJsonNode> getType(int tag) {
+		return this.types[tag];
+	}
+}
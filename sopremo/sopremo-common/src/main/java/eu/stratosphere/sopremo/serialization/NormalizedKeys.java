@@ -0,0 +1,113 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.serialization;
+
+import java.util.Arrays;
+
+import eu.stratosphere.sopremo.type.AbstractJsonNode;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DateNode;
+import eu.stratosphere.sopremo.type.IArrayNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.INumericNode;
+import eu.stratosphere.sopremo.type.TextNode;
+
+/**
+ * Creates order-preserving binary prefixes of {@link IJsonNode}s that can be compared bytewise as unsigned bytes.<br />
+ * The first byte of a normalized key is the type rank of {@link AbstractJsonNode#getTypeRank(IJsonNode)}, which
+ * determines the order of {@link IJsonNode#compareTo(IJsonNode)} for values of different types. All numeric nodes
+ * share one rank and are encoded as sortable double values, since numbers of different types are compared by their
+ * double value. Dates are encoded as sortable epoch milliseconds, text nodes char by char, and arrays by their size
+ * followed by the normalized key of their first element. Types that are not builtin share one rank and are not
+ * encoded further.<br />
+ * The normalized key is only a prefix: if two normalized keys are equal, the nodes have to be compared with
+ * {@link IJsonNode#compareTo(IJsonNode)}.
+ */
+final class NormalizedKeys {
+	/**
+	 * The number of bytes of a normalized key.
+	 */
+	public static final int LENGTH = 16;
+
+	private NormalizedKeys() {
+	}
+
+	/**
+	 * Writes the normalized key of the given node into the target array. Unused bytes are filled with zeros.
+	 *
+	 * @param node
+	 *        the node to normalize
+	 * @param target
+	 *        the target array
+	 * @param offset
+	 *        the offset of the first byte to write
+	 * @param length
+	 *        the number of bytes to write
+	 */
+	public static void putNormalizedKey(final IJsonNode node, final byte[] target, final int offset, final int length) {
+		if (length <= 0)
+			return;
+
+		target[offset] = (byte) AbstractJsonNode.getTypeRank(node);
+		final int end = offset + length;
+		int position = offset + 1;
+		if (node instanceof INumericNode)
+			position = putLong(toSortableBits(((INumericNode) node).getDoubleValue()), target, position, end);
+		else if (node instanceof DateNode)
+			position = putLong(((DateNode) node).getMillis() ^ Long.MIN_VALUE, target, position, end);
+		else if (node instanceof BooleanNode) {
+			if (position < end)
+				target[position++] = (byte) (((BooleanNode) node).getBooleanValue() ? 1 : 0);
+		} else if (node instanceof IArrayNode) {
+			@SuppressWarnings("unchecked")
+			final IArrayNode<IJsonNode> array = (IArrayNode<IJsonNode>) node;
+			position = putInt(array.size(), target, position, end);
+			if (array.size() > 0 && position < end) {
+				putNormalizedKey(array.get(0), target, position, end - position);
+				position = end;
+			}
+		} else if (node instanceof TextNode) {
+			final TextNode text = (TextNode) node;
+			for (int index = 0, count = text.length(); index < count && position < end; index++) {
+				final char ch = text.charAt(index);
+				target[position++] = (byte) (ch >>> 8);
+				if (position < end)
+					target[position++] = (byte) ch;
+			}
+		}
+		Arrays.fill(target, position, end, (byte) 0);
+	}
+
+	/**
+	 * Flips the bits of the double such that the unsigned comparison of the result is consistent with
+	 * {@link Double#compare(double, double)}.
+	 */
+	private static long toSortableBits(final double value) {
+		final long bits = Double.doubleToLongBits(value);
+		return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+	}
+
+	private static int putLong(final long value, final byte[] target, int position, final int end) {
+		for (int shift = 56; shift >= 0 && position < end; shift -= 8)
+			target[position++] = (byte) (value >>> shift);
+		return position;
+	}
+
+	private static int putInt(final int value, final byte[] target, int position, final int end) {
+		for (int shift = 24; shift >= 0 && position < end; shift -= 8)
+			target[position++] = (byte) (value >>> shift);
+		return position;
+	}
+}
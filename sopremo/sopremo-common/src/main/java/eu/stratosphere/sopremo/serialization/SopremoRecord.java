@@ -20,10 +20,17 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javolution.util.FastSet;
 
 import com.esotericsoftware.kryo.DefaultSerializer;
 import com.esotericsoftware.kryo.Kryo;
@@ -33,20 +40,29 @@ import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
+import eu.stratosphere.nephele.services.memorymanager.AbstractPagedInputView;
+import eu.stratosphere.nephele.services.memorymanager.MemorySegment;
 import eu.stratosphere.nephele.types.Record;
 import eu.stratosphere.sopremo.AbstractSopremoType;
 import eu.stratosphere.sopremo.ISopremoType;
 import eu.stratosphere.sopremo.SopremoEnvironment;
 import eu.stratosphere.sopremo.cache.NodeCache;
+import eu.stratosphere.sopremo.expressions.ArrayAccess;
 import eu.stratosphere.sopremo.expressions.EvaluationExpression;
+import eu.stratosphere.sopremo.expressions.ObjectAccess;
+import eu.stratosphere.sopremo.expressions.PathSegmentExpression;
 import eu.stratosphere.sopremo.pact.SopremoUtil;
+import eu.stratosphere.sopremo.type.AbstractPrimitiveArrayNode;
 import eu.stratosphere.sopremo.type.CachingArrayNode;
 import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IObjectNode;
 import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
 import eu.stratosphere.sopremo.type.ObjectNode;
 import eu.stratosphere.sopremo.type.ReusingSerializer;
+import eu.stratosphere.sopremo.type.TextDictionary;
+import eu.stratosphere.sopremo.type.TextNode;
 import eu.stratosphere.sopremo.type.typed.TypedObjectNode;
 
 /**
@@ -61,7 +77,49 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 	 */
 	private static final int MISSING = -1;
 
-	private final transient ByteArrayList binaryRepresentation = new ByteArrayList();
+	/**
+	 * Denotes a path that cannot be resolved on the binary representation and needs to be evaluated on the node.
+	 */
+	private static final int UNRESOLVABLE = -2;
+
+	/**
+	 * Denotes a field that is not contained in an object and thus evaluates to {@link NullNode}.
+	 */
+	private static final int ABSENT_FIELD = -3;
+
+	/**
+	 * The number of bytes of an entry in the offset table of an object or array.
+	 */
+	private static final int OFFSET_SIZE = 4;
+
+	/**
+	 * The minimum size of a binary representation that is compressed if the layout demands compression.
+	 */
+	private static final int MIN_COMPRESSED_SIZE = 64;
+
+	/**
+	 * The binary representation of this record, which may be shared with copies of this record and must thus be
+	 * replaced with {@link #unshareBinaryRepresentation()} before it is changed.
+	 */
+	private transient BinaryRepresentation binaryRepresentation = new BinaryRepresentation();
+
+	/**
+	 * Buffers the compressed binary representation during {@link #write(DataOutput)}.
+	 */
+	private final static ThreadLocal<ByteArrayList> CompressionBuffer = new ThreadLocal<ByteArrayList>() {
+		@Override
+		protected ByteArrayList initialValue() {
+			return new ByteArrayList();
+		};
+	};
+
+	/**
+	 * The external memory that contains the binary representation if this record has been wrapped around serialized
+	 * data or null if the binary representation is stored in {@link #binaryRepresentation}.
+	 */
+	private transient byte[] wrappedMemory;
+
+	private transient int wrappedOffset, wrappedSize;
 
 	private final transient Input input = new Input();
 
@@ -89,7 +147,14 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 
 	private final transient Kryo kryo;
 
-	private final transient int offsets[];
+	private final transient NodeTypeTags nodeTypeTags;
+
+	/**
+	 * The Kryo registrations of the tagged node types; filled lazily.
+	 */
+	private final transient Registration[] registrations = new Registration[NodeTypeTags.MAX_TAGS];
+
+	private final transient int offsets[], keyLengths[], keyHashes[];
 
 	private final transient Map<Class<? extends IJsonNode>, NodeSerializer<IJsonNode>> serializers =
 		new IdentityHashMap<Class<? extends IJsonNode>, NodeSerializer<IJsonNode>>();
@@ -108,14 +173,20 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 	public SopremoRecord(SopremoRecordLayout layout) {
 		this.layout = layout;
 		this.offsets = new int[layout.getNumKeys()];
+		this.keyLengths = new int[layout.getNumKeys()];
+		this.keyHashes = new int[layout.getNumKeys()];
 		this.kryo = SopremoEnvironment.getInstance().getEvaluationContext().getKryo();
+		this.nodeTypeTags = SopremoEnvironment.getInstance().getEvaluationContext().getNodeTypeTags();
 
 		this.serializers.put(IObjectNode.class, (NodeSerializer) new ObjectSerializer());
 		this.serializers.put(IArrayNode.class, (NodeSerializer) new ArraySerializer());
 		this.serializers.put(IJsonNode.class, new PrimitiveSerializer());
+		final TextSerializer textSerializer = new TextSerializer();
+		this.serializers.put(TextNode.class, (NodeSerializer) textSerializer);
 		this.deserializers.put(IObjectNode.class, (NodeDeserializer) new ObjectSerializer());
 		this.deserializers.put(IArrayNode.class, (NodeDeserializer) new CachingArrayDeserializer());
 		this.deserializers.put(IJsonNode.class, new PrimitiveSerializer());
+		this.deserializers.put(TextNode.class, (NodeDeserializer) textSerializer);
 	}
 
 	/*
@@ -132,14 +203,17 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 	}
 
 	/**
-	 * Returns the node.
+	 * Returns the node.<br />
+	 * The node and its nested nodes are reused when the next record is deserialized into this record. Callers that
+	 * retain the node or a part of it beyond the current record, e.g., in an aggregation, must clone it.
 	 * 
 	 * @return the node
 	 */
 	public IJsonNode getNode() {
 		if (this.node == null) {
-			this.input.setBuffer(this.binaryRepresentation.elements(), 0, this.binaryRepresentation.size());
-			final IJsonNode readNode = readRecursively(this.node);
+			this.input.setBuffer(getPayload(), getPayloadStart(), getPayloadStart() + getPayloadSize());
+			// reuses the node of the previously deserialized record
+			final IJsonNode readNode = readRecursively(this.nodeCache);
 			final TypedObjectNode typedNode = this.layout.getTypedNode();
 			if (typedNode != null) {
 				this.node = typedNode;
@@ -152,7 +226,7 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 
 	@SuppressWarnings("unchecked")
 	private IJsonNode readRecursively(final IJsonNode possibleTarget) {
-		final Registration registration = this.kryo.readClass(this.input);
+		final Registration registration = readRegistration();
 		final Class<IJsonNode> type = registration.getType();
 		return this.getDeserializer(type).read(
 			possibleTarget == null || possibleTarget.getType() != type ? null : possibleTarget, registration);
@@ -160,11 +234,32 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 
 	@SuppressWarnings("unchecked")
 	private IJsonNode readRecursively(final NodeCache nodeCache) {
-		final Registration registration = this.kryo.readClass(this.input);
+		final Registration registration = readRegistration();
 		final Class<IJsonNode> type = registration.getType();
 		return this.getDeserializer(type).read(nodeCache.getNode(type), registration);
 	}
 
+	/**
+	 * Reads the tag of the next node and returns the registration of its type. Untagged types are followed by their
+	 * Kryo class registration.
+	 */
+	private Registration readRegistration() {
+		final int tag = this.input.readByte() & 0xFF;
+		if (tag == NodeTypeTags.UNKNOWN)
+			return this.kryo.readClass(this.input);
+		Registration registration = this.registrations[tag];
+		if (registration == null)
+			this.registrations[tag] = registration = this.kryo.getRegistration(this.nodeTypeTags.getType(tag));
+		return registration;
+	}
+
+	private void writeType(final Class<? extends IJsonNode> type) {
+		final int tag = this.nodeTypeTags.getTag(type);
+		this.output.writeByte(tag);
+		if (tag == NodeTypeTags.UNKNOWN)
+			this.kryo.writeClass(this.output, type);
+	}
+
 	// private Class<? extends IJsonNode> getImplementation(Class<? extends IJsonNode> interfaceType) {
 	// if (interfaceType == IObjectNode.class)
 	// return ObjectNode.class;
@@ -192,69 +287,134 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 	 */
 	@Override
 	public void write(DataOutput out) throws IOException {
-		if (this.node != null) {
-			Arrays.fill(this.offsets, MISSING);
-			this.binaryRepresentation.clear();
-			writeRecursivelyToBuffer(this.node, this.layout.getExpressionIndex());
-			this.output.flush();
-			final EvaluationExpression[] calculatedKeyExpressions = this.layout.getCalculatedKeyExpressions();
-			for (int index = 0; index < calculatedKeyExpressions.length; index++) {
-				this.offsets[index + this.layout.getNumDirectDataKeys()] = this.binaryRepresentation.size();
-				final IJsonNode calculatedValue = calculatedKeyExpressions[index].evaluate(this.node);
-				this.kryo.writeClass(this.output, calculatedValue.getType());
-				this.kryo.writeObject(this.output, calculatedValue);
-				this.output.flush();
-			}
-		} else if (SopremoUtil.DEBUG && this.binaryRepresentation.size() == 0)
-			throw new IllegalStateException("Attempt to write zero length binary representation");
+		serializeNode();
 
 		for (int index = 0; index < this.offsets.length; index++) {
 			if (SopremoUtil.DEBUG && this.offsets[index] == 0)
 				throw new IllegalStateException();
 			out.writeInt(this.offsets[index]);
+			out.writeInt(this.keyLengths[index]);
+			out.writeInt(this.keyHashes[index]);
 		}
-		final int size = this.binaryRepresentation.size();
+		final int size = getPayloadSize();
+		if (this.layout.isCompressed() && size >= MIN_COMPRESSED_SIZE && writeCompressed(out, size))
+			return;
 		out.writeInt(size);
-		out.write(this.binaryRepresentation.elements(), 0, size);
+		out.write(getPayload(), getPayloadStart(), size);
+	}
+
+	/**
+	 * Writes the binary representation as the negated uncompressed size, the compressed size, and the compressed bytes
+	 * if the compression saves space.
+	 * 
+	 * @return true if the compressed binary representation has been written
+	 */
+	private boolean writeCompressed(DataOutput out, final int size) throws IOException {
+		final int maxCompressedSize = size - OFFSET_SIZE - 1;
+		final ByteArrayList compressionBuffer = CompressionBuffer.get();
+		compressionBuffer.ensureCapacity(maxCompressedSize);
+		final byte[] buffer = compressionBuffer.elements();
+		final int compressedSize =
+			LZFCodec.compress(getPayload(), getPayloadStart(), size, buffer, 0, maxCompressedSize);
+		if (compressedSize == -1)
+			return false;
+		out.writeInt(-size);
+		out.writeInt(compressedSize);
+		out.write(buffer, 0, compressedSize);
+		return true;
 	}
 
 	void write(Output out) {
+		serializeNode();
+
+		for (int index = 0; index < this.offsets.length; index++) {
+			if (SopremoUtil.DEBUG && this.offsets[index] == 0)
+				throw new IllegalStateException();
+			out.writeInt(this.offsets[index], true);
+			out.writeInt(this.keyLengths[index], true);
+			out.writeInt(this.keyHashes[index]);
+		}
+		final int size = getPayloadSize();
+		out.writeInt(size, true);
+		out.write(getPayload(), getPayloadStart(), size);
+	}
+
+	private void serializeNode() {
 		if (this.node != null) {
 			Arrays.fill(this.offsets, MISSING);
+			Arrays.fill(this.keyLengths, 0);
+			Arrays.fill(this.keyHashes, MissingNode.getInstance().hashCode());
+			// copy-on-write: a changed node is never written into wrapped memory or a shared binary representation
+			this.wrappedMemory = null;
+			unshareBinaryRepresentation();
+			this.binaryRepresentation.clear();
 			writeRecursivelyToBuffer(this.node, this.layout.getExpressionIndex());
 			this.output.flush();
-			
+
 			final EvaluationExpression[] calculatedKeyExpressions = this.layout.getCalculatedKeyExpressions();
 			for (int index = 0; index < calculatedKeyExpressions.length; index++) {
-				this.offsets[index + this.layout.getNumDirectDataKeys()] = this.binaryRepresentation.size();
+				final int keyIndex = index + this.layout.getNumDirectDataKeys();
+				this.offsets[keyIndex] = this.binaryRepresentation.size();
 				final IJsonNode calculatedValue = calculatedKeyExpressions[index].evaluate(this.node);
-				this.kryo.writeClass(this.output, calculatedValue.getType());
-				this.kryo.writeObject(this.output, calculatedValue);
+				writeRecursivelyToBuffer(calculatedValue, null);
 				this.output.flush();
+				this.keyLengths[keyIndex] = this.binaryRepresentation.size() - this.offsets[keyIndex];
+				this.keyHashes[keyIndex] = calculatedValue.hashCode();
 			}
-		} else if (SopremoUtil.DEBUG && this.binaryRepresentation.size() == 0)
+		} else if (SopremoUtil.DEBUG && getPayloadSize() == 0)
 			throw new IllegalStateException("Attempt to write zero length binary representation");
+	}
 
+	/**
+	 * Writes the given key value and stores its offset, length, and hash if the index denotes a key.
+	 */
+	private void writeKeyToBuffer(final IJsonNode value, ExpressionIndex subIndex) {
+		if (subIndex == null || subIndex.getExpression() == null) {
+			writeRecursivelyToBuffer(value, subIndex);
+			return;
+		}
 
-		for (int index = 0; index < this.offsets.length; index++) {
-			if (SopremoUtil.DEBUG && this.offsets[index] == 0)
-				throw new IllegalStateException();
-			out.writeInt(this.offsets[index], true);
+		final int keyIndex = subIndex.getKeyIndex();
+		final int start = position();
+		this.offsets[keyIndex] = start;
+		writeRecursivelyToBuffer(value, subIndex);
+		// nested values of the same key expression may have already replaced the offset
+		if (this.offsets[keyIndex] == start) {
+			this.keyLengths[keyIndex] = position() - start;
+			this.keyHashes[keyIndex] = value.hashCode();
 		}
-		final int size = this.binaryRepresentation.size();
-		out.writeInt(size, true);
-		out.write(this.binaryRepresentation.elements(), 0, size);
 	}
 
 	private void writeRecursivelyToBuffer(final IJsonNode node, ExpressionIndex expressionIndex) {
-		NodeSerializer<IJsonNode> serializer = getSerializer(node.getType());
-		SopremoRecord.this.kryo.writeClass(SopremoRecord.this.output, node.getType());
-		if (node instanceof TypedObjectNode)
+		final Class<? extends IJsonNode> type = getSerializedType(node, expressionIndex);
+		NodeSerializer<IJsonNode> serializer = getSerializer(type);
+		writeType(type);
+		if (node instanceof TypedObjectNode && !isPositional((TypedObjectNode) node))
 			serializer.write(((TypedObjectNode) node).getBackingNode(), expressionIndex);
 		else
 			serializer.write(node, expressionIndex);
 	}
 
+	/**
+	 * Returns true if the declared fields of the given typed node are written positionally, which requires that the
+	 * node has the target type of the layout.
+	 */
+	private boolean isPositional(final TypedObjectNode node) {
+		final TypedObjectNode typedNode = this.layout.getTypedNode();
+		return typedNode != null && typedNode.getClass() == node.getClass();
+	}
+
+	/**
+	 * Returns the type with which the given node is written. Arrays of primitives are written compactly with their
+	 * own type unless they contain keys, which need the offset table of a generic array.
+	 */
+	private Class<? extends IJsonNode> getSerializedType(final IJsonNode node, ExpressionIndex expressionIndex) {
+		if (node instanceof AbstractPrimitiveArrayNode && ((AbstractPrimitiveArrayNode) node).isPrimitive() &&
+			(expressionIndex == null || !expressionIndex.hasArrayAccesses()))
+			return node.getClass();
+		return node.getType();
+	}
+
 	/**
 	 * @param node2
 	 * @return
@@ -288,7 +448,128 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 	}
 
 	private int position() {
-		return this.output.position();
+		// the output flushes into the binary representation when its buffer is full
+		return this.binaryRepresentation.size() + this.output.position();
+	}
+
+	/**
+	 * Writes a placeholder for the offset table of an object or array with the given number of entries and returns
+	 * the position of the table.
+	 */
+	private int reserveOffsetTable(final int size) {
+		final int tablePosition = position();
+		for (int index = 0; index < size; index++)
+			this.output.writeInt(0);
+		return tablePosition;
+	}
+
+	/**
+	 * Overwrites the already written int at the given position in the same big endian format as
+	 * {@link Output#writeInt(int)}.
+	 */
+	private void patchInt(final int position, final int value) {
+		for (int index = 0; index < OFFSET_SIZE; index++)
+			patchByte(position + index, (byte) (value >>> (8 * (OFFSET_SIZE - 1 - index))));
+	}
+
+	private void patchByte(final int position, final byte value) {
+		final int flushed = this.binaryRepresentation.size();
+		if (position < flushed)
+			this.binaryRepresentation.set(position, value);
+		else
+			this.output.getBuffer()[position - flushed] = value;
+	}
+
+	/**
+	 * Resolves the given path of {@link ObjectAccess}es and {@link ArrayAccess}es on the binary representation
+	 * without deserializing the values along the path. The fields of an object are found with a binary search over
+	 * the offset table of the object, elements of an array are directly looked up in the offset table of the array.
+	 * 
+	 * @return the offset of the value, {@link #MISSING} if the path does not exist, {@link #ABSENT_FIELD} if only the
+	 *         last field does not exist, or {@link #UNRESOLVABLE} if the path contains other expressions
+	 */
+	private int getPathOffset(final EvaluationExpression path) {
+		if (path == EvaluationExpression.VALUE)
+			return 0;
+		final boolean isElementAccess = path instanceof ArrayAccess && !((ArrayAccess) path).isSelectingRange();
+		if (!(path instanceof ObjectAccess) && !isElementAccess)
+			return UNRESOLVABLE;
+
+		final int inputOffset = getPathOffset(((PathSegmentExpression) path).getInputExpression());
+		if (inputOffset == ABSENT_FIELD)
+			return MISSING;
+		if (inputOffset < 0)
+			return inputOffset;
+
+		final int payloadStart = getPayloadStart();
+		this.input.setBuffer(getPayload(), payloadStart + inputOffset, payloadStart + getPayloadSize());
+		final Class<?> type = readRegistration().getType();
+		final int start = this.input.position();
+		if (path instanceof ObjectAccess) {
+			if (type != IObjectNode.class)
+				return MISSING;
+			final int fieldPosition = findField(((ObjectAccess) path).getField(), start);
+			return fieldPosition == ABSENT_FIELD ? ABSENT_FIELD : fieldPosition - payloadStart;
+		}
+
+		// the elements of compactly written arrays have no offsets
+		if (AbstractPrimitiveArrayNode.class.isAssignableFrom(type))
+			return UNRESOLVABLE;
+		if (type != IArrayNode.class)
+			return MISSING;
+		final int size = this.input.readInt();
+		int index = ((ArrayAccess) path).getStartIndex();
+		if (index < 0)
+			index += size;
+		if (index < 0 || index >= size)
+			return MISSING;
+		this.input.setPosition(start + OFFSET_SIZE + index * OFFSET_SIZE);
+		return start + this.input.readInt() - payloadStart;
+	}
+
+	/**
+	 * Performs a binary search over the sorted fields of the object starting at the given position.
+	 * 
+	 * @return the position of the field value in the input or {@link #ABSENT_FIELD} if the object does not contain
+	 *         the field
+	 */
+	private int findField(final String fieldName, final int start) {
+		final int size = this.input.readInt();
+		if (size < 0)
+			return findSlot(fieldName, start, ~size);
+		int low = 0, high = size - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			this.input.setPosition(start + OFFSET_SIZE + mid * OFFSET_SIZE);
+			this.input.setPosition(start + this.input.readInt());
+			final int comparison = readFieldName().compareTo(fieldName);
+			if (comparison < 0)
+				low = mid + 1;
+			else if (comparison > 0)
+				high = mid - 1;
+			else
+				return this.input.position();
+		}
+		return ABSENT_FIELD;
+	}
+
+	/**
+	 * Looks up the field in the offset table of a positionally written typed object starting at the given position.
+	 * Undeclared fields are searched in the object that follows the declared fields.
+	 * 
+	 * @return the position of the field value in the input or {@link #ABSENT_FIELD} if the object does not contain
+	 *         the field
+	 */
+	private int findSlot(final String fieldName, final int start, final int slotCount) {
+		final int slot = this.layout.getTypedNode().getSlot(fieldName);
+		this.input.setPosition(start + OFFSET_SIZE + (slot == -1 ? slotCount : slot) * OFFSET_SIZE);
+		final int offset = this.input.readInt();
+		if (offset == 0)
+			return ABSENT_FIELD;
+		if (slot != -1)
+			return start + offset;
+		this.input.setPosition(start + offset);
+		return findField(fieldName, start + offset);
 	}
 
 	private class ObjectSerializer implements NodeSerializer<IObjectNode>, NodeDeserializer<IObjectNode> {
@@ -301,18 +582,48 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		 */
 		@Override
 		public void write(IObjectNode node, ExpressionIndex expressionIndex) {
-			final SortedSet<String> fieldNames = node.getFieldNames();
+			if (node instanceof TypedObjectNode)
+				writeSlots((TypedObjectNode) node, expressionIndex);
+			else
+				writeFields(node, node.getFieldNames(), expressionIndex);
+		}
+
+		/**
+		 * Writes the declared fields of the typed node positionally without their names. The negated number of slots
+		 * is followed by an offset table with one entry per slot and an entry for the trailing object with the
+		 * undeclared fields. The entries of missing fields and of an absent trailing object are 0.
+		 */
+		private void writeSlots(TypedObjectNode node, ExpressionIndex expressionIndex) {
+			final int slotCount = node.getSlotCount();
+			final int start = position();
+			SopremoRecord.this.output.writeInt(~slotCount);
+			final int tablePosition = reserveOffsetTable(slotCount + 1);
+			for (int slot = 0; slot < slotCount; slot++) {
+				final IJsonNode value = node.getSlotValue(slot);
+				if (value != null) {
+					patchInt(tablePosition + slot * OFFSET_SIZE, position() - start);
+					final ExpressionIndex subIndex =
+						expressionIndex == null ? null : expressionIndex.subIndex(node.getSlotName(slot));
+					writeKeyToBuffer(value, subIndex);
+				}
+			}
+			final SortedSet<String> undeclaredFieldNames = node.getUndeclaredFieldNames();
+			if (!undeclaredFieldNames.isEmpty()) {
+				patchInt(tablePosition + slotCount * OFFSET_SIZE, position() - start);
+				writeFields(node, undeclaredFieldNames, expressionIndex);
+			}
+		}
+
+		private void writeFields(IObjectNode node, SortedSet<String> fieldNames, ExpressionIndex expressionIndex) {
+			final int start = position();
 			SopremoRecord.this.output.writeInt(fieldNames.size());
+			int tablePosition = reserveOffsetTable(fieldNames.size());
 			for (String fieldName : fieldNames) {
-				SopremoRecord.this.output.writeString(fieldName);
-				final ExpressionIndex subIndex;
-				if (expressionIndex != null) {
-					subIndex = expressionIndex.subIndex(fieldName);
-					if (subIndex != null && subIndex.getExpression() != null)
-						SopremoRecord.this.offsets[subIndex.getKeyIndex()] = position();
-				} else
-					subIndex = null;
-				writeRecursivelyToBuffer(node.get(fieldName), subIndex);
+				patchInt(tablePosition, position() - start);
+				tablePosition += OFFSET_SIZE;
+				writeFieldName(fieldName);
+				final ExpressionIndex subIndex = expressionIndex == null ? null : expressionIndex.subIndex(fieldName);
+				writeKeyToBuffer(node.get(fieldName), subIndex);
 			}
 		}
 
@@ -324,19 +635,99 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		 */
 		@Override
 		public IObjectNode read(IObjectNode target, Registration registration) {
-			if (target != null)
-				target.clear();
-			else
+			if (target == null)
 				target = new ObjectNode();
 
-			int size = SopremoRecord.this.input.readInt();
-			for (int index = 0; index < size; index++) {
-				final String key = SopremoRecord.this.input.readString();
-				// add caching
-				target.put(key, readRecursively((IJsonNode) null));
+			// performance optimization: reuse the existing values of the fields and only remove obsolete fields
+			final Set<String> obsoleteFieldNames = getObsoleteFieldNames(this.depth++);
+			try {
+				obsoleteFieldNames.addAll(target.getFieldNames());
+				final int size = SopremoRecord.this.input.readInt();
+				if (size < 0)
+					readSlots(target, ~size, obsoleteFieldNames);
+				else
+					readFields(target, size, obsoleteFieldNames);
+				for (String obsoleteFieldName : obsoleteFieldNames)
+					target.remove(obsoleteFieldName);
+			} finally {
+				obsoleteFieldNames.clear();
+				this.depth--;
 			}
 			return target;
 		}
+
+		private void readFields(IObjectNode target, final int size, final Set<String> obsoleteFieldNames) {
+			SopremoRecord.this.input.skip(size * OFFSET_SIZE);
+			for (int index = 0; index < size; index++) {
+				final String key = readFieldName();
+				obsoleteFieldNames.remove(key);
+				final IJsonNode oldValue = target.get(key);
+				target.put(key, readRecursively(oldValue));
+			}
+		}
+
+		/**
+		 * Reads the declared fields of a positionally written typed object with the slot names of the target type of
+		 * the layout, followed by the undeclared fields.
+		 */
+		private void readSlots(IObjectNode target, final int slotCount, final Set<String> obsoleteFieldNames) {
+			final Input input = SopremoRecord.this.input;
+			final TypedObjectNode typedNode = SopremoRecord.this.layout.getTypedNode();
+			final int tablePosition = input.position(), start = tablePosition - OFFSET_SIZE;
+			input.setPosition(tablePosition + slotCount * OFFSET_SIZE);
+			final int fieldsOffset = input.readInt();
+			// the values are written in the order of the slots, so the end of the last value ends the object
+			int end = input.position();
+			for (int slot = 0; slot < slotCount; slot++) {
+				input.setPosition(tablePosition + slot * OFFSET_SIZE);
+				final int offset = input.readInt();
+				if (offset != 0) {
+					final String key = typedNode.getSlotName(slot);
+					obsoleteFieldNames.remove(key);
+					input.setPosition(start + offset);
+					final IJsonNode oldValue = target.get(key);
+					target.put(key, readRecursively(oldValue));
+					end = input.position();
+				}
+			}
+			if (fieldsOffset == 0)
+				input.setPosition(end);
+			else {
+				input.setPosition(start + fieldsOffset);
+				readFields(target, input.readInt(), obsoleteFieldNames);
+			}
+		}
+
+		/**
+		 * The field names of the objects that are currently deserialized; one set per nesting level.
+		 */
+		private final List<Set<String>> obsoleteFieldNamesPerDepth = new ArrayList<Set<String>>();
+
+		private int depth;
+
+		private Set<String> getObsoleteFieldNames(int depth) {
+			if (depth == this.obsoleteFieldNamesPerDepth.size())
+				this.obsoleteFieldNamesPerDepth.add(new FastSet<String>());
+			return this.obsoleteFieldNamesPerDepth.get(depth);
+		}
+	}
+
+	/**
+	 * Writes the id of the field name in the dictionary of the layout shifted by one or 0 followed by the full name
+	 * for unknown field names.
+	 */
+	private void writeFieldName(String fieldName) {
+		final int fieldNameId = this.layout.getFieldNameId(fieldName);
+		this.output.writeInt(fieldNameId + 1, true);
+		if (fieldNameId == SopremoRecordLayout.UNKNOWN_FIELD_NAME)
+			this.output.writeString(fieldName);
+	}
+
+	private String readFieldName() {
+		final int fieldNameId = this.input.readInt(true) - 1;
+		if (fieldNameId == SopremoRecordLayout.UNKNOWN_FIELD_NAME)
+			return this.input.readString();
+		return this.layout.getFieldName(fieldNameId);
 	}
 
 	private class CachingArrayDeserializer implements NodeDeserializer<CachingArrayNode<IJsonNode>> {
@@ -354,6 +745,7 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 				target = new CachingArrayNode<IJsonNode>();
 
 			int size = SopremoRecord.this.input.readInt();
+			SopremoRecord.this.input.skip(size * OFFSET_SIZE);
 			target.clear();
 			for (int index = 0; index < size; index++)
 				target.add(readRecursively(target.getUnusedNode()));
@@ -372,16 +764,14 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		@Override
 		public void write(IArrayNode<IJsonNode> node, ExpressionIndex expressionIndex) {
 			final int size = node.size();
+			final int start = position();
 			SopremoRecord.this.output.writeInt(size);
+			final int tablePosition = reserveOffsetTable(size);
 			for (int index = 0; index < size; index++) {
-				final ExpressionIndex subIndex;
-				if (expressionIndex != null) {
-					subIndex = getSubIndex(expressionIndex, size, index);
-					if (subIndex != null && subIndex.getExpression() != null)
-						SopremoRecord.this.offsets[subIndex.getKeyIndex()] = position();
-				} else
-					subIndex = null;
-				writeRecursivelyToBuffer(node.get(index), subIndex);
+				patchInt(tablePosition + index * OFFSET_SIZE, position() - start);
+				final ExpressionIndex subIndex =
+					expressionIndex == null ? null : getSubIndex(expressionIndex, size, index);
+				writeKeyToBuffer(node.get(index), subIndex);
 			}
 		}
 
@@ -423,30 +813,114 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		}
 	}
 
+	/**
+	 * Writes texts as the ids of their dictionary values if the record has a {@link TextDictionary}.
+	 */
+	private class TextSerializer implements NodeSerializer<TextNode>, NodeDeserializer<TextNode> {
+		private final TextNode.TextNodeSerializer serializer =
+			(TextNode.TextNodeSerializer) SopremoRecord.this.kryo.getRegistration(TextNode.class).getSerializer();
+
+		/*
+		 * (non-Javadoc)
+		 * @see
+		 * eu.stratosphere.sopremo.serialization.SopremoRecord.NodeSerializer#write(eu.stratosphere.sopremo.type.IJsonNode
+		 * , eu.stratosphere.sopremo.serialization.ExpressionIndex)
+		 */
+		@Override
+		public void write(TextNode node, ExpressionIndex expressionIndex) {
+			this.serializer.write(SopremoRecord.this.output, node, SopremoRecord.this.textDictionary);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see
+		 * eu.stratosphere.sopremo.serialization.SopremoRecord.NodeSerializer#read(eu.stratosphere.sopremo.type.IJsonNode
+		 * , com.esotericsoftware.kryo.Registration)
+		 */
+		@Override
+		public TextNode read(TextNode target, Registration registration) {
+			return this.serializer.read(SopremoRecord.this.input, target, SopremoRecord.this.textDictionary);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see eu.stratosphere.nephele.types.Record#read(java.io.DataInput)
 	 */
 	@Override
 	public void read(DataInput in) throws IOException {
+		readPayload(in, readHeader(in));
+	}
+
+	private void readPayload(DataInput in, final int size) throws IOException {
+		this.wrappedMemory = null;
+		unshareBinaryRepresentation();
+		if (size >= 0) {
+			this.binaryRepresentation.size(size);
+			in.readFully(this.binaryRepresentation.elements(), 0, size);
+		} else {
+			// compressed binary representation; the compressed bytes are buffered behind the uncompressed bytes
+			final int uncompressedSize = -size, compressedSize = in.readInt();
+			this.binaryRepresentation.size(uncompressedSize + compressedSize);
+			final byte[] buffer = this.binaryRepresentation.elements();
+			in.readFully(buffer, uncompressedSize, compressedSize);
+			LZFCodec.decompress(buffer, uncompressedSize, compressedSize, buffer, 0, uncompressedSize);
+			this.binaryRepresentation.size(uncompressedSize);
+		}
+	}
+
+	/**
+	 * Reads the header and only the part of the binary representation that contains the given keys. The remaining
+	 * bytes are not consumed from the input, so the record must only be used to access these keys afterwards.
+	 * Compressed records are always read completely.
+	 * 
+	 * @param in
+	 *        the input positioned at the beginning of a record
+	 * @param keyIndices
+	 *        the indices of the keys that need to be accessed
+	 */
+	void readKeys(DataInput in, int[] keyIndices) throws IOException {
+		final int size = readHeader(in);
+		if (size < 0) {
+			readPayload(in, size);
+			return;
+		}
+		int end = 0;
+		for (int index = 0; index < keyIndices.length; index++) {
+			final int keyIndex = keyIndices[index];
+			if (keyIndex == SopremoRecordLayout.VALUE_INDEX)
+				end = size;
+			else if (this.offsets[keyIndex] != MISSING)
+				end = Math.max(end, this.offsets[keyIndex] + this.keyLengths[keyIndex]);
+		}
+		this.wrappedMemory = null;
+		unshareBinaryRepresentation();
+		this.binaryRepresentation.size(end);
+		in.readFully(this.binaryRepresentation.elements(), 0, end);
+	}
+
+	private int readHeader(DataInput in) throws IOException {
 		this.node = null;
 		for (int index = 0; index < this.offsets.length; index++) {
 			this.offsets[index] = in.readInt();
+			this.keyLengths[index] = in.readInt();
+			this.keyHashes[index] = in.readInt();
 			if (SopremoUtil.DEBUG && this.offsets[index] == 0)
 				throw new IllegalStateException("Attempt to read zero offset");
 		}
 
 		final int size = in.readInt();
-		if (SopremoUtil.DEBUG && size <= 0)
+		if (SopremoUtil.DEBUG && size == 0)
 			throw new IllegalStateException("Attempt to read zero length binary representation");
-		this.binaryRepresentation.size(size);
-		in.readFully(this.binaryRepresentation.elements(), 0, size);
+		return size;
 	}
 
 	void read(Input in) {
 		this.node = null;
 		for (int index = 0; index < this.offsets.length; index++) {
 			this.offsets[index] = in.readInt(true);
+			this.keyLengths[index] = in.readInt(true);
+			this.keyHashes[index] = in.readInt();
 			if (SopremoUtil.DEBUG && this.offsets[index] == 0)
 				throw new IllegalStateException("Attempt to read zero offset");
 		}
@@ -454,46 +928,225 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		final int size = in.readInt(true);
 		if (SopremoUtil.DEBUG && size <= 0)
 			throw new IllegalStateException("Attempt to read zero length binary representation");
+		this.wrappedMemory = null;
+		unshareBinaryRepresentation();
 		this.binaryRepresentation.size(size);
 		in.read(this.binaryRepresentation.elements(), 0, size);
 	}
 
+	/**
+	 * Lets this record directly access the serialized record at the current position of the given input if the input
+	 * is a paged view and the record is completely contained in its current memory segment. The input is not
+	 * advanced.
+	 * 
+	 * @param in
+	 *        the input positioned at the beginning of a record
+	 * @return the number of bytes of the record or -1 if the record cannot be wrapped; in that case, the record has to
+	 *         be read with {@link #read(DataInput)}
+	 * @throws IOException
+	 *         if the record is compressed and cannot be decompressed
+	 */
+	int wrap(DataInput in) throws IOException {
+		if (!(in instanceof AbstractPagedInputView))
+			return -1;
+		final AbstractPagedInputView pagedInput = (AbstractPagedInputView) in;
+		final MemorySegment segment = pagedInput.getCurrentSegment();
+		if (segment == null)
+			return -1;
+		return wrap(segment, pagedInput.getCurrentPositionInSegment(), pagedInput.getCurrentSegmentLimit());
+	}
+
+	/**
+	 * Lets this record directly access the serialized record at the given position in the memory segment instead of
+	 * copying the binary representation as {@link #read(DataInput)} does. The record must not be accessed anymore after
+	 * the memory segment has been changed unless {@link #detach()} has been invoked before.
+	 * 
+	 * @param segment
+	 *        the memory segment that contains a record in the format of {@link #write(DataOutput)}
+	 * @param offset
+	 *        the offset of the record in the segment
+	 * @param limit
+	 *        the position after the last valid byte in the segment
+	 * @return the number of bytes of the record or -1 if the record is not completely contained in the segment; in
+	 *         that case, the record has to be read with {@link #read(DataInput)}
+	 * @throws IOException
+	 *         if the record is compressed and cannot be decompressed
+	 */
+	public int wrap(MemorySegment segment, int offset, int limit) throws IOException {
+		if (offset >= limit)
+			return -1;
+		final ByteBuffer buffer = segment.wrap(offset, limit - offset);
+		if (!buffer.hasArray())
+			return -1;
+		return wrap(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+	}
+
+	/**
+	 * Lets this record directly access the serialized record at the given position in the byte array instead of
+	 * copying the binary representation as {@link #read(DataInput)} does. The record must not be accessed anymore after
+	 * the array has been changed unless {@link #detach()} has been invoked before.<br />
+	 * Compressed records are decompressed into the own buffer of this record and do not reference the array.
+	 * 
+	 * @param memory
+	 *        the array that contains a record in the format of {@link #write(DataOutput)}
+	 * @param offset
+	 *        the offset of the record in the array
+	 * @param length
+	 *        the number of accessible bytes starting at the offset
+	 * @return the number of bytes of the record or -1 if the record is not completely contained in the given range;
+	 *         in that case, the record has to be read with {@link #read(DataInput)}
+	 * @throws IOException
+	 *         if the record is compressed and cannot be decompressed
+	 */
+	public int wrap(byte[] memory, int offset, int length) throws IOException {
+		final int headerSize = (3 * this.offsets.length + 1) * OFFSET_SIZE;
+		if (length < headerSize)
+			return -1;
+		this.input.setBuffer(memory, offset + headerSize - OFFSET_SIZE, offset + headerSize);
+		final int size = this.input.readInt();
+		int compressedSize = 0;
+		if (size >= 0) {
+			if (length < headerSize + size)
+				return -1;
+		} else {
+			if (length < headerSize + OFFSET_SIZE)
+				return -1;
+			this.input.setBuffer(memory, offset + headerSize, offset + headerSize + OFFSET_SIZE);
+			compressedSize = this.input.readInt();
+			if (length < headerSize + OFFSET_SIZE + compressedSize)
+				return -1;
+		}
+
+		this.input.setBuffer(memory, offset, offset + headerSize);
+		for (int index = 0; index < this.offsets.length; index++) {
+			this.offsets[index] = this.input.readInt();
+			this.keyLengths[index] = this.input.readInt();
+			this.keyHashes[index] = this.input.readInt();
+		}
+		this.node = null;
+		if (size < 0) {
+			this.wrappedMemory = null;
+			unshareBinaryRepresentation();
+			this.binaryRepresentation.size(-size);
+			LZFCodec.decompress(memory, offset + headerSize + OFFSET_SIZE, compressedSize,
+				this.binaryRepresentation.elements(), 0, -size);
+			return headerSize + OFFSET_SIZE + compressedSize;
+		}
+		this.wrappedMemory = memory;
+		this.wrappedOffset = offset + headerSize;
+		this.wrappedSize = size;
+		return headerSize + size;
+	}
+
+	/**
+	 * Copies the binary representation of a record that wraps external memory into the own buffer of this record,
+	 * such that the record remains valid when the external memory is reused.
+	 */
+	public void detach() {
+		if (this.wrappedMemory != null) {
+			unshareBinaryRepresentation();
+			this.binaryRepresentation.size(this.wrappedSize);
+			System.arraycopy(this.wrappedMemory, this.wrappedOffset, this.binaryRepresentation.elements(), 0,
+				this.wrappedSize);
+			this.wrappedMemory = null;
+		}
+	}
+
+	/**
+	 * Replaces the binary representation with a new one if it is shared with copies of this record, such that it can
+	 * be changed in place. The content of the new binary representation is undefined.
+	 */
+	private void unshareBinaryRepresentation() {
+		if (this.binaryRepresentation.references.get() > 1) {
+			this.binaryRepresentation.references.decrementAndGet();
+			this.binaryRepresentation = new BinaryRepresentation();
+		}
+	}
+
+	/**
+	 * A binary representation that counts the records that share it.
+	 */
+	private static final class BinaryRepresentation extends ByteArrayList {
+		private static final long serialVersionUID = -1853917455467271473L;
+
+		private final AtomicInteger references = new AtomicInteger(1);
+	}
+
+	/**
+	 * Returns the bytes that contain the binary representation starting at {@link #getPayloadStart()}.
+	 */
+	private byte[] getPayload() {
+		return this.wrappedMemory != null ? this.wrappedMemory : this.binaryRepresentation.elements();
+	}
+
+	private int getPayloadStart() {
+		return this.wrappedMemory != null ? this.wrappedOffset : 0;
+	}
+
+	private int getPayloadSize() {
+		return this.wrappedMemory != null ? this.wrappedSize : this.binaryRepresentation.size();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see com.esotericsoftware.kryo.KryoCopyable#copy(com.esotericsoftware.kryo.Kryo)
 	 */
 	@Override
 	public SopremoRecord copy(Kryo kryo) {
-		final SopremoRecord sopremoRecord = new SopremoRecord();
-		if (this.node == null)
-			sopremoRecord.node = null;
-		else
-			sopremoRecord.node = SopremoUtil.copyInto(this.node, this.nodeCache);
-		sopremoRecord.binaryRepresentation.clear();
-		sopremoRecord.binaryRepresentation.addAll(this.binaryRepresentation);
+		final SopremoRecord sopremoRecord = new SopremoRecord(this.layout);
+		copyTo(sopremoRecord);
 		return sopremoRecord;
 	}
 
+	/**
+	 * Returns the value of the given expression. If the record is serialized and the expression is neither a key of
+	 * the layout nor a path of {@link ObjectAccess}es and {@link ArrayAccess}es, the record is deserialized.
+	 */
 	public IJsonNode getKey(EvaluationExpression expression, IJsonNode target) {
 		if (this.node == null) {
-			int offset = getKeyOffset(this.layout.getKeyIndex(expression));
-			if (offset < 0)
+			final int offset = getExpressionOffset(expression);
+			switch (offset) {
+			case MISSING:
 				return MissingNode.getInstance();
-			return getValueAtOffset(offset, target);
+			case ABSENT_FIELD:
+				return NullNode.getInstance();
+			case UNRESOLVABLE:
+				return expression.evaluate(getNode());
+			default:
+				return getValueAtOffset(offset, target);
+			}
 		}
 		return expression.evaluate(this.node);
 	}
 
+	/**
+	 * Returns the value of the given expression. If the record is serialized and the expression is neither a key of
+	 * the layout nor a path of {@link ObjectAccess}es and {@link ArrayAccess}es, the record is deserialized.
+	 */
 	public IJsonNode getKey(EvaluationExpression expression, NodeCache nodeCache) {
 		if (this.node == null) {
-			int offset = getKeyOffset(this.layout.getKeyIndex(expression));
-			if (offset == MISSING)
+			final int offset = getExpressionOffset(expression);
+			switch (offset) {
+			case MISSING:
 				return MissingNode.getInstance();
-			return getValueAtOffset(offset, nodeCache);
+			case ABSENT_FIELD:
+				return NullNode.getInstance();
+			case UNRESOLVABLE:
+				return expression.evaluate(getNode());
+			default:
+				return getValueAtOffset(offset, nodeCache);
+			}
 		}
 		return expression.evaluate(this.node);
 	}
 
+	private int getExpressionOffset(EvaluationExpression expression) {
+		final int keyIndex = this.layout.findKeyIndex(expression);
+		if (keyIndex == SopremoRecordLayout.UNKNOWN_KEY_EXPRESSION)
+			return getPathOffset(expression);
+		return getKeyOffset(keyIndex);
+	}
+
 	public IJsonNode getKey(int expressionIndex, IJsonNode target) {
 		if (this.node == null) {
 			int offset = getKeyOffset(expressionIndex);
@@ -520,17 +1173,57 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		return this.offsets[expressionIndex];
 	}
 
+	/**
+	 * Returns the number of bytes of the serialized key with the given index.
+	 */
+	public int getKeyLength(int expressionIndex) {
+		if (expressionIndex == SopremoRecordLayout.VALUE_INDEX)
+			return getPayloadSize();
+		return this.keyLengths[expressionIndex];
+	}
+
+	/**
+	 * Returns the hash code of the key with the given index. For serialized records, the hash code has been computed
+	 * during serialization and is stored in the header, such that the key does not need to be deserialized.
+	 */
+	public int getKeyHash(int expressionIndex) {
+		if (this.node != null || expressionIndex == SopremoRecordLayout.VALUE_INDEX)
+			return getKey(expressionIndex, this.nodeCache).hashCode();
+		return this.keyHashes[expressionIndex];
+	}
+
+	/**
+	 * Checks whether the serialized key with the given index is bytewise equal to the key of the other record. Equal
+	 * bytes imply equal keys but keys with different bytes might still be equal (e.g., numbers of different types).
+	 * Both records must be serialized.
+	 */
+	boolean hasEqualKeyBytes(SopremoRecord other, int expressionIndex) {
+		final int offset1 = getKeyOffset(expressionIndex), offset2 = other.getKeyOffset(expressionIndex);
+		if (offset1 == MISSING || offset2 == MISSING)
+			return offset1 == offset2;
+		final int length = getKeyLength(expressionIndex);
+		if (length != other.getKeyLength(expressionIndex))
+			return false;
+
+		final byte[] bytes1 = getPayload(), bytes2 = other.getPayload();
+		final int start1 = getPayloadStart() + offset1, start2 = other.getPayloadStart() + offset2;
+		for (int index = 0; index < length; index++)
+			if (bytes1[start1 + index] != bytes2[start2 + index])
+				return false;
+		return true;
+	}
+
 	public IJsonNode getValueAtOffset(int offset, IJsonNode target) {
 		if (offset == 0)
 			return getNode();
-		this.input.setBuffer(this.binaryRepresentation.elements(), offset, this.binaryRepresentation.size());
+		this.input.setBuffer(getPayload(), getPayloadStart() + offset, getPayloadStart() + getPayloadSize());
 		return readRecursively(target);
 	}
 
 	public IJsonNode getValueAtOffset(int offset, NodeCache nodeCache) {
 		if (offset == 0)
 			return getNode();
-		this.input.setBuffer(this.binaryRepresentation.elements(), offset, this.binaryRepresentation.size());
+		this.input.setBuffer(getPayload(), getPayloadStart() + offset, getPayloadStart() + getPayloadSize());
 		return readRecursively(nodeCache);
 	}
 
@@ -612,6 +1305,30 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 		return this.layout;
 	}
 
+	private transient TextDictionary textDictionary;
+
+	/**
+	 * Returns the dictionary whose ids are serialized instead of the texts.
+	 * 
+	 * @return the text dictionary or null
+	 */
+	public TextDictionary getTextDictionary() {
+		return this.textDictionary;
+	}
+
+	/**
+	 * Sets the dictionary whose ids are serialized instead of the texts that refer to it. The ids are only valid in
+	 * the task that owns the dictionary, so that records with a dictionary must be read by the same task with the same
+	 * dictionary, e.g., when they are spilled to disk. Records that are sent to other tasks must not have a
+	 * dictionary.
+	 * 
+	 * @param textDictionary
+	 *        the text dictionary or null to serialize all texts with their characters
+	 */
+	public void setTextDictionary(TextDictionary textDictionary) {
+		this.textDictionary = textDictionary;
+	}
+
 	/**
 	 * Sets the layout to the specified value.
 	 * 
@@ -626,19 +1343,32 @@ public final class SopremoRecord extends AbstractSopremoType implements ISopremo
 	}
 
 	/**
+	 * Lets the given record share the binary representation of this record in constant time. Both records replace the
+	 * shared binary representation as soon as they are changed (copy-on-write). A record that has not been serialized
+	 * yet is serialized once, such that the copy does not need a deep copy of the node.
+	 * 
 	 * @param to
+	 *        the record that becomes a copy of this record
 	 */
 	public void copyTo(SopremoRecord to) {
-		if (this.binaryRepresentation.size() > 0) {
-			to.binaryRepresentation.clear();
-			to.binaryRepresentation.addElements(0, this.binaryRepresentation.elements(), 0,
-				this.binaryRepresentation.size());
-			System.arraycopy(this.offsets, 0, to.offsets, 0, this.offsets.length);
-			to.node = null;
-		} else {
-			to.binaryRepresentation.clear();
-			to.node = this.node.clone();
+		if (this.node != null)
+			serializeNode();
+		else
+			// wrapped memory may be reused independently of the copy
+			detach();
+
+		if (to.binaryRepresentation != this.binaryRepresentation) {
+			to.binaryRepresentation.references.decrementAndGet();
+			this.binaryRepresentation.references.incrementAndGet();
+			to.binaryRepresentation = this.binaryRepresentation;
 		}
+		to.wrappedMemory = null;
+		// the shared binary representation may contain dictionary ids
+		to.textDictionary = this.textDictionary;
+		System.arraycopy(this.offsets, 0, to.offsets, 0, this.offsets.length);
+		System.arraycopy(this.keyLengths, 0, to.keyLengths, 0, this.keyLengths.length);
+		System.arraycopy(this.keyHashes, 0, to.keyHashes, 0, this.keyHashes.length);
+		to.node = null;
 	}
 
 	public IJsonNode getKey(EvaluationExpression expression) {
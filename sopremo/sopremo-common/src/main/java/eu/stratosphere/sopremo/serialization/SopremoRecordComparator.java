@@ -32,6 +32,10 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 
 	private final NodeCache[] nodeCache1, nodeCache2;
 
+	private final NodeCache normalizationCache = new NodeCache(CachingNodeFactory.getInstance());
+
+	private final byte[] normalizedKey = new byte[NormalizedKeys.LENGTH];
+
 	private final IJsonNode[] keys, keys2;
 
 	private final SopremoRecord temp1, temp2;
@@ -92,11 +96,36 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 	 */
 	@Override
 	public int hash(SopremoRecord record) {
-		final int prime = 37;
-		int hash = prime;
-		for (int index = 0; index < this.nodeCache2.length; index++)
-			hash = hash + prime * record.getKey(this.keyExpressionIndices[index], this.nodeCache2[index]).hashCode();
-		return hash;
+		int hash = HASH_SEED;
+		for (int index = 0; index < this.keyExpressionIndices.length; index++)
+			hash = combineHash(hash, record.getKeyHash(this.keyExpressionIndices[index]));
+		return finalizeHash(hash, this.keyExpressionIndices.length);
+	}
+
+	private static final int HASH_SEED = 0x9747b28c;
+
+	/**
+	 * Mixes the hash of a key into the combined hash with a round of MurmurHash3.
+	 */
+	private static int combineHash(int hash, int keyHash) {
+		int k = keyHash * 0xcc9e2d51;
+		k = Integer.rotateLeft(k, 15);
+		k *= 0x1b873593;
+		final int h = Integer.rotateLeft(hash ^ k, 13);
+		return h * 5 + 0xe6546b64;
+	}
+
+	/**
+	 * Applies the finalization of MurmurHash3 to spread the bits of the combined hash.
+	 */
+	private static int finalizeHash(int hash, int numKeys) {
+		int h = hash ^ numKeys;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
 	}
 
 	/*
@@ -145,12 +174,19 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 	 */
 	@Override
 	public int compare(DataInputView firstSource, DataInputView secondSource) throws IOException {
-		this.temp1.read(firstSource);
-		this.temp2.read(secondSource);
+		// access the records in place if possible; otherwise only read the header and the key bytes
+		if (this.temp1.wrap(firstSource) == -1)
+			this.temp1.readKeys(firstSource, this.keyExpressionIndices);
+		if (this.temp2.wrap(secondSource) == -1)
+			this.temp2.readKeys(secondSource, this.keyExpressionIndices);
 
 		for (int index = 0; index < this.keyExpressionIndices.length; index++) {
-			final IJsonNode k1 = this.temp1.getKey(this.keyExpressionIndices[index], this.nodeCache1[index]);
-			final IJsonNode k2 = this.temp2.getKey(this.keyExpressionIndices[index], this.nodeCache2[index]);
+			final int keyIndex = this.keyExpressionIndices[index];
+			if (this.temp1.hasEqualKeyBytes(this.temp2, keyIndex))
+				continue;
+
+			final IJsonNode k1 = this.temp1.getKey(keyIndex, this.nodeCache1[index]);
+			final IJsonNode k2 = this.temp2.getKey(keyIndex, this.nodeCache2[index]);
 
 			final int comparison = k1.compareTo(k2);
 			if (comparison != 0)
@@ -165,7 +201,7 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 	 */
 	@Override
 	public boolean supportsNormalizedKey() {
-		return false;
+		return this.keyExpressionIndices.length > 0;
 	}
 
 	/*
@@ -183,7 +219,7 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 	 */
 	@Override
 	public int getNormalizeKeyLen() {
-		return 0;
+		return NormalizedKeys.LENGTH;
 	}
 
 	/*
@@ -192,14 +228,25 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 	 */
 	@Override
 	public boolean isNormalizedKeyPrefixOnly(int keyBytes) {
-		return false;
+		// only the first key is normalized and even that normalization is lossy for most types
+		return true;
 	}
 
-	/* (non-Javadoc)
-	 * @see eu.stratosphere.pact.generic.types.TypeComparator#putNormalizedKey(java.lang.Object, eu.stratosphere.nephele.services.memorymanager.MemorySegment, int, int)
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.pact.generic.types.TypeComparator#putNormalizedKey(java.lang.Object,
+	 * eu.stratosphere.nephele.services.memorymanager.MemorySegment, int, int)
 	 */
 	@Override
 	public void putNormalizedKey(SopremoRecord record, MemorySegment target, int offset, int numBytes) {
+		final IJsonNode key = record.getKey(this.keyExpressionIndices[0], this.normalizationCache);
+		NormalizedKeys.putNormalizedKey(key, this.normalizedKey, 0, this.normalizedKey.length);
+
+		final int normalizedBytes = Math.min(numBytes, this.normalizedKey.length);
+		for (int index = 0; index < normalizedBytes; index++)
+			target.put(offset + index, this.normalizedKey[index]);
+		for (int index = normalizedBytes; index < numBytes; index++)
+			target.put(offset + index, (byte) 0);
 	}
 
 	/*
@@ -226,7 +273,7 @@ public final class SopremoRecordComparator extends TypeComparator<SopremoRecord>
 	 */
 	@Override
 	public boolean invertNormalizedKey() {
-		return false;
+		return !this.ascending[0];
 	}
 
 	/*
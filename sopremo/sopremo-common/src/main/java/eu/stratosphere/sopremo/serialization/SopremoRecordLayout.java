@@ -23,7 +23,11 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import com.esotericsoftware.kryo.DefaultSerializer;
 import com.esotericsoftware.kryo.Kryo;
@@ -37,6 +41,7 @@ import com.google.common.reflect.TypeToken;
 import eu.stratosphere.sopremo.AbstractSopremoType;
 import eu.stratosphere.sopremo.expressions.ArrayAccess;
 import eu.stratosphere.sopremo.expressions.EvaluationExpression;
+import eu.stratosphere.sopremo.expressions.ExpressionUtil;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.typed.ITypedObjectNode;
 import eu.stratosphere.sopremo.type.typed.TypedObjectNode;
@@ -68,7 +73,9 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		@Override
 		public void write(Kryo kryo, Output output, SopremoRecordLayout object) {
 			kryo.writeObject(output, object.getKeyExpressions());
+			kryo.writeObject(output, new ArrayList<String>(Arrays.asList(object.fieldNames)));
 			kryo.writeClassAndObject(output, object.targetType == UNTYPED ? null : object.targetType);
+			output.writeBoolean(object.compressed);
 		}
 
 		/*
@@ -88,9 +95,12 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		@SuppressWarnings("unchecked")
 		@Override
 		public SopremoRecordLayout read(Kryo kryo, Input input, Class<SopremoRecordLayout> type) {
-			final SopremoRecordLayout layout = SopremoRecordLayout.create(kryo.readObject(input, ArrayList.class));
+			final ArrayList<EvaluationExpression> keyExpressions = kryo.readObject(input, ArrayList.class);
+			final ArrayList<String> fieldNames = kryo.readObject(input, ArrayList.class);
+			final SopremoRecordLayout layout = SopremoRecordLayout.create(keyExpressions, fieldNames);
 			final Type targetType = (Type) kryo.readClassAndObject(input);
 			layout.setTargetType(targetType == null ? UNTYPED : targetType);
+			layout.setCompressed(input.readBoolean());
 			return layout;
 		}
 	}
@@ -102,7 +112,12 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 	/**
 	 * 
 	 */
-	private static final int UNKNOWN_KEY_EXPRESSION = -1;
+	static final int UNKNOWN_KEY_EXPRESSION = -1;
+
+	/**
+	 * The id of field names that are not contained in the dictionary.
+	 */
+	public static final int UNKNOWN_FIELD_NAME = -1;
 
 	private final transient Object2IntMap<EvaluationExpression> indexedDirectDataExpression =
 			new Object2IntOpenHashMap<EvaluationExpression>(), indexedCalculatedKeyExpressions =
@@ -110,8 +125,20 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 
 	private final EvaluationExpression[] directDataExpression, calculatedKeyExpressions;
 
+	/**
+	 * The dictionary of field names that are encoded with their index instead of the full name.
+	 */
+	private final String[] fieldNames;
+
+	private final transient Object2IntMap<String> fieldNameIds = new Object2IntOpenHashMap<String>();
+
 	private Type targetType = UNTYPED;
 
+	/**
+	 * True if the binary representation of records is compressed when they are spilled or shipped.
+	 */
+	private boolean compressed;
+
 	private final transient ExpressionIndex expressionIndex;
 
 	public IntCollection indicesOf(EvaluationExpression expression) {
@@ -167,6 +194,28 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		return this.targetType;
 	}
 
+	/**
+	 * Returns true if the binary representation of records with this layout is compressed with a fast block codec when
+	 * the records are written to spill files or network buffers.
+	 * 
+	 * @return true if records are compressed
+	 */
+	public boolean isCompressed() {
+		return this.compressed;
+	}
+
+	/**
+	 * Sets whether the binary representation of records with this layout is compressed with a fast block codec when
+	 * the records are written to spill files or network buffers. Compressed records are read independently of this
+	 * setting.
+	 * 
+	 * @param compressed
+	 *        true if records should be compressed
+	 */
+	public void setCompressed(boolean compressed) {
+		this.compressed = compressed;
+	}
+
 	public SopremoRecordLayout withTargetType(Type targetType) {
 		setTargetType(targetType);
 		return this;
@@ -188,6 +237,7 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		int result = 1;
 		result = prime * result + Arrays.hashCode(this.calculatedKeyExpressions);
 		result = prime * result + Arrays.hashCode(this.directDataExpression);
+		result = prime * result + Arrays.hashCode(this.fieldNames);
 		return result;
 	}
 
@@ -201,7 +251,8 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 			return false;
 		SopremoRecordLayout other = (SopremoRecordLayout) obj;
 		return Arrays.equals(this.directDataExpression, other.directDataExpression) &&
-			Arrays.equals(this.calculatedKeyExpressions, other.calculatedKeyExpressions);
+			Arrays.equals(this.calculatedKeyExpressions, other.calculatedKeyExpressions) &&
+			Arrays.equals(this.fieldNames, other.fieldNames);
 	}
 
 	/**
@@ -235,9 +286,7 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		if (expression == EvaluationExpression.VALUE)
 			return -1;
 
-		int offset = this.indexedDirectDataExpression.getInt(expression);
-		if (offset == UNKNOWN_KEY_EXPRESSION)
-			offset = this.indexedCalculatedKeyExpressions.getInt(expression);
+		final int offset = findKeyIndex(expression);
 		if (offset == UNKNOWN_KEY_EXPRESSION)
 			throw new IllegalArgumentException(String.format(
 				"Unknown key expression %s; registered expressions: %s", expression,
@@ -245,6 +294,21 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		return offset;
 	}
 
+	/**
+	 * Returns the index of the given key expression or {@link #UNKNOWN_KEY_EXPRESSION} if the expression is not a key
+	 * of this layout.
+	 */
+	int findKeyIndex(EvaluationExpression expression) {
+		final int offset = this.indexedDirectDataExpression.getInt(expression);
+		if (offset != UNKNOWN_KEY_EXPRESSION)
+			return offset;
+		final int calculatedOffset = this.indexedCalculatedKeyExpressions.getInt(expression);
+		if (calculatedOffset == UNKNOWN_KEY_EXPRESSION)
+			return UNKNOWN_KEY_EXPRESSION;
+		// calculated keys are stored after the direct data keys
+		return calculatedOffset + getNumDirectDataKeys();
+	}
+
 	/**
 	 * Returns the keyExpressions.
 	 * 
@@ -264,11 +328,63 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 	 */
 	public SopremoRecordLayout(ExpressionIndex expressionIndex, EvaluationExpression[] directDataExpression,
 			EvaluationExpression[] calculatedKeyExpressions) {
+		this(expressionIndex, directDataExpression, calculatedKeyExpressions, new String[0]);
+	}
+
+	/**
+	 * Initializes SopremoRecordLayout.
+	 * 
+	 * @param expressionIndex
+	 *        the index of all direct data expressions
+	 * @param directDataExpression
+	 *        the key expressions that directly access a part of the record
+	 * @param calculatedKeyExpressions
+	 *        the key expressions that are calculated during serialization
+	 * @param fieldNames
+	 *        the dictionary of field names
+	 */
+	public SopremoRecordLayout(ExpressionIndex expressionIndex, EvaluationExpression[] directDataExpression,
+			EvaluationExpression[] calculatedKeyExpressions, String[] fieldNames) {
 		this.expressionIndex = expressionIndex;
 		this.directDataExpression = directDataExpression;
 		this.calculatedKeyExpressions = calculatedKeyExpressions;
+		this.fieldNames = fieldNames;
 
 		index(directDataExpression, calculatedKeyExpressions);
+		this.fieldNameIds.defaultReturnValue(UNKNOWN_FIELD_NAME);
+		for (int index = 0; index < fieldNames.length; index++)
+			this.fieldNameIds.put(fieldNames[index], index);
+	}
+
+	/**
+	 * Returns the id of the given field name in the dictionary of this layout.
+	 * 
+	 * @param fieldName
+	 *        the field name
+	 * @return the id or {@link #UNKNOWN_FIELD_NAME}
+	 */
+	public int getFieldNameId(String fieldName) {
+		return this.fieldNameIds.getInt(fieldName);
+	}
+
+	/**
+	 * Returns the field name with the given id.
+	 * 
+	 * @param fieldNameId
+	 *        the id of the field name
+	 * @return the field name
+	 */
+	public String getFieldName(int fieldNameId) {
+		return this.fieldNames[fieldNameId];
+	}
+
+	/**
+	 * Returns the dictionary of field names.
+	 * 
+	 * @return the field names
+	 */
+	public String[] getFieldNames() {
+		return this.fieldNames;
 	}
 
 	private void index(EvaluationExpression[] directDataExpression, EvaluationExpression[] calculatedKeyExpressions) {
@@ -282,6 +398,25 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 	}
 
 	public static SopremoRecordLayout create(Iterable<EvaluationExpression> keyExpressions) {
+		return create(keyExpressions, Collections.<String> emptySet());
+	}
+
+	/**
+	 * Creates a layout for the given key expressions with a dictionary that contains the given field names and all
+	 * field names that are accessed by the key expressions.
+	 * 
+	 * @param keyExpressions
+	 *        the key expressions
+	 * @param knownFieldNames
+	 *        the field names that are expected to occur in the records
+	 * @return the layout
+	 */
+	public static SopremoRecordLayout create(Iterable<EvaluationExpression> keyExpressions,
+			Collection<String> knownFieldNames) {
+		final SortedSet<String> fieldNames = new TreeSet<String>(knownFieldNames);
+		for (EvaluationExpression keyExpression : keyExpressions)
+			ExpressionUtil.collectFieldNames(keyExpression, fieldNames);
+
 		List<EvaluationExpression> directDataExpression = new ArrayList<EvaluationExpression>(), calculatedKeyExpressions =
 			new ArrayList<EvaluationExpression>();
 
@@ -296,7 +431,8 @@ public class SopremoRecordLayout extends AbstractSopremoType {
 		directDataExpression.remove(EvaluationExpression.VALUE);
 		return new SopremoRecordLayout(expressionIndex,
 			directDataExpression.toArray(new EvaluationExpression[directDataExpression.size()]),
-			calculatedKeyExpressions.toArray(new EvaluationExpression[calculatedKeyExpressions.size()]));
+			calculatedKeyExpressions.toArray(new EvaluationExpression[calculatedKeyExpressions.size()]),
+			fieldNames.toArray(new String[fieldNames.size()]));
 	}
 
 	public static SopremoRecordLayout create(EvaluationExpression keyExpressions) {
@@ -91,6 +91,7 @@ public final class SopremoRecordSerializer extends TypeSerializer<SopremoRecord>
 	 */
 	@Override
 	public void deserialize(SopremoRecord target, DataInputView source) throws IOException {
+		// the segments of the input are recycled while the record may still be used, so the record must own its bytes
 		target.read(source);
 	}
 
@@ -102,10 +103,16 @@ public final class SopremoRecordSerializer extends TypeSerializer<SopremoRecord>
 	@Override
 	public void copy(DataInputView source, DataOutputView target) throws IOException {
 		int numKeys = this.layout.getNumKeys();
-		for (int index = 0; index < numKeys; index++)
+		// offset, length, and hash of each key
+		for (int index = 0; index < 3 * numKeys; index++)
 			target.writeInt(source.readInt());
 		int size = source.readInt();
 		target.writeInt(size);
+		if (size < 0) {
+			// compressed records are followed by the size of the compressed bytes
+			size = source.readInt();
+			target.writeInt(size);
+		}
 		target.write(source, size);
 	}
 }
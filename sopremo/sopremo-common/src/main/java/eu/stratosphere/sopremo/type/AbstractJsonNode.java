@@ -1,5 +1,8 @@
 package eu.stratosphere.sopremo.type;
 
+import java.util.Arrays;
+import java.util.List;
+
 import eu.stratosphere.sopremo.AbstractSopremoType;
 
 /**
@@ -9,6 +12,13 @@ import eu.stratosphere.sopremo.AbstractSopremoType;
  * @author Tommy Neubert
  */
 public abstract class AbstractJsonNode extends AbstractSopremoType implements IJsonNode {
+	/**
+	 * The builtin types in the order of their class names, which determines the order of nodes with different types.
+	 * All numeric nodes share the position of {@link IntNode}, since they are compared by their values.
+	 */
+	private static final List<Class<?>> BUILTIN_TYPE_ORDER = Arrays.<Class<?>> asList(BooleanNode.class,
+		DateNode.class, IArrayNode.class, IObjectNode.class, INumericNode.class, MissingNode.class, NullNode.class,
+		TextNode.class);
 
 	/*
 	 * (non-Javadoc)
@@ -36,9 +46,27 @@ public abstract class AbstractJsonNode extends AbstractSopremoType implements IJ
 	}
 
 	protected int compareToOtherType(final IJsonNode other) {
+		final int rank1 = getTypeRank(this), rank2 = getTypeRank(other);
+		if (rank1 != rank2)
+			return rank1 - rank2;
 		return this.getType().getName().compareTo(other.getType().getName());
 	}
 
+	/**
+	 * Returns the position of the type of the given node in the order of nodes with different types. Nodes of types
+	 * that are not builtin follow all builtin types and are ordered by the names of their types.
+	 * 
+	 * @param node
+	 *        the node
+	 * @return the position of the builtin type of the node or the number of builtin types for other types
+	 */
+	public static int getTypeRank(final IJsonNode node) {
+		if (node instanceof INumericNode)
+			return BUILTIN_TYPE_ORDER.indexOf(INumericNode.class);
+		final int rank = BUILTIN_TYPE_ORDER.indexOf(node.getType());
+		return rank == -1 ? BUILTIN_TYPE_ORDER.size() : rank;
+	}
+
 	protected void checkForSameType(final IJsonNode other) {
 		if (other.getType() != this.getType())
 			throw new IllegalArgumentException(String.format(
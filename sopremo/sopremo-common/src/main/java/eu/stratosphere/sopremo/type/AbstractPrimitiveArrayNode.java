@@ -0,0 +1,358 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import java.util.Iterator;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.AbstractIterator;
+
+import eu.stratosphere.util.reflect.ReflectUtil;
+
+/**
+ * Base class of arrays that store numbers of one type in a primitive array instead of one node per element.<br />
+ * The elements are returned as new nodes. As soon as an element of another type is added, the array falls back to
+ * an {@link ArrayNode} and behaves like a generic array until it is cleared.
+ */
+public abstract class AbstractPrimitiveArrayNode extends AbstractArrayNode<IJsonNode> {
+	/**
+	 * The elements after a fall back to generic nodes; null while all elements are stored as primitives.
+	 */
+	private ArrayNode<IJsonNode> nodes;
+
+	/**
+	 * Returns true if all elements are stored as primitives.
+	 * 
+	 * @return true if the elements are stored as primitives
+	 */
+	public boolean isPrimitive() {
+		return this.nodes == null;
+	}
+
+	/**
+	 * Returns true if the given element can be stored as a primitive.
+	 */
+	protected abstract boolean accepts(IJsonNode element);
+
+	protected abstract int getPrimitiveSize();
+
+	protected abstract IJsonNode getPrimitive(int index);
+
+	protected abstract void setPrimitive(int index, IJsonNode element);
+
+	protected abstract void addPrimitive(int index, IJsonNode element);
+
+	protected abstract void removePrimitive(int index);
+
+	protected abstract void clearPrimitives();
+
+	/**
+	 * Replaces the primitives of this array with the primitives of the given array of the same type.
+	 */
+	protected abstract void copyPrimitivesFrom(AbstractPrimitiveArrayNode array);
+
+	/**
+	 * Returns the hash code of the primitives, which is the same as the hash code of a list of the corresponding
+	 * nodes.
+	 */
+	protected abstract int getPrimitiveHash();
+
+	protected abstract boolean primitivesEqual(AbstractPrimitiveArrayNode array);
+
+	protected abstract int comparePrimitives(AbstractPrimitiveArrayNode array);
+
+	protected abstract void writePrimitives(Output output);
+
+	protected abstract void readPrimitives(Input input, int size);
+
+	/**
+	 * Moves all primitives into generic nodes.
+	 */
+	private void generalize() {
+		if (this.nodes == null) {
+			final ArrayNode<IJsonNode> nodes = new ArrayNode<IJsonNode>();
+			for (int index = 0, size = this.getPrimitiveSize(); index < size; index++)
+				nodes.add(this.getPrimitive(index));
+			this.clearPrimitives();
+			this.nodes = nodes;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IArrayNode#size()
+	 */
+	@Override
+	public int size() {
+		return this.nodes == null ? this.getPrimitiveSize() : this.nodes.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IStreamNode#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IArrayNode#get(int)
+	 */
+	@Override
+	public IJsonNode get(final int index) {
+		if (this.nodes != null)
+			return this.nodes.get(index);
+		if (0 <= index && index < this.getPrimitiveSize())
+			return this.getPrimitive(index);
+		return MissingNode.getInstance();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IArrayNode#add(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public AbstractPrimitiveArrayNode add(final IJsonNode node) {
+		if (node == null)
+			throw new NullPointerException();
+
+		if (this.nodes == null && this.accepts(node))
+			this.addPrimitive(this.getPrimitiveSize(), node);
+		else {
+			this.generalize();
+			this.nodes.add(node);
+		}
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IArrayNode#add(int, eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public AbstractPrimitiveArrayNode add(final int index, final IJsonNode element) {
+		if (element == null)
+			throw new NullPointerException();
+
+		if (this.nodes == null && this.accepts(element))
+			this.addPrimitive(index, element);
+		else {
+			this.generalize();
+			this.nodes.add(index, element);
+		}
+		return this;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IArrayNode#set(int, eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public void set(final int index, final IJsonNode node) {
+		if (node == null)
+			throw new NullPointerException();
+
+		if (this.nodes == null && this.accepts(node) && 0 <= index && index <= this.getPrimitiveSize()) {
+			if (index == this.getPrimitiveSize())
+				this.addPrimitive(index, node);
+			else
+				this.setPrimitive(index, node);
+		} else {
+			this.generalize();
+			this.nodes.set(index, node);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IArrayNode#remove(int)
+	 */
+	@Override
+	public void remove(final int index) {
+		if (this.nodes != null)
+			this.nodes.remove(index);
+		else if (0 <= index && index < this.getPrimitiveSize())
+			this.removePrimitive(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.IJsonNode#clear()
+	 */
+	@Override
+	public void clear() {
+		this.nodes = null;
+		this.clearPrimitives();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<IJsonNode> iterator() {
+		if (this.nodes != null)
+			return this.nodes.iterator();
+		return new AbstractIterator<IJsonNode>() {
+			private int index;
+
+			@Override
+			protected IJsonNode computeNext() {
+				if (this.index < AbstractPrimitiveArrayNode.this.getPrimitiveSize())
+					return AbstractPrimitiveArrayNode.this.getPrimitive(this.index++);
+				return this.endOfData();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractArrayNode#copyValueFrom(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public void copyValueFrom(final IJsonNode otherNode) {
+		this.checkForSameType(otherNode);
+		if (otherNode == this)
+			return;
+
+		if (otherNode.getClass() == this.getClass() && ((AbstractPrimitiveArrayNode) otherNode).isPrimitive()) {
+			this.nodes = null;
+			this.copyPrimitivesFrom((AbstractPrimitiveArrayNode) otherNode);
+			return;
+		}
+
+		this.clear();
+		for (final IJsonNode element : (IArrayNode<?>) otherNode)
+			this.add(this.nodes == null && this.accepts(element) ? element : element.clone());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractArrayNode#compareToSameType(eu.stratosphere.sopremo.type.IJsonNode)
+	 */
+	@Override
+	public int compareToSameType(final IJsonNode other) {
+		if (other.getClass() == this.getClass() && this.nodes == null &&
+			((AbstractPrimitiveArrayNode) other).nodes == null)
+			return this.comparePrimitives((AbstractPrimitiveArrayNode) other);
+
+		// same order as ArrayNode
+		final IArrayNode<?> array = (IArrayNode<?>) other;
+		final int size = this.size();
+		if (array.size() != size)
+			return size - array.size();
+		for (int index = 0; index < size; index++) {
+			final int comparison = this.get(index).compareTo(array.get(index));
+			if (comparison != 0)
+				return comparison;
+		}
+		return 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractArrayNode#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		// same as the hash code of an ArrayNode with the same elements
+		if (this.nodes != null)
+			return this.nodes.hashCode();
+		return 31 * 41 + this.getPrimitiveHash();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractArrayNode#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj)
+			return true;
+		if (obj != null && obj.getClass() == this.getClass() && this.nodes == null &&
+			((AbstractPrimitiveArrayNode) obj).nodes == null)
+			return this.primitivesEqual((AbstractPrimitiveArrayNode) obj);
+		return super.equals(obj);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractArrayNode#clone()
+	 */
+	@Override
+	public AbstractPrimitiveArrayNode clone() {
+		return (AbstractPrimitiveArrayNode) super.clone();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractArrayNode#copy(com.esotericsoftware.kryo.Kryo)
+	 */
+	@Override
+	public AbstractPrimitiveArrayNode copy(final Kryo kryo) {
+		final AbstractPrimitiveArrayNode copy = ReflectUtil.newInstance(this.getClass());
+		copy.copyValueFrom(this);
+		return copy;
+	}
+
+	/**
+	 * Writes primitive arrays as the size and the plain values. Arrays that fell back to generic nodes are written
+	 * like other arrays.
+	 */
+	public static class PrimitiveArraySerializer extends ReusingSerializer<AbstractPrimitiveArrayNode> {
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#write(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Output, java.lang.Object)
+		 */
+		@Override
+		public void write(Kryo kryo, Output output, AbstractPrimitiveArrayNode array) {
+			if (array.isPrimitive()) {
+				// flagged with the lowest bit of the size
+				output.writeInt(array.getPrimitiveSize() << 1 | 1, true);
+				array.writePrimitives(output);
+			} else {
+				output.writeInt(array.size() << 1, true);
+				for (IJsonNode element : array)
+					kryo.writeClassAndObject(output, element);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.sopremo.type.ReusingSerializer#read(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Input, java.lang.Object, java.lang.Class)
+		 */
+		@Override
+		public AbstractPrimitiveArrayNode read(Kryo kryo, Input input, AbstractPrimitiveArrayNode oldInstance,
+				Class<AbstractPrimitiveArrayNode> type) {
+			final AbstractPrimitiveArrayNode array =
+				oldInstance == null ? ReflectUtil.newInstance(type) : oldInstance;
+			array.clear();
+
+			final int header = input.readInt(true);
+			if ((header & 1) == 1)
+				array.readPrimitives(input, header >>> 1);
+			else
+				for (int index = 0, size = header >>> 1; index < size; index++)
+					array.add((IJsonNode) kryo.readClassAndObject(input));
+			return array;
+		}
+	}
+}
@@ -0,0 +1,453 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import java.io.IOException;
+import java.util.Date;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import eu.stratosphere.sopremo.pact.SopremoUtil;
+
+/**
+ * This node represents a point in time as milliseconds since the epoch (1970-01-01T00:00:00Z). Dates without time are
+ * represented by midnight UTC. The calendar fields are always interpreted in UTC.<br />
+ * The textual representation is ISO-8601, e.g., 2013-05-01 or 2013-05-01T10:15:30.000Z, which can be parsed with
+ * {@link #parse(CharSequence)} without allocating a {@link java.text.DateFormat}.
+ */
+@DefaultSerializer(DateNode.DateNodeSerializer.class)
+public class DateNode extends AbstractJsonNode implements IPrimitiveNode {
+	/**
+	 * The number of milliseconds of a day.
+	 */
+	public static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+
+	private long millis;
+
+	/**
+	 * Initializes a DateNode that represents the epoch.
+	 */
+	public DateNode() {
+	}
+
+	/**
+	 * Initializes a DateNode which represents the given milliseconds since the epoch.
+	 * 
+	 * @param millis
+	 *        the milliseconds since the epoch
+	 */
+	public DateNode(final long millis) {
+		this.millis = millis;
+	}
+
+	/**
+	 * Creates a new instance of DateNode which represents the given milliseconds since the epoch.
+	 * 
+	 * @param millis
+	 *        the milliseconds since the epoch
+	 * @return the newly created instance of DateNode
+	 */
+	public static DateNode valueOf(final long millis) {
+		return new DateNode(millis);
+	}
+
+	/**
+	 * Creates a new instance of DateNode which represents the given date.
+	 * 
+	 * @param date
+	 *        the date
+	 * @return the newly created instance of DateNode
+	 */
+	public static DateNode valueOf(final Date date) {
+		return new DateNode(date.getTime());
+	}
+
+	/**
+	 * Creates a new instance of DateNode which represents midnight UTC of the given date.
+	 * 
+	 * @param year
+	 *        the year
+	 * @param month
+	 *        the month from 1 to 12
+	 * @param dayOfMonth
+	 *        the day of the month from 1 to 31
+	 * @return the newly created instance of DateNode
+	 */
+	public static DateNode valueOf(final int year, final int month, final int dayOfMonth) {
+		return new DateNode(toEpochDay(year, month, dayOfMonth) * MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Returns the milliseconds since the epoch.
+	 * 
+	 * @return the milliseconds
+	 */
+	public long getMillis() {
+		return this.millis;
+	}
+
+	/**
+	 * Sets the milliseconds since the epoch.
+	 * 
+	 * @param millis
+	 *        the milliseconds
+	 */
+	public void setMillis(final long millis) {
+		this.millis = millis;
+	}
+
+	/**
+	 * Returns the number of days since the epoch.
+	 * 
+	 * @return the days
+	 */
+	public long getEpochDay() {
+		return floorDiv(this.millis, MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Returns the year in UTC.
+	 * 
+	 * @return the year
+	 */
+	public int getYear() {
+		return (int) (toCivil(this.getEpochDay()) >> 32);
+	}
+
+	/**
+	 * Returns the month in UTC from 1 to 12.
+	 * 
+	 * @return the month
+	 */
+	public int getMonth() {
+		return (int) (toCivil(this.getEpochDay()) >> 8) & 0xFF;
+	}
+
+	/**
+	 * Returns the day of the month in UTC from 1 to 31.
+	 * 
+	 * @return the day of the month
+	 */
+	public int getDayOfMonth() {
+		return (int) toCivil(this.getEpochDay()) & 0xFF;
+	}
+
+	/**
+	 * Returns the milliseconds since midnight UTC.
+	 * 
+	 * @return the milliseconds of the day
+	 */
+	public int getMillisOfDay() {
+		return (int) (this.millis - this.getEpochDay() * MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Returns this node as a {@link Date}.
+	 * 
+	 * @return a new date
+	 */
+	public Date getJavaValue() {
+		return new Date(this.millis);
+	}
+
+	/**
+	 * Parses the given ISO-8601 date or timestamp. Accepted are dates such as 2013-05-01, which are interpreted as
+	 * midnight UTC, and timestamps such as 2013-05-01T10:15, 2013-05-01 10:15:30.123 and 2013-05-01T10:15:30+02:00.
+	 * Timestamps without time zone are interpreted as UTC.
+	 * 
+	 * @param text
+	 *        the text to parse
+	 * @return the milliseconds since the epoch
+	 * @throws IllegalArgumentException
+	 *         if the text is not an ISO-8601 date or timestamp
+	 */
+	public static long parse(final CharSequence text) {
+		final IsoParser parser = new IsoParser(text);
+		final int year = parser.readNumber(4, 9, true);
+		parser.expect('-');
+		final int month = parser.readRange(1, 12);
+		parser.expect('-');
+		final int dayOfMonth = parser.readRange(1, lengthOfMonth(year, month));
+		long millis = toEpochDay(year, month, dayOfMonth) * MILLIS_PER_DAY;
+		if (parser.hasMore()) {
+			if (!parser.accept('T'))
+				parser.expect(' ');
+			millis += parser.readRange(0, 23) * 3600000L;
+			parser.expect(':');
+			millis += parser.readRange(0, 59) * 60000L;
+			if (parser.accept(':')) {
+				millis += parser.readRange(0, 60) * 1000L;
+				if (parser.accept('.'))
+					millis += parser.readFraction();
+			}
+			if (parser.hasMore() && !parser.accept('Z')) {
+				final int sign = parser.accept('-') ? -1 : 1;
+				if (sign == 1)
+					parser.expect('+');
+				int offset = parser.readRange(0, 18) * 60;
+				if (parser.hasMore()) {
+					parser.accept(':');
+					offset += parser.readRange(0, 59);
+				}
+				millis -= sign * offset * 60000L;
+			}
+			if (parser.hasMore())
+				throw parser.fail();
+		}
+		return millis;
+	}
+
+	@Override
+	public Class<DateNode> getType() {
+		return DateNode.class;
+	}
+
+	@Override
+	public void copyValueFrom(final IJsonNode otherNode) {
+		this.checkForSameType(otherNode);
+		this.millis = ((DateNode) otherNode).millis;
+	}
+
+	@Override
+	public int compareToSameType(final IJsonNode other) {
+		final long otherMillis = ((DateNode) other).millis;
+		return this.millis < otherMillis ? -1 : (this.millis == otherMillis ? 0 : 1);
+	}
+
+	@Override
+	public void clear() {
+		if (SopremoUtil.DEBUG)
+			this.millis = 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (this.millis ^ this.millis >>> 32);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (this.getClass() != obj.getClass())
+			return false;
+		return this.millis == ((DateNode) obj).millis;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.ISopremoType#appendAsString(java.lang.Appendable)
+	 */
+	@Override
+	public void appendAsString(final Appendable appendable) throws IOException {
+		final long civil = toCivil(this.getEpochDay());
+		final int year = (int) (civil >> 32);
+		if (year < 0) {
+			appendable.append('-');
+			appendDigits(appendable, -year, 4);
+		} else
+			appendDigits(appendable, year, 4);
+		appendable.append('-');
+		appendDigits(appendable, (int) (civil >> 8) & 0xFF, 2);
+		appendable.append('-');
+		appendDigits(appendable, (int) civil & 0xFF, 2);
+
+		final int millisOfDay = this.getMillisOfDay();
+		if (millisOfDay != 0) {
+			appendable.append('T');
+			appendDigits(appendable, millisOfDay / 3600000, 2);
+			appendable.append(':');
+			appendDigits(appendable, millisOfDay / 60000 % 60, 2);
+			appendable.append(':');
+			appendDigits(appendable, millisOfDay / 1000 % 60, 2);
+			appendable.append('.');
+			appendDigits(appendable, millisOfDay % 1000, 3);
+			appendable.append('Z');
+		}
+	}
+
+	private static void appendDigits(final Appendable appendable, final int value, final int minDigits)
+			throws IOException {
+		for (int digits = String.valueOf(value).length(); digits < minDigits; digits++)
+			appendable.append('0');
+		appendable.append(String.valueOf(value));
+	}
+
+	private static long floorDiv(final long dividend, final long divisor) {
+		final long quotient = dividend / divisor;
+		return dividend % divisor < 0 ? quotient - 1 : quotient;
+	}
+
+	/**
+	 * Returns the number of days of the given month in the proleptic Gregorian calendar.
+	 */
+	static int lengthOfMonth(final int year, final int month) {
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	private static boolean isLeapYear(final int year) {
+		return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	/**
+	 * Converts the date of the proleptic Gregorian calendar to the number of days since the epoch.
+	 */
+	static long toEpochDay(final int year, final int month, final int dayOfMonth) {
+		final long y = month <= 2 ? year - 1 : year;
+		final long era = (y >= 0 ? y : y - 399) / 400;
+		final long yearOfEra = y - era * 400;
+		final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+		final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	/**
+	 * Converts the number of days since the epoch to the date of the proleptic Gregorian calendar, which is packed
+	 * into a long as year << 32 | month << 8 | dayOfMonth.
+	 */
+	static long toCivil(final long epochDay) {
+		final long days = epochDay + 719468;
+		final long era = (days >= 0 ? days : days - 146096) / 146097;
+		final long dayOfEra = days - era * 146097;
+		final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+		final long dayOfMonth = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		final long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		return year << 32 | month << 8 | dayOfMonth;
+	}
+
+	/**
+	 * Reads the components of an ISO-8601 text.
+	 */
+	private static final class IsoParser {
+		private final CharSequence text;
+
+		private int position;
+
+		private IsoParser(final CharSequence text) {
+			this.text = text;
+		}
+
+		private boolean hasMore() {
+			return this.position < this.text.length();
+		}
+
+		private boolean accept(final char ch) {
+			if (this.hasMore() && this.text.charAt(this.position) == ch) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(final char ch) {
+			if (!this.accept(ch))
+				throw this.fail();
+		}
+
+		private int readNumber(final int minDigits, final int maxDigits, final boolean signed) {
+			final boolean negative = signed && this.accept('-');
+			int value = 0, digits = 0;
+			for (; digits < maxDigits && this.hasMore(); digits++) {
+				final char ch = this.text.charAt(this.position);
+				if (ch < '0' || ch > '9')
+					break;
+				value = value * 10 + ch - '0';
+				this.position++;
+			}
+			if (digits < minDigits)
+				throw this.fail();
+			return negative ? -value : value;
+		}
+
+		private int readRange(final int min, final int max) {
+			final int value = this.readNumber(2, 2, false);
+			if (value < min || value > max)
+				throw this.fail();
+			return value;
+		}
+
+		private int readFraction() {
+			final int start = this.position;
+			final int value = this.readNumber(1, 9, false);
+			int millis = value;
+			for (int digits = this.position - start; digits < 3; digits++)
+				millis *= 10;
+			for (int digits = this.position - start; digits > 3; digits--)
+				millis /= 10;
+			return millis;
+		}
+
+		private IllegalArgumentException fail() {
+			return new IllegalArgumentException(String.format("Cannot parse date %s at position %d", this.text,
+				this.position));
+		}
+	}
+
+	/**
+	 * Writes the milliseconds as a variable-length long, which needs six bytes for current timestamps and three bytes
+	 * for dates close to the epoch.
+	 */
+	public static class DateNodeSerializer extends ReusingSerializer<DateNode> {
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#write(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Output, java.lang.Object)
+		 */
+		@Override
+		public void write(final Kryo kryo, final Output output, final DateNode node) {
+			output.writeLong(node.millis, false);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.sopremo.type.ReusingSerializer#read(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Input, java.lang.Object, java.lang.Class)
+		 */
+		@Override
+		public DateNode read(final Kryo kryo, final Input input, final DateNode oldInstance,
+				final Class<DateNode> type) {
+			final DateNode node = oldInstance == null ? new DateNode() : oldInstance;
+			node.millis = input.readLong(false);
+			return node;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#copy(com.esotericsoftware.kryo.Kryo, java.lang.Object)
+		 */
+		@Override
+		public DateNode copy(final Kryo kryo, final DateNode original) {
+			return new DateNode(original.millis);
+		}
+	}
+}
@@ -0,0 +1,209 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * This node represents an array of {@link DoubleNode}s that are stored as primitive doubles.
+ */
+@DefaultSerializer(AbstractPrimitiveArrayNode.PrimitiveArraySerializer.class)
+public class DoubleArrayNode extends AbstractPrimitiveArrayNode {
+	private final DoubleArrayList values;
+
+	/**
+	 * Initializes an empty DoubleArrayNode.
+	 */
+	public DoubleArrayNode() {
+		this.values = new DoubleArrayList();
+	}
+
+	/**
+	 * Initializes a DoubleArrayNode with the given values.
+	 * 
+	 * @param values
+	 *        the values of the array
+	 */
+	public DoubleArrayNode(final double... values) {
+		this.values = new DoubleArrayList(values);
+	}
+
+	/**
+	 * Returns the value at the given index, which must be a number.
+	 * 
+	 * @param index
+	 *        the index of the value
+	 * @return the value
+	 */
+	public double getDouble(final int index) {
+		if (this.isPrimitive())
+			return this.values.getDouble(index);
+		return ((INumericNode) this.get(index)).getDoubleValue();
+	}
+
+	/**
+	 * Adds the given value to the end of the array.
+	 * 
+	 * @param value
+	 *        the value to add
+	 * @return this node
+	 */
+	public DoubleArrayNode add(final double value) {
+		if (this.isPrimitive())
+			this.values.add(value);
+		else
+			this.add(DoubleNode.valueOf(value));
+		return this;
+	}
+
+	/**
+	 * Sets the value at the given index.
+	 * 
+	 * @param index
+	 *        the index of the value
+	 * @param value
+	 *        the value to set
+	 */
+	public void set(final int index, final double value) {
+		if (this.isPrimitive() && index < this.values.size())
+			this.values.set(index, value);
+		else
+			this.set(index, DoubleNode.valueOf(value));
+	}
+
+	/**
+	 * Returns a new array with all values, which must be numbers.
+	 * 
+	 * @return the values
+	 */
+	public double[] toDoubleArray() {
+		if (this.isPrimitive())
+			return this.values.toDoubleArray();
+		final double[] array = new double[this.size()];
+		for (int index = 0; index < array.length; index++)
+			array[index] = this.getDouble(index);
+		return array;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractPrimitiveArrayNode#clone()
+	 */
+	@Override
+	public DoubleArrayNode clone() {
+		return (DoubleArrayNode) super.clone();
+	}
+
+	@Override
+	protected boolean accepts(final IJsonNode element) {
+		return element.getClass() == DoubleNode.class;
+	}
+
+	@Override
+	protected int getPrimitiveSize() {
+		return this.values.size();
+	}
+
+	@Override
+	protected IJsonNode getPrimitive(final int index) {
+		return DoubleNode.valueOf(this.values.getDouble(index));
+	}
+
+	@Override
+	protected void setPrimitive(final int index, final IJsonNode element) {
+		this.values.set(index, ((DoubleNode) element).getDoubleValue());
+	}
+
+	@Override
+	protected void addPrimitive(final int index, final IJsonNode element) {
+		this.values.add(index, ((DoubleNode) element).getDoubleValue());
+	}
+
+	@Override
+	protected void removePrimitive(final int index) {
+		this.values.removeDouble(index);
+	}
+
+	@Override
+	protected void clearPrimitives() {
+		this.values.clear();
+	}
+
+	@Override
+	protected void copyPrimitivesFrom(final AbstractPrimitiveArrayNode array) {
+		this.values.clear();
+		this.values.addAll(((DoubleArrayNode) array).values);
+	}
+
+	@Override
+	protected int getPrimitiveHash() {
+		// same as the hash code of DoubleNodes
+		final double[] elements = this.values.elements();
+		int hash = 1;
+		for (int index = 0, size = this.values.size(); index < size; index++) {
+			final long bits = Double.doubleToLongBits(elements[index]);
+			hash = 31 * hash + 31 + (int) (bits ^ bits >>> 32);
+		}
+		return hash;
+	}
+
+	@Override
+	protected boolean primitivesEqual(final AbstractPrimitiveArrayNode array) {
+		// DoubleNodes are equal if their bits are equal
+		final DoubleArrayList otherValues = ((DoubleArrayNode) array).values;
+		final int size = this.values.size();
+		if (size != otherValues.size())
+			return false;
+		final double[] elements1 = this.values.elements(), elements2 = otherValues.elements();
+		for (int index = 0; index < size; index++)
+			if (Double.doubleToLongBits(elements1[index]) != Double.doubleToLongBits(elements2[index]))
+				return false;
+		return true;
+	}
+
+	@Override
+	protected int comparePrimitives(final AbstractPrimitiveArrayNode array) {
+		final DoubleArrayList otherValues = ((DoubleArrayNode) array).values;
+		final int size = this.values.size();
+		if (size != otherValues.size())
+			return size - otherValues.size();
+		final double[] elements1 = this.values.elements(), elements2 = otherValues.elements();
+		for (int index = 0; index < size; index++) {
+			final int comparison = Double.compare(elements1[index], elements2[index]);
+			if (comparison != 0)
+				return comparison;
+		}
+		return 0;
+	}
+
+	@Override
+	protected void writePrimitives(final Output output) {
+		final double[] elements = this.values.elements();
+		for (int index = 0, size = this.values.size(); index < size; index++)
+			output.writeDouble(elements[index]);
+	}
+
+	@Override
+	protected void readPrimitives(final Input input, final int size) {
+		this.values.size(size);
+		final double[] elements = this.values.elements();
+		for (int index = 0; index < size; index++)
+			elements[index] = input.readDouble();
+	}
+}
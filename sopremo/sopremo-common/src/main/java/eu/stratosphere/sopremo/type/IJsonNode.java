@@ -46,7 +46,12 @@ public interface IJsonNode extends ISopremoType, Comparable<IJsonNode> {
 	public IJsonNode clone();
 
 	/**
-	 * Compares this node with another.
+	 * Compares this node with another.<br />
+	 * Numbers are compared by their values regardless of their types. Other nodes of different types are ordered by
+	 * the class names of their types, where all numbers take the position of {@link IntNode}: boolean &lt; date &lt;
+	 * array &lt; object &lt; number &lt; missing &lt; null &lt; text. Unlike a plain order by class names, the order
+	 * is transitive, since {@link BigIntegerNode}, {@link DecimalNode}, and {@link DoubleNode} also follow booleans,
+	 * dates, arrays, and objects.
 	 * 
 	 * @param other
 	 *        the node this node should be compared with
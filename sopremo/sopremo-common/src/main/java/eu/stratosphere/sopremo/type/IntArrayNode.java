@@ -0,0 +1,196 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * This node represents an array of {@link IntNode}s that are stored as primitive ints.
+ */
+@DefaultSerializer(AbstractPrimitiveArrayNode.PrimitiveArraySerializer.class)
+public class IntArrayNode extends AbstractPrimitiveArrayNode {
+	private final IntArrayList values;
+
+	/**
+	 * Initializes an empty IntArrayNode.
+	 */
+	public IntArrayNode() {
+		this.values = new IntArrayList();
+	}
+
+	/**
+	 * Initializes an IntArrayNode with the given values.
+	 * 
+	 * @param values
+	 *        the values of the array
+	 */
+	public IntArrayNode(final int... values) {
+		this.values = new IntArrayList(values);
+	}
+
+	/**
+	 * Returns the value at the given index, which must be a number.
+	 * 
+	 * @param index
+	 *        the index of the value
+	 * @return the value
+	 */
+	public int getInt(final int index) {
+		if (this.isPrimitive())
+			return this.values.getInt(index);
+		return ((INumericNode) this.get(index)).getIntValue();
+	}
+
+	/**
+	 * Adds the given value to the end of the array.
+	 * 
+	 * @param value
+	 *        the value to add
+	 * @return this node
+	 */
+	public IntArrayNode add(final int value) {
+		if (this.isPrimitive())
+			this.values.add(value);
+		else
+			this.add(IntNode.valueOf(value));
+		return this;
+	}
+
+	/**
+	 * Sets the value at the given index.
+	 * 
+	 * @param index
+	 *        the index of the value
+	 * @param value
+	 *        the value to set
+	 */
+	public void set(final int index, final int value) {
+		if (this.isPrimitive() && index < this.values.size())
+			this.values.set(index, value);
+		else
+			this.set(index, IntNode.valueOf(value));
+	}
+
+	/**
+	 * Returns a new array with all values, which must be numbers.
+	 * 
+	 * @return the values
+	 */
+	public int[] toIntArray() {
+		if (this.isPrimitive())
+			return this.values.toIntArray();
+		final int[] array = new int[this.size()];
+		for (int index = 0; index < array.length; index++)
+			array[index] = this.getInt(index);
+		return array;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractPrimitiveArrayNode#clone()
+	 */
+	@Override
+	public IntArrayNode clone() {
+		return (IntArrayNode) super.clone();
+	}
+
+	@Override
+	protected boolean accepts(final IJsonNode element) {
+		return element.getClass() == IntNode.class;
+	}
+
+	@Override
+	protected int getPrimitiveSize() {
+		return this.values.size();
+	}
+
+	@Override
+	protected IJsonNode getPrimitive(final int index) {
+		return IntNode.valueOf(this.values.getInt(index));
+	}
+
+	@Override
+	protected void setPrimitive(final int index, final IJsonNode element) {
+		this.values.set(index, ((IntNode) element).getIntValue());
+	}
+
+	@Override
+	protected void addPrimitive(final int index, final IJsonNode element) {
+		this.values.add(index, ((IntNode) element).getIntValue());
+	}
+
+	@Override
+	protected void removePrimitive(final int index) {
+		this.values.removeInt(index);
+	}
+
+	@Override
+	protected void clearPrimitives() {
+		this.values.clear();
+	}
+
+	@Override
+	protected void copyPrimitivesFrom(final AbstractPrimitiveArrayNode array) {
+		this.values.clear();
+		this.values.addAll(((IntArrayNode) array).values);
+	}
+
+	@Override
+	protected int getPrimitiveHash() {
+		// IntNodes are hashed on their value
+		final int[] elements = this.values.elements();
+		int hash = 1;
+		for (int index = 0, size = this.values.size(); index < size; index++)
+			hash = 31 * hash + elements[index];
+		return hash;
+	}
+
+	@Override
+	protected boolean primitivesEqual(final AbstractPrimitiveArrayNode array) {
+		return this.values.equals(((IntArrayNode) array).values);
+	}
+
+	@Override
+	protected int comparePrimitives(final AbstractPrimitiveArrayNode array) {
+		final IntArrayList otherValues = ((IntArrayNode) array).values;
+		final int size = this.values.size();
+		if (size != otherValues.size())
+			return size - otherValues.size();
+		final int[] elements1 = this.values.elements(), elements2 = otherValues.elements();
+		for (int index = 0; index < size; index++)
+			if (elements1[index] != elements2[index])
+				return elements1[index] < elements2[index] ? -1 : 1;
+		return 0;
+	}
+
+	@Override
+	protected void writePrimitives(final Output output) {
+		final int[] elements = this.values.elements();
+		for (int index = 0, size = this.values.size(); index < size; index++)
+			output.writeInt(elements[index], false);
+	}
+
+	@Override
+	protected void readPrimitives(final Input input, final int size) {
+		this.values.size(size);
+		final int[] elements = this.values.elements();
+		for (int index = 0; index < size; index++)
+			elements[index] = input.readInt(false);
+	}
+}
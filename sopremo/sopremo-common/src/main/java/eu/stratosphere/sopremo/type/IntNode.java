@@ -138,7 +138,8 @@ public class IntNode extends AbstractNumericNode implements INumericNode {
 
 	@Override
 	public int compareToSameType(final IJsonNode other) {
-		return this.value - ((IntNode) other).value;
+		final int otherValue = ((IntNode) other).value;
+		return this.value < otherValue ? -1 : (this.value == otherValue ? 0 : 1);
 	}
 
 	@Override
@@ -14,6 +14,8 @@ import java.util.Set;
 import com.google.common.primitives.Primitives;
 import com.google.common.reflect.TypeToken;
 
+import eu.stratosphere.sopremo.type.typed.BeanMapperFactory;
+import eu.stratosphere.sopremo.type.typed.BeanToObjectMapper;
 import eu.stratosphere.util.reflect.ReflectUtil;
 
 /**
@@ -120,7 +122,12 @@ public class JavaToJsonMapper extends AbstractTypeMapper<TypeMapper<?, ?>> {
 			return fromClass;
 		}
 
-		return super.findDefaultMappingType(fromClass);
+		final Type type = super.findDefaultMappingType(fromClass);
+		if (type == null && BeanMapperFactory.getInstance().isReadableBean(fromClass)) {
+			addDefaultTypeMapping(fromClass, ObjectNode.class);
+			return ObjectNode.class;
+		}
+		return type;
 	}
 
 	/*
@@ -142,6 +149,11 @@ public class JavaToJsonMapper extends AbstractTypeMapper<TypeMapper<?, ?>> {
 		} else if (fromClass == rawTarget) {
 			addMapper(fromClass, fromClass, SelfMapper);
 			return SelfMapper;
+		} else if (fromClass == originalFromClass && rawTarget.isAssignableFrom(ObjectNode.class) &&
+			BeanMapperFactory.getInstance().isReadableBean(fromClass)) {
+			final BeanToObjectMapper mapper = BeanMapperFactory.getInstance().getToObjectMapper(fromClass);
+			addMapper(fromClass, rawTarget, mapper);
+			return mapper;
 		}
 
 		return super.findMapper(fromClass, originalFromClass, targetType, rawTarget);
@@ -32,6 +32,7 @@ import java.util.Set;
 import com.google.common.collect.Iterables;
 import com.google.common.reflect.TypeToken;
 
+import eu.stratosphere.sopremo.type.typed.BeanMapperFactory;
 import eu.stratosphere.sopremo.type.typed.ITypedObjectNode;
 import eu.stratosphere.util.CollectionUtil;
 import eu.stratosphere.util.reflect.ReflectUtil;
@@ -71,7 +72,7 @@ public class JsonToJavaMapper extends AbstractTypeMapper<TypeMapper<?, ?>> {
 		public Object mapTo(IArrayNode from, Object target) {
 			final int fromSize = from.size();
 
-			if (target == null || fromSize != Array.getLength(from))
+			if (target == null || fromSize != Array.getLength(target))
 				target = Array.newInstance(this.rawElemType, fromSize);
 
 			for (int index = 0; index < fromSize; index++)
@@ -456,6 +457,9 @@ public class JsonToJavaMapper extends AbstractTypeMapper<TypeMapper<?, ?>> {
 			addMapper(fromClass, fromClass, mapper = JavaToJsonMapper.SelfMapper);
 		else if (Map.class.isAssignableFrom(rawTarget))
 			addMapper(fromClass, rawTarget, mapper = new ObjectToMapMapper(targetType));
+		else if (IObjectNode.class.isAssignableFrom(fromClass) &&
+			BeanMapperFactory.getInstance().isWritableBean(rawTarget))
+			addMapper(fromClass, rawTarget, mapper = BeanMapperFactory.getInstance().getToBeanMapper(rawTarget));
 		else
 			mapper = super.findMapper(fromClass, originalFromClass, targetType, rawTarget);
 		return mapper;
@@ -0,0 +1,196 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * This node represents an array of {@link LongNode}s that are stored as primitive longs.
+ */
+@DefaultSerializer(AbstractPrimitiveArrayNode.PrimitiveArraySerializer.class)
+public class LongArrayNode extends AbstractPrimitiveArrayNode {
+	private final LongArrayList values;
+
+	/**
+	 * Initializes an empty LongArrayNode.
+	 */
+	public LongArrayNode() {
+		this.values = new LongArrayList();
+	}
+
+	/**
+	 * Initializes a LongArrayNode with the given values.
+	 * 
+	 * @param values
+	 *        the values of the array
+	 */
+	public LongArrayNode(final long... values) {
+		this.values = new LongArrayList(values);
+	}
+
+	/**
+	 * Returns the value at the given index, which must be a number.
+	 * 
+	 * @param index
+	 *        the index of the value
+	 * @return the value
+	 */
+	public long getLong(final int index) {
+		if (this.isPrimitive())
+			return this.values.getLong(index);
+		return ((INumericNode) this.get(index)).getLongValue();
+	}
+
+	/**
+	 * Adds the given value to the end of the array.
+	 * 
+	 * @param value
+	 *        the value to add
+	 * @return this node
+	 */
+	public LongArrayNode add(final long value) {
+		if (this.isPrimitive())
+			this.values.add(value);
+		else
+			this.add(LongNode.valueOf(value));
+		return this;
+	}
+
+	/**
+	 * Sets the value at the given index.
+	 * 
+	 * @param index
+	 *        the index of the value
+	 * @param value
+	 *        the value to set
+	 */
+	public void set(final int index, final long value) {
+		if (this.isPrimitive() && index < this.values.size())
+			this.values.set(index, value);
+		else
+			this.set(index, LongNode.valueOf(value));
+	}
+
+	/**
+	 * Returns a new array with all values, which must be numbers.
+	 * 
+	 * @return the values
+	 */
+	public long[] toLongArray() {
+		if (this.isPrimitive())
+			return this.values.toLongArray();
+		final long[] array = new long[this.size()];
+		for (int index = 0; index < array.length; index++)
+			array[index] = this.getLong(index);
+		return array;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.AbstractPrimitiveArrayNode#clone()
+	 */
+	@Override
+	public LongArrayNode clone() {
+		return (LongArrayNode) super.clone();
+	}
+
+	@Override
+	protected boolean accepts(final IJsonNode element) {
+		return element.getClass() == LongNode.class;
+	}
+
+	@Override
+	protected int getPrimitiveSize() {
+		return this.values.size();
+	}
+
+	@Override
+	protected IJsonNode getPrimitive(final int index) {
+		return LongNode.valueOf(this.values.getLong(index));
+	}
+
+	@Override
+	protected void setPrimitive(final int index, final IJsonNode element) {
+		this.values.set(index, ((LongNode) element).getLongValue());
+	}
+
+	@Override
+	protected void addPrimitive(final int index, final IJsonNode element) {
+		this.values.add(index, ((LongNode) element).getLongValue());
+	}
+
+	@Override
+	protected void removePrimitive(final int index) {
+		this.values.removeLong(index);
+	}
+
+	@Override
+	protected void clearPrimitives() {
+		this.values.clear();
+	}
+
+	@Override
+	protected void copyPrimitivesFrom(final AbstractPrimitiveArrayNode array) {
+		this.values.clear();
+		this.values.addAll(((LongArrayNode) array).values);
+	}
+
+	@Override
+	protected int getPrimitiveHash() {
+		// same as the hash code of LongNodes
+		final long[] elements = this.values.elements();
+		int hash = 1;
+		for (int index = 0, size = this.values.size(); index < size; index++)
+			hash = 31 * hash + ((int) (elements[index] >>> 32) | (int) (elements[index] & 0xFFFFFFFF));
+		return hash;
+	}
+
+	@Override
+	protected boolean primitivesEqual(final AbstractPrimitiveArrayNode array) {
+		return this.values.equals(((LongArrayNode) array).values);
+	}
+
+	@Override
+	protected int comparePrimitives(final AbstractPrimitiveArrayNode array) {
+		final LongArrayList otherValues = ((LongArrayNode) array).values;
+		final int size = this.values.size();
+		if (size != otherValues.size())
+			return size - otherValues.size();
+		final long[] elements1 = this.values.elements(), elements2 = otherValues.elements();
+		for (int index = 0; index < size; index++)
+			if (elements1[index] != elements2[index])
+				return elements1[index] < elements2[index] ? -1 : 1;
+		return 0;
+	}
+
+	@Override
+	protected void writePrimitives(final Output output) {
+		final long[] elements = this.values.elements();
+		for (int index = 0, size = this.values.size(); index < size; index++)
+			output.writeLong(elements[index], false);
+	}
+
+	@Override
+	protected void readPrimitives(final Input input, final int size) {
+		this.values.size(size);
+		final long[] elements = this.values.elements();
+		for (int index = 0; index < size; index++)
+			elements[index] = input.readLong(false);
+	}
+}
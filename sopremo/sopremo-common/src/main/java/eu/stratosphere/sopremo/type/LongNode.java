@@ -128,7 +128,8 @@ public class LongNode extends AbstractNumericNode implements INumericNode {
 
 	@Override
 	public int compareToSameType(final IJsonNode other) {
-		return Long.signum(this.value - ((LongNode) other).value);
+		final long otherValue = ((LongNode) other).value;
+		return this.value < otherValue ? -1 : (this.value == otherValue ? 0 : 1);
 	}
 
 	@Override
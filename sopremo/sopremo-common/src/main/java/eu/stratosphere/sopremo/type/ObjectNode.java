@@ -1,12 +1,15 @@
 package eu.stratosphere.sopremo.type;
 
 import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeMap;
+import java.util.TreeSet;
 
 import javolution.util.FastSet;
 
@@ -19,19 +22,44 @@ import com.esotericsoftware.kryo.io.Output;
 import eu.stratosphere.sopremo.pact.SopremoUtil;
 
 /**
- * This node represents a json object.
+ * This node represents a json object.<br />
+ * The fields are stored in parallel arrays that are sorted by field name, such that iteration and comparison follow
+ * the order of the field names. Fields are looked up by the cached hash codes of their names: small objects are
+ * scanned linearly and larger objects additionally maintain an open-addressed index.
  */
 @DefaultSerializer(ObjectNode.ObjectSerializer.class)
 public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCopyable<ObjectNode> {
 
 	/**
-	 * Do not store null nodes
+	 * The maximum number of fields that are looked up without index.
 	 */
-	private final SortedMap<String, IJsonNode> children = new TreeMap<String, IJsonNode>();
+	private static final int LINEAR_SCAN_SIZE = 8;
+
+	private static final int INITIAL_CAPACITY = 4;
+
+	/**
+	 * The sorted field names and their values. Do not store null nodes
+	 */
+	private String[] names = new String[INITIAL_CAPACITY];
+
+	private IJsonNode[] values = new IJsonNode[INITIAL_CAPACITY];
+
+	/**
+	 * The hash codes of the field names.
+	 */
+	private int[] hashes = new int[INITIAL_CAPACITY];
+
+	private int size;
+
+	/**
+	 * Maps the mixed hash code of a field name to its position plus one; built lazily, updated when fields are
+	 * inserted, and discarded when fields are removed or the index becomes too full.
+	 */
+	private transient int[] index;
 
 	@Override
 	public int size() {
-		return this.children.size();
+		return this.size;
 	}
 
 	@Override
@@ -53,16 +81,11 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 	@Override
 	public void appendAsString(final Appendable appendable) throws IOException {
 		appendable.append("{");
-		boolean first = true;
-		final Iterator<Entry<String, IJsonNode>> iterator = this.iterator();
-		while (iterator.hasNext()) {
-			if (first)
-				first = false;
-			else
+		for (int pos = 0; pos < this.size; pos++) {
+			if (pos > 0)
 				appendable.append(", ");
-			final Entry<String, IJsonNode> child = iterator.next();
-			appendable.append(child.getKey()).append(": ");
-			child.getValue().appendAsString(appendable);
+			appendable.append(this.names[pos]).append(": ");
+			this.values[pos].appendAsString(appendable);
 		}
 		appendable.append("}");
 	}
@@ -78,6 +101,9 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 
 	@Override
 	public int compareToSameType(final IJsonNode other) {
+		if (other instanceof ObjectNode)
+			return this.compareFields((ObjectNode) other);
+
 		final IObjectNode node = (IObjectNode) other;
 		final Iterator<Entry<String, IJsonNode>> entries1 = this.iterator(), entries2 = node.iterator();
 
@@ -99,6 +125,20 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 		return 0;
 	}
 
+	private int compareFields(final ObjectNode other) {
+		final int commonSize = Math.min(this.size, other.size);
+		for (int pos = 0; pos < commonSize; pos++) {
+			final int keyComparison = this.names[pos].compareTo(other.names[pos]);
+			if (keyComparison != 0)
+				return keyComparison;
+
+			final int valueComparison = this.values[pos].compareTo(other.values[pos]);
+			if (valueComparison != 0)
+				return valueComparison;
+		}
+		return this.size < other.size ? -1 : this.size == other.size ? 0 : 1;
+	}
+
 	@Override
 	public void copyValueFrom(final IJsonNode otherNode) {
 		this.checkForSameType(otherNode);
@@ -129,10 +169,17 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 		if (value == null)
 			throw new NullPointerException();
 
-		if (value == MissingNode.getInstance())
-			this.children.remove(fieldName);
+		if (value == MissingNode.getInstance()) {
+			this.remove(fieldName);
+			return this;
+		}
+
+		final int hash = fieldName.hashCode();
+		final int pos = this.find(fieldName, hash);
+		if (pos >= 0)
+			this.values[pos] = value;
 		else
-			this.children.put(fieldName, value);
+			this.insert(fieldName, hash, value);
 		return this;
 	}
 
@@ -143,12 +190,111 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 	@SuppressWarnings("unchecked")
 	@Override
 	public IJsonNode get(final String fieldName) {
-		final IJsonNode node = this.children.get(fieldName);
-		if (node != null)
-			return node;
+		final int pos = this.find(fieldName, fieldName.hashCode());
+		if (pos >= 0)
+			return this.values[pos];
 		return MissingNode.getInstance();
 	}
 
+	/**
+	 * Returns the position of the given field name or -1 if the field is not contained.
+	 */
+	private int find(final String fieldName, final int hash) {
+		if (this.size <= LINEAR_SCAN_SIZE) {
+			for (int pos = 0; pos < this.size; pos++)
+				if (this.hashes[pos] == hash && fieldName.equals(this.names[pos]))
+					return pos;
+			return -1;
+		}
+
+		if (this.index == null)
+			this.buildIndex();
+		final int mask = this.index.length - 1;
+		for (int slot = mix(hash) & mask;; slot = slot + 1 & mask) {
+			final int entry = this.index[slot];
+			if (entry == 0)
+				return -1;
+			final int pos = entry - 1;
+			if (this.hashes[pos] == hash && fieldName.equals(this.names[pos]))
+				return pos;
+		}
+	}
+
+	private void buildIndex() {
+		// at most half of the slots are occupied
+		this.index = new int[Integer.highestOneBit(this.size) << 2];
+		for (int pos = 0; pos < this.size; pos++)
+			this.addToIndex(pos);
+	}
+
+	private void addToIndex(final int pos) {
+		final int mask = this.index.length - 1;
+		int slot = mix(this.hashes[pos]) & mask;
+		while (this.index[slot] != 0)
+			slot = slot + 1 & mask;
+		this.index[slot] = pos + 1;
+	}
+
+	private static int mix(final int hash) {
+		final int h = hash * 0x9E3779B9;
+		return h ^ h >>> 16;
+	}
+
+	private void insert(final String fieldName, final int hash, final IJsonNode value) {
+		if (this.size == this.names.length) {
+			final int capacity = Math.max(INITIAL_CAPACITY, this.size * 2);
+			this.names = Arrays.copyOf(this.names, capacity);
+			this.values = Arrays.copyOf(this.values, capacity);
+			this.hashes = Arrays.copyOf(this.hashes, capacity);
+		}
+
+		// fields are usually added in sorted order, e.g., during deserialization
+		int pos = this.size;
+		if (pos > 0 && fieldName.compareTo(this.names[pos - 1]) < 0) {
+			pos = -Arrays.binarySearch(this.names, 0, this.size, fieldName) - 1;
+			System.arraycopy(this.names, pos, this.names, pos + 1, this.size - pos);
+			System.arraycopy(this.values, pos, this.values, pos + 1, this.size - pos);
+			System.arraycopy(this.hashes, pos, this.hashes, pos + 1, this.size - pos);
+			if (this.index != null)
+				this.shiftIndex(pos);
+		}
+		this.names[pos] = fieldName;
+		this.values[pos] = value;
+		this.hashes[pos] = hash;
+		this.size++;
+
+		if (this.index != null)
+			if (this.size * 2 > this.index.length)
+				this.index = null;
+			else
+				this.addToIndex(pos);
+	}
+
+	/**
+	 * Increments the positions of the fields that have been moved behind the given position. The entries are updated
+	 * starting with the last field, such that the positions in the index stay unique.
+	 */
+	private void shiftIndex(final int pos) {
+		final int mask = this.index.length - 1;
+		for (int moved = this.size; moved > pos; moved--) {
+			// the field at the new position moved has the entry of its old position moved - 1
+			int slot = mix(this.hashes[moved]) & mask;
+			while (this.index[slot] != moved)
+				slot = slot + 1 & mask;
+			this.index[slot] = moved + 1;
+		}
+	}
+
+	private void removeAt(final int pos) {
+		this.size--;
+		System.arraycopy(this.names, pos + 1, this.names, pos, this.size - pos);
+		System.arraycopy(this.values, pos + 1, this.values, pos, this.size - pos);
+		System.arraycopy(this.hashes, pos + 1, this.hashes, pos, this.size - pos);
+		this.names[this.size] = null;
+		this.values[this.size] = null;
+		this.index = null;
+	}
+
 	//
 	// @Override
 	// public IJsonNode readResolve(final DataInput in) throws IOException {
@@ -177,9 +323,9 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 		public void write(Kryo kryo, Output output, ObjectNode object) {
 			output.writeInt(object.size());
 
-			for (final Entry<String, IJsonNode> entry : object) {
-				output.writeString(entry.getKey());
-				kryo.writeClassAndObject(output, entry.getValue());
+			for (int pos = 0; pos < object.size; pos++) {
+				output.writeString(object.names[pos]);
+				kryo.writeClassAndObject(output, object.values[pos]);
 			}
 		}
 
@@ -215,15 +361,15 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 			final int len = input.readInt();
 
 			// performance optimization: reuse existing nodes
-			final SortedMap<String, IJsonNode> children = object.children;
-			this.currentKeys.addAll(children.keySet());
+			this.currentKeys.addAll(object.getFieldNames());
 			for (int i = 0; i < len; i++) {
 				final String key = input.readString();
 				this.currentKeys.remove(key);
-				children.put(key, SopremoUtil.deserializeInto(kryo, input, children.get(key)));
+				final int pos = object.find(key, key.hashCode());
+				object.put(key, SopremoUtil.deserializeInto(kryo, input, pos >= 0 ? object.values[pos] : null));
 			}
 			for (String currentKey : this.currentKeys)
-				children.remove(currentKey);
+				object.remove(currentKey);
 			this.currentKeys.clear();
 
 			return object;
@@ -236,20 +382,31 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 	 */
 	@Override
 	public void remove(final String fieldName) {
-		this.children.remove(fieldName);
+		final int pos = this.find(fieldName, fieldName.hashCode());
+		if (pos >= 0)
+			this.removeAt(pos);
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + this.children.hashCode();
+		// same as the hash code of a map with the fields
+		int childrenHash = 0;
+		for (int pos = 0; pos < this.size; pos++)
+			childrenHash += this.hashes[pos] ^ this.values[pos].hashCode();
+		result = prime * result + childrenHash;
 		return result;
 	}
 
 	@Override
 	public Iterator<Entry<String, IJsonNode>> iterator() {
-		return this.children.entrySet().iterator();
+		return new FieldIterator<Entry<String, IJsonNode>>() {
+			@Override
+			protected Entry<String, IJsonNode> get(final int pos) {
+				return new Field(pos);
+			}
+		};
 	}
 
 	@Override
@@ -260,7 +417,13 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 			return super.equals(obj);
 
 		final ObjectNode other = (ObjectNode) obj;
-		return this.children.equals(other.children);
+		if (this.size != other.size)
+			return false;
+		for (int pos = 0; pos < this.size; pos++)
+			if (this.hashes[pos] != other.hashes[pos] || !this.names[pos].equals(other.names[pos]) ||
+				!this.values[pos].equals(other.values[pos]))
+				return false;
+		return true;
 	}
 
 	/*
@@ -269,12 +432,167 @@ public class ObjectNode extends AbstractJsonNode implements IObjectNode, KryoCop
 	 */
 	@Override
 	public SortedSet<String> getFieldNames() {
-		// safe cast, since children is a SortedMap
-		return (SortedSet<String>) this.children.keySet();
+		return new FieldNames();
 	}
 
 	@Override
 	public void clear() {
-		this.children.clear();
+		Arrays.fill(this.names, 0, this.size, null);
+		Arrays.fill(this.values, 0, this.size, null);
+		this.size = 0;
+		this.index = null;
+	}
+
+	/**
+	 * Iterates over the fields in the order of their names.
+	 */
+	private abstract class FieldIterator<T> implements Iterator<T> {
+		private int pos = 0;
+
+		private boolean removable = false;
+
+		@Override
+		public boolean hasNext() {
+			return this.pos < ObjectNode.this.size;
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			this.removable = true;
+			return this.get(this.pos++);
+		}
+
+		protected abstract T get(int pos);
+
+		@Override
+		public void remove() {
+			if (!this.removable)
+				throw new IllegalStateException();
+			ObjectNode.this.removeAt(--this.pos);
+			this.removable = false;
+		}
+	}
+
+	/**
+	 * A field that writes changed values through to this node.
+	 */
+	private final class Field implements Entry<String, IJsonNode> {
+		private final String name;
+
+		private IJsonNode value;
+
+		private final int pos;
+
+		private Field(final int pos) {
+			this.pos = pos;
+			this.name = ObjectNode.this.names[pos];
+			this.value = ObjectNode.this.values[pos];
+		}
+
+		@Override
+		public String getKey() {
+			return this.name;
+		}
+
+		@Override
+		public IJsonNode getValue() {
+			return this.value;
+		}
+
+		@Override
+		public IJsonNode setValue(final IJsonNode value) {
+			if (value == null || value == MissingNode.getInstance())
+				throw new IllegalArgumentException("Use remove to remove fields");
+			final IJsonNode oldValue = this.value;
+			ObjectNode.this.values[this.pos] = this.value = value;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Entry))
+				return false;
+			final Entry<?, ?> other = (Entry<?, ?>) obj;
+			return this.name.equals(other.getKey()) && this.value.equals(other.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.name.hashCode() ^ this.value.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return this.name + "=" + this.value;
+		}
+	}
+
+	/**
+	 * The sorted field names of this node. Removing names removes the fields, while sub sets are detached copies.
+	 */
+	private final class FieldNames extends AbstractSet<String> implements SortedSet<String> {
+		@Override
+		public Iterator<String> iterator() {
+			return new FieldIterator<String>() {
+				@Override
+				protected String get(final int pos) {
+					return ObjectNode.this.names[pos];
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return ObjectNode.this.size;
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			return o instanceof String && ObjectNode.this.find((String) o, o.hashCode()) >= 0;
+		}
+
+		@Override
+		public boolean remove(final Object o) {
+			if (!this.contains(o))
+				return false;
+			ObjectNode.this.remove((String) o);
+			return true;
+		}
+
+		@Override
+		public Comparator<? super String> comparator() {
+			return null;
+		}
+
+		@Override
+		public String first() {
+			if (ObjectNode.this.size == 0)
+				throw new NoSuchElementException();
+			return ObjectNode.this.names[0];
+		}
+
+		@Override
+		public String last() {
+			if (ObjectNode.this.size == 0)
+				throw new NoSuchElementException();
+			return ObjectNode.this.names[ObjectNode.this.size - 1];
+		}
+
+		@Override
+		public SortedSet<String> subSet(final String fromElement, final String toElement) {
+			return new TreeSet<String>(this).subSet(fromElement, toElement);
+		}
+
+		@Override
+		public SortedSet<String> headSet(final String toElement) {
+			return new TreeSet<String>(this).headSet(toElement);
+		}
+
+		@Override
+		public SortedSet<String> tailSet(final String fromElement) {
+			return new TreeSet<String>(this).tailSet(fromElement);
+		}
 	}
 }
@@ -0,0 +1,414 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+
+import eu.stratosphere.nephele.configuration.ConfigConstants;
+import eu.stratosphere.nephele.configuration.GlobalConfiguration;
+import eu.stratosphere.sopremo.SopremoEnvironment;
+import eu.stratosphere.sopremo.serialization.SopremoRecord;
+import eu.stratosphere.sopremo.serialization.SopremoRecordLayout;
+import eu.stratosphere.util.AbstractIterator;
+
+/**
+ * A {@link StreamNode} that can be iterated any number of times. While the underlying iterator is consumed for the
+ * first time, the nodes are recorded as serialized {@link SopremoRecord}s in a memory buffer. As soon as the buffer
+ * exceeds the memory threshold, the remaining records are spilled to a file in one of the temporary directories of the
+ * task manager. All further iterations replay the recorded nodes.<br />
+ * The nodes returned by a replaying iterator are reused and only valid until the next invocation of
+ * {@link Iterator#next()}.<br />
+ * The spill file is reused for the nodes of the next source and deleted in {@link #clear()}, which the owner of the
+ * stream has to invoke when the stream is not used anymore.
+ */
+@DefaultSerializer(StreamNode.StreamNodeSerializer.class)
+public class SpillingStreamNode<T extends IJsonNode> extends StreamNode<T> {
+	/**
+	 * The default size of the memory buffer in bytes.
+	 */
+	public final static int DEFAULT_MEMORY_THRESHOLD = 16 << 20;
+
+	/**
+	 * The index of the temporary directory of the next spill file, so that the spill files are distributed over all
+	 * directories.
+	 */
+	private final static AtomicInteger NEXT_TEMP_DIRECTORY = new AtomicInteger();
+
+	private final SopremoRecordLayout layout;
+
+	private final int memoryThreshold;
+
+	private transient Iterator<? extends T> source = Collections.<T> emptySet().iterator();
+
+	private transient boolean recording = false, recorded = true;
+
+	private transient SopremoRecord record;
+
+	private transient ByteArrayOutputStream memoryBuffer = new ByteArrayOutputStream();
+
+	private transient DataOutputStream memoryOutput = new DataOutputStream(this.memoryBuffer);
+
+	private transient byte[] memory = new byte[0];
+
+	private transient DataOutputStream output;
+
+	private transient File spillFile;
+
+	private transient int size, sizeInMemory;
+
+	/**
+	 * Initializes SpillingStreamNode with the given layout for the spilled records and the given size of the memory
+	 * buffer.
+	 * 
+	 * @param layout
+	 *        the layout of the records that are used to serialize the nodes
+	 * @param memoryThreshold
+	 *        the number of bytes that are buffered in memory before the records are spilled to disk
+	 */
+	public SpillingStreamNode(final SopremoRecordLayout layout, final int memoryThreshold) {
+		if (layout == null)
+			throw new NullPointerException("layout must not be null");
+		if (memoryThreshold < 0)
+			throw new IllegalArgumentException("memoryThreshold must not be negative");
+		this.layout = layout;
+		this.memoryThreshold = memoryThreshold;
+	}
+
+	/**
+	 * Initializes SpillingStreamNode with the {@link SopremoRecordLayout#EMPTY} layout and the
+	 * {@link #DEFAULT_MEMORY_THRESHOLD}.
+	 */
+	public SpillingStreamNode() {
+		this(SopremoRecordLayout.EMPTY, DEFAULT_MEMORY_THRESHOLD);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.StreamNode#getNodeIterator()
+	 */
+	@Override
+	public Iterator<? extends T> getNodeIterator() {
+		return this.source;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.StreamNode#setNodeIterator(java.util.Iterator)
+	 */
+	@Override
+	public void setNodeIterator(final Iterator<? extends T> nodeIterator) {
+		if (nodeIterator == null)
+			throw new NullPointerException("nodeIterator must not be null");
+
+		this.source = nodeIterator;
+		this.recording = false;
+		this.recorded = false;
+		this.memoryBuffer.reset();
+		this.memory = null;
+		this.size = this.sizeInMemory = 0;
+		this.closeOutput();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.StreamNode#clear()
+	 */
+	@Override
+	public void clear() {
+		this.setNodeIterator(Collections.<T> emptySet().iterator());
+		this.deleteSpillFile();
+	}
+
+	/**
+	 * Records the given node before the nodes of the source that have not been recorded yet. The node is serialized
+	 * immediately, so that the caller may reuse it afterwards. Nodes can only be appended until the stream is iterated
+	 * and are usually appended to a cleared stream.
+	 * 
+	 * @param node
+	 *        the node to append
+	 */
+	public void append(final T node) {
+		if (this.recorded || this.recording)
+			throw new IllegalStateException("Nodes cannot be appended after the stream has been iterated");
+		this.record(node);
+	}
+
+	/**
+	 * Returns the number of recorded nodes.
+	 * 
+	 * @return the number of nodes after the first iteration has been completed or the number of nodes recorded so far
+	 */
+	public int getRecordedSize() {
+		return this.size;
+	}
+
+	/**
+	 * Returns true if some nodes have been spilled to disk.
+	 * 
+	 * @return true if the nodes did not fit into the memory buffer
+	 */
+	public boolean isSpilled() {
+		return this.sizeInMemory < this.size || this.output != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.StreamNode#isEmpty()
+	 */
+	@Override
+	public boolean isEmpty() {
+		if (this.recorded)
+			return this.size == 0;
+		return this.size == 0 && !this.source.hasNext();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.StreamNode#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		if (!this.recorded) {
+			if (!this.recording && this.size == 0) {
+				this.recording = true;
+				return new RecordingIterator();
+			}
+			// a previous iteration has not been completed or nodes have been appended
+			while (this.source.hasNext())
+				this.record(this.source.next());
+			this.finishRecording();
+		}
+		return new ReplayingIterator();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.StreamNode#appendAsString(java.lang.Appendable)
+	 */
+	@Override
+	public void appendAsString(final Appendable appendable) throws IOException {
+		// printing should only be done during debugging
+		appendable.append('[');
+		final Iterator<T> iterator = this.iterator();
+		for (int index = 0; iterator.hasNext(); index++) {
+			final T element = iterator.next();
+			if (index == 100) {
+				appendable.append(", ...");
+				// completes the recording
+				while (iterator.hasNext())
+					iterator.next();
+				break;
+			}
+			if (index > 0)
+				appendable.append(", ");
+			element.appendAsString(appendable);
+		}
+		appendable.append(']');
+	}
+
+	private SopremoRecord getRecord() {
+		if (this.record == null)
+			this.record = this.createRecord();
+		return this.record;
+	}
+
+	/**
+	 * Creates a record that writes the texts of the dictionary of the task as ids, since the recorded nodes are only
+	 * replayed by the same task.
+	 */
+	private SopremoRecord createRecord() {
+		final SopremoRecord record = new SopremoRecord(this.layout);
+		record.setTextDictionary(SopremoEnvironment.getInstance().getEvaluationContext().getTextDictionary());
+		return record;
+	}
+
+	private void record(final T node) {
+		try {
+			if (this.output == null && this.memoryBuffer.size() > this.memoryThreshold)
+				this.openOutput();
+			final SopremoRecord record = this.getRecord();
+			record.setNode(node);
+			if (this.output == null) {
+				record.write(this.memoryOutput);
+				this.sizeInMemory++;
+			} else
+				record.write(this.output);
+			this.size++;
+		} catch (final IOException e) {
+			throw new IllegalStateException("Cannot spill stream to " + this.spillFile, e);
+		}
+	}
+
+	private void finishRecording() {
+		this.memory = this.memoryBuffer.toByteArray();
+		this.memoryBuffer.reset();
+		this.closeOutput();
+		this.recording = false;
+		this.recorded = true;
+	}
+
+	private void closeOutput() {
+		if (this.output != null)
+			try {
+				this.output.close();
+			} catch (final IOException e) {
+				throw new IllegalStateException("Cannot spill stream to " + this.spillFile, e);
+			} finally {
+				this.output = null;
+			}
+	}
+
+	private void openOutput() throws IOException {
+		try {
+			this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.getSpillFile())));
+		} catch (final IOException e) {
+			this.deleteSpillFile();
+			throw e;
+		}
+	}
+
+	private File getSpillFile() throws IOException {
+		if (this.spillFile == null) {
+			this.spillFile = File.createTempFile("sopremo-stream", ".spill", getTempDirectory());
+			this.spillFile.deleteOnExit();
+		}
+		return this.spillFile;
+	}
+
+	/**
+	 * Returns one of the temporary directories that are configured for the task manager.
+	 */
+	private static File getTempDirectory() {
+		final String[] paths = GlobalConfiguration.getString(ConfigConstants.TASK_MANAGER_TMP_DIR_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_TMP_PATH).split(File.pathSeparator);
+		return new File(paths[(NEXT_TEMP_DIRECTORY.getAndIncrement() & Integer.MAX_VALUE) % paths.length]);
+	}
+
+	private void deleteSpillFile() {
+		if (this.spillFile != null) {
+			this.spillFile.delete();
+			this.spillFile = null;
+		}
+	}
+
+	/**
+	 * Passes the nodes of the source through and records them.
+	 */
+	private final class RecordingIterator implements Iterator<T> {
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#hasNext()
+		 */
+		@Override
+		public boolean hasNext() {
+			if (!SpillingStreamNode.this.recording)
+				return false;
+			if (SpillingStreamNode.this.source.hasNext())
+				return true;
+			SpillingStreamNode.this.finishRecording();
+			return false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#next()
+		 */
+		@Override
+		public T next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			final T node = SpillingStreamNode.this.source.next();
+			SpillingStreamNode.this.record(node);
+			return node;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Iterator#remove()
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Reads the recorded nodes first from the memory buffer and then from the spill file. The records in the memory
+	 * buffer are wrapped instead of copied.
+	 */
+	private final class ReplayingIterator extends AbstractIterator<T> {
+		private final SopremoRecord replayRecord = SpillingStreamNode.this.createRecord();
+
+		private final byte[] memory = SpillingStreamNode.this.memory;
+
+		private DataInputStream input;
+
+		private int index = 0, offset = 0;
+
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.util.AbstractIterator#loadNext()
+		 */
+		@SuppressWarnings("unchecked")
+		@Override
+		protected T loadNext() {
+			if (this.index == SpillingStreamNode.this.size) {
+				this.close();
+				return this.noMoreElements();
+			}
+			try {
+				if (this.index < SpillingStreamNode.this.sizeInMemory)
+					this.offset += this.replayRecord.wrap(this.memory, this.offset, this.memory.length - this.offset);
+				else {
+					if (this.index == SpillingStreamNode.this.sizeInMemory) {
+						final InputStream fileInput = new FileInputStream(SpillingStreamNode.this.spillFile);
+						this.input = new DataInputStream(new BufferedInputStream(fileInput));
+					}
+					this.replayRecord.read(this.input);
+				}
+				this.index++;
+				return (T) this.replayRecord.getNode();
+			} catch (final IOException e) {
+				this.close();
+				throw new IllegalStateException("Cannot read spilled stream from " +
+					SpillingStreamNode.this.spillFile, e);
+			}
+		}
+
+		private void close() {
+			if (this.input != null)
+				try {
+					this.input.close();
+				} catch (final IOException e) {
+					// the file has been read already
+				}
+		}
+	}
+}
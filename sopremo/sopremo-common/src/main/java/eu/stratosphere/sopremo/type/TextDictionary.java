@@ -0,0 +1,144 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns consecutive ids to the distinct values of low-cardinality text columns, such that {@link TextNode}s can
+ * refer to a value by its id with {@link TextNode#setValue(TextDictionary, int)}.<br />
+ * Each task has one dictionary, which is available with
+ * {@link eu.stratosphere.sopremo.EvaluationContext#getTextDictionary()}. Records that are written and read by the same
+ * task with {@link eu.stratosphere.sopremo.serialization.SopremoRecord#setTextDictionary(TextDictionary)} serialize
+ * the ids instead of the texts. Values are looked up directly on their characters, so that encoding a value that is
+ * already contained in the dictionary does not allocate any object. Once the dictionary contains the maximum number of
+ * values, further values are not encoded anymore.
+ */
+public class TextDictionary {
+	/**
+	 * The id that is returned for values that cannot be added to a full dictionary.
+	 */
+	public static final int NOT_ENCODED = -1;
+
+	/**
+	 * The default maximum number of values.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+	private final List<TextNode> values = new ArrayList<TextNode>();
+
+	private final IntArrayList hashes = new IntArrayList();
+
+	/**
+	 * The open-addressing hash table of the values, which contains the id of each value plus one; 0 denotes a free
+	 * slot.
+	 */
+	private int[] table = new int[16];
+
+	private final int maxSize;
+
+	/**
+	 * Initializes a TextDictionary with {@link #DEFAULT_MAX_SIZE}.
+	 */
+	public TextDictionary() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Initializes a TextDictionary with the given maximum number of values.
+	 * 
+	 * @param maxSize
+	 *        the maximum number of values
+	 */
+	public TextDictionary(final int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the id of the given value and adds the value if it is not contained yet. The value is only copied when
+	 * it is added.
+	 * 
+	 * @param value
+	 *        the value to encode
+	 * @return the id of the value or {@link #NOT_ENCODED} if the dictionary is full
+	 */
+	public int encode(final CharSequence value) {
+		final int hash = hashCode(value);
+		final int mask = this.table.length - 1;
+		int slot = HashCommon.murmurHash3(hash) & mask;
+		for (int entry; (entry = this.table[slot]) != 0; slot = (slot + 1) & mask)
+			if (this.hashes.getInt(entry - 1) == hash && this.values.get(entry - 1).contentEquals(value))
+				return entry - 1;
+
+		if (this.values.size() >= this.maxSize)
+			return NOT_ENCODED;
+		final int id = this.values.size();
+		this.values.add(new TextNode(value));
+		this.hashes.add(hash);
+		this.table[slot] = id + 1;
+		if (2 * this.values.size() > this.table.length)
+			this.rehash();
+		return id;
+	}
+
+	/**
+	 * Returns the number of values in this dictionary.
+	 * 
+	 * @return the number of values
+	 */
+	public int size() {
+		return this.values.size();
+	}
+
+	/**
+	 * Returns the value with the given id, which must not be modified.
+	 */
+	TextNode getValue(final int id) {
+		return this.values.get(id);
+	}
+
+	/**
+	 * Returns the hash code of the value with the given id.
+	 */
+	int getHash(final int id) {
+		return this.hashes.getInt(id);
+	}
+
+	private void rehash() {
+		final int[] table = new int[2 * this.table.length];
+		final int mask = table.length - 1;
+		for (int id = 0, size = this.values.size(); id < size; id++) {
+			int slot = HashCommon.murmurHash3(this.hashes.getInt(id)) & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = id + 1;
+		}
+		this.table = table;
+	}
+
+	/**
+	 * Computes the hash code of the given characters, which coincides with {@link TextNode#hashCode()}.
+	 */
+	private static int hashCode(final CharSequence value) {
+		int hash = 1;
+		for (int index = 0, length = value.length(); index < length; index++)
+			hash = 31 * hash + value.charAt(index);
+		return hash;
+	}
+}
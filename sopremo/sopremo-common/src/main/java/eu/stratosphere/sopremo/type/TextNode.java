@@ -1,5 +1,6 @@
 package eu.stratosphere.sopremo.type;
 
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
 import it.unimi.dsi.fastutil.chars.CharArrayList;
 
 import java.io.IOException;
@@ -8,11 +9,18 @@ import java.util.Locale;
 
 import com.esotericsoftware.kryo.DefaultSerializer;
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 /**
- * This node represents a string value.
+ * This node represents a string value.<br />
+ * Texts that consist of ASCII characters only are stored as their UTF-8 bytes, which need half of the memory of
+ * characters and coincide with the characters at the same indices. These texts are compared, hashed, and serialized
+ * directly on the bytes. Other texts are stored as characters.<br />
+ * Additionally, a node may refer to a value of a {@link TextDictionary}. Such a node shares the characters of the
+ * dictionary value until it is changed, and nodes that refer to the same dictionary are compared and hashed on their
+ * ids.
  * 
  * @author Michael Hopstock
  * @author Tommy Neubert
@@ -32,12 +40,36 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 		@Override
 		public TextNode read(Kryo kryo, Input input, TextNode oldInstance,
 				Class<TextNode> type) {
-			final String string = input.readString();
-			if (oldInstance == null)
-				return new TextNode(string);
-			oldInstance.value.clear();
-			oldInstance.value.addElements(0, string.toCharArray());
-			return oldInstance;
+			return this.read(input, oldInstance, null);
+		}
+
+		/**
+		 * Reads a text that may have been written as the id of a value of the given dictionary.
+		 * 
+		 * @param input
+		 *        the input to read from
+		 * @param oldInstance
+		 *        the node that should be reused or null
+		 * @param dictionary
+		 *        the dictionary with which the text has been written or null
+		 * @return the read node
+		 */
+		public TextNode read(final Input input, final TextNode oldInstance, final TextDictionary dictionary) {
+			final TextNode node = oldInstance == null ? new TextNode() : oldInstance;
+			final int header = input.readInt(true);
+			if ((header & 3) == 2) {
+				if (dictionary == null)
+					throw new KryoException("Cannot decode dictionary id without text dictionary");
+				node.setValue(dictionary, header >>> 2);
+			} else if ((header & 1) != 0) {
+				final int length = header >>> 1;
+				node.dictionary = null;
+				node.chars = null;
+				node.bytes.size(length);
+				input.readBytes(node.bytes.elements(), 0, length);
+			} else
+				node.setValue(input.readString());
+			return node;
 		}
 
 		/*
@@ -48,7 +80,35 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 		 */
 		@Override
 		public void write(Kryo kryo, Output output, TextNode object) {
-			output.writeString(object);
+			this.write(output, object, null);
+		}
+
+		/**
+		 * Writes the given text as the id of its value if it refers to the given dictionary and as its characters
+		 * otherwise.
+		 * 
+		 * @param output
+		 *        the output to write to
+		 * @param object
+		 *        the text to write
+		 * @param dictionary
+		 *        the dictionary that is available when the text is read or null
+		 */
+		public void write(final Output output, final TextNode object, final TextDictionary dictionary) {
+			if (dictionary != null && object.dictionary == dictionary) {
+				// the id, flagged with the second lowest bit
+				output.writeInt(object.dictionaryId << 2 | 2, true);
+				return;
+			}
+			final TextNode text = object.resolve();
+			if (text.chars == null) {
+				// raw copy of the bytes, flagged with the lowest bit of the length
+				output.writeInt(text.bytes.size() << 1 | 1, true);
+				output.writeBytes(text.bytes.elements(), 0, text.bytes.size());
+			} else {
+				output.writeInt(0, true);
+				output.writeString(text);
+			}
 		}
 
 		/*
@@ -65,7 +125,22 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 
 	public final static TextNode EMPTY_STRING = new TextNode("");
 
-	private CharArrayList value = new CharArrayList();
+	/**
+	 * The UTF-8 bytes of this text if {@link #chars} is null.
+	 */
+	private ByteArrayList bytes = new ByteArrayList();
+
+	/**
+	 * The characters of this text if it contains non-ASCII characters; null otherwise.
+	 */
+	private CharArrayList chars;
+
+	/**
+	 * The dictionary that contains the value of this text if the value has not been copied yet; null otherwise.
+	 */
+	private transient TextDictionary dictionary;
+
+	private transient int dictionaryId;
 
 	private transient Formatter formatter;
 
@@ -84,8 +159,7 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	 *        the value that should be represented by this node
 	 */
 	public TextNode(final CharSequence v) {
-		for (int index = 0, count = v.length(); index < count; index++)
-			this.value.add(v.charAt(index));
+		this.append(v);
 	}
 
 	public Formatter asFormatter() {
@@ -111,9 +185,42 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	}
 
 	public void setValue(final CharSequence value) {
-		this.value.clear();
-		for (int index = 0, count = value.length(); index < count; index++)
-			this.value.add(value.charAt(index));
+		this.clear();
+		this.append(value);
+	}
+
+	/**
+	 * Lets this node represent the value with the given id in the given dictionary. The value is only copied when this
+	 * node is changed, and nodes that represent values of the same dictionary are compared by their ids.
+	 * 
+	 * @param dictionary
+	 *        the dictionary that contains the value
+	 * @param id
+	 *        the id of the value
+	 */
+	public void setValue(final TextDictionary dictionary, final int id) {
+		this.bytes.clear();
+		this.chars = null;
+		this.dictionary = dictionary;
+		this.dictionaryId = id;
+	}
+
+	/**
+	 * Returns the node that contains the characters of this text, which is the value in the dictionary if this node
+	 * has not been decoded yet.
+	 */
+	private TextNode resolve() {
+		return this.dictionary == null ? this : this.dictionary.getValue(this.dictionaryId);
+	}
+
+	/**
+	 * Copies the value from the dictionary, such that this node can be changed.
+	 */
+	private void decode() {
+		if (this.dictionary != null) {
+			final TextNode value = this.resolve();
+			this.setValue(value, 0, value.length());
+		}
 	}
 
 	@Override
@@ -139,7 +246,21 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 
 	@Override
 	public int hashCode() {
-		return this.value.hashCode();
+		if (this.dictionary != null)
+			return this.dictionary.getHash(this.dictionaryId);
+
+		// same as the hash code of a list of the characters
+		int hash = 1;
+		if (this.chars == null) {
+			final byte[] bytes = this.bytes.elements();
+			for (int index = 0, count = this.bytes.size(); index < count; index++)
+				hash = 31 * hash + bytes[index];
+		} else {
+			final char[] chars = this.chars.elements();
+			for (int index = 0, count = this.chars.size(); index < count; index++)
+				hash = 31 * hash + chars[index];
+		}
+		return hash;
 	}
 
 	@Override
@@ -152,27 +273,38 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 			return false;
 
 		final TextNode other = (TextNode) obj;
-		return this.value.equals(other.value);
+		if (this.dictionary != null && this.dictionary == other.dictionary)
+			return this.dictionaryId == other.dictionaryId;
+		final TextNode text = this.resolve(), otherText = other.resolve();
+		if (text.chars == null && otherText.chars == null)
+			return text.bytes.equals(otherText.bytes);
+		return text.contentEquals(otherText);
 	}
 
 	public boolean contentEquals(final CharSequence seq) {
 		int count = seq.length();
-		if (this.value.size() != count)
+		if (this.length() != count)
 			return false;
 
 		for (int index = 0; index < count; index++)
-			if (this.value.get(index) != seq.charAt(index))
+			if (this.charAt(index) != seq.charAt(index))
 				return false;
 		return true;
 	}
 
 	@Override
 	public void clear() {
-		this.value.clear();
+		this.bytes.clear();
+		this.chars = null;
+		this.dictionary = null;
 	}
 
 	public void setLength(int newLength) {
-		this.value.size(newLength);
+		this.decode();
+		if (this.chars == null)
+			this.bytes.size(newLength);
+		else
+			this.chars.size(newLength);
 	}
 
 	@Override
@@ -183,15 +315,27 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	@Override
 	public int compareToSameType(final IJsonNode other) {
 		final TextNode otherNode = (TextNode) other;
-		final int len1 = this.value.size();
-		final int len2 = otherNode.value.size();
+		if (this.dictionary != null && this.dictionary == otherNode.dictionary &&
+			this.dictionaryId == otherNode.dictionaryId)
+			return 0;
+
+		final TextNode text1 = this.resolve(), text2 = otherNode.resolve();
+		final int len1 = text1.length();
+		final int len2 = text2.length();
 		final int n = Math.min(len1, len2);
-		final char v1[] = this.value.elements();
-		final char v2[] = otherNode.value.elements();
 
-		for (int index = 0; index < n; index++)
-			if (v1[index] != v2[index])
-				return v1[index] - v2[index];
+		if (text1.chars == null && text2.chars == null) {
+			final byte v1[] = text1.bytes.elements();
+			final byte v2[] = text2.bytes.elements();
+			for (int index = 0; index < n; index++)
+				if (v1[index] != v2[index])
+					return v1[index] - v2[index];
+		} else
+			for (int index = 0; index < n; index++) {
+				final char c1 = text1.charAt(index), c2 = text2.charAt(index);
+				if (c1 != c2)
+					return c1 - c2;
+			}
 
 		return len1 - len2;
 	}
@@ -201,30 +345,49 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 		if (this == otherNode)
 			return;
 		this.checkForSameType(otherNode);
-		this.value.clear();
-		this.value.addAll(((TextNode) otherNode).value);
+		final TextNode text = (TextNode) otherNode;
+		if (text.dictionary != null)
+			this.setValue(text.dictionary, text.dictionaryId);
+		else
+			this.setValue(text, 0, text.length());
 	}
 
 	public void setValue(TextNode text, int start, int end) {
-		this.value.size(end - start);
-		System.arraycopy(text.value.elements(), start, this.value.elements(),
-			0, end - start);
+		text = text.resolve();
+		this.dictionary = null;
+		// the source arrays are retrieved first, as text may be this node
+		if (text.chars == null) {
+			final byte[] source = text.bytes.elements();
+			this.chars = null;
+			this.bytes.size(end - start);
+			System.arraycopy(source, start, this.bytes.elements(), 0, end - start);
+		} else {
+			final char[] source = text.chars.elements();
+			if (this.chars == null)
+				this.chars = new CharArrayList(end - start);
+			this.bytes.clear();
+			this.chars.size(end - start);
+			System.arraycopy(source, start, this.chars.elements(), 0, end - start);
+		}
 	}
 
 	public void setValue(CharSequence text, int start, int end) {
-		this.value.clear();
-		for (int index = start; index < end; index++)
-			this.value.add(text.charAt(index));
+		this.clear();
+		this.append(text, start, end);
 	}
 
 	@Override
 	public int length() {
-		return this.value.size();
+		if (this.dictionary != null)
+			return this.resolve().length();
+		return this.chars == null ? this.bytes.size() : this.chars.size();
 	}
 
 	@Override
 	public char charAt(int index) {
-		return this.value.getChar(index);
+		if (this.dictionary != null)
+			return this.resolve().charAt(index);
+		return this.chars == null ? (char) this.bytes.getByte(index) : this.chars.getChar(index);
 	}
 
 	@Override
@@ -257,15 +420,29 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 		};
 	}
 
+	/**
+	 * Switches to the character representation, which is needed to store non-ASCII characters.
+	 */
+	private void inflate() {
+		final int length = this.bytes.size();
+		this.chars = new CharArrayList(Math.max(16, 2 * length));
+		this.chars.size(length);
+		final byte[] bytes = this.bytes.elements();
+		final char[] chars = this.chars.elements();
+		for (int index = 0; index < length; index++)
+			chars[index] = (char) bytes[index];
+		this.bytes.clear();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Appendable#append(java.lang.CharSequence)
 	 */
 	@Override
 	public Appendable append(CharSequence csq) {
-		for (int index = 0, count = csq.length(); index < count; index++)
-			this.value.add(csq.charAt(index));
-		return this;
+		if (csq instanceof TextNode)
+			return this.append((TextNode) csq);
+		return this.append(csq, 0, csq.length());
 	}
 
 	/*
@@ -275,7 +452,7 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	@Override
 	public Appendable append(CharSequence csq, int start, int end) {
 		for (int index = start; index < end; index++)
-			this.value.add(csq.charAt(index));
+			this.append(csq.charAt(index));
 		return this;
 	}
 
@@ -284,8 +461,7 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	 * @see java.lang.Appendable#append(java.lang.CharSequence)
 	 */
 	public Appendable append(TextNode csq) {
-		this.value.addAll(csq.value);
-		return this;
+		return this.append(csq, 0, csq.length());
 	}
 
 	/*
@@ -293,8 +469,13 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	 * @see java.lang.Appendable#append(java.lang.CharSequence, int, int)
 	 */
 	public Appendable append(TextNode csq, int start, int end) {
-		this.value.addElements(this.value.size(), csq.value.elements(), start,
-			end);
+		csq = csq.resolve();
+		this.decode();
+		if (this.chars == null && csq.chars == null)
+			this.bytes.addElements(this.bytes.size(), csq.bytes.elements(), start, end - start);
+		else
+			for (int index = start; index < end; index++)
+				this.append(csq.charAt(index));
 		return this;
 	}
 
@@ -304,7 +485,15 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	 */
 	@Override
 	public Appendable append(char c) {
-		this.value.add(c);
+		this.decode();
+		if (this.chars == null) {
+			if (c < 0x80) {
+				this.bytes.add((byte) c);
+				return this;
+			}
+			this.inflate();
+		}
+		this.chars.add(c);
 		return this;
 	}
 
@@ -315,8 +504,16 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 		this.asFormatter().format("%d", number);
 	}
 
+	/**
+	 * Returns true if this text starts with the given prefix.
+	 */
+	public boolean startsWith(TextNode prefix) {
+		final int length = prefix.length();
+		return length <= this.length() && this.indexOf(0, length, prefix, 0, length) == 0;
+	}
+
 	public int indexOf(TextNode needle) {
-		return indexOf(0, this.value.size(), needle, 0, needle.length());
+		return indexOf(0, this.length(), needle, 0, needle.length());
 	}
 
 	public int indexOf(int thisFromIndex, int thisEndIndex, TextNode needle,
@@ -326,13 +523,27 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 			return thisFromIndex;
 
 		final int maxIndex = thisEndIndex - searchLength;
-		final char[] needleValue = needle.value.elements();
-		final char[] value = this.value.elements();
+		final TextNode text = this.resolve();
+		needle = needle.resolve();
+		if (text.chars == null && needle.chars == null) {
+			final byte[] needleValue = needle.bytes.elements();
+			final byte[] value = text.bytes.elements();
+			findStart: for (int startIndex = thisFromIndex; startIndex <= maxIndex; startIndex++)
+				if (value[startIndex] == needleValue[needleFromIndex]) {
+					// check if remaining string match
+					for (int pos = 1; pos < searchLength; pos++)
+						if (value[startIndex + pos] != needleValue[needleFromIndex + pos])
+							continue findStart;
+					return startIndex;
+				}
+			return -1;
+		}
+
 		findStart: for (int startIndex = thisFromIndex; startIndex <= maxIndex; startIndex++)
-			if (value[startIndex] == needleValue[needleFromIndex]) {
+			if (text.charAt(startIndex) == needle.charAt(needleFromIndex)) {
 				// check if remaining string match
 				for (int pos = 1; pos < searchLength; pos++)
-					if (value[startIndex + pos] != needleValue[needleFromIndex + pos])
+					if (text.charAt(startIndex + pos) != needle.charAt(needleFromIndex + pos))
 						continue findStart;
 				return startIndex;
 			}
@@ -341,7 +552,14 @@ public class TextNode extends AbstractJsonNode implements IPrimitiveNode,
 	}
 
 	public char[] toArray() {
-		return this.value.toCharArray();
+		final TextNode text = this.resolve();
+		if (text.chars != null)
+			return text.chars.toCharArray();
+		final char[] array = new char[text.bytes.size()];
+		final byte[] bytes = text.bytes.elements();
+		for (int index = 0; index < array.length; index++)
+			array[index] = (char) bytes[index];
+		return array;
 	}
 
 }
@@ -3,10 +3,13 @@ package eu.stratosphere.sopremo.type;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javolution.text.TypeFormat;
 import eu.stratosphere.sopremo.cache.NodeCache;
@@ -21,6 +24,26 @@ public class TypeCoercer {
 	private final Map<Class<? extends IJsonNode>, Map<Class<? extends IJsonNode>, TypeMapper<?, ?>>> coercers =
 		new IdentityHashMap<Class<? extends IJsonNode>, Map<Class<? extends IJsonNode>, TypeMapper<?, ?>>>();
 
+	/**
+	 * The resolved coercers indexed by the ordinals of the target and the source class; null entries are resolved
+	 * on demand.
+	 */
+	private volatile TypeMapper<?, ?>[][] matrix = new TypeMapper<?, ?>[0][];
+
+	/**
+	 * Assigns each class a small ordinal.
+	 */
+	private volatile OrdinalTable ordinals = new OrdinalTable(new Class<?>[64], new int[64]);
+
+	private int typeCount;
+
+	@SuppressWarnings("unchecked")
+	public static final List<Class<? extends IJsonNode>> NODE_TYPES = Arrays.asList(
+		(Class<? extends IJsonNode>)
+		IntNode.class, DoubleNode.class, LongNode.class, DecimalNode.class, BigIntegerNode.class, BooleanNode.class,
+		TextNode.class, NullNode.class, MissingNode.class, ArrayNode.class, ObjectNode.class, IntArrayNode.class,
+		LongArrayNode.class, DoubleArrayNode.class, DateNode.class);
+
 	@SuppressWarnings("unchecked")
 	public static final List<Class<? extends INumericNode>> NUMERIC_TYPES = Arrays.asList(
 		(Class<? extends INumericNode>)
@@ -42,16 +65,24 @@ public class TypeCoercer {
 		this.addCoercers(MissingNode.class, new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, MissingNode>>());
 		this.addCoercers(BooleanNode.class, this.getToBooleanCoercers());
 		this.addCoercers(TextNode.class, this.getToStringCoercers());
+		this.addCoercers(DateNode.class, this.getToDateCoercers());
 		this.addCoercers(IArrayNode.class, this.getToArrayCoercers());
 		this.addCoercers(IObjectNode.class, new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, IObjectNode>>());
 		this.addNumericCoercers(this.coercers);
 		this.addCoercers(IJsonNode.class, new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, IJsonNode>>());
 		this.addSelfCoercers();
+
+		final Set<Class<? extends IJsonNode>> targetClasses =
+			Collections.newSetFromMap(new IdentityHashMap<Class<? extends IJsonNode>, Boolean>());
+		targetClasses.addAll(this.coercers.keySet());
+		targetClasses.addAll(NODE_TYPES);
+		this.precompute(NODE_TYPES, targetClasses);
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public <To extends IJsonNode> void addCoercers(final Class<To> targetClass, final Map<?, TypeMapper<?, To>> coercers) {
 		this.coercers.put(targetClass, (Map) coercers);
+		this.invalidateMatrix();
 	}
 
 	private void addNumericCoercers(
@@ -116,6 +147,17 @@ public class TypeCoercer {
 		coercers.get(AbstractNumericNode.class).put(BooleanNode.class,
 			coercers.get(IntNode.class).get(BooleanNode.class));
 
+		// date to number -> epoch millis
+		coercers.get(LongNode.class).put(DateNode.class, new TypeMapper<DateNode, LongNode>(LongNode.class) {
+			@Override
+			public LongNode mapTo(final DateNode from, final LongNode target) {
+				target.setValue(from.getMillis());
+				return target;
+			}
+		});
+		coercers.get(AbstractNumericNode.class).put(DateNode.class,
+			coercers.get(LongNode.class).get(DateNode.class));
+
 		// string to number
 		coercers.get(IntNode.class).put(TextNode.class, new TypeMapper<TextNode, IntNode>(IntNode.class) {
 			@Override
@@ -205,33 +247,122 @@ public class TypeCoercer {
 	@SuppressWarnings("unchecked")
 	public <From extends IJsonNode, To extends IJsonNode> To coerce(final From node, final NodeCache nodeCache,
 			final Class<To> targetClass, final To defaultValue) {
-		Map<Class<? extends IJsonNode>, TypeMapper<?, ?>> toCoercer = this.coercers.get(targetClass);
-		if (toCoercer == null) {
-			final Map<Class<? extends IJsonNode>, TypeMapper<?, ?>> superclassCoercers = this
-				.findSuperclassCoercers(targetClass);
-			if (superclassCoercers == null)
-				toCoercer = new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, ?>>();
-			else
-				toCoercer = new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, ?>>(superclassCoercers);
+		final TypeMapper<From, To> coercer = (TypeMapper<From, To>) this.getCoercer(node.getClass(), targetClass);
 
-			this.coercers.put(targetClass, toCoercer);
-		}
-		TypeMapper<From, To> fromCoercer = (TypeMapper<From, To>) toCoercer.get(node.getClass());
-		if (fromCoercer == null) {
-			fromCoercer = this.findMatchingCoercer(node, toCoercer);
-			if (fromCoercer == null)
-				fromCoercer = (TypeMapper<From, To>) NULL_COERCER;
-			toCoercer.put(node.getClass(), fromCoercer);
-		}
-
-		final Class<? extends To> defaultType = fromCoercer.getDefaultType();
+		final Class<? extends To> defaultType = coercer.getDefaultType();
 		To result = defaultType != null ? nodeCache.getNode(defaultType) : null;
-		result = fromCoercer.mapTo(node, result);
+		result = coercer.mapTo(node, result);
 		if (result == null)
 			return defaultValue;
 		return result;
 	}
 
+	/**
+	 * Coerces the given node into the given reusable target node. The coerced value is returned, which is the target
+	 * node unless the coercer returns a shared instance such as {@link BooleanNode#TRUE}.
+	 * 
+	 * @param node
+	 *        the node to coerce
+	 * @param target
+	 *        the node that receives the coerced value
+	 * @return the coerced value
+	 * @throws CoercionException
+	 *         if the node cannot be coerced to the type of the target
+	 */
+	@SuppressWarnings("unchecked")
+	public <From extends IJsonNode, To extends IJsonNode> To coerceInto(final From node, final To target) {
+		final TypeMapper<From, To> coercer = (TypeMapper<From, To>) this.getCoercer(node.getClass(), target.getClass());
+		final To result = coercer.mapTo(node, coercer.isValidTarget(target) ? target : null);
+		if (result == null)
+			throw new CoercionException(String.format("Cannot coerce %s to %s", node, target.getClass()));
+		return result;
+	}
+
+	/**
+	 * Returns the coercer from the source class to the target class. The coercer is looked up in the coercion matrix
+	 * and only resolved with the registered coercers if the combination has not been used before.
+	 * 
+	 * @param sourceClass
+	 *        the class of the nodes to coerce
+	 * @param targetClass
+	 *        the requested class
+	 * @return the coercer; a coercer returning null if no coercion is possible
+	 */
+	public TypeMapper<?, ?> getCoercer(final Class<?> sourceClass, final Class<?> targetClass) {
+		final int from = this.getOrdinal(sourceClass), to = this.getOrdinal(targetClass);
+		final TypeMapper<?, ?>[][] matrix = this.matrix;
+		if (to < matrix.length) {
+			final TypeMapper<?, ?>[] row = matrix[to];
+			if (row != null && from < row.length && row[from] != null)
+				return row[from];
+		}
+		return this.resolveCoercer(sourceClass, from, targetClass, to);
+	}
+
+	/**
+	 * Returns the ordinal of the given class, which indexes the coercion matrix.
+	 */
+	private int getOrdinal(final Class<?> type) {
+		final int ordinal = this.ordinals.get(type);
+		return ordinal != -1 ? ordinal : this.addOrdinal(type);
+	}
+
+	private synchronized int addOrdinal(final Class<?> type) {
+		int ordinal = this.ordinals.get(type);
+		if (ordinal == -1)
+			this.ordinals = this.ordinals.with(type, ordinal = this.typeCount++);
+		return ordinal;
+	}
+
+	/**
+	 * Resolves the coercer with the registered coercers and the type hierarchies of both classes and stores it in the
+	 * coercion matrix.
+	 */
+	private synchronized TypeMapper<?, ?> resolveCoercer(final Class<?> sourceClass, final int from,
+			final Class<?> targetClass, final int to) {
+		Map<Class<? extends IJsonNode>, TypeMapper<?, ?>> toCoercer = this.coercers.get(targetClass);
+		if (toCoercer == null)
+			toCoercer = this.findSuperclassCoercers(targetClass);
+		TypeMapper<?, ?> coercer = null;
+		if (toCoercer != null) {
+			coercer = toCoercer.get(sourceClass);
+			if (coercer == null)
+				coercer = this.findMatchingCoercer(sourceClass, toCoercer);
+		}
+		if (coercer == null)
+			coercer = NULL_COERCER;
+
+		TypeMapper<?, ?>[][] matrix = this.matrix;
+		if (to >= matrix.length)
+			matrix = Arrays.copyOf(matrix, Math.max(2 * matrix.length, to + 1));
+		TypeMapper<?, ?>[] row = matrix[to];
+		if (row == null)
+			row = new TypeMapper<?, ?>[Math.max(this.typeCount, from + 1)];
+		else if (from >= row.length)
+			row = Arrays.copyOf(row, Math.max(2 * row.length, from + 1));
+		row[from] = coercer;
+		matrix[to] = row;
+		this.matrix = matrix;
+		return coercer;
+	}
+
+	/**
+	 * Fills the coercion matrix for all combinations of the given classes.
+	 */
+	private void precompute(final Collection<Class<? extends IJsonNode>> sourceClasses,
+			final Collection<Class<? extends IJsonNode>> targetClasses) {
+		for (final Class<? extends IJsonNode> targetClass : targetClasses)
+			for (final Class<? extends IJsonNode> sourceClass : sourceClasses)
+				this.getCoercer(sourceClass, targetClass);
+	}
+
+	/**
+	 * Invalidates the coercion matrix after the registered coercers have been changed.
+	 */
+	private synchronized void invalidateMatrix() {
+		this.matrix = new TypeMapper<?, ?>[this.matrix.length][];
+	}
+
 	protected <To, From> Map<Class<? extends IJsonNode>, TypeMapper<?, ?>> findSuperclassCoercers(final Class<?> toClass) {
 		final Reference<Map<Class<? extends IJsonNode>, TypeMapper<?, ?>>> toCoercers =
 			new Reference<Map<Class<? extends IJsonNode>, TypeMapper<?, ?>>>();
@@ -252,11 +383,11 @@ public class TypeCoercer {
 	}
 
 	@SuppressWarnings("unchecked")
-	protected <To, From> TypeMapper<From, To> findMatchingCoercer(final From node,
+	protected <To, From> TypeMapper<From, To> findMatchingCoercer(final Class<?> sourceClass,
 			final Map<Class<? extends IJsonNode>, TypeMapper<?, ?>> toCoercer) {
 		final Reference<TypeMapper<From, To>> fromCoercer = new Reference<TypeMapper<From, To>>();
 
-		TypeHierarchyBrowser.INSTANCE.visit(node.getClass(), Mode.CLASS_FIRST, new Visitor<Class<?>>() {
+		TypeHierarchyBrowser.INSTANCE.visit(sourceClass, Mode.CLASS_FIRST, new Visitor<Class<?>>() {
 			@Override
 			public boolean visited(final Class<?> superClass, final int distance) {
 				final TypeMapper<From, To> coercer = (TypeMapper<From, To>) toCoercer.get(superClass);
@@ -357,6 +488,30 @@ public class TypeCoercer {
 		return toBooleanCoercers;
 	}
 
+	private Map<Class<? extends IJsonNode>, TypeMapper<?, DateNode>> getToDateCoercers() {
+		final Map<Class<? extends IJsonNode>, TypeMapper<?, DateNode>> toDateCoercers =
+			new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, DateNode>>();
+		toDateCoercers.put(INumericNode.class, new TypeMapper<INumericNode, DateNode>(DateNode.class) {
+			@Override
+			public DateNode mapTo(final INumericNode from, final DateNode target) {
+				target.setMillis(from.getLongValue());
+				return target;
+			}
+		});
+		toDateCoercers.put(TextNode.class, new TypeMapper<TextNode, DateNode>(DateNode.class) {
+			@Override
+			public DateNode mapTo(final TextNode from, final DateNode target) {
+				try {
+					target.setMillis(DateNode.parse(from));
+					return target;
+				} catch (final IllegalArgumentException e) {
+					return null;
+				}
+			}
+		});
+		return toDateCoercers;
+	}
+
 	private Map<Class<? extends IJsonNode>, TypeMapper<?, TextNode>> getToStringCoercers() {
 		final Map<Class<? extends IJsonNode>, TypeMapper<?, TextNode>> toStringCoercers =
 			new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, TextNode>>();
@@ -383,6 +538,7 @@ public class TypeCoercer {
 		if (toCoercers == null)
 			this.coercers.put(to, toCoercers = new IdentityHashMap<Class<? extends IJsonNode>, TypeMapper<?, ?>>());
 		toCoercers.put(from, coercer);
+		this.invalidateMatrix();
 	}
 
 	/**
@@ -422,4 +578,63 @@ public class TypeCoercer {
 			return target;
 		}
 	}
+
+	/**
+	 * Immutable open addressing table from classes to ordinals, which can be read without synchronization.
+	 */
+	private static final class OrdinalTable {
+		private final Class<?>[] types;
+
+		private final int[] ordinals;
+
+		private final int size;
+
+		private OrdinalTable(final Class<?>[] types, final int[] ordinals) {
+			this.types = types;
+			this.ordinals = ordinals;
+			int size = 0;
+			for (final Class<?> type : types)
+				if (type != null)
+					size++;
+			this.size = size;
+		}
+
+		/**
+		 * Returns the ordinal of the given class or -1 if no ordinal has been assigned.
+		 */
+		public int get(final Class<?> type) {
+			final int mask = this.types.length - 1;
+			for (int index = System.identityHashCode(type) & mask;; index = (index + 1) & mask) {
+				final Class<?> ordinalType = this.types[index];
+				if (ordinalType == type)
+					return this.ordinals[index];
+				if (ordinalType == null)
+					return -1;
+			}
+		}
+
+		/**
+		 * Returns a copy of this table that additionally contains the given class; the copy is rehashed into a larger
+		 * table if more than half of the entries would be used.
+		 */
+		public OrdinalTable with(final Class<?> type, final int ordinal) {
+			final int capacity = 2 * (this.size + 1) > this.types.length ? 2 * this.types.length : this.types.length;
+			final Class<?>[] types = new Class<?>[capacity];
+			final int[] ordinals = new int[capacity];
+			for (int index = 0; index < this.types.length; index++)
+				if (this.types[index] != null)
+					insert(types, ordinals, this.types[index], this.ordinals[index]);
+			insert(types, ordinals, type, ordinal);
+			return new OrdinalTable(types, ordinals);
+		}
+
+		private static void insert(final Class<?>[] types, final int[] ordinals, final Class<?> type, final int ordinal) {
+			final int mask = types.length - 1;
+			int index = System.identityHashCode(type) & mask;
+			while (types[index] != null)
+				index = (index + 1) & mask;
+			types[index] = type;
+			ordinals[index] = ordinal;
+		}
+	}
 }
@@ -4,6 +4,7 @@ import java.beans.PropertyDescriptor;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Label;
@@ -11,6 +12,7 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 
+import com.esotericsoftware.kryo.DefaultSerializer;
 import com.google.common.reflect.TypeToken;
 
 import eu.stratosphere.sopremo.type.IJsonNode;
@@ -24,7 +26,10 @@ import eu.stratosphere.sopremo.type.NullNode;
  * extending {@link ITypedObjectNode}), specified by the user. The main idea is to create
  * the getters and setters given in the interface which delegate the data to and
  * from the underlying backingObject of a {@link TypedObject}. These methods are
- * generated at JVM byte code level.
+ * generated at JVM byte code level.<br />
+ * Each property is assigned a slot of the {@link TypedObjectNode}, so that the
+ * generated methods access the value by its position instead of looking up the
+ * field name.
  * 
  * @author ftschirschnitz
  */
@@ -51,18 +56,57 @@ public class ASMClassBuilder implements Opcodes {
 
 	private final List<FieldInitializer> fieldInitializations = new ArrayList<FieldInitializer>();
 
+	private final List<String> slotNames = new ArrayList<String>();
+
+	private final static String SlotNamesField = "SLOT_NAMES";
+
+	private final static String SlotNamesDescriptor = Type.getDescriptor(String[].class);
+
 	protected byte[] dump() throws Exception {
+		addSerializerAnnotation();
+		addSlotNames();
 		addCtor();
 
 		this.classWriter.visitEnd();
 		return this.classWriter.toByteArray();
 	}
 
+	private void addSerializerAnnotation() {
+		final AnnotationVisitor annotationVisitor =
+			this.classWriter.visitAnnotation(Type.getDescriptor(DefaultSerializer.class), true);
+		annotationVisitor.visit("value", Type.getType(TypedObjectNode.TypedObjectNodeSerializer.class));
+		annotationVisitor.visitEnd();
+	}
+
+	private void addSlotNames() {
+		final FieldVisitor fv = this.classWriter.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, SlotNamesField,
+			SlotNamesDescriptor, null, null);
+		fv.visitEnd();
+
+		// SLOT_NAMES = new String[] { ... }
+		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		methodVisitor.visitCode();
+		ASMMapperBuilder.pushInt(methodVisitor, this.slotNames.size());
+		methodVisitor.visitTypeInsn(ANEWARRAY, Type.getInternalName(String.class));
+		for (int slot = 0; slot < this.slotNames.size(); slot++) {
+			methodVisitor.visitInsn(DUP);
+			ASMMapperBuilder.pushInt(methodVisitor, slot);
+			methodVisitor.visitLdcInsn(this.slotNames.get(slot));
+			methodVisitor.visitInsn(AASTORE);
+		}
+		methodVisitor.visitFieldInsn(PUTSTATIC, this.className, SlotNamesField, SlotNamesDescriptor);
+		methodVisitor.visitInsn(RETURN);
+		methodVisitor.visitMaxs(0, 0);
+		methodVisitor.visitEnd();
+	}
+
 	private void addCtor() throws Exception {
 		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
 		methodVisitor.visitCode();
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "<init>", "()V");
+		methodVisitor.visitFieldInsn(GETSTATIC, this.className, SlotNamesField, SlotNamesDescriptor);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "<init>",
+			Type.getConstructorDescriptor(BaseClass.getDeclaredConstructor(String[].class)));
 
 		for (FieldInitializer initialization : this.fieldInitializations)
 			initialization.initialize(methodVisitor);
@@ -74,25 +118,27 @@ public class ASMClassBuilder implements Opcodes {
 	}
 
 	public void addAccessorsForProperty(PropertyDescriptor prop) throws Exception {
+		final int slot = this.slotNames.size();
+		this.slotNames.add(prop.getName());
 		if (prop.getReadMethod() != null) {
 			if (ITypedObjectNode.class.isAssignableFrom(prop.getPropertyType()))
-				this.addTypedGetterMethod(prop);
+				this.addTypedGetterMethod(prop, slot);
 			else if (IJsonNode.class.isAssignableFrom(prop.getPropertyType()))
-				this.addGetterMethod(prop);
+				this.addGetterMethod(prop, slot);
 			else
-				this.addConvertingGetterMethod(prop);
+				this.addConvertingGetterMethod(prop, slot);
 		}
 		if (prop.getWriteMethod() != null) {
 			if (ITypedObjectNode.class.isAssignableFrom(prop.getPropertyType()))
-				this.addTypedSetterMethod(prop);
+				this.addTypedSetterMethod(prop, slot);
 			else if (IJsonNode.class.isAssignableFrom(prop.getPropertyType()))
-				this.addSetterMethod(prop);
+				this.addSetterMethod(prop, slot);
 			else
-				this.addConvertingSetterMethod(prop);
+				this.addConvertingSetterMethod(prop, slot);
 		}
 	}
 
-	private void addTypedGetterMethod(PropertyDescriptor prop) throws Exception {
+	private void addTypedGetterMethod(PropertyDescriptor prop, int slot) throws Exception {
 		final String propName = prop.getName();
 		final Class<?> propertyType = prop.getPropertyType();
 		final String propertyTypeName = Type.getDescriptor(propertyType);
@@ -106,7 +152,7 @@ public class ASMClassBuilder implements Opcodes {
 				Type.getMethodDescriptor(prop.getReadMethod()), null, null);
 		methodVisitor.visitCode();
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitLdcInsn(prop.getName());
+		ASMMapperBuilder.pushInt(methodVisitor, slot);
 		methodVisitor.visitVarInsn(ALOAD, 0);
 		methodVisitor.visitFieldInsn(GETFIELD, this.className, typeField, propertyTypeName);
 
@@ -124,9 +170,9 @@ public class ASMClassBuilder implements Opcodes {
 		methodVisitor.visitFieldInsn(PUTFIELD, this.className, typeField, propertyTypeName);
 
 		methodVisitor.visitLabel(getTypedLabel);
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "getTyped",
-			Type.getMethodDescriptor(TypedObjectNode.class.getMethod("getTyped", String.class, ITypedObjectNode.class)));
-		methodVisitor.visitTypeInsn(CHECKCAST, propertyTypeName);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "getTypedSlot",
+			Type.getMethodDescriptor(BaseClass.getMethod("getTypedSlot", Integer.TYPE, ITypedObjectNode.class)));
+		methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(propertyType));
 		methodVisitor.visitInsn(ARETURN);
 		methodVisitor.visitMaxs(0, 0);
 		methodVisitor.visitEnd();
@@ -136,7 +182,7 @@ public class ASMClassBuilder implements Opcodes {
 		return propName + "TypedObject";
 	}
 
-	private void addGetterMethod(PropertyDescriptor prop) throws Exception {
+	private void addGetterMethod(PropertyDescriptor prop, int slot) throws Exception {
 		final String propertyTypeName = Type.getInternalName(prop.getPropertyType());
 		final String methodDescriptor = Type.getMethodDescriptor(prop.getReadMethod());
 		final String name = prop.getReadMethod().getName();
@@ -144,10 +190,9 @@ public class ASMClassBuilder implements Opcodes {
 			this.classWriter.visitMethod(ACC_PUBLIC + ACC_SYNTHETIC, name, methodDescriptor, null, null);
 		methodVisitor.visitCode();
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitLdcInsn(prop.getName());
-		final String getSignature =
-			Type.getMethodDescriptor(Type.getType(IJsonNode.class), new Type[] { Type.getType(String.class) });
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, this.className, "getOrNull", getSignature);
+		ASMMapperBuilder.pushInt(methodVisitor, slot);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "getSlotOrNull",
+			Type.getMethodDescriptor(BaseClass.getMethod("getSlotOrNull", Integer.TYPE)));
 		methodVisitor.visitTypeInsn(CHECKCAST, propertyTypeName);
 		methodVisitor.visitInsn(ARETURN);
 		methodVisitor.visitMaxs(0, 0);
@@ -158,7 +203,7 @@ public class ASMClassBuilder implements Opcodes {
 
 	private final static String MapperInternalName = Type.getInternalName(TypeMapper.class);
 
-	private void addConvertingGetterMethod(PropertyDescriptor prop) throws Exception {
+	private void addConvertingGetterMethod(PropertyDescriptor prop, int slot) throws Exception {
 		final java.lang.reflect.Type jsonType = JavaToJsonMapper.INSTANCE.getDefaultMappingType(prop.getPropertyType());
 		if (jsonType == null)
 			throw new IllegalArgumentException("Cannot create getter for type. " + prop.getPropertyType());
@@ -207,11 +252,11 @@ public class ASMClassBuilder implements Opcodes {
 				null);
 		methodVisitor.visitCode();
 
-		// node = this.getOrNull(propName);
+		// node = this.getSlotOrNull(slot);
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitLdcInsn(propName);
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "getOrNull",
-			Type.getMethodDescriptor(BaseClass.getMethod("getOrNull", String.class)));
+		ASMMapperBuilder.pushInt(methodVisitor, slot);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "getSlotOrNull",
+			Type.getMethodDescriptor(BaseClass.getMethod("getSlotOrNull", Integer.TYPE)));
 
 		// if(node == null) goto return;
 		methodVisitor.visitInsn(DUP);
@@ -267,22 +312,21 @@ public class ASMClassBuilder implements Opcodes {
 		return propName + "JavaValue";
 	}
 
-	private void addSetterMethod(PropertyDescriptor prop) throws Exception {
+	private void addSetterMethod(PropertyDescriptor prop, int slot) throws Exception {
 		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PUBLIC, prop.getWriteMethod().getName(),
 			Type.getMethodDescriptor(prop.getWriteMethod()), null, null);
 		methodVisitor.visitCode();
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitLdcInsn(prop.getName());
+		ASMMapperBuilder.pushInt(methodVisitor, slot);
 		methodVisitor.visitVarInsn(ALOAD, 1);
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, this.className, "putOrNull",
-			Type.getMethodDescriptor(TypedObjectNode.class.getMethod("putOrNull", String.class, IJsonNode.class)));
-		methodVisitor.visitInsn(POP);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "setSlotOrNull",
+			Type.getMethodDescriptor(BaseClass.getMethod("setSlotOrNull", Integer.TYPE, IJsonNode.class)));
 		methodVisitor.visitInsn(RETURN);
 		methodVisitor.visitMaxs(0, 0);
 		methodVisitor.visitEnd();
 	}
 
-	private void addTypedSetterMethod(PropertyDescriptor prop) throws Exception {
+	private void addTypedSetterMethod(PropertyDescriptor prop, int slot) throws Exception {
 		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PUBLIC, prop.getWriteMethod().getName(),
 			Type.getMethodDescriptor(prop.getWriteMethod()), null, null);
 		methodVisitor.visitCode();
@@ -293,10 +337,10 @@ public class ASMClassBuilder implements Opcodes {
 				Type.getDescriptor(prop.getPropertyType()));
 		}
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitLdcInsn(prop.getName());
+		ASMMapperBuilder.pushInt(methodVisitor, slot);
 		methodVisitor.visitVarInsn(ALOAD, 1);
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, this.className, "putTyped",
-			Type.getMethodDescriptor(TypedObjectNode.class.getMethod("putTyped", String.class, ITypedObjectNode.class)));
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "putTypedSlot",
+			Type.getMethodDescriptor(BaseClass.getMethod("putTypedSlot", Integer.TYPE, ITypedObjectNode.class)));
 		methodVisitor.visitInsn(RETURN);
 		methodVisitor.visitMaxs(0, 0);
 		methodVisitor.visitEnd();
@@ -306,7 +350,7 @@ public class ASMClassBuilder implements Opcodes {
 		public void initialize(MethodVisitor methodVisitor) throws Exception;
 	}
 
-	private void addConvertingSetterMethod(PropertyDescriptor prop) throws Exception {
+	private void addConvertingSetterMethod(PropertyDescriptor prop, int slot) throws Exception {
 		final java.lang.reflect.Type jsonType = JavaToJsonMapper.INSTANCE.getDefaultMappingType(prop.getPropertyType());
 		if (jsonType == null)
 			throw new IllegalArgumentException("Cannot create setter for type. " + prop.getPropertyType());
@@ -356,7 +400,7 @@ public class ASMClassBuilder implements Opcodes {
 			JsonToJavaMapper.INSTANCE.getMapper(rawJsonType, propertyType).getDefaultType() != null;
 
 		methodVisitor.visitVarInsn(ALOAD, 0);
-		methodVisitor.visitLdcInsn(propName);
+		ASMMapperBuilder.pushInt(methodVisitor, slot);
 
 		methodVisitor.visitVarInsn(ALOAD, 1);
 		Label nonNullLabel = new Label(), returnLabel = new Label();
@@ -403,11 +447,10 @@ public class ASMClassBuilder implements Opcodes {
 			Type.getMethodDescriptor(TypeMapper.class.getMethod("mapTo", Object.class, Object.class)));
 		// methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(IJsonNode.class));
 
-		// put("field", node)
+		// setSlot(slot, node)
 		methodVisitor.visitLabel(returnLabel);
-		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "put",
-			Type.getMethodDescriptor(BaseClass.getMethod("put", String.class, IJsonNode.class)));
-		methodVisitor.visitInsn(POP);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, BaseClassName, "setSlot",
+			Type.getMethodDescriptor(BaseClass.getMethod("setSlot", Integer.TYPE, IJsonNode.class)));
 		methodVisitor.visitInsn(RETURN);
 		methodVisitor.visitMaxs(0, 0);
 		methodVisitor.visitEnd();
@@ -0,0 +1,236 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type.typed;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import eu.stratosphere.sopremo.type.IObjectNode;
+
+/**
+ * This class uses the ASM framework to build subclasses of {@link BeanToObjectMapper} and {@link ObjectToBeanMapper}
+ * for a specific bean class. The generated methods invoke the getters, setters, and the default constructor of the
+ * bean directly, so that no reflection is involved when mapping values.
+ */
+public class ASMMapperBuilder implements Opcodes {
+	private final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+	private final String className;
+
+	private final Class<?> baseClass;
+
+	private final String baseClassName;
+
+	private final String beanClassName;
+
+	/**
+	 * Initializes ASMMapperBuilder.
+	 * 
+	 * @param className
+	 *        the name of the generated class
+	 * @param baseClass
+	 *        either {@link BeanToObjectMapper} or {@link ObjectToBeanMapper}
+	 * @param beanClass
+	 *        the bean class that is mapped
+	 */
+	public ASMMapperBuilder(String className, Class<?> baseClass, Class<?> beanClass) {
+		this.className = className.replace('.', '/');
+		this.baseClass = baseClass;
+		this.baseClassName = Type.getInternalName(baseClass);
+		this.beanClassName = Type.getInternalName(beanClass);
+
+		this.classWriter.visit(V1_5, ACC_PUBLIC + ACC_SUPER + ACC_FINAL + ACC_SYNTHETIC, this.className, null,
+			this.baseClassName, null);
+	}
+
+	protected byte[] dump() throws Exception {
+		this.addCtor();
+
+		this.classWriter.visitEnd();
+		return this.classWriter.toByteArray();
+	}
+
+	private void addCtor() throws Exception {
+		final String ctorDescriptor = Type.getConstructorDescriptor(this.baseClass.getDeclaredConstructors()[0]);
+		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PUBLIC, "<init>", ctorDescriptor, null, null);
+		methodVisitor.visitCode();
+		methodVisitor.visitVarInsn(ALOAD, 0);
+		final Type[] argumentTypes = Type.getArgumentTypes(ctorDescriptor);
+		for (int index = 0; index < argumentTypes.length; index++)
+			methodVisitor.visitVarInsn(ALOAD, index + 1);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, this.baseClassName, "<init>", ctorDescriptor);
+		methodVisitor.visitInsn(RETURN);
+		methodVisitor.visitMaxs(0, 0);
+		methodVisitor.visitEnd();
+	}
+
+	/**
+	 * Adds <code>mapProperties(Object, IObjectNode)</code> that reads all given properties of the bean.
+	 */
+	public void addGettingMethod(PropertyDescriptor[] properties) throws Exception {
+		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PROTECTED, "mapProperties",
+			Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] { Type.getType(Object.class),
+				Type.getType(IObjectNode.class) }), null, null);
+		methodVisitor.visitCode();
+
+		// bean = (Bean) object
+		methodVisitor.visitVarInsn(ALOAD, 1);
+		methodVisitor.visitTypeInsn(CHECKCAST, this.beanClassName);
+		methodVisitor.visitVarInsn(ASTORE, 3);
+
+		for (int index = 0; index < properties.length; index++) {
+			final Method readMethod = properties[index].getReadMethod();
+			final Class<?> propertyType = readMethod.getReturnType();
+
+			// this.putX(target, index, bean.getX())
+			methodVisitor.visitVarInsn(ALOAD, 0);
+			methodVisitor.visitVarInsn(ALOAD, 2);
+			pushInt(methodVisitor, index);
+			methodVisitor.visitVarInsn(ALOAD, 3);
+			methodVisitor.visitMethodInsn(INVOKEVIRTUAL, this.beanClassName, readMethod.getName(),
+				Type.getMethodDescriptor(readMethod));
+
+			final String putMethod;
+			final Class<?> valueType;
+			if (propertyType == Integer.TYPE || propertyType == Short.TYPE || propertyType == Byte.TYPE) {
+				putMethod = "putInt";
+				valueType = Integer.TYPE;
+			} else if (propertyType == Long.TYPE) {
+				putMethod = "putLong";
+				valueType = Long.TYPE;
+			} else if (propertyType == Double.TYPE || propertyType == Float.TYPE) {
+				if (propertyType == Float.TYPE)
+					methodVisitor.visitInsn(F2D);
+				putMethod = "putDouble";
+				valueType = Double.TYPE;
+			} else if (propertyType == Boolean.TYPE) {
+				putMethod = "putBoolean";
+				valueType = Boolean.TYPE;
+			} else {
+				if (propertyType == Character.TYPE)
+					methodVisitor.visitMethodInsn(INVOKESTATIC, Type.getInternalName(Character.class), "valueOf",
+						Type.getMethodDescriptor(Character.class.getMethod("valueOf", Character.TYPE)));
+				putMethod = "put";
+				valueType = Object.class;
+			}
+			methodVisitor.visitMethodInsn(INVOKEVIRTUAL, this.baseClassName, putMethod,
+				Type.getMethodDescriptor(this.baseClass.getDeclaredMethod(putMethod, IObjectNode.class, Integer.TYPE,
+					valueType)));
+		}
+
+		methodVisitor.visitInsn(RETURN);
+		methodVisitor.visitMaxs(0, 0);
+		methodVisitor.visitEnd();
+	}
+
+	/**
+	 * Adds <code>mapProperties(IObjectNode, Object)</code> that writes all given properties of the bean.
+	 */
+	public void addSettingMethod(PropertyDescriptor[] properties) throws Exception {
+		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PROTECTED, "mapProperties",
+			Type.getMethodDescriptor(Type.VOID_TYPE, new Type[] { Type.getType(IObjectNode.class),
+				Type.getType(Object.class) }), null, null);
+		methodVisitor.visitCode();
+
+		// bean = (Bean) object
+		methodVisitor.visitVarInsn(ALOAD, 2);
+		methodVisitor.visitTypeInsn(CHECKCAST, this.beanClassName);
+		methodVisitor.visitVarInsn(ASTORE, 3);
+
+		for (int index = 0; index < properties.length; index++) {
+			final Method writeMethod = properties[index].getWriteMethod();
+			final Class<?> propertyType = writeMethod.getParameterTypes()[0];
+
+			// bean.setX(this.getX(from, index))
+			methodVisitor.visitVarInsn(ALOAD, 3);
+			methodVisitor.visitVarInsn(ALOAD, 0);
+			methodVisitor.visitVarInsn(ALOAD, 1);
+			pushInt(methodVisitor, index);
+
+			if (propertyType == Integer.TYPE || propertyType == Short.TYPE || propertyType == Byte.TYPE) {
+				this.invokeGet(methodVisitor, "getInt");
+				if (propertyType == Short.TYPE)
+					methodVisitor.visitInsn(I2S);
+				else if (propertyType == Byte.TYPE)
+					methodVisitor.visitInsn(I2B);
+			} else if (propertyType == Long.TYPE)
+				this.invokeGet(methodVisitor, "getLong");
+			else if (propertyType == Double.TYPE || propertyType == Float.TYPE) {
+				this.invokeGet(methodVisitor, "getDouble");
+				if (propertyType == Float.TYPE)
+					methodVisitor.visitInsn(D2F);
+			} else if (propertyType == Boolean.TYPE)
+				this.invokeGet(methodVisitor, "getBoolean");
+			else if (propertyType == Character.TYPE) {
+				this.invokeGet(methodVisitor, "get");
+				methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(Character.class));
+				methodVisitor.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(Character.class), "charValue",
+					Type.getMethodDescriptor(Character.class.getMethod("charValue")));
+			} else {
+				this.invokeGet(methodVisitor, "get");
+				methodVisitor.visitTypeInsn(CHECKCAST, Type.getInternalName(propertyType));
+			}
+
+			methodVisitor.visitMethodInsn(INVOKEVIRTUAL, this.beanClassName, writeMethod.getName(),
+				Type.getMethodDescriptor(writeMethod));
+			// discard the result of fluent setters
+			final Type returnType = Type.getReturnType(writeMethod);
+			if (returnType.getSize() == 1)
+				methodVisitor.visitInsn(POP);
+			else if (returnType.getSize() == 2)
+				methodVisitor.visitInsn(POP2);
+		}
+
+		methodVisitor.visitInsn(RETURN);
+		methodVisitor.visitMaxs(0, 0);
+		methodVisitor.visitEnd();
+	}
+
+	private void invokeGet(MethodVisitor methodVisitor, String getMethod) throws Exception {
+		methodVisitor.visitMethodInsn(INVOKEVIRTUAL, this.baseClassName, getMethod,
+			Type.getMethodDescriptor(this.baseClass.getDeclaredMethod(getMethod, IObjectNode.class, Integer.TYPE)));
+	}
+
+	/**
+	 * Adds <code>newBean()</code> that invokes the default constructor of the bean.
+	 */
+	public void addInstantiatingMethod() {
+		MethodVisitor methodVisitor = this.classWriter.visitMethod(ACC_PROTECTED, "newBean",
+			Type.getMethodDescriptor(Type.getType(Object.class), new Type[0]), null, null);
+		methodVisitor.visitCode();
+		methodVisitor.visitTypeInsn(NEW, this.beanClassName);
+		methodVisitor.visitInsn(DUP);
+		methodVisitor.visitMethodInsn(INVOKESPECIAL, this.beanClassName, "<init>", "()V");
+		methodVisitor.visitInsn(ARETURN);
+		methodVisitor.visitMaxs(0, 0);
+		methodVisitor.visitEnd();
+	}
+
+	static void pushInt(MethodVisitor methodVisitor, int value) {
+		if (value <= 5)
+			methodVisitor.visitInsn(ICONST_0 + value);
+		else if (value <= Byte.MAX_VALUE)
+			methodVisitor.visitIntInsn(BIPUSH, value);
+		else if (value <= Short.MAX_VALUE)
+			methodVisitor.visitIntInsn(SIPUSH, value);
+		else
+			methodVisitor.visitLdcInsn(Integer.valueOf(value));
+	}
+}
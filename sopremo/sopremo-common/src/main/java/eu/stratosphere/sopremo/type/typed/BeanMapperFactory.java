@@ -0,0 +1,181 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type.typed;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * This class implements a factory for mappers between Java beans and {@link eu.stratosphere.sopremo.type.IObjectNode}
+ * s. For each bean class, a subclass of {@link BeanToObjectMapper} and {@link ObjectToBeanMapper} is generated with
+ * the {@link ASMMapperBuilder} when the bean is first mapped. It is implemented as a singleton and the generated
+ * mappers are cached per bean class.
+ */
+public class BeanMapperFactory {
+	private static BeanMapperFactory instance = null;
+
+	private final Map<Class<?>, BeanToObjectMapper> toObjectMappers =
+		new IdentityHashMap<Class<?>, BeanToObjectMapper>();
+
+	private final Map<Class<?>, ObjectToBeanMapper> toBeanMappers =
+		new IdentityHashMap<Class<?>, ObjectToBeanMapper>();
+
+	private BeanMapperFactory() {
+	}
+
+	public static synchronized BeanMapperFactory getInstance() {
+		if (instance == null)
+			instance = new BeanMapperFactory();
+		return instance;
+	}
+
+	/**
+	 * Returns true if instances of the given class can be mapped to {@link eu.stratosphere.sopremo.type.IObjectNode}
+	 * s, i.e., if it is a public class with at least one public getter that is not handled by another mapping.
+	 */
+	public boolean isReadableBean(Class<?> clazz) {
+		return isBeanCandidate(clazz) && this.getReadableProperties(clazz).length > 0;
+	}
+
+	/**
+	 * Returns true if {@link eu.stratosphere.sopremo.type.IObjectNode}s can be mapped to instances of the given class,
+	 * i.e., if it is a public, concrete class with a public default constructor and at least one public setter that
+	 * is not handled by another mapping.
+	 */
+	public boolean isWritableBean(Class<?> clazz) {
+		if (!isBeanCandidate(clazz) || Modifier.isAbstract(clazz.getModifiers()))
+			return false;
+		try {
+			clazz.getConstructor();
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+		return this.getWritableProperties(clazz).length > 0;
+	}
+
+	/**
+	 * Returns the mapper from instances of the given bean class to {@link eu.stratosphere.sopremo.type.IObjectNode}s.
+	 */
+	public synchronized BeanToObjectMapper getToObjectMapper(Class<?> beanClass) {
+		BeanToObjectMapper mapper = this.toObjectMappers.get(beanClass);
+		if (mapper == null) {
+			final PropertyDescriptor[] properties = this.getReadableProperties(beanClass);
+			final String className = beanClass.getName() + "$$ToObjectMapper";
+			try {
+				final ASMMapperBuilder mapperBuilder =
+					new ASMMapperBuilder(className, BeanToObjectMapper.class, beanClass);
+				mapperBuilder.addGettingMethod(properties);
+				final Class<?> mapperClass = this.loadClass(mapperBuilder.dump(), className, beanClass);
+				mapper = (BeanToObjectMapper) mapperClass.getConstructor(PropertyDescriptor[].class).newInstance(
+					(Object) properties);
+			} catch (Exception e) {
+				throw new IllegalStateException("Cannot create mapper for bean " + beanClass, e);
+			}
+			this.toObjectMappers.put(beanClass, mapper);
+		}
+		return mapper;
+	}
+
+	/**
+	 * Returns the mapper from {@link eu.stratosphere.sopremo.type.IObjectNode}s to instances of the given bean class.
+	 */
+	public synchronized ObjectToBeanMapper getToBeanMapper(Class<?> beanClass) {
+		ObjectToBeanMapper mapper = this.toBeanMappers.get(beanClass);
+		if (mapper == null) {
+			final PropertyDescriptor[] properties = this.getWritableProperties(beanClass);
+			final String className = beanClass.getName() + "$$ToBeanMapper";
+			try {
+				final ASMMapperBuilder mapperBuilder =
+					new ASMMapperBuilder(className, ObjectToBeanMapper.class, beanClass);
+				mapperBuilder.addSettingMethod(properties);
+				mapperBuilder.addInstantiatingMethod();
+				final Class<?> mapperClass = this.loadClass(mapperBuilder.dump(), className, beanClass);
+				mapper = (ObjectToBeanMapper) mapperClass.getConstructor(Class.class, PropertyDescriptor[].class)
+					.newInstance(beanClass, properties);
+			} catch (Exception e) {
+				throw new IllegalStateException("Cannot create mapper for bean " + beanClass, e);
+			}
+			this.toBeanMappers.put(beanClass, mapper);
+		}
+		return mapper;
+	}
+
+	private static boolean isBeanCandidate(Class<?> clazz) {
+		if (clazz.isPrimitive() || clazz.isArray() || clazz.isInterface() || clazz.isEnum() ||
+			!Modifier.isPublic(clazz.getModifiers()))
+			return false;
+		// classes with a dedicated mapping or of the class library are not treated as beans
+		if (IJsonNode.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz) ||
+			Collection.class.isAssignableFrom(clazz) || CharSequence.class.isAssignableFrom(clazz) ||
+			Number.class.isAssignableFrom(clazz) || clazz == Boolean.class || clazz == Character.class)
+			return false;
+		final String name = clazz.getName();
+		return !name.startsWith("java.") && !name.startsWith("javax.");
+	}
+
+	private PropertyDescriptor[] getReadableProperties(Class<?> clazz) {
+		final List<PropertyDescriptor> readableProperties = new ArrayList<PropertyDescriptor>();
+		for (PropertyDescriptor property : this.getProperties(clazz))
+			if (property.getReadMethod() != null)
+				readableProperties.add(property);
+		return readableProperties.toArray(new PropertyDescriptor[readableProperties.size()]);
+	}
+
+	private PropertyDescriptor[] getWritableProperties(Class<?> clazz) {
+		final List<PropertyDescriptor> writableProperties = new ArrayList<PropertyDescriptor>();
+		for (PropertyDescriptor property : this.getProperties(clazz))
+			if (property.getWriteMethod() != null)
+				writableProperties.add(property);
+		return writableProperties.toArray(new PropertyDescriptor[writableProperties.size()]);
+	}
+
+	private PropertyDescriptor[] getProperties(Class<?> clazz) {
+		try {
+			return Introspector.getBeanInfo(clazz, Object.class).getPropertyDescriptors();
+		} catch (IntrospectionException e) {
+			throw new IllegalStateException("Cannot inspect class " + clazz, e);
+		}
+	}
+
+	/**
+	 * Defines the generated class in a new class loader that delegates to the class loader of the bean, such that
+	 * beans of user code can be mapped.
+	 */
+	private Class<?> loadClass(byte[] b, String className, Class<?> beanClass) {
+		ClassLoader parent = beanClass.getClassLoader();
+		if (parent == null)
+			parent = BeanMapperFactory.class.getClassLoader();
+		return new MapperClassLoader(parent).define(className, b);
+	}
+
+	private static class MapperClassLoader extends ClassLoader {
+		private MapperClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		private Class<?> define(String className, byte[] b) {
+			return this.defineClass(className, b, 0, b.length);
+		}
+	}
+}
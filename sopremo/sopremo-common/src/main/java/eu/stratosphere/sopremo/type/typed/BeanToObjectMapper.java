@@ -0,0 +1,105 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type.typed;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Type;
+
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DoubleNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.JavaToJsonMapper;
+import eu.stratosphere.sopremo.type.LongNode;
+import eu.stratosphere.sopremo.type.ObjectNode;
+import eu.stratosphere.sopremo.type.TypeMapper;
+
+/**
+ * Base class of the mappers that {@link BeanMapperFactory} generates to map Java beans to {@link IObjectNode}s. The
+ * generated subclasses invoke the getters of the bean directly and pass the values to the put methods of this class.
+ */
+public abstract class BeanToObjectMapper extends TypeMapper<Object, IObjectNode> {
+	private final String[] fieldNames;
+
+	private final Type[] jsonTypes;
+
+	/**
+	 * Initializes BeanToObjectMapper.
+	 * 
+	 * @param properties
+	 *        the readable properties in the order in which the generated code refers to them
+	 */
+	protected BeanToObjectMapper(final PropertyDescriptor[] properties) {
+		super(ObjectNode.class);
+		this.fieldNames = new String[properties.length];
+		this.jsonTypes = new Type[properties.length];
+		for (int index = 0; index < properties.length; index++) {
+			this.fieldNames[index] = properties[index].getName();
+			final Type jsonType = JavaToJsonMapper.INSTANCE.getDefaultMappingType(
+				properties[index].getReadMethod().getGenericReturnType());
+			this.jsonTypes[index] = jsonType == null ? IJsonNode.class : jsonType;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.TypeMapper#mapTo(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public IObjectNode mapTo(final Object from, final IObjectNode target) {
+		this.mapProperties(from, target);
+		return target;
+	}
+
+	/**
+	 * Puts all readable properties of the given bean into the target.
+	 */
+	protected abstract void mapProperties(Object bean, IObjectNode target);
+
+	protected final void put(final IObjectNode target, final int index, final Object value) {
+		final String fieldName = this.fieldNames[index];
+		target.put(fieldName,
+			JavaToJsonMapper.INSTANCE.<IJsonNode> map(value, target.get(fieldName), this.jsonTypes[index]));
+	}
+
+	protected final void putInt(final IObjectNode target, final int index, final int value) {
+		final IJsonNode node = target.get(this.fieldNames[index]);
+		if (node instanceof IntNode)
+			((IntNode) node).setValue(value);
+		else
+			target.put(this.fieldNames[index], IntNode.valueOf(value));
+	}
+
+	protected final void putLong(final IObjectNode target, final int index, final long value) {
+		final IJsonNode node = target.get(this.fieldNames[index]);
+		if (node instanceof LongNode)
+			((LongNode) node).setValue(value);
+		else
+			target.put(this.fieldNames[index], LongNode.valueOf(value));
+	}
+
+	protected final void putDouble(final IObjectNode target, final int index, final double value) {
+		final IJsonNode node = target.get(this.fieldNames[index]);
+		if (node instanceof DoubleNode)
+			((DoubleNode) node).setValue(value);
+		else
+			target.put(this.fieldNames[index], DoubleNode.valueOf(value));
+	}
+
+	protected final void putBoolean(final IObjectNode target, final int index, final boolean value) {
+		target.put(this.fieldNames[index], BooleanNode.valueOf(value));
+	}
+}
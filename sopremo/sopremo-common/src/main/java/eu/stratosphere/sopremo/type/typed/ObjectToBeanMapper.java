@@ -0,0 +1,121 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type.typed;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Type;
+
+import com.google.common.base.Defaults;
+
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.INumericNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.JsonToJavaMapper;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.TypeMapper;
+
+/**
+ * Base class of the mappers that {@link BeanMapperFactory} generates to map {@link IObjectNode}s to Java beans. The
+ * generated subclasses instantiate the bean and invoke its setters directly with the values returned by the get
+ * methods of this class. Missing and null fields reset the property to its default value.
+ */
+public abstract class ObjectToBeanMapper extends TypeMapper<IObjectNode, Object> {
+	private final Class<?> beanClass;
+
+	private final String[] fieldNames;
+
+	private final Type[] javaTypes;
+
+	private final Object[] defaultValues;
+
+	/**
+	 * Initializes ObjectToBeanMapper.
+	 * 
+	 * @param beanClass
+	 *        the class of the bean
+	 * @param properties
+	 *        the writable properties in the order in which the generated code refers to them
+	 */
+	protected ObjectToBeanMapper(final Class<?> beanClass, final PropertyDescriptor[] properties) {
+		super(null);
+		this.beanClass = beanClass;
+		this.fieldNames = new String[properties.length];
+		this.javaTypes = new Type[properties.length];
+		this.defaultValues = new Object[properties.length];
+		for (int index = 0; index < properties.length; index++) {
+			this.fieldNames[index] = properties[index].getName();
+			this.javaTypes[index] = properties[index].getWriteMethod().getGenericParameterTypes()[0];
+			this.defaultValues[index] = Defaults.defaultValue(properties[index].getPropertyType());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.type.TypeMapper#mapTo(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public Object mapTo(final IObjectNode from, final Object target) {
+		final Object bean = this.beanClass.isInstance(target) ? target : this.newBean();
+		this.mapProperties(from, bean);
+		return bean;
+	}
+
+	/**
+	 * Creates a new instance of the bean with its public default constructor.
+	 */
+	protected abstract Object newBean();
+
+	/**
+	 * Sets all writable properties of the given bean to the values of the corresponding fields.
+	 */
+	protected abstract void mapProperties(IObjectNode from, Object bean);
+
+	protected final Object get(final IObjectNode from, final int index) {
+		final IJsonNode node = from.get(this.fieldNames[index]);
+		if (node == MissingNode.getInstance() || node == NullNode.getInstance())
+			return this.defaultValues[index];
+		return JsonToJavaMapper.INSTANCE.<Object> map(node, null, this.javaTypes[index]);
+	}
+
+	protected final int getInt(final IObjectNode from, final int index) {
+		final IJsonNode node = from.get(this.fieldNames[index]);
+		if (node instanceof INumericNode)
+			return ((INumericNode) node).getIntValue();
+		return ((Number) this.get(from, index)).intValue();
+	}
+
+	protected final long getLong(final IObjectNode from, final int index) {
+		final IJsonNode node = from.get(this.fieldNames[index]);
+		if (node instanceof INumericNode)
+			return ((INumericNode) node).getLongValue();
+		return ((Number) this.get(from, index)).longValue();
+	}
+
+	protected final double getDouble(final IObjectNode from, final int index) {
+		final IJsonNode node = from.get(this.fieldNames[index]);
+		if (node instanceof INumericNode)
+			return ((INumericNode) node).getDoubleValue();
+		return ((Number) this.get(from, index)).doubleValue();
+	}
+
+	protected final boolean getBoolean(final IObjectNode from, final int index) {
+		final IJsonNode node = from.get(this.fieldNames[index]);
+		if (node instanceof BooleanNode)
+			return ((BooleanNode) node).getBooleanValue();
+		return ((Boolean) this.get(from, index)).booleanValue();
+	}
+}
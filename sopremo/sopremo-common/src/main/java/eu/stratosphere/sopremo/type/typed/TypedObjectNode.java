@@ -3,6 +3,14 @@ package eu.stratosphere.sopremo.type.typed;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IObjectNode;
@@ -11,30 +19,65 @@ import eu.stratosphere.sopremo.type.JsonToJavaMapper;
 import eu.stratosphere.sopremo.type.MissingNode;
 import eu.stratosphere.sopremo.type.NullNode;
 import eu.stratosphere.sopremo.type.ObjectNode;
+import eu.stratosphere.sopremo.type.ReusingSerializer;
+import eu.stratosphere.util.reflect.ReflectUtil;
 
 /**
- * This class is the abstract superclass for all concrete TypedObjectNodes. It
- * stores a backingObject inside, storing all the object information. It also
- * delegates most of the {@link IObjectNode}s calls to this backingObject.
- * Exceptions are: - public TypedObjectNode {@link TypedObjectNode#clone()} -
- * public IObjectNode {@link TypedObjectNode#put(String fieldName, IJsonNode value)} - public
- * IJsonNode {@link TypedObjectNode#get(String fieldName)}
- * 
+ * This class is the abstract superclass for all concrete TypedObjectNodes. The
+ * fields that are declared in the typed interface are stored in slots, which
+ * the generated accessors address by their position. All other fields are
+ * stored in a backingObject, to which most of the {@link IObjectNode}s calls
+ * are delegated.<br />
+ * Modified slots are written back to the backingObject before it is accessed
+ * as a whole, e.g., in {@link #getBackingNode()} or {@link #iterator()}, and
+ * the slots are reloaded in {@link #setBackingNode(IObjectNode)}. Since the
+ * caller of {@link #getBackingNode()} may change the declared fields in the
+ * backingObject, the slots are reloaded before they are accessed again.
+ *
  * @author ftschirschnitz
  */
 
 public abstract class TypedObjectNode implements ITypedObjectNode {
+	private final static String[] NoSlots = new String[0];
+
 	protected IObjectNode backingObject;
 
+	/**
+	 * The names of the declared fields; shared by all instances of a generated class.
+	 */
+	private final String[] slotNames;
+
+	/**
+	 * The values of the declared fields; null if a field is missing.
+	 */
+	private final IJsonNode[] slots;
+
+	/**
+	 * True if a slot has been changed after the slots have been written to the backingObject.
+	 */
+	private boolean slotsModified;
+
+	/**
+	 * True if the backingObject has been handed out after the slots have been loaded, such that the slots may be
+	 * outdated.
+	 */
+	private boolean slotsStale;
+
 	protected TypedObjectNode() {
+		this(NoSlots);
+	}
+
+	protected TypedObjectNode(String[] slotNames) {
 		this.backingObject = new ObjectNode();
+		this.slotNames = slotNames;
+		this.slots = new IJsonNode[slotNames.length];
 	}
 
 	@Override
 	public TypedObjectNode clone() {
 		try {
 			TypedObjectNode clone = this.getClass().newInstance();
-			clone.backingObject = this.backingObject.clone();
+			clone.setBackingNode(this.getSyncedBackingNode().clone());
 			return clone;
 		} catch (InstantiationException e) {
 			e.printStackTrace();
@@ -47,6 +90,9 @@ public abstract class TypedObjectNode implements ITypedObjectNode {
 	@Override
 	public void clear() {
 		this.backingObject.clear();
+		for (int index = 0; index < this.slots.length; index++)
+			this.slots[index] = null;
+		this.slotsModified = this.slotsStale = false;
 	}
 
 	@Override
@@ -56,58 +102,198 @@ public abstract class TypedObjectNode implements ITypedObjectNode {
 
 	@Override
 	public void copyValueFrom(IJsonNode otherNode) {
-		this.backingObject.copyValueFrom(otherNode);
+		this.backingObject.copyValueFrom(otherNode instanceof TypedObjectNode ?
+			((TypedObjectNode) otherNode).getSyncedBackingNode() : otherNode);
+		this.loadSlots();
 	}
 
 	@Override
 	public int compareTo(IJsonNode other) {
-		return this.backingObject.compareTo(other);
+		return this.getSyncedBackingNode().compareTo(other);
 	}
 
 	@Override
 	public int compareToSameType(IJsonNode other) {
-		return this.backingObject.compareTo(other);
+		return this.getSyncedBackingNode().compareTo(other);
 	}
 
 	@Override
 	public void appendAsString(Appendable appendable) throws IOException {
-		this.backingObject.appendAsString(appendable);
+		this.getSyncedBackingNode().appendAsString(appendable);
 
 	}
 
 	@Override
 	public IObjectNode put(String fieldName, IJsonNode value) {
-		return this.backingObject.put(fieldName, value);
+		final int slot = this.getSlot(fieldName);
+		if (slot == -1)
+			this.backingObject.put(fieldName, value);
+		else {
+			if (value == null)
+				throw new NullPointerException();
+			this.setSlot(slot, value == MissingNode.getInstance() ? null : value);
+		}
+		return this;
 	}
 
 	public IObjectNode putOrNull(String fieldName, IJsonNode value) {
-		return this.backingObject.put(fieldName, value == null ? NullNode.getInstance() : value);
+		return this.put(fieldName, value == null ? NullNode.getInstance() : value);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public final <T extends IJsonNode> T get(String fieldName) {
-		return this.backingObject.get(fieldName);
+		final int slot = this.getSlot(fieldName);
+		if (slot == -1)
+			return this.backingObject.get(fieldName);
+		final IJsonNode value = this.getSlotValue(slot);
+		return (T) (value == null ? MissingNode.getInstance() : value);
 	}
 
-	@SuppressWarnings("cast")
 	public final <T extends IJsonNode> T getOrNull(String fieldName) {
-		final T result = this.backingObject.get(fieldName);
+		final T result = this.get(fieldName);
 		if (result == MissingNode.getInstance() || result == NullNode.getInstance())
 			return null;
-		return (T) result;
+		return result;
 	}
 
 	public final <T extends ITypedObjectNode> T getTyped(String fieldName, T object) {
-		IJsonNode result = this.get(fieldName);
-		if (result == MissingNode.getInstance() || result == NullNode.getInstance())
+		final int slot = this.getSlot(fieldName);
+		if (slot == -1) {
+			IJsonNode result = this.get(fieldName);
+			if (result == MissingNode.getInstance() || result == NullNode.getInstance())
+				return null;
+			((TypedObjectNode) object).setBackingNode((IObjectNode) result);
+			return object;
+		}
+		return this.getTypedSlot(slot, object);
+	}
+
+	public final void putTyped(String fieldName, ITypedObjectNode value) {
+		final int slot = this.getSlot(fieldName);
+		if (slot == -1)
+			this.backingObject.put(fieldName,
+				value == null ? NullNode.getInstance() : ((TypedObjectNode) value).getBackingNode());
+		else
+			this.putTypedSlot(slot, value);
+	}
+
+	/**
+	 * Returns the value of the given slot or null if the field is missing or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public final <T extends IJsonNode> T getSlotOrNull(int slot) {
+		final IJsonNode value = this.getSlotValue(slot);
+		if (value == NullNode.getInstance())
 			return null;
-		((TypedObjectNode) object).setBackingNode((IObjectNode) result);
+		return (T) value;
+	}
+
+	/**
+	 * Sets the value of the given slot; null values are stored as {@link NullNode}.
+	 */
+	public final void setSlotOrNull(int slot, IJsonNode value) {
+		this.setSlot(slot, value == null ? NullNode.getInstance() : value);
+	}
+
+	public final void setSlot(int slot, IJsonNode value) {
+		this.ensureSlotsLoaded();
+		this.slots[slot] = value;
+		this.slotsModified = true;
+	}
+
+	/**
+	 * Returns the value of the given slot wrapped in the given typed object or null if the field is missing or null.
+	 * The typed object replaces the value in the slot, such that later changes of the typed object are written back.
+	 */
+	@SuppressWarnings("unchecked")
+	public final <T extends ITypedObjectNode> T getTypedSlot(int slot, T object) {
+		final IJsonNode value = this.getSlotValue(slot);
+		if (value == null || value == NullNode.getInstance())
+			return null;
+		if (value.getClass() == object.getClass())
+			return (T) value;
+		((TypedObjectNode) object).setBackingNode(value instanceof TypedObjectNode ?
+			((TypedObjectNode) value).getBackingNode() : (IObjectNode) value);
+		this.slots[slot] = object;
 		return object;
 	}
 
-	public final void putTyped(String fieldName, ITypedObjectNode value) {
-		this.backingObject.put(fieldName,
-			value == null ? NullNode.getInstance() : ((TypedObjectNode) value).getBackingNode());
+	public final void putTypedSlot(int slot, ITypedObjectNode value) {
+		this.setSlot(slot, value == null ? NullNode.getInstance() : value);
+	}
+
+	/**
+	 * Returns the number of declared fields.
+	 */
+	public final int getSlotCount() {
+		return this.slots.length;
+	}
+
+	/**
+	 * Returns the name of the declared field in the given slot.
+	 */
+	public final String getSlotName(int slot) {
+		return this.slotNames[slot];
+	}
+
+	/**
+	 * Returns the value of the given slot or null if the field is missing.
+	 */
+	public final IJsonNode getSlotValue(int slot) {
+		this.ensureSlotsLoaded();
+		return this.slots[slot];
+	}
+
+	/**
+	 * Returns the slot of the given field or -1 if the field is not declared.
+	 */
+	public final int getSlot(String fieldName) {
+		for (int index = 0; index < this.slotNames.length; index++)
+			if (this.slotNames[index].equals(fieldName))
+				return index;
+		return -1;
+	}
+
+	/**
+	 * Reads the declared fields of the backingObject into the slots. Typed objects in the slots are kept if they still
+	 * wrap the value of the field, since they may contain changes that have not been written back yet.
+	 */
+	private void loadSlots() {
+		for (int index = 0; index < this.slots.length; index++) {
+			final IJsonNode value = this.backingObject.get(this.slotNames[index]);
+			final IJsonNode slot = this.slots[index];
+			if (!(slot instanceof TypedObjectNode) || ((TypedObjectNode) slot).backingObject != value)
+				this.slots[index] = value == MissingNode.getInstance() ? null : value;
+		}
+		this.slotsModified = this.slotsStale = false;
+	}
+
+	/**
+	 * Reloads the slots if the backingObject may have been changed through {@link #getBackingNode()}.
+	 */
+	private void ensureSlotsLoaded() {
+		if (this.slotsStale)
+			this.loadSlots();
+	}
+
+	/**
+	 * Writes the modified slots and the values of typed objects in the slots back to the backingObject.
+	 */
+	private void storeSlots() {
+		this.ensureSlotsLoaded();
+		for (int index = 0; index < this.slots.length; index++) {
+			final IJsonNode value = this.slots[index];
+			if (value instanceof TypedObjectNode)
+				this.backingObject.put(this.slotNames[index], ((TypedObjectNode) value).getSyncedBackingNode());
+			else if (this.slotsModified) {
+				if (value == null)
+					this.backingObject.remove(this.slotNames[index]);
+				else
+					this.backingObject.put(this.slotNames[index], value);
+			}
+		}
+		this.slotsModified = false;
 	}
 
 	protected static final JavaToJsonMapper JavaToJsonMapperInstance = JavaToJsonMapper.INSTANCE;
@@ -120,29 +306,153 @@ public abstract class TypedObjectNode implements ITypedObjectNode {
 
 	@Override
 	public void remove(String fieldName) {
-		this.backingObject.remove(fieldName);
+		final int slot = this.getSlot(fieldName);
+		if (slot == -1)
+			this.backingObject.remove(fieldName);
+		else
+			this.setSlot(slot, null);
 	}
 
 	@Override
 	public IObjectNode putAll(IObjectNode jsonNode) {
-		return this.backingObject.putAll(jsonNode);
+		for (final Entry<String, IJsonNode> entry : jsonNode)
+			this.put(entry.getKey(), entry.getValue());
+		return this;
 	}
 
 	@Override
 	public Iterator<Entry<String, IJsonNode>> iterator() {
-		return this.backingObject.iterator();
+		return this.getSyncedBackingNode().iterator();
+	}
+
+	@Override
+	public SortedSet<String> getFieldNames() {
+		return this.getSyncedBackingNode().getFieldNames();
 	}
 
 	@Override
 	public int size() {
-		return this.backingObject.size();
+		return this.getSyncedBackingNode().size();
 	}
 
+	/**
+	 * Returns the names of the fields that are not declared and thus stored in the backingObject only.
+	 */
+	public SortedSet<String> getUndeclaredFieldNames() {
+		final SortedSet<String> fieldNames = new TreeSet<String>(this.backingObject.getFieldNames());
+		for (final String slotName : this.slotNames)
+			fieldNames.remove(slotName);
+		return fieldNames;
+	}
+
+	/**
+	 * Returns the backingObject with all declared fields. The caller may change the backingObject; the slots are
+	 * reloaded before they are accessed the next time.
+	 */
 	public IObjectNode getBackingNode() {
+		this.storeSlots();
+		this.invalidateSlots();
+		return this.backingObject;
+	}
+
+	/**
+	 * Marks the slots of this object and of all nested typed objects as stale, since their backing nodes are part of
+	 * the exposed backingObject.
+	 */
+	private void invalidateSlots() {
+		this.slotsStale = true;
+		for (int index = 0; index < this.slots.length; index++)
+			if (this.slots[index] instanceof TypedObjectNode)
+				((TypedObjectNode) this.slots[index]).invalidateSlots();
+	}
+
+	/**
+	 * Returns the backingObject with all declared fields for read-only access within this class.
+	 */
+	private IObjectNode getSyncedBackingNode() {
+		this.storeSlots();
 		return this.backingObject;
 	}
 
 	public void setBackingNode(IObjectNode backingNode) {
 		this.backingObject = backingNode;
+		this.loadSlots();
+	}
+
+	/**
+	 * Writes the slots positionally without field names, followed by the remaining fields of the backingObject.
+	 */
+	public static class TypedObjectNodeSerializer extends ReusingSerializer<TypedObjectNode> {
+		/*
+		 * (non-Javadoc)
+		 * @see com.esotericsoftware.kryo.Serializer#write(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Output, java.lang.Object)
+		 */
+		@Override
+		public void write(Kryo kryo, Output output, TypedObjectNode node) {
+			final IObjectNode backingNode = node.getSyncedBackingNode();
+			for (int index = 0; index < node.slots.length; index++) {
+				final IJsonNode value = node.slots[index];
+				kryo.writeClassAndObject(output,
+					value instanceof TypedObjectNode ? ((TypedObjectNode) value).getSyncedBackingNode() : value);
+			}
+
+			output.writeInt(backingNode.size() - node.getFilledSlotCount(), true);
+			for (final Entry<String, IJsonNode> entry : backingNode)
+				if (node.getSlot(entry.getKey()) == -1) {
+					output.writeString(entry.getKey());
+					kryo.writeClassAndObject(output, entry.getValue());
+				}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see eu.stratosphere.sopremo.type.ReusingSerializer#read(com.esotericsoftware.kryo.Kryo,
+		 * com.esotericsoftware.kryo.io.Input, java.lang.Object, java.lang.Class)
+		 */
+		@Override
+		public TypedObjectNode read(Kryo kryo, Input input, TypedObjectNode oldInstance,
+				Class<TypedObjectNode> type) {
+			final TypedObjectNode node = oldInstance == null ? ReflectUtil.newInstance(type) : oldInstance;
+			node.backingObject.clear();
+			for (int index = 0; index < node.slots.length; index++)
+				node.slots[index] = readSlot(kryo, input, node.slots[index]);
+			node.slotsModified = true;
+			node.slotsStale = false;
+
+			for (int index = 0, size = input.readInt(true); index < size; index++) {
+				final String key = input.readString();
+				node.backingObject.put(key, (IJsonNode) kryo.readClassAndObject(input));
+			}
+			return node;
+		}
+
+		/**
+		 * Reads the value of a slot and reuses the old value if it has the same type. Missing values are read as
+		 * null, regardless of the old value.
+		 */
+		@SuppressWarnings("unchecked")
+		private static IJsonNode readSlot(Kryo kryo, Input input, IJsonNode oldValue) {
+			final Registration registration = kryo.readClass(input);
+			if (registration == null)
+				return null;
+			final Serializer<IJsonNode> serializer = registration.getSerializer();
+			if (oldValue != null && !(oldValue instanceof TypedObjectNode) &&
+				registration.getType() == oldValue.getClass() && serializer instanceof ReusingSerializer<?>)
+				return ((ReusingSerializer<IJsonNode>) serializer).read(kryo, input, oldValue, registration.getType());
+			return serializer.read(kryo, input, registration.getType());
+		}
+	}
+
+	/**
+	 * Returns the number of slots that contain a value.
+	 */
+	private int getFilledSlotCount() {
+		this.ensureSlotsLoaded();
+		int count = 0;
+		for (int index = 0; index < this.slots.length; index++)
+			if (this.slots[index] != null)
+				count++;
+		return count;
 	}
 }
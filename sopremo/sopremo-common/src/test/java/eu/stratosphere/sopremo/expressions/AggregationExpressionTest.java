@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import eu.stratosphere.sopremo.CoreFunctions;
 import eu.stratosphere.sopremo.aggregation.Aggregation;
+import eu.stratosphere.sopremo.type.IArrayNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.INumericNode;
 import eu.stratosphere.sopremo.type.IntNode;
@@ -41,4 +42,16 @@ public class AggregationExpressionTest extends EvaluableExpressionTest<Aggregati
 		Assert.assertTrue(result instanceof INumericNode);
 		Assert.assertEquals(IntNode.valueOf(4), result);
 	}
+
+	@Test
+	public void shouldNotRetainElements() {
+		final IArrayNode<?> elements = createArrayNode(3, 2, 4);
+		final IJsonNode first = new AggregationExpression(CoreFunctions.FIRST).evaluate(elements);
+		final IJsonNode min = new AggregationExpression(CoreFunctions.MIN).evaluate(elements);
+		// simulates the reuse of the elements for the next record
+		for (final IJsonNode element : elements)
+			((IntNode) element).setValue(0);
+		Assert.assertEquals(IntNode.valueOf(3), first);
+		Assert.assertEquals(IntNode.valueOf(2), min);
+	}
 }
@@ -1,6 +1,18 @@
 package eu.stratosphere.sopremo.expressions;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
 import eu.stratosphere.sopremo.expressions.ArithmeticExpression.ArithmeticOperator;
+import eu.stratosphere.sopremo.type.BigIntegerNode;
+import eu.stratosphere.sopremo.type.DecimalNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.JsonUtil;
+import eu.stratosphere.sopremo.type.LongNode;
 
 public class ArithmeticTest extends EvaluableExpressionTest<ArithmeticExpression> {
 	@Override
@@ -8,4 +20,46 @@ public class ArithmeticTest extends EvaluableExpressionTest<ArithmeticExpression
 		return new ArithmeticExpression(new ConstantExpression(1), ArithmeticOperator.ADDITION, new ConstantExpression(
 			index));
 	}
+
+	@Test
+	public void shouldPromoteIntOverflowToLong() {
+		Assert.assertEquals(LongNode.valueOf((long) Integer.MAX_VALUE + 1),
+			this.evaluate(Integer.MAX_VALUE, ArithmeticOperator.ADDITION, 1));
+		Assert.assertEquals(LongNode.valueOf((long) Integer.MIN_VALUE - 1),
+			this.evaluate(Integer.MIN_VALUE, ArithmeticOperator.SUBTRACTION, 1));
+		Assert.assertEquals(LongNode.valueOf((long) Integer.MAX_VALUE * Integer.MAX_VALUE),
+			this.evaluate(Integer.MAX_VALUE, ArithmeticOperator.MULTIPLICATION, Integer.MAX_VALUE));
+		Assert.assertEquals(IntNode.valueOf(Integer.MAX_VALUE),
+			this.evaluate(Integer.MAX_VALUE - 1, ArithmeticOperator.ADDITION, 1));
+	}
+
+	@Test
+	public void shouldPromoteLongOverflowToBigInteger() {
+		final BigInteger max = BigInteger.valueOf(Long.MAX_VALUE), min = BigInteger.valueOf(Long.MIN_VALUE);
+		Assert.assertEquals(max.add(BigInteger.ONE),
+			((BigIntegerNode) this.evaluate(Long.MAX_VALUE, ArithmeticOperator.ADDITION, 1)).getBigIntegerValue());
+		Assert.assertEquals(min.subtract(BigInteger.ONE),
+			((BigIntegerNode) this.evaluate(Long.MIN_VALUE, ArithmeticOperator.SUBTRACTION, 1L)).getBigIntegerValue());
+		Assert.assertEquals(max.multiply(BigInteger.valueOf(2)),
+			((BigIntegerNode) this.evaluate(Long.MAX_VALUE, ArithmeticOperator.MULTIPLICATION, 2))
+				.getBigIntegerValue());
+		Assert.assertEquals(min.negate(),
+			((BigIntegerNode) this.evaluate(Long.MIN_VALUE, ArithmeticOperator.MULTIPLICATION, -1L))
+				.getBigIntegerValue());
+		Assert.assertEquals(LongNode.valueOf(Long.MAX_VALUE),
+			this.evaluate(Long.MAX_VALUE - 1, ArithmeticOperator.ADDITION, 1));
+	}
+
+	@Test
+	public void shouldDivideIntegralNumbersToDecimal() {
+		Assert.assertEquals(new DecimalNode(BigDecimal.valueOf(2)), this.evaluate(6, ArithmeticOperator.DIVISION, 3));
+		Assert.assertEquals(new DecimalNode(new BigDecimal("2.5")), this.evaluate(5L, ArithmeticOperator.DIVISION, 2));
+		Assert.assertEquals(new DecimalNode(BigDecimal.valueOf(Long.MIN_VALUE).negate()),
+			this.evaluate(Long.MIN_VALUE, ArithmeticOperator.DIVISION, -1L));
+	}
+
+	private IJsonNode evaluate(final Number left, final ArithmeticOperator operator, final Number right) {
+		return new ArithmeticExpression(new InputSelection(0), operator, new InputSelection(1)).evaluate(
+			JsonUtil.asArray(JsonUtil.OBJECT_MAPPER.map(left), JsonUtil.OBJECT_MAPPER.map(right)));
+	}
 }
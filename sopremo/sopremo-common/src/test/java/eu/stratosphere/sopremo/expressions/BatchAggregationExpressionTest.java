@@ -70,6 +70,20 @@ public class BatchAggregationExpressionTest extends EvaluableExpressionTest<Batc
 		return batch;
 	}
 
+	@Test
+	public void shouldIterateStreamOnceForAllPartials() {
+		final BatchAggregationExpression batch = this.createBatchExpression();
+		final ObjectCreation projection = new ObjectCreation();
+		projection.addMapping("sum", batch.get(0));
+		projection.addMapping("max", batch.get(1));
+		projection.addMapping("maxSquare", batch.get(2));
+		Assert.assertEquals(1, ExpressionUtil.countStreamPasses(projection, EvaluationExpression.VALUE));
+
+		projection.addMapping("values", new ArrayProjection(new ObjectAccess("value")));
+		Assert.assertEquals(2, ExpressionUtil.countStreamPasses(projection, EvaluationExpression.VALUE));
+		Assert.assertEquals(0, ExpressionUtil.countStreamPasses(projection, new InputSelection(1)));
+	}
+
 	@Test
 	public void shouldReuseTarget() {
 		final BatchAggregationExpression batch = this.createBatchExpression();
@@ -2,11 +2,17 @@ package eu.stratosphere.sopremo.expressions;
 
 import static eu.stratosphere.sopremo.type.JsonUtil.createArrayNode;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import eu.stratosphere.sopremo.expressions.ComparativeExpression.BinaryOperator;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DoubleNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.LongNode;
+import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.TextNode;
 
 public class ComparativeExpressionTest extends EvaluableExpressionTest<ComparativeExpression> {
 	@Override
@@ -30,4 +36,23 @@ public class ComparativeExpressionTest extends EvaluableExpressionTest<Comparati
 	public void shouldComplyEqualsContract() {
 		super.shouldComplyEqualsContract();
 	}
+
+	@Test
+	public void shouldKeepResultsWhenTypesChange() {
+		final IJsonNode[] values = { IntNode.valueOf(1), IntNode.valueOf(Integer.MAX_VALUE), LongNode.valueOf(1),
+			LongNode.valueOf(Long.MAX_VALUE), DoubleNode.valueOf(1), DoubleNode.valueOf(Double.NaN),
+			TextNode.valueOf("1"), TextNode.valueOf("a"), NullNode.getInstance(), BooleanNode.TRUE };
+
+		for (final BinaryOperator operator : BinaryOperator.values()) {
+			final ComparativeExpression expression =
+				new ComparativeExpression(new InputSelection(0), operator, new InputSelection(1));
+			// evaluates each pair twice to use the specializations for the observed types
+			for (int repetition = 0; repetition < 2; repetition++)
+				for (final IJsonNode value1 : values)
+					for (final IJsonNode value2 : values)
+						Assert.assertEquals(value1 + " " + operator + " " + value2,
+							BooleanNode.valueOf(operator.evaluate(value1, value2)),
+							expression.evaluate(createArrayNode(value1, value2)));
+		}
+	}
 }
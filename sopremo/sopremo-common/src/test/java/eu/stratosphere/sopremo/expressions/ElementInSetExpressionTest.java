@@ -9,6 +9,8 @@ import eu.stratosphere.sopremo.expressions.ElementInSetExpression.Quantor;
 import eu.stratosphere.sopremo.type.BooleanNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.LongNode;
+import eu.stratosphere.sopremo.type.TextNode;
 
 public class ElementInSetExpressionTest extends EvaluableExpressionTest<ElementInSetExpression> {
 
@@ -66,4 +68,27 @@ public class ElementInSetExpressionTest extends EvaluableExpressionTest<ElementI
 
 		Assert.assertEquals(BooleanNode.FALSE, result);
 	}
+
+	@Test
+	public void shouldFindElementInConstantSet() {
+		final ElementInSetExpression expression = new ElementInSetExpression(new InputSelection(0), Quantor.EXISTS_IN,
+			new ConstantExpression(createArrayNode(1, 2L, "3", createArrayNode(4))));
+
+		Assert.assertEquals(BooleanNode.TRUE, expression.evaluate(createArrayNode(IntNode.valueOf(1))));
+		Assert.assertEquals(BooleanNode.TRUE, expression.evaluate(createArrayNode(LongNode.valueOf(2))));
+		Assert.assertEquals(BooleanNode.TRUE, expression.evaluate(createArrayNode(TextNode.valueOf("3"))));
+		Assert.assertEquals(BooleanNode.TRUE, expression.evaluate(createArrayNode(createArrayNode(4))));
+		Assert.assertEquals(BooleanNode.FALSE, expression.evaluate(createArrayNode(IntNode.valueOf(2))));
+		Assert.assertEquals(BooleanNode.FALSE, expression.evaluate(createArrayNode(LongNode.valueOf(1))));
+		Assert.assertEquals(BooleanNode.FALSE, expression.evaluate(createArrayNode(TextNode.valueOf("4"))));
+	}
+
+	@Test
+	public void shouldFindNonexistingElementInConstantSet() {
+		final ElementInSetExpression expression = new ElementInSetExpression(new InputSelection(0),
+			Quantor.EXISTS_NOT_IN, new ConstantExpression(createArrayNode(1, 2, 3)));
+
+		Assert.assertEquals(BooleanNode.FALSE, expression.evaluate(createArrayNode(IntNode.valueOf(2))));
+		Assert.assertEquals(BooleanNode.TRUE, expression.evaluate(createArrayNode(IntNode.valueOf(0))));
+	}
 }
@@ -0,0 +1,57 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * Base class for tests of components that rewrite {@link EvaluationExpression}s, which checks that the rewritten
+ * expressions evaluate the given inputs to the same results as the original expressions.
+ */
+@Ignore
+public abstract class EquivalentExpressionTest {
+	private final List<IJsonNode> inputs;
+
+	/**
+	 * Initializes EquivalentExpressionTest with the inputs that are evaluated by
+	 * {@link #assertSameResults(EvaluationExpression, EvaluationExpression)}.
+	 * 
+	 * @param inputs
+	 *        the inputs of the expressions
+	 */
+	protected EquivalentExpressionTest(final IJsonNode... inputs) {
+		this.inputs = Arrays.asList(inputs);
+	}
+
+	/**
+	 * Asserts that both expressions are distinct and evaluate all inputs to the same results.
+	 * 
+	 * @param expected
+	 *        the original expression
+	 * @param actual
+	 *        the rewritten expression
+	 */
+	protected void assertSameResults(final EvaluationExpression expected, final EvaluationExpression actual) {
+		Assert.assertNotSame(expected, actual);
+		for (final IJsonNode input : this.inputs)
+			Assert.assertEquals(String.valueOf(input), expected.evaluate(input), actual.evaluate(input));
+	}
+}
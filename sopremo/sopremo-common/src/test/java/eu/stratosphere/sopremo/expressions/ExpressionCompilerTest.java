@@ -0,0 +1,119 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import static eu.stratosphere.sopremo.type.JsonUtil.createArrayNode;
+import static eu.stratosphere.sopremo.type.JsonUtil.createObjectNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.sopremo.EvaluationContext;
+import eu.stratosphere.sopremo.expressions.ArithmeticExpression.ArithmeticOperator;
+import eu.stratosphere.sopremo.expressions.ComparativeExpression.BinaryOperator;
+import eu.stratosphere.sopremo.expressions.ElementInSetExpression.Quantor;
+import eu.stratosphere.sopremo.expressions.ObjectCreation.CopyFields;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.TextNode;
+
+/**
+ * Tests {@link ExpressionCompiler}.
+ */
+public class ExpressionCompilerTest extends EquivalentExpressionTest {
+	/**
+	 * Initializes ExpressionCompilerTest.
+	 */
+	public ExpressionCompilerTest() {
+		super(createObjectNode("id", 1, "name", "a", "values", createArrayNode(1, 2, 3), "nested",
+			createObjectNode("x", 1)),
+			createObjectNode("id", 2, "name", "b", "values", createArrayNode(4), "nested", createObjectNode("x", 2)),
+			createObjectNode("id", 3, "values", createArrayNode(), "nested", createObjectNode()),
+			createObjectNode("id", Integer.MAX_VALUE, "name", 42, "values", createArrayNode(5, 6), "nested",
+				createObjectNode("y", true)));
+	}
+
+	@Test
+	public void shouldCompileProjections() {
+		final ObjectCreation projection = new ObjectCreation();
+		projection.addMapping("id", new ObjectAccess("id"));
+		projection.addMapping("last", new ArrayAccess(-1).withInputExpression(new ObjectAccess("values")));
+		projection.addMapping("sum", new ArithmeticExpression(new ObjectAccess("id"), ArithmeticOperator.ADDITION,
+			new ConstantExpression(1)));
+		projection.addMapping("pair", new ArrayCreation(new ObjectAccess("name"), new ConstantExpression("const")));
+		projection.addMapping("typed", new CoerceExpression(TextNode.class).withInputExpression(new ObjectAccess("id")));
+		projection.addMapping(new CopyFields(new ObjectAccess("nested")));
+
+		this.assertSameResults(projection, ExpressionCompiler.INSTANCE.compile(projection.clone()));
+	}
+
+	@Test
+	public void shouldCompileConditions() {
+		final BooleanExpression condition = new OrExpression(
+			new AndExpression(
+				new ComparativeExpression(new ObjectAccess("id"), BinaryOperator.GREATER, new ConstantExpression(1)),
+				new UnaryExpression(new ObjectAccess("name"), true)),
+			new UnaryExpression(new ArrayAccess(0).withInputExpression(new ObjectAccess("values"))),
+			new ComparativeExpression(new TernaryExpression(new ObjectAccess("name"), new ConstantExpression(1),
+				new ConstantExpression(2)), BinaryOperator.EQUAL, new ConstantExpression(2)));
+
+		final BooleanExpression compiled = ExpressionCompiler.INSTANCE.compile((BooleanExpression) condition.clone());
+		Assert.assertTrue(compiled instanceof CompiledBooleanExpression);
+		this.assertSameResults(condition, compiled);
+	}
+
+	@Test
+	public void shouldInterpretUnknownExpressions() {
+		final BooleanExpression condition = new AndExpression(
+			new ElementInSetExpression(new ObjectAccess("id"), Quantor.EXISTS_IN,
+				new ConstantExpression(createArrayNode(1, 2))),
+			new ComparativeExpression(new ObjectAccess("name"), BinaryOperator.NOT_EQUAL, new ConstantExpression("b")));
+
+		this.assertSameResults(condition, ExpressionCompiler.INSTANCE.compile((BooleanExpression) condition.clone()));
+	}
+
+	@Test
+	public void shouldCompileFunctionCalls() {
+		final EvaluationContext context = new EvaluationContext();
+		context.getFunctionRegistry().put(FunctionCallTest.class);
+		final EvaluationExpression call = new FunctionCall("sum", context,
+			new ArrayAccess(0).withInputExpression(new InputSelection(0)), new ConstantExpression(2));
+
+		final IJsonNode input = createArrayNode(createArrayNode(3, 4));
+		Assert.assertEquals(call.evaluate(input), ExpressionCompiler.INSTANCE.compile(call.clone()).evaluate(input));
+	}
+
+	@Test
+	public void shouldNotCompileLeaves() {
+		Assert.assertSame(EvaluationExpression.VALUE, ExpressionCompiler.INSTANCE.compile(EvaluationExpression.VALUE));
+		final ConstantExpression constant = new ConstantExpression(IntNode.valueOf(1));
+		Assert.assertSame(constant, ExpressionCompiler.INSTANCE.compile(constant));
+	}
+
+	@Test
+	public void shouldBehaveLikeOriginalExpression() {
+		final EvaluationExpression expression = new ArrayCreation(new ObjectAccess("id"), new ObjectAccess("name"));
+		final EvaluationExpression compiled = ExpressionCompiler.INSTANCE.compile(expression);
+
+		Assert.assertTrue(compiled instanceof CompiledExpression);
+		Assert.assertEquals(expression.toString(), compiled.toString());
+		Assert.assertEquals(compiled, ExpressionCompiler.INSTANCE.compile(expression.clone()));
+		Assert.assertSame(compiled, ExpressionCompiler.INSTANCE.compile(compiled));
+
+		final EvaluationExpression clone = compiled.clone();
+		Assert.assertEquals(compiled, clone);
+		this.assertSameResults(expression, clone);
+	}
+}
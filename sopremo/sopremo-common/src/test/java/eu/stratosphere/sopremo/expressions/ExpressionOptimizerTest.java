@@ -0,0 +1,130 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import static eu.stratosphere.sopremo.type.JsonUtil.createArrayNode;
+import static eu.stratosphere.sopremo.type.JsonUtil.createObjectNode;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.sopremo.CoreFunctions;
+import eu.stratosphere.sopremo.expressions.ArithmeticExpression.ArithmeticOperator;
+import eu.stratosphere.sopremo.expressions.ComparativeExpression.BinaryOperator;
+import eu.stratosphere.sopremo.type.BooleanNode;
+
+/**
+ * Tests {@link ExpressionOptimizer}.
+ */
+public class ExpressionOptimizerTest extends EquivalentExpressionTest {
+	/**
+	 * Initializes ExpressionOptimizerTest.
+	 */
+	public ExpressionOptimizerTest() {
+		super(createObjectNode("id", 1, "address", createObjectNode("city", "Berlin", "zip", 10115), "values",
+			createArrayNode()),
+			createObjectNode("id", 2, "address", createObjectNode("city", "Potsdam"), "values", createArrayNode()),
+			createObjectNode("id", 3, "values",
+				createArrayNode(createObjectNode("address", createObjectNode("zip", 1)))));
+	}
+
+	@Test
+	public void shouldFoldConstants() {
+		final ObjectCreation projection = new ObjectCreation();
+		projection.addMapping("sum", new ArithmeticExpression(new ConstantExpression(1), ArithmeticOperator.ADDITION,
+			new ConstantExpression(2)));
+		projection.addMapping("length",
+			new FunctionCall("length", CoreFunctions.LENGTH, new ConstantExpression("abc")));
+		projection.addMapping("id", new ObjectAccess("id"));
+
+		final ObjectCreation optimized = (ObjectCreation) ExpressionOptimizer.INSTANCE.optimize(projection.clone());
+		Assert.assertEquals(new ConstantExpression(3), optimized.getMapping(0).getExpression());
+		Assert.assertEquals(new ConstantExpression(3), optimized.getMapping(1).getExpression());
+		Assert.assertEquals(new ObjectAccess("id"), optimized.getMapping(2).getExpression());
+		this.assertSameResults(projection, optimized);
+	}
+
+	@Test
+	public void shouldNotFoldFunctionsWithoutHints() {
+		final EvaluationExpression call =
+			new FunctionCall("camelCase", CoreFunctions.CAMEL_CASE, new ConstantExpression("abc"));
+		Assert.assertEquals(call, ExpressionOptimizer.INSTANCE.optimize(call.clone()));
+	}
+
+	@Test
+	public void shouldSimplifyBooleanExpressions() {
+		final BooleanExpression comparison =
+			new ComparativeExpression(new ObjectAccess("id"), BinaryOperator.GREATER, new ConstantExpression(1));
+
+		final BooleanExpression and = new AndExpression(new UnaryExpression(new ConstantExpression(true)),
+			new AndExpression(comparison, (BooleanExpression) comparison.clone()));
+		Assert.assertEquals(comparison, ExpressionOptimizer.INSTANCE.optimize(and.clone()));
+		this.assertSameResults(and, ExpressionOptimizer.INSTANCE.optimize(and.clone()));
+
+		final BooleanExpression or = new OrExpression(comparison,
+			new ComparativeExpression(new ConstantExpression(1), BinaryOperator.LESS, new ConstantExpression(2)));
+		Assert.assertEquals(new UnaryExpression(new ConstantExpression(BooleanNode.TRUE)),
+			ExpressionOptimizer.INSTANCE.optimize(or.clone()));
+
+		final BooleanExpression not = new UnaryExpression(new UnaryExpression(comparison.clone(), true), true);
+		Assert.assertEquals(comparison, ExpressionOptimizer.INSTANCE.optimize(not.clone()));
+	}
+
+	@Test
+	public void shouldShareSubexpressions() {
+		final ObjectCreation projection = new ObjectCreation();
+		projection.addMapping("city", new ObjectAccess("city").withInputExpression(new ObjectAccess("address")));
+		projection.addMapping("zip", new ObjectAccess("zip").withInputExpression(new ObjectAccess("address")));
+		projection.addMapping("local", new ComparativeExpression(
+			new ObjectAccess("city").withInputExpression(new ObjectAccess("address")), BinaryOperator.EQUAL,
+			new ConstantExpression("Berlin")));
+
+		final EvaluationExpression optimized = ExpressionOptimizer.INSTANCE.optimize(projection.clone());
+		Assert.assertTrue(optimized instanceof CommonSubexpressionScope);
+		Assert.assertEquals(Arrays.asList(new ObjectAccess("city").withInputExpression(new ObjectAccess("address"))),
+			((CommonSubexpressionScope) optimized).getSubexpressions());
+		this.assertSameResults(projection, optimized);
+		this.assertSameResults(projection, optimized.clone());
+		this.assertSameResults(projection, ExpressionCompiler.INSTANCE.compile(optimized));
+	}
+
+	@Test
+	public void shouldNotShareCheapSubexpressions() {
+		final ObjectCreation projection = new ObjectCreation();
+		projection.addMapping("id", new ObjectAccess("id").withInputExpression(new InputSelection(0)));
+		projection.addMapping("next", new ArithmeticExpression(
+			new ObjectAccess("id").withInputExpression(new InputSelection(0)), ArithmeticOperator.ADDITION,
+			new ConstantExpression(1)));
+
+		final EvaluationExpression optimized = ExpressionOptimizer.INSTANCE.optimize(projection.clone());
+		Assert.assertEquals(projection, optimized);
+		this.assertSameResults(projection, optimized);
+	}
+
+	@Test
+	public void shouldNotShareSubexpressionsOfIteratedNodes() {
+		final ObjectCreation projection = new ObjectCreation();
+		projection.addMapping("zip", new ObjectAccess("zip").withInputExpression(new ObjectAccess("address")));
+		projection.addMapping("zips", new ArrayProjection(
+			new ObjectAccess("zip").withInputExpression(new ObjectAccess("address"))).withInputExpression(
+			new ObjectAccess("values")));
+
+		final EvaluationExpression optimized = ExpressionOptimizer.INSTANCE.optimize(projection.clone());
+		Assert.assertEquals(projection, optimized);
+		this.assertSameResults(projection, optimized);
+	}
+}
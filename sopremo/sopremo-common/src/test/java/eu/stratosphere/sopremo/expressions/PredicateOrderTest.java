@@ -0,0 +1,105 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.expressions;
+
+import static eu.stratosphere.sopremo.type.JsonUtil.createArrayNode;
+import static eu.stratosphere.sopremo.type.JsonUtil.createObjectNode;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.sopremo.CoreFunctions;
+import eu.stratosphere.sopremo.expressions.ComparativeExpression.BinaryOperator;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+
+/**
+ * Tests {@link PredicateOrder}.
+ */
+public class PredicateOrderTest {
+	private static final int EVALUATIONS = 1024;
+
+	private final BooleanExpression positiveId =
+		new ComparativeExpression(new ObjectAccess("id"), BinaryOperator.GREATER, new ConstantExpression(0));
+
+	private final BooleanExpression negativeFirstValue = new ComparativeExpression(
+		new InputSelection(0).withInputExpression(new ObjectAccess("values")), BinaryOperator.LESS,
+		new ConstantExpression(0));
+
+	private final IJsonNode input = createObjectNode("id", 1, "values", createArrayNode(1));
+
+	@Test
+	public void shouldEvaluateDecisivePredicatesFirst() {
+		final PredicateOrder conjunction =
+			new PredicateOrder(Arrays.asList(this.positiveId, this.negativeFirstValue), BooleanNode.FALSE);
+		for (int index = 0; index < EVALUATIONS; index++)
+			Assert.assertEquals(BooleanNode.FALSE, conjunction.evaluate(this.input));
+		Assert.assertEquals(Arrays.asList(this.negativeFirstValue, this.positiveId), conjunction.getPredicates());
+
+		final PredicateOrder disjunction =
+			new PredicateOrder(Arrays.asList(this.negativeFirstValue, this.positiveId), BooleanNode.TRUE);
+		for (int index = 0; index < EVALUATIONS; index++)
+			Assert.assertEquals(BooleanNode.TRUE, disjunction.evaluate(this.input));
+		Assert.assertEquals(Arrays.asList(this.positiveId, this.negativeFirstValue), disjunction.getPredicates());
+	}
+
+	@Test
+	public void shouldNotReorderImpurePredicates() {
+		final BooleanExpression impure = new ComparativeExpression(
+			new FunctionCall("camelCase", CoreFunctions.CAMEL_CASE, new ConstantExpression("a")), BinaryOperator.EQUAL,
+			new ConstantExpression("A"));
+		final PredicateOrder conjunction =
+			new PredicateOrder(Arrays.asList(impure, this.negativeFirstValue), BooleanNode.FALSE);
+		for (int index = 0; index < EVALUATIONS; index++)
+			Assert.assertEquals(BooleanNode.FALSE, conjunction.evaluate(this.input));
+		Assert.assertEquals(Arrays.asList(impure, this.negativeFirstValue), conjunction.getPredicates());
+	}
+
+	@Test
+	public void shouldRestoreOriginalOrderIfPredicateFails() {
+		final PredicateOrder conjunction =
+			new PredicateOrder(Arrays.asList(this.positiveId, this.negativeFirstValue), BooleanNode.FALSE);
+		for (int index = 0; index < EVALUATIONS; index++)
+			conjunction.evaluate(this.input);
+		Assert.assertEquals(Arrays.asList(this.negativeFirstValue, this.positiveId), conjunction.getPredicates());
+
+		// the first predicate guards the second predicate, which cannot select an element of a text
+		Assert.assertEquals(BooleanNode.FALSE, conjunction.evaluate(createObjectNode("id", 0, "values", "text")));
+		Assert.assertEquals(Arrays.asList(this.positiveId, this.negativeFirstValue), conjunction.getPredicates());
+	}
+
+	@Test
+	public void shouldReorderJunctions() {
+		final AndExpression and = new AndExpression(this.positiveId, this.negativeFirstValue);
+		for (int index = 0; index < EVALUATIONS; index++)
+			Assert.assertEquals(BooleanNode.FALSE, and.evaluate(this.input));
+		Assert.assertEquals(Arrays.asList(this.negativeFirstValue, this.positiveId),
+			and.getPredicateOrder().getPredicates());
+		Assert.assertEquals(BooleanNode.TRUE,
+			and.evaluate(createObjectNode("id", 1, "values", createArrayNode(-1))));
+		Assert.assertEquals(Arrays.asList(this.positiveId, this.negativeFirstValue), and.getExpressions());
+
+		final OrExpression or = new OrExpression(this.negativeFirstValue, this.positiveId);
+		for (int index = 0; index < EVALUATIONS; index++)
+			Assert.assertEquals(BooleanNode.TRUE, or.evaluate(this.input));
+		Assert.assertEquals(Arrays.asList(this.positiveId, this.negativeFirstValue),
+			or.getPredicateOrder().getPredicates());
+		Assert.assertEquals(BooleanNode.FALSE,
+			or.evaluate(createObjectNode("id", 0, "values", createArrayNode(1))));
+		Assert.assertEquals(Arrays.asList(this.negativeFirstValue, this.positiveId), or.getExpressions());
+	}
+}
@@ -9,6 +9,7 @@ import java.util.List;
 import org.junit.Assert;
 import org.junit.Test;
 
+import eu.stratosphere.sopremo.type.DateNode;
 import eu.stratosphere.sopremo.type.IJsonNode;
 import eu.stratosphere.sopremo.type.JsonUtil;
 import eu.stratosphere.sopremo.type.ObjectNode;
@@ -41,6 +42,62 @@ public class CsvInputFormatTest extends InputFormatTest {
 		Assert.assertEquals(expected, actual);
 	}
 
+	@Test
+	public void shouldParseCsvWithDictionaryColumns() throws IOException {
+		final File source = new File(this.getResource("CsvInputFormat/restaurant_short.csv"));
+
+		final CsvFormat format = new CsvFormat();
+		format.setFieldDelimiter(",");
+		format.setDictionaryColumns("city", "type", "class");
+		final Collection<IJsonNode> actual = readFromFile(source, format, NULL_LAYOUT);
+
+		final List<ObjectNode> expected = Arrays.asList(
+			JsonUtil.createObjectNode("id", "1", "name", "arnie morton's of chicago",
+				"addr", "435 s. la cienega blv.", "city", "los angeles",
+				"phone", "310/246-1501", "type", "american", "class", "'0'"),
+			JsonUtil.createObjectNode("id", "2", "name", "\"arnie morton's of chicago\"",
+				"addr", "435 s. la cienega blv.", "city", "los,angeles",
+				"phone", "310/246-1501", "type", "american", "class", "'0'"),
+			JsonUtil.createObjectNode("id", "3", "name", "arnie morton's of chicago",
+				"addr", "435 s. la cienega blv.", "city", "los\nangeles", "phone", "310/246-1501",
+				"type", "american", "class", "'0'"));
+		Assert.assertEquals(expected, actual);
+	}
+
+	@Test
+	public void shouldParseCsvWithDateColumns() throws IOException {
+		final File source = new File(this.getResource("CsvInputFormat/dates.csv"));
+
+		final CsvFormat format = new CsvFormat();
+		format.setFieldDelimiter(",");
+		format.setDateColumns("day");
+		final Collection<IJsonNode> actual = readFromFile(source, format, NULL_LAYOUT);
+
+		final List<ObjectNode> expected = Arrays.asList(
+			JsonUtil.createObjectNode("id", "1", "day", DateNode.valueOf(2013, 5, 1)),
+			JsonUtil.createObjectNode("id", "2", "day", DateNode.valueOf(DateNode.parse("2013-05-02T10:15:30Z"))),
+			JsonUtil.createObjectNode("id", "3", "day", "unknown"));
+		Assert.assertEquals(expected, actual);
+	}
+
+	@Test
+	public void shouldParseCsvWithFormattedDateColumns() throws IOException {
+		final File source = new File(this.getResource("CsvInputFormat/dates_formatted.csv"));
+
+		final CsvFormat format = new CsvFormat();
+		format.setFieldDelimiter(",");
+		format.setDateColumns("day");
+		format.setDateFormat("dd.MM.yyyy");
+		final Collection<IJsonNode> actual = readFromFile(source, format, NULL_LAYOUT);
+
+		final List<ObjectNode> expected = Arrays.asList(
+			JsonUtil.createObjectNode("id", "1", "day", DateNode.valueOf(2013, 5, 1)),
+			JsonUtil.createObjectNode("id", "2", "day", DateNode.valueOf(2013, 5, 2)),
+			JsonUtil.createObjectNode("id", "3", "day", DateNode.valueOf(2013, 5, 2)),
+			JsonUtil.createObjectNode("id", "4", "day", "unknown"));
+		Assert.assertEquals(expected, actual);
+	}
+
 	/**
 	 * Tests if line breaks "\n" are handled correctly.
 	 * 
@@ -0,0 +1,78 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.serialization;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link LZFCodec}.
+ */
+public class LZFCodecTest {
+	@Test
+	public void shouldCompressRepetitiveBytes() throws IOException {
+		final byte[] data = new byte[10000];
+		for (int index = 0; index < data.length; index++)
+			data[index] = (byte) (index % 13);
+
+		final byte[] compressed = new byte[data.length];
+		final int compressedSize = LZFCodec.compress(data, 0, data.length, compressed, 0, compressed.length);
+		Assert.assertTrue(compressedSize > 0 && compressedSize < data.length / 10);
+		assertDecompressesTo(data, compressed, compressedSize);
+	}
+
+	@Test
+	public void shouldRoundTripRandomBytes() throws IOException {
+		final Random random = new Random(42);
+		for (int run = 0; run < 100; run++) {
+			final byte[] data = new byte[random.nextInt(2000)];
+			final int alphabet = 1 + random.nextInt(run % 2 == 0 ? 4 : 256);
+			for (int index = 0; index < data.length; index++)
+				data[index] = (byte) random.nextInt(alphabet);
+
+			// literal runs need one additional control byte per 32 bytes
+			final byte[] compressed = new byte[data.length + data.length / 32 + 1];
+			final int compressedSize = LZFCodec.compress(data, 0, data.length, compressed, 0, compressed.length);
+			Assert.assertTrue(compressedSize >= 0);
+			assertDecompressesTo(data, compressed, compressedSize);
+		}
+	}
+
+	@Test
+	public void shouldRejectInsufficientOutput() {
+		final byte[] data = new byte[100];
+		new Random(42).nextBytes(data);
+		Assert.assertEquals(-1, LZFCodec.compress(data, 0, data.length, new byte[data.length], 0, data.length - 1));
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldDetectCorruptBlocks() throws IOException {
+		final byte[] data = new byte[100];
+		final byte[] compressed = new byte[data.length];
+		final int compressedSize = LZFCodec.compress(data, 0, data.length, compressed, 0, compressed.length);
+		LZFCodec.decompress(compressed, 0, compressedSize, new byte[data.length + 1], 0, data.length + 1);
+	}
+
+	private void assertDecompressesTo(final byte[] data, final byte[] compressed, final int compressedSize)
+			throws IOException {
+		final byte[] decompressed = new byte[data.length];
+		LZFCodec.decompress(compressed, 0, compressedSize, decompressed, 0, decompressed.length);
+		Assert.assertTrue(Arrays.equals(data, decompressed));
+	}
+}
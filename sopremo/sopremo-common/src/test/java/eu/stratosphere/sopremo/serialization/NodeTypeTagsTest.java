@@ -0,0 +1,59 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.serialization;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.sopremo.type.DateNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.StreamNode;
+import eu.stratosphere.sopremo.type.TextNode;
+
+/**
+ * Tests {@link NodeTypeTags}.
+ */
+public class NodeTypeTagsTest {
+	@Test
+	public void shouldAssignStableTagsToBuiltinTypes() {
+		final NodeTypeTags tags1 = new NodeTypeTags(Collections.<Class<? extends IJsonNode>> emptyList());
+		final NodeTypeTags tags2 =
+			new NodeTypeTags(Arrays.<Class<? extends IJsonNode>> asList(StreamNode.class, IntNode.class));
+
+		for (Class<? extends IJsonNode> type : Arrays.<Class<? extends IJsonNode>> asList(IObjectNode.class,
+			IntNode.class, TextNode.class, DateNode.class)) {
+			final int tag = tags1.getTag(type);
+			Assert.assertTrue(tag != NodeTypeTags.UNKNOWN);
+			Assert.assertEquals(tag, tags2.getTag(type));
+			Assert.assertSame(type, tags1.getType(tag));
+		}
+	}
+
+	@Test
+	public void shouldTagAdditionalTypes() {
+		final NodeTypeTags tags =
+			new NodeTypeTags(Arrays.<Class<? extends IJsonNode>> asList(StreamNode.class));
+
+		Assert.assertEquals(NodeTypeTags.UNKNOWN,
+			new NodeTypeTags(Collections.<Class<? extends IJsonNode>> emptyList()).getTag(StreamNode.class));
+		Assert.assertTrue(tags.getTag(StreamNode.class) != NodeTypeTags.UNKNOWN);
+		Assert.assertSame(StreamNode.class, tags.getType(tags.getTag(StreamNode.class)));
+	}
+}
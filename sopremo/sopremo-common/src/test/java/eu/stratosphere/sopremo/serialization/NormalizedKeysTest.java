@@ -0,0 +1,121 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.serialization;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.sopremo.type.BigIntegerNode;
+import eu.stratosphere.sopremo.type.BooleanNode;
+import eu.stratosphere.sopremo.type.DateNode;
+import eu.stratosphere.sopremo.type.DecimalNode;
+import eu.stratosphere.sopremo.type.DoubleNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.INumericNode;
+import eu.stratosphere.sopremo.type.IntArrayNode;
+import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.JsonUtil;
+import eu.stratosphere.sopremo.type.LongNode;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.TextNode;
+
+/**
+ * Tests that the normalized keys are consistent with {@link IJsonNode#compareTo(IJsonNode)}.
+ */
+public class NormalizedKeysTest {
+	@Test
+	public void shouldPreserveNumericOrder() {
+		assertConsistentOrder(new IntNode(Integer.MIN_VALUE), new IntNode(-1), new IntNode(0), new IntNode(1),
+			new IntNode(Integer.MAX_VALUE), new LongNode(Long.MIN_VALUE), new LongNode(42), new LongNode(Long.MAX_VALUE),
+			new DoubleNode(-0.5), new DoubleNode(0.5), new DoubleNode(Double.NEGATIVE_INFINITY),
+			new DoubleNode(Double.POSITIVE_INFINITY), new DecimalNode(new BigDecimal("-3.25")),
+			new DecimalNode(new BigDecimal("1E+20")));
+	}
+
+	@Test
+	public void shouldPreserveTextOrder() {
+		assertConsistentOrder(new TextNode(""), new TextNode("a"), new TextNode("a\0"), new TextNode("ab"),
+			new TextNode("abcdefghijklmnop"), new TextNode("abcdefghijklmnoq"), new TextNode("b"),
+			new TextNode("\u00e4"), new TextNode("\uffff"));
+	}
+
+	@Test
+	public void shouldPreserveArrayOrder() {
+		assertConsistentOrder(JsonUtil.createArrayNode(), JsonUtil.createArrayNode(1), JsonUtil.createArrayNode(2),
+			JsonUtil.createArrayNode(1, 2), JsonUtil.createArrayNode(2, 1), JsonUtil.createArrayNode("a", 1),
+			JsonUtil.createArrayNode("b"));
+	}
+
+	@Test
+	public void shouldPreserveDateOrder() {
+		assertConsistentOrder(new DateNode(Long.MIN_VALUE), DateNode.valueOf(1969, 12, 31), new DateNode(-1),
+			new DateNode(0), new DateNode(1), DateNode.valueOf(2013, 5, 1), new DateNode(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void shouldPreserveTypeOrder() {
+		final IJsonNode[] nodes = { BooleanNode.FALSE, BooleanNode.TRUE, DateNode.valueOf(2013, 5, 1),
+			JsonUtil.createArrayNode(1), new IntArrayNode(2, 3), JsonUtil.createObjectNode("a", 1), new IntNode(5),
+			new LongNode(-7), new DoubleNode(0.5), new DecimalNode(new BigDecimal("-3.25")),
+			new BigIntegerNode(BigInteger.TEN), MissingNode.getInstance(), NullNode.getInstance(),
+			new TextNode("text") };
+		assertConsistentOrder(nodes);
+
+		// nodes of different types are ordered by their types, unless both are numbers
+		final byte[] key1 = new byte[NormalizedKeys.LENGTH], key2 = new byte[NormalizedKeys.LENGTH];
+		for (IJsonNode node1 : nodes) {
+			NormalizedKeys.putNormalizedKey(node1, key1, 0, key1.length);
+			for (IJsonNode node2 : nodes) {
+				if (node1.getType() == node2.getType() ||
+					node1 instanceof INumericNode && node2 instanceof INumericNode)
+					continue;
+				NormalizedKeys.putNormalizedKey(node2, key2, 0, key2.length);
+				final String message = String.format("%s <=> %s", node1, node2);
+				Assert.assertTrue(message, key1[0] != key2[0]);
+				Assert.assertEquals(message, Integer.signum(compareUnsigned(key1, key2)),
+					Integer.signum(node1.compareTo(node2)));
+				Assert.assertEquals(message, -Integer.signum(node2.compareTo(node1)),
+					Integer.signum(node1.compareTo(node2)));
+			}
+		}
+	}
+
+	private static void assertConsistentOrder(IJsonNode... nodes) {
+		final byte[] key1 = new byte[NormalizedKeys.LENGTH], key2 = new byte[NormalizedKeys.LENGTH];
+		for (IJsonNode node1 : nodes) {
+			NormalizedKeys.putNormalizedKey(node1, key1, 0, key1.length);
+			for (IJsonNode node2 : nodes) {
+				NormalizedKeys.putNormalizedKey(node2, key2, 0, key2.length);
+				final int keyComparison = Integer.signum(compareUnsigned(key1, key2));
+				if (keyComparison != 0)
+					Assert.assertEquals(String.format("%s <=> %s", node1, node2), keyComparison,
+						Integer.signum(node1.compareTo(node2)));
+			}
+		}
+	}
+
+	private static int compareUnsigned(byte[] key1, byte[] key2) {
+		for (int index = 0; index < key1.length; index++) {
+			final int comparison = (key1[index] & 0xFF) - (key2[index] & 0xFF);
+			if (comparison != 0)
+				return comparison;
+		}
+		return 0;
+	}
+}
@@ -16,7 +16,11 @@ package eu.stratosphere.sopremo.serialization;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.junit.Assert;
 
@@ -26,11 +30,28 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
+import eu.stratosphere.nephele.services.memorymanager.AbstractPagedInputView;
+import eu.stratosphere.nephele.services.memorymanager.DataInputView;
+import eu.stratosphere.nephele.services.memorymanager.MemorySegment;
 import eu.stratosphere.sopremo.EqualCloneTest;
 import eu.stratosphere.sopremo.expressions.ArrayAccess;
+import eu.stratosphere.sopremo.expressions.EvaluationExpression;
 import eu.stratosphere.sopremo.expressions.ObjectAccess;
+import eu.stratosphere.sopremo.type.DoubleArrayNode;
+import eu.stratosphere.sopremo.type.DoubleNode;
+import eu.stratosphere.sopremo.type.IJsonNode;
+import eu.stratosphere.sopremo.type.INumericNode;
+import eu.stratosphere.sopremo.type.IObjectNode;
+import eu.stratosphere.sopremo.type.IntArrayNode;
 import eu.stratosphere.sopremo.type.IntNode;
 import eu.stratosphere.sopremo.type.JsonUtil;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
+import eu.stratosphere.sopremo.type.TextDictionary;
+import eu.stratosphere.sopremo.type.TextNode;
+import eu.stratosphere.sopremo.type.typed.ITypedObjectNode;
+import eu.stratosphere.sopremo.type.typed.TypedObjectNode;
+import eu.stratosphere.sopremo.type.typed.TypedObjectNodeFactory;
 
 /**
  * @author arv
@@ -80,6 +101,82 @@ public class SopremoRecordTest extends EqualCloneTest<SopremoRecord> {
 		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
 	}
 	
+	@Test
+	public void testKeyAfterLargeValue() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("z"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		final char[] largeText = new char[10000];
+		Arrays.fill(largeText, 'x');
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", new String(largeText), "z", 2));
+
+		final SopremoRecord sopremoRecord2 = serializeAndDeserialize(sopremoRecord);
+		Assert.assertEquals(new IntNode(2), sopremoRecord2.getKey(new ObjectAccess("z")));
+		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
+	}
+
+	@Test
+	public void testFieldNameDictionary() throws IOException {
+		final SopremoRecordLayout layout =
+			SopremoRecordLayout.create(Arrays.<EvaluationExpression> asList(new ObjectAccess("a")), Arrays.asList("b"));
+		Assert.assertArrayEquals(new String[] { "a", "b" }, layout.getFieldNames());
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 1, "b", JsonUtil.createObjectNode("b", 2, "c", 3)));
+
+		final SopremoRecord sopremoRecord2 = serializeAndDeserialize(sopremoRecord);
+		Assert.assertEquals(new IntNode(1), sopremoRecord2.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(sopremoRecord.getNode(), sopremoRecord2.getNode());
+	}
+
+	@Test
+	public void testUnregisteredPath() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("a"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 1, "b", JsonUtil.createArrayNode(2, 3), "c",
+			JsonUtil.createObjectNode("d", 4, "e", 5)));
+
+		final SopremoRecord sopremoRecord2 = serializeAndDeserialize(sopremoRecord);
+		Assert.assertEquals(new IntNode(3),
+			sopremoRecord2.getKey(new ArrayAccess(-1).withInputExpression(new ObjectAccess("b"))));
+		Assert.assertEquals(new IntNode(5),
+			sopremoRecord2.getKey(new ObjectAccess("e").withInputExpression(new ObjectAccess("c"))));
+		Assert.assertEquals(NullNode.getInstance(), sopremoRecord2.getKey(new ObjectAccess("x")));
+		Assert.assertEquals(MissingNode.getInstance(),
+			sopremoRecord2.getKey(new ArrayAccess(2).withInputExpression(new ObjectAccess("b"))));
+		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
+	}
+
+	@Test
+	public void testPrimitiveArraySerialization() throws IOException {
+		final SopremoRecordLayout layout =
+			SopremoRecordLayout.create(new ArrayAccess(0).withInputExpression(new ObjectAccess("b")));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", new IntArrayNode(1, 2, 3), "b",
+			new DoubleArrayNode(4.5, 5.5)));
+
+		final SopremoRecord sopremoRecord2 = serializeAndDeserialize(sopremoRecord);
+		// keys within arrays need the offset table of a generic array
+		Assert.assertEquals(new DoubleNode(4.5),
+			sopremoRecord2.getKey(new ArrayAccess(0).withInputExpression(new ObjectAccess("b"))));
+		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
+		Assert.assertEquals(new IntNode(2),
+			sopremoRecord2.getKey(new ArrayAccess(1).withInputExpression(new ObjectAccess("a"))));
+		Assert.assertEquals(sopremoRecord.getNode(), sopremoRecord2.getNode());
+		Assert.assertTrue(((IObjectNode) sopremoRecord2.getNode()).get("a") instanceof IntArrayNode);
+	}
+
+	@Test
+	public void testKeyHash() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("c"), new ObjectAccess("a"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", JsonUtil.createArrayNode(1, "x"), "c", 2));
+
+		final SopremoRecord sopremoRecord2 = serializeAndDeserialize(sopremoRecord);
+		final int keyIndex = layout.getKeyIndex(new ObjectAccess("a"));
+		Assert.assertEquals(sopremoRecord.getKeyHash(keyIndex), sopremoRecord2.getKeyHash(keyIndex));
+		Assert.assertEquals(JsonUtil.createArrayNode(1, "x").hashCode(), sopremoRecord2.getKeyHash(keyIndex));
+		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
+	}
+
 	@Test
 	public void testArrayKey() throws IOException {
 		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ArrayAccess(1));
@@ -91,6 +188,229 @@ public class SopremoRecordTest extends EqualCloneTest<SopremoRecord> {
 		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
 	}
 
+	@Test
+	public void testNodeReuse() throws IOException {
+		final SopremoRecord sopremoRecord = new SopremoRecord(), target = new SopremoRecord();
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 1, "b", JsonUtil.createObjectNode("c", 2)));
+		copyBinary(sopremoRecord, target);
+		final IJsonNode firstNode = target.getNode();
+		final IJsonNode firstNestedNode = ((IObjectNode) firstNode).get("b");
+
+		final IObjectNode secondNode = JsonUtil.createObjectNode("b", JsonUtil.createObjectNode("d", 3), "e", 4);
+		sopremoRecord.setNode(secondNode);
+		copyBinary(sopremoRecord, target);
+		Assert.assertSame(firstNode, target.getNode());
+		Assert.assertSame(firstNestedNode, ((IObjectNode) target.getNode()).get("b"));
+		Assert.assertEquals(secondNode, target.getNode());
+	}
+
+	@Test
+	public void testRetainedNestedNode() throws IOException {
+		final SopremoRecord sopremoRecord = new SopremoRecord(), target = new SopremoRecord();
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 1, "b", JsonUtil.createObjectNode("c", 2)));
+		copyBinary(sopremoRecord, target);
+		final IJsonNode retainedNode = ((IObjectNode) target.getNode()).get("b");
+		final IJsonNode clonedNode = retainedNode.clone();
+
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 3, "b", JsonUtil.createObjectNode("c", 4)));
+		copyBinary(sopremoRecord, target);
+		// the retained node has been overwritten by the second record, only the clone keeps the first value
+		Assert.assertEquals(JsonUtil.createObjectNode("c", 4), retainedNode);
+		Assert.assertEquals(JsonUtil.createObjectNode("c", 2), clonedNode);
+	}
+
+	@Test
+	public void testWrap() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("a"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 1, "b", 2));
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		baos.write(new byte[3]);
+		sopremoRecord.write(new DataOutputStream(baos));
+		final byte[] memory = baos.toByteArray();
+
+		final SopremoRecord wrappingRecord = new SopremoRecord(layout);
+		Assert.assertEquals(-1, wrappingRecord.wrap(memory, 3, memory.length - 4));
+		Assert.assertEquals(memory.length - 3, wrappingRecord.wrap(memory, 3, memory.length - 3));
+		Assert.assertEquals(new IntNode(1), wrappingRecord.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(new IntNode(2), wrappingRecord.getKey(new ObjectAccess("b")));
+
+		wrappingRecord.detach();
+		Arrays.fill(memory, (byte) 0);
+		Assert.assertEquals(sopremoRecord.getNode(), wrappingRecord.getNode());
+	}
+
+	@Test
+	public void testDeserializationFromRecycledSegment() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("a"));
+		final SopremoRecordSerializer serializer = new SopremoRecordSerializer(layout);
+		final MemorySegment segment = new MemorySegment(new byte[1024]);
+
+		final IObjectNode firstNode = JsonUtil.createObjectNode("a", 1, "b", JsonUtil.createObjectNode("c", 2));
+		final SopremoRecord firstRecord = serializer.createInstance();
+		serializer.deserialize(firstRecord, writeToSegment(layout, firstNode, segment));
+
+		// the segment is reused for the next record while the first record is still alive
+		final IObjectNode secondNode = JsonUtil.createObjectNode("a", 3, "b", JsonUtil.createObjectNode("c", 4));
+		final SopremoRecord secondRecord = serializer.createInstance();
+		serializer.deserialize(secondRecord, writeToSegment(layout, secondNode, segment));
+
+		Assert.assertEquals(new IntNode(1), firstRecord.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(firstNode, firstRecord.getNode());
+		Assert.assertEquals(secondNode, secondRecord.getNode());
+	}
+
+	@Test
+	public void testCompression() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("a"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		final IObjectNode node = JsonUtil.createObjectNode("a", 1, "b",
+			JsonUtil.createArrayNode("repeated text", "repeated text", "repeated text", "repeated text"));
+		sopremoRecord.setNode(node);
+		final ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+		sopremoRecord.write(new DataOutputStream(uncompressed));
+
+		layout.setCompressed(true);
+		final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		sopremoRecord.write(new DataOutputStream(compressed));
+		final byte[] memory = compressed.toByteArray();
+		Assert.assertTrue(memory.length < uncompressed.size());
+
+		final SopremoRecord target = new SopremoRecord(layout);
+		target.read(new DataInputStream(new ByteArrayInputStream(memory)));
+		Assert.assertEquals(new IntNode(1), target.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(node, target.getNode());
+
+		final SopremoRecord wrappingRecord = new SopremoRecord(layout);
+		Assert.assertEquals(-1, wrappingRecord.wrap(memory, 0, memory.length - 1));
+		Assert.assertEquals(memory.length, wrappingRecord.wrap(memory, 0, memory.length));
+		Arrays.fill(memory, (byte) 0);
+		Assert.assertEquals(node, wrappingRecord.getNode());
+	}
+
+	@Test
+	public void testCopyOnWrite() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("a"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout), source = new SopremoRecord(layout);
+		final IObjectNode firstNode = JsonUtil.createObjectNode("a", 1, "b", 2);
+		sopremoRecord.setNode(firstNode);
+		copyBinary(sopremoRecord, source);
+
+		final SopremoRecord copy = new SopremoRecord(layout);
+		source.copyTo(copy);
+		Assert.assertEquals(new IntNode(1), copy.getKey(new ObjectAccess("a")));
+
+		// reading the next record must not change the copy
+		sopremoRecord.setNode(JsonUtil.createObjectNode("a", 3, "c", JsonUtil.createArrayNode(4, 5)));
+		copyBinary(sopremoRecord, source);
+		Assert.assertEquals(new IntNode(3), source.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(new IntNode(1), copy.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(firstNode, copy.getNode());
+	}
+
+	@Test
+	public void testCopyOfUnserializedRecord() {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("a"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout), copy = new SopremoRecord(layout);
+		final IObjectNode node = JsonUtil.createObjectNode("a", 1, "b", 2);
+		sopremoRecord.setNode(node);
+		sopremoRecord.copyTo(copy);
+
+		node.put("a", new IntNode(3));
+		Assert.assertEquals(new IntNode(1), copy.getKey(new ObjectAccess("a")));
+		Assert.assertEquals(JsonUtil.createObjectNode("a", 1, "b", 2), copy.getNode());
+		Assert.assertEquals(new IntNode(3), sopremoRecord.getKey(new ObjectAccess("a")));
+	}
+
+	@Test
+	public void testTypedObjectSerialization() throws IOException {
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("name"));
+		layout.setTargetType(PersonRecord.class);
+		final PersonRecord person = TypedObjectNodeFactory.getInstance().getTypedObjectForInterface(PersonRecord.class);
+		person.setName(new TextNode("foo"));
+		person.setCity(new TextNode("bar"));
+		person.put("undeclared", new IntNode(1));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(person);
+
+		final SopremoRecord sopremoRecord2 = serializeAndDeserialize(sopremoRecord);
+		Assert.assertEquals(new TextNode("foo"), sopremoRecord2.getKey(new ObjectAccess("name")));
+		Assert.assertEquals(new TextNode("bar"), sopremoRecord2.getKey(new ObjectAccess("city")));
+		Assert.assertEquals(new IntNode(1), sopremoRecord2.getKey(new ObjectAccess("undeclared")));
+		Assert.assertEquals(NullNode.getInstance(), sopremoRecord2.getKey(new ObjectAccess("age")));
+		Assert.assertSame(null, sopremoRecord2.getNodeDirectly());
+		final IObjectNode expected = ((TypedObjectNode) person).getBackingNode().clone();
+		Assert.assertEquals(expected, ((TypedObjectNode) sopremoRecord2.getNode()).getBackingNode());
+
+		// the declared fields are written without their names
+		final SopremoRecordLayout untypedLayout = SopremoRecordLayout.create(new ObjectAccess("name"));
+		final SopremoRecord untypedRecord = new SopremoRecord(untypedLayout);
+		person.remove("undeclared");
+		person.setAge(new IntNode(2));
+		untypedRecord.setNode(((TypedObjectNode) person).getBackingNode());
+		sopremoRecord.setNode(person);
+		final ByteArrayOutputStream typed = new ByteArrayOutputStream(), untyped = new ByteArrayOutputStream();
+		sopremoRecord.write(new DataOutputStream(typed));
+		untypedRecord.write(new DataOutputStream(untyped));
+		Assert.assertTrue(typed.size() < untyped.size());
+
+		final SopremoRecord target = new SopremoRecord(layout);
+		target.read(new DataInputStream(new ByteArrayInputStream(typed.toByteArray())));
+		Assert.assertEquals(untypedRecord.getNode(), ((TypedObjectNode) target.getNode()).getBackingNode());
+	}
+
+	@Test
+	public void testTextDictionarySerialization() throws IOException {
+		final TextDictionary dictionary = new TextDictionary();
+		final TextNode city = new TextNode();
+		city.setValue(dictionary, dictionary.encode("los angeles"));
+		final SopremoRecordLayout layout = SopremoRecordLayout.create(new ObjectAccess("city"));
+		final SopremoRecord sopremoRecord = new SopremoRecord(layout);
+		sopremoRecord.setNode(JsonUtil.createObjectNode("id", 1, "city", city));
+		sopremoRecord.setTextDictionary(dictionary);
+		final SopremoRecord textRecord = new SopremoRecord(layout);
+		textRecord.setNode(JsonUtil.createObjectNode("id", 1, "city", city));
+
+		// the id is written instead of the text
+		final ByteArrayOutputStream encoded = new ByteArrayOutputStream(), text = new ByteArrayOutputStream();
+		sopremoRecord.write(new DataOutputStream(encoded));
+		textRecord.write(new DataOutputStream(text));
+		Assert.assertTrue(encoded.size() < text.size());
+
+		final SopremoRecord target = new SopremoRecord(layout);
+		target.setTextDictionary(dictionary);
+		target.read(new DataInputStream(new ByteArrayInputStream(encoded.toByteArray())));
+		Assert.assertEquals(new TextNode("los angeles"), target.getKey(new ObjectAccess("city")));
+		Assert.assertEquals(JsonUtil.createObjectNode("id", 1, "city", "los angeles"), target.getNode());
+	}
+
+	private DataInputView writeToSegment(SopremoRecordLayout layout, IJsonNode node, MemorySegment segment)
+			throws IOException {
+		final SopremoRecord record = new SopremoRecord(layout);
+		record.setNode(node);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		record.write(new DataOutputStream(baos));
+		final byte[] bytes = baos.toByteArray();
+		segment.put(0, bytes);
+		return new AbstractPagedInputView(segment, bytes.length, 0) {
+			@Override
+			protected MemorySegment nextSegment(MemorySegment current) throws IOException {
+				throw new EOFException();
+			}
+
+			@Override
+			protected int getLimitForSegment(MemorySegment currentSegment) {
+				return bytes.length;
+			}
+		};
+	}
+
+	private void copyBinary(SopremoRecord source, SopremoRecord target) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		source.write(new DataOutputStream(baos));
+		target.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+	}
+
 	/**
 	 * @param sopremoRecord
 	 * @return
@@ -113,3 +433,17 @@ public class SopremoRecordTest extends EqualCloneTest<SopremoRecord> {
 		return deserialized;
 	}
 }
+
+interface PersonRecord extends ITypedObjectNode {
+	public TextNode getName();
+
+	public void setName(TextNode aName);
+
+	public INumericNode getAge();
+
+	public void setAge(INumericNode anAge);
+
+	public TextNode getCity();
+
+	public void setCity(TextNode aCity);
+}
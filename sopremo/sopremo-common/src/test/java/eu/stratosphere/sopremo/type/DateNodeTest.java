@@ -0,0 +1,85 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DateNodeTest extends JsonNodeTest<DateNode> {
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.EqualVerifyTest#createDefaultInstance(int)
+	 */
+	@Override
+	protected DateNode createDefaultInstance(int index) {
+		return DateNode.valueOf(2013, 5, index + 1);
+	}
+
+	@Test
+	public void shouldParseIsoDates() {
+		Assert.assertEquals(1367366400000L, DateNode.parse("2013-05-01"));
+		Assert.assertEquals(1367403300000L, DateNode.parse("2013-05-01T10:15"));
+		Assert.assertEquals(1367403330123L, DateNode.parse("2013-05-01 10:15:30.123"));
+		Assert.assertEquals(1367403330100L, DateNode.parse("2013-05-01T10:15:30.1Z"));
+		Assert.assertEquals(1367396130000L, DateNode.parse("2013-05-01T10:15:30+02:00"));
+		Assert.assertEquals(-1L, DateNode.parse("1969-12-31T23:59:59.999Z"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectInvalidMonth() {
+		DateNode.parse("2013-13-01");
+	}
+
+	@Test
+	public void shouldValidateDayOfMonth() {
+		Assert.assertEquals(DateNode.valueOf(2012, 2, 29).getMillis(), DateNode.parse("2012-02-29"));
+		Assert.assertEquals(DateNode.valueOf(2000, 2, 29).getMillis(), DateNode.parse("2000-02-29"));
+		Assert.assertEquals(DateNode.valueOf(2013, 12, 31).getMillis(), DateNode.parse("2013-12-31"));
+		for (final String invalidDate : new String[] { "2013-02-29", "1900-02-29", "2013-04-31", "2013-06-31",
+			"2013-09-31", "2013-11-31", "2013-01-32", "2013-05-00" })
+			try {
+				DateNode.parse(invalidDate);
+				Assert.fail("Accepted " + invalidDate);
+			} catch (final IllegalArgumentException e) {
+			}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectTrailingCharacters() {
+		DateNode.parse("2013-05-01X");
+	}
+
+	@Test
+	public void shouldPrintIsoDates() {
+		Assert.assertEquals("2013-05-01", DateNode.valueOf(2013, 5, 1).toString());
+		Assert.assertEquals("2013-05-01T10:15:30.123Z", DateNode.valueOf(1367403330123L).toString());
+		Assert.assertEquals("1969-12-31T23:59:59.999Z", DateNode.valueOf(-1).toString());
+	}
+
+	@Test
+	public void shouldProvideCalendarFieldsInUtc() {
+		final DateNode date = DateNode.valueOf(DateNode.parse("2012-02-29T23:59:59Z"));
+		Assert.assertEquals(2012, date.getYear());
+		Assert.assertEquals(2, date.getMonth());
+		Assert.assertEquals(29, date.getDayOfMonth());
+		Assert.assertEquals(15399, date.getEpochDay());
+		Assert.assertEquals(DateNode.MILLIS_PER_DAY - 1000, date.getMillisOfDay());
+
+		final DateNode beforeEpoch = DateNode.valueOf(-1);
+		Assert.assertEquals(1969, beforeEpoch.getYear());
+		Assert.assertEquals(12, beforeEpoch.getMonth());
+		Assert.assertEquals(31, beforeEpoch.getDayOfMonth());
+	}
+}
@@ -0,0 +1,60 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link DoubleArrayNode}.
+ */
+public class DoubleArrayNodeTest extends ArrayNodeBaseTest<DoubleArrayNode> {
+
+	@Override
+	public void initArrayNode() {
+		this.node = new DoubleArrayNode();
+		final int numberOfNodes = 10;
+
+		for (int i = 0; i < numberOfNodes; i++)
+			this.node.add(i, DoubleNode.valueOf(i + 0.5));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.EqualVerifyTest#createDefaultInstance(int)
+	 */
+	@Override
+	protected DoubleArrayNode createDefaultInstance(int index) {
+		final DoubleArrayNode node = new DoubleArrayNode();
+		while (index-- > 0)
+			node.add(DoubleNode.valueOf(index + 0.5));
+		return node;
+	}
+
+	@Test
+	public void shouldBeEqualToArrayNode() {
+		final ArrayNode<IJsonNode> arrayNode = new ArrayNode<IJsonNode>();
+		final DoubleArrayNode doubleArrayNode = new DoubleArrayNode();
+		for (double value : new double[] { -0.0, 1.5, Double.NaN }) {
+			arrayNode.add(DoubleNode.valueOf(value));
+			doubleArrayNode.add(value);
+		}
+
+		Assert.assertEquals(arrayNode, doubleArrayNode);
+		Assert.assertEquals(doubleArrayNode, arrayNode);
+		Assert.assertEquals(arrayNode.hashCode(), doubleArrayNode.hashCode());
+		Assert.assertEquals(0, doubleArrayNode.compareTo(doubleArrayNode.clone()));
+	}
+}
@@ -0,0 +1,80 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link IntArrayNode}.
+ */
+public class IntArrayNodeTest extends ArrayNodeBaseTest<IntArrayNode> {
+
+	@Override
+	public void initArrayNode() {
+		this.node = new IntArrayNode();
+		final int numberOfNodes = 10;
+
+		for (int i = 0; i < numberOfNodes; i++)
+			this.node.add(i, IntNode.valueOf(i));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.EqualVerifyTest#createDefaultInstance(int)
+	 */
+	@Override
+	protected IntArrayNode createDefaultInstance(int index) {
+		final IntArrayNode node = new IntArrayNode();
+		while (index-- > 0)
+			node.add(IntNode.valueOf(index));
+		return node;
+	}
+
+	@Test
+	public void shouldStoreNumbersAsPrimitives() {
+		Assert.assertTrue(this.node.isPrimitive());
+		Assert.assertEquals(IntNode.valueOf(3), this.node.get(3));
+		Assert.assertEquals(3, this.node.getInt(3));
+		this.node.set(3, 42);
+		Assert.assertEquals(IntNode.valueOf(42), this.node.get(3));
+		Assert.assertTrue(this.node.isPrimitive());
+	}
+
+	@Test
+	public void shouldFallBackToGenericNodes() {
+		this.node.add(TextNode.valueOf("text"));
+		Assert.assertFalse(this.node.isPrimitive());
+		Assert.assertEquals(11, this.node.size());
+		Assert.assertEquals(IntNode.valueOf(3), this.node.get(3));
+		Assert.assertEquals(TextNode.valueOf("text"), this.node.get(10));
+
+		this.node.clear();
+		this.node.add(1);
+		Assert.assertTrue(this.node.isPrimitive());
+	}
+
+	@Test
+	public void shouldBeEqualToArrayNode() {
+		final ArrayNode<IJsonNode> arrayNode = new ArrayNode<IJsonNode>();
+		for (int i = 0; i < 10; i++)
+			arrayNode.add(IntNode.valueOf(i));
+
+		Assert.assertEquals(arrayNode, this.node);
+		Assert.assertEquals(this.node, arrayNode);
+		Assert.assertEquals(arrayNode.hashCode(), this.node.hashCode());
+		Assert.assertEquals(0, this.node.compareTo(arrayNode));
+	}
+}
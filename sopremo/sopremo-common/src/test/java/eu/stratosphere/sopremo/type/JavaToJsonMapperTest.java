@@ -3,6 +3,7 @@ package eu.stratosphere.sopremo.type;
 import java.lang.annotation.RetentionPolicy;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -263,4 +264,90 @@ public class JavaToJsonMapperTest {
 		Assert.assertSame(CachingArrayNode.class, this.mapper.getDefaultMappingType(List.class));
 	}
 
+	@Test
+	public void shouldMapBean() {
+		Bean bean = new Bean();
+		bean.setCount(42);
+		bean.setScore(1.23);
+		bean.setValid(true);
+		bean.setTags(Arrays.asList("a", "b"));
+
+		ObjectNode expected = new ObjectNode();
+		expected.put("count", IntNode.valueOf(42));
+		expected.put("name", NullNode.getInstance());
+		expected.put("score", DoubleNode.valueOf(1.23));
+		expected.put("tags", new ArrayNode<IJsonNode>().add(TextNode.valueOf("a")).add(TextNode.valueOf("b")));
+		expected.put("valid", BooleanNode.TRUE);
+		Assert.assertEquals(expected, this.mapper.map(bean));
+		Assert.assertEquals(expected, this.mapper.map(bean, null, ObjectNode.class));
+		Assert.assertEquals(expected, this.mapper.map(bean, null, IObjectNode.class));
+		Assert.assertEquals(expected, this.mapper.map(bean, null, IJsonNode.class));
+
+		Assert.assertSame(ObjectNode.class, this.mapper.getDefaultMappingType(Bean.class));
+	}
+
+	@Test
+	public void shouldReuseTargetWhenMappingBean() {
+		Bean bean = new Bean();
+		bean.setCount(42);
+		ObjectNode target = new ObjectNode();
+		final IntNode count = IntNode.valueOf(1);
+		target.put("count", count);
+
+		Assert.assertSame(target, this.mapper.map(bean, target, ObjectNode.class));
+		Assert.assertSame(count, target.get("count"));
+		Assert.assertEquals(IntNode.valueOf(42), count);
+	}
+
+	public static class Bean {
+		private int count;
+
+		private double score;
+
+		private boolean valid;
+
+		private String name;
+
+		private List<String> tags;
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public double getScore() {
+			return this.score;
+		}
+
+		public void setScore(double score) {
+			this.score = score;
+		}
+
+		public boolean isValid() {
+			return this.valid;
+		}
+
+		public void setValid(boolean valid) {
+			this.valid = valid;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+	}
 }
@@ -40,4 +40,34 @@ public abstract class JsonNodeTest<T extends IJsonNode> extends EqualCloneTest<T
 	public void testTypeNumber() {
 		Assert.assertNotNull("every JsonNode must have a Type", this.node.getType());
 	}
+
+	/**
+	 * One node of each builtin type in the order of nodes with different types. All numbers share one position and
+	 * are compared by their values.
+	 */
+	private static final IJsonNode[] TYPE_ORDER = { BooleanNode.TRUE, DateNode.valueOf(2013, 5, 1),
+		new ArrayNode<IJsonNode>(), new ObjectNode(), IntNode.valueOf(0), MissingNode.getInstance(),
+		NullNode.getInstance(), new TextNode("") };
+
+	@Test
+	public void testOrderOfDifferentTypes() {
+		final int position = getTypePosition(this.node);
+		for (int index = 0; index < TYPE_ORDER.length; index++)
+			if (index != position) {
+				final IJsonNode other = TYPE_ORDER[index];
+				final String message = String.format("%s <=> %s", this.node, other);
+				Assert.assertEquals(message, Integer.signum(position - index),
+					Integer.signum(this.node.compareTo(other)));
+				Assert.assertEquals(message, Integer.signum(index - position),
+					Integer.signum(other.compareTo(this.node)));
+			}
+	}
+
+	private static int getTypePosition(final IJsonNode node) {
+		for (int index = 0; index < TYPE_ORDER.length; index++)
+			if (TYPE_ORDER[index].getType() == node.getType() ||
+				TYPE_ORDER[index] instanceof INumericNode && node instanceof INumericNode)
+				return index;
+		throw new AssertionError("not a builtin type " + node.getType());
+	}
 }
@@ -213,4 +213,86 @@ public class JsonToJavaMapperTest {
 		Assert.assertEquals(expected, actual);
 	}
 
+	@Test
+	public void shouldMapBean() {
+		ObjectNode input = new ObjectNode();
+		input.put("count", IntNode.valueOf(42));
+		input.put("score", DoubleNode.valueOf(1.23));
+		input.put("valid", BooleanNode.TRUE);
+		input.put("tags", new ArrayNode<IJsonNode>().add(TextNode.valueOf("a")).add(TextNode.valueOf("b")));
+
+		final Bean bean = this.mapper.map(input, null, Bean.class);
+		Assert.assertEquals(42, bean.getCount());
+		Assert.assertEquals(1.23, bean.getScore(), 0);
+		Assert.assertTrue(bean.isValid());
+		Assert.assertNull(bean.getName());
+		Assert.assertEquals(Arrays.asList("a", "b"), bean.getTags());
+	}
+
+	@Test
+	public void shouldReuseTargetWhenMappingBean() {
+		ObjectNode input = new ObjectNode();
+		input.put("count", IntNode.valueOf(42));
+		input.put("name", TextNode.valueOf("test"));
+
+		final Bean target = new Bean();
+		target.setScore(1.23);
+		Assert.assertSame(target, this.mapper.map(input, target, Bean.class));
+		Assert.assertEquals(42, target.getCount());
+		Assert.assertEquals("test", target.getName());
+		// missing fields reset the property
+		Assert.assertEquals(0, target.getScore(), 0);
+	}
+
+	public static class Bean {
+		private int count;
+
+		private double score;
+
+		private boolean valid;
+
+		private String name;
+
+		private List<String> tags;
+
+		public int getCount() {
+			return this.count;
+		}
+
+		public void setCount(int count) {
+			this.count = count;
+		}
+
+		public double getScore() {
+			return this.score;
+		}
+
+		public void setScore(double score) {
+			this.score = score;
+		}
+
+		public boolean isValid() {
+			return this.valid;
+		}
+
+		public void setValid(boolean valid) {
+			this.valid = valid;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public List<String> getTags() {
+			return this.tags;
+		}
+
+		public void setTags(List<String> tags) {
+			this.tags = tags;
+		}
+	}
 }
@@ -0,0 +1,59 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link LongArrayNode}.
+ */
+public class LongArrayNodeTest extends ArrayNodeBaseTest<LongArrayNode> {
+
+	@Override
+	public void initArrayNode() {
+		this.node = new LongArrayNode();
+		final int numberOfNodes = 10;
+
+		for (int i = 0; i < numberOfNodes; i++)
+			this.node.add(i, LongNode.valueOf(i));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see eu.stratosphere.sopremo.EqualVerifyTest#createDefaultInstance(int)
+	 */
+	@Override
+	protected LongArrayNode createDefaultInstance(int index) {
+		final LongArrayNode node = new LongArrayNode();
+		while (index-- > 0)
+			node.add(LongNode.valueOf(index));
+		return node;
+	}
+
+	@Test
+	public void shouldBeEqualToArrayNode() {
+		final ArrayNode<IJsonNode> arrayNode = new ArrayNode<IJsonNode>();
+		final LongArrayNode longArrayNode = new LongArrayNode();
+		for (long value : new long[] { Long.MIN_VALUE, -1, 1L << 40 }) {
+			arrayNode.add(LongNode.valueOf(value));
+			longArrayNode.add(value);
+		}
+
+		Assert.assertEquals(arrayNode, longArrayNode);
+		Assert.assertEquals(longArrayNode, arrayNode);
+		Assert.assertEquals(arrayNode.hashCode(), longArrayNode.hashCode());
+	}
+}
@@ -88,6 +88,43 @@ public class ObjectNodeTest extends JsonNodeTest<ObjectNode> {
 		AssertUtil.assertIteratorEquals(expected.entrySet().iterator(), it);
 	}
 
+	@Test
+	public void shouldIterateLargeObjectsInSortedOrder() {
+		this.node.clear();
+		final Map<String, IJsonNode> expected = new TreeMap<String, IJsonNode>();
+
+		for (int i = 40; i > 0; i--) {
+			final String key = "key" + i;
+			final IJsonNode value = IntNode.valueOf(i);
+
+			expected.put(key, value);
+			this.node.put(key, value);
+		}
+		for (int i = 1; i <= 40; i += 3) {
+			expected.remove("key" + i);
+			this.node.remove("key" + i);
+		}
+
+		Assert.assertEquals(expected.size(), this.node.size());
+		for (final Entry<String, IJsonNode> entry : expected.entrySet())
+			Assert.assertEquals(entry.getValue(), this.node.get(entry.getKey()));
+		Assert.assertSame(MissingNode.getInstance(), this.node.get("key1"));
+		AssertUtil.assertIteratorEquals(expected.entrySet().iterator(), this.node.iterator());
+		AssertUtil.assertIteratorEquals(expected.keySet().iterator(), this.node.getFieldNames().iterator());
+	}
+
+	@Test
+	public void shouldFindFieldsWhileInsertingOutOfOrder() {
+		this.node.clear();
+		for (int i = 100; i > 0; i--) {
+			this.node.put("key" + i, IntNode.valueOf(i));
+			for (int j = 100; j >= i; j--)
+				Assert.assertEquals(IntNode.valueOf(j), this.node.get("key" + j));
+			Assert.assertSame(MissingNode.getInstance(), this.node.get("key" + (i - 1)));
+		}
+		Assert.assertEquals(100, this.node.size());
+	}
+
 	@Test
 	public void shouldPutAll() {
 		Assert.assertEquals(this.node, this.node.putAll(this.node));
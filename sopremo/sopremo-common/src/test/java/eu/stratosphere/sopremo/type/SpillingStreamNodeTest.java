@@ -0,0 +1,141 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.sopremo.type;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.sopremo.SopremoEnvironment;
+import eu.stratosphere.sopremo.serialization.SopremoRecordLayout;
+
+/**
+ * Tests {@link SpillingStreamNode}.
+ */
+public class SpillingStreamNodeTest {
+	private final List<IJsonNode> values = new ArrayList<IJsonNode>();
+
+	public SpillingStreamNodeTest() {
+		for (int index = 0; index < 1000; index++)
+			this.values.add(JsonUtil.createObjectNode("id", index, "name", "value" + index));
+	}
+
+	@Test
+	public void shouldReplayInMemory() {
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>();
+		stream.setNodeIterator(this.values.iterator());
+
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertFalse(stream.isSpilled());
+	}
+
+	@Test
+	public void shouldReplaySpilledRecords() {
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>(SopremoRecordLayout.EMPTY, 1000);
+		stream.setNodeIterator(this.values.iterator());
+
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertTrue(stream.isSpilled());
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertEquals(this.values.size(), stream.getRecordedSize());
+	}
+
+	@Test
+	public void shouldCompleteInterruptedIteration() {
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>(SopremoRecordLayout.EMPTY, 1000);
+		stream.setNodeIterator(this.values.iterator());
+
+		final Iterator<IJsonNode> iterator = stream.iterator();
+		Assert.assertEquals(this.values.get(0), iterator.next());
+		Assert.assertEquals(this.values.get(1), iterator.next());
+
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void shouldBeReusableForNextGroup() {
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>(SopremoRecordLayout.EMPTY, 1000);
+		stream.setNodeIterator(this.values.iterator());
+		Assert.assertEquals(this.values, this.collect(stream));
+
+		final List<IJsonNode> nextGroup = this.values.subList(10, 20);
+		stream.setNodeIterator(nextGroup.iterator());
+		Assert.assertFalse(stream.isEmpty());
+		Assert.assertEquals(nextGroup, this.collect(stream));
+		Assert.assertEquals(nextGroup, this.collect(stream));
+
+		stream.clear();
+		Assert.assertTrue(stream.isEmpty());
+		Assert.assertFalse(stream.iterator().hasNext());
+	}
+
+	@Test
+	public void shouldReplayAppendedNodes() {
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>(SopremoRecordLayout.EMPTY, 1000);
+		stream.clear();
+		final IJsonNode reusedNode = new ObjectNode();
+		for (final IJsonNode value : this.values) {
+			reusedNode.copyValueFrom(value);
+			stream.append(reusedNode);
+		}
+
+		Assert.assertTrue(stream.isSpilled());
+		Assert.assertEquals(this.values, this.collect(stream));
+		Assert.assertEquals(this.values, this.collect(stream));
+
+		stream.clear();
+		Assert.assertFalse(stream.isSpilled());
+		Assert.assertTrue(stream.isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void shouldNotAppendToIteratedStream() {
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>();
+		stream.setNodeIterator(this.values.iterator());
+		this.collect(stream);
+		stream.append(this.values.get(0));
+	}
+
+	@Test
+	public void shouldReplayDictionaryEncodedTexts() {
+		final TextDictionary dictionary = SopremoEnvironment.getInstance().getEvaluationContext().getTextDictionary();
+		final List<IJsonNode> texts = new ArrayList<IJsonNode>();
+		for (int index = 0; index < 1000; index++) {
+			final TextNode text = new TextNode();
+			text.setValue(dictionary, dictionary.encode("value" + index % 10));
+			texts.add(JsonUtil.createObjectNode("id", index, "name", text));
+		}
+		final SpillingStreamNode<IJsonNode> stream = new SpillingStreamNode<IJsonNode>(SopremoRecordLayout.EMPTY, 1000);
+		stream.setNodeIterator(texts.iterator());
+
+		Assert.assertEquals(texts, this.collect(stream));
+		Assert.assertTrue(stream.isSpilled());
+		Assert.assertEquals(texts, this.collect(stream));
+	}
+
+	private List<IJsonNode> collect(final SpillingStreamNode<IJsonNode> stream) {
+		final List<IJsonNode> nodes = new ArrayList<IJsonNode>();
+		for (final IJsonNode node : stream)
+			nodes.add(node.clone());
+		return nodes;
+	}
+}
@@ -31,4 +31,90 @@ public class TextNodeTest extends JsonNodeTest<TextNode> {
 		Assert.assertEquals(-1, new TextNode("abcdef").indexOf(new TextNode("xab")));
 		Assert.assertEquals(-1, new TextNode("abcdef").indexOf(new TextNode("cdf")));
 	}
+
+	@Test
+	public void shouldMixAsciiAndNonAsciiTexts() {
+		final TextNode text = new TextNode("ab");
+		text.append('\u00e4');
+		text.append(new TextNode("cd"));
+		Assert.assertEquals(new TextNode("ab\u00e4cd"), text);
+		Assert.assertEquals(new TextNode("ab\u00e4cd").hashCode(), text.hashCode());
+		Assert.assertEquals(2, text.indexOf(new TextNode("\u00e4c")));
+
+		final TextNode substring = new TextNode();
+		substring.setValue(text, 3, 5);
+		Assert.assertEquals(new TextNode("cd"), substring);
+		Assert.assertEquals(new TextNode("cd").hashCode(), substring.hashCode());
+		Assert.assertTrue(new TextNode("abc").compareTo(text) < 0);
+	}
+
+	@Test
+	public void shouldDetectPrefix() {
+		Assert.assertTrue(new TextNode("abcdef").startsWith(new TextNode("abc")));
+		Assert.assertTrue(new TextNode("abcdef").startsWith(new TextNode("")));
+		Assert.assertFalse(new TextNode("abcdef").startsWith(new TextNode("bc")));
+		Assert.assertFalse(new TextNode("ab").startsWith(new TextNode("abc")));
+	}
+
+	@Test
+	public void shouldCompareDictionaryEncodedTexts() {
+		final TextDictionary dictionary = new TextDictionary();
+		final TextNode text1 = new TextNode(), text2 = new TextNode(), text3 = new TextNode();
+		text1.setValue(dictionary, dictionary.encode("abc"));
+		text2.setValue(dictionary, dictionary.encode("abc"));
+		text3.setValue(dictionary, dictionary.encode("ab\u00e4"));
+
+		Assert.assertEquals(text1, text2);
+		Assert.assertEquals(new TextNode("abc"), text1);
+		Assert.assertEquals(text1, new TextNode("abc"));
+		Assert.assertEquals(new TextNode("abc").hashCode(), text1.hashCode());
+		Assert.assertEquals(new TextNode("ab\u00e4").hashCode(), text3.hashCode());
+		Assert.assertFalse(text1.equals(text3));
+		Assert.assertTrue(text1.compareTo(text3) < 0);
+		Assert.assertEquals(0, text1.compareTo(new TextNode("abc")));
+		Assert.assertEquals(1, text1.indexOf(new TextNode("bc")));
+	}
+
+	@Test
+	public void shouldDecodeChangedDictionaryEncodedTexts() {
+		final TextDictionary dictionary = new TextDictionary();
+		final int id = dictionary.encode("abc");
+		final TextNode text1 = new TextNode(), text2 = new TextNode();
+		text1.setValue(dictionary, id);
+		text2.copyValueFrom(text1);
+
+		text1.append('d');
+		text2.append(text2);
+		Assert.assertEquals(new TextNode("abcd"), text1);
+		Assert.assertEquals(new TextNode("abcabc"), text2);
+		Assert.assertEquals(id, dictionary.encode("abc"));
+	}
+
+	@Test
+	public void shouldEncodeCharactersWithoutString() {
+		final TextDictionary dictionary = new TextDictionary();
+		final StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < 100; index++) {
+			builder.setLength(0);
+			builder.append("value").append(index);
+			Assert.assertEquals(index, dictionary.encode(builder));
+		}
+
+		for (int index = 0; index < 100; index++) {
+			builder.setLength(0);
+			builder.append("value").append(index);
+			Assert.assertEquals(index, dictionary.encode(builder));
+			Assert.assertEquals(index, dictionary.encode(new TextNode(builder)));
+		}
+		Assert.assertEquals(100, dictionary.size());
+	}
+
+	@Test
+	public void shouldNotEncodeBeyondMaximumSize() {
+		final TextDictionary dictionary = new TextDictionary(1);
+		Assert.assertEquals(0, dictionary.encode("a"));
+		Assert.assertEquals(TextDictionary.NOT_ENCODED, dictionary.encode("b"));
+		Assert.assertEquals(0, dictionary.encode("a"));
+		Assert.assertEquals(1, dictionary.size());
+	}
 }
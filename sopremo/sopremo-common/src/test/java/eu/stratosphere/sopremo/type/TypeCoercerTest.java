@@ -1,5 +1,6 @@
 package eu.stratosphere.sopremo.type;
 
+import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Arrays;
@@ -13,6 +14,7 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import eu.stratosphere.sopremo.cache.NodeCache;
+import eu.stratosphere.util.reflect.ReflectUtil;
 
 @RunWith(Parameterized.class)
 public class TypeCoercerTest {
@@ -46,6 +48,23 @@ public class TypeCoercerTest {
 		}
 	}
 
+	@Test
+	public void shouldCoerceIntoReusableTarget() {
+		if (this.expectedResult == CONVERSION_ERROR || Modifier.isAbstract(this.targetType.getModifiers()))
+			return;
+		final IJsonNode target = ReflectUtil.newInstance(this.targetType);
+		final IJsonNode result = TypeCoercer.INSTANCE.coerceInto(this.value, target);
+		Assert.assertEquals(String.format("%s->%s=%s", this.value, this.targetType, result), this.expectedResult,
+			result);
+		if (!(result instanceof BooleanNode))
+			Assert.assertSame(target, result);
+	}
+
+	@Test
+	public void shouldPrecomputeCoercersOfDates() {
+		Assert.assertTrue(TypeCoercer.NODE_TYPES.contains(DateNode.class));
+	}
+
 	@Parameters
 	public static List<Object[]> combinations() {
 		return Arrays.asList(new Object[][] {
@@ -105,6 +124,20 @@ public class TypeCoercerTest {
 			{ createArray(IntNode.valueOf(12)), TextNode.class, TextNode.valueOf("[12]") },
 			{ createArray(IntNode.valueOf(12)), ArrayNode.class, createArray(IntNode.valueOf(12)) },
 			{ createArray(IntNode.valueOf(12)), ObjectNode.class, CONVERSION_ERROR },
+
+			{ DateNode.valueOf(2013, 5, 1), TextNode.class, TextNode.valueOf("2013-05-01") },
+			{ DateNode.valueOf(2013, 5, 1), LongNode.class, LongNode.valueOf(1367366400000L) },
+			{ DateNode.valueOf(2013, 5, 1), AbstractNumericNode.class, LongNode.valueOf(1367366400000L) },
+			{ DateNode.valueOf(2013, 5, 1), DateNode.class, DateNode.valueOf(2013, 5, 1) },
+			{ DateNode.valueOf(2013, 5, 1), IJsonNode.class, DateNode.valueOf(2013, 5, 1) },
+			{ DateNode.valueOf(2013, 5, 1), ArrayNode.class, createArray(DateNode.valueOf(2013, 5, 1)) },
+			{ DateNode.valueOf(2013, 5, 1), ObjectNode.class, CONVERSION_ERROR },
+			{ IntNode.valueOf(0), DateNode.class, DateNode.valueOf(1970, 1, 1) },
+			{ NullNode.getInstance(), DateNode.class, CONVERSION_ERROR },
+			{ TextNode.valueOf("2013-05-01"), DateNode.class, DateNode.valueOf(2013, 5, 1) },
+			{ TextNode.valueOf("2013-05-01T10:15:30Z"), DateNode.class, DateNode.valueOf(1367403330000L) },
+			{ LongNode.valueOf(1367366400000L), DateNode.class, DateNode.valueOf(2013, 5, 1) },
+			{ TextNode.valueOf("bla"), DateNode.class, CONVERSION_ERROR },
 		});
 	}
 
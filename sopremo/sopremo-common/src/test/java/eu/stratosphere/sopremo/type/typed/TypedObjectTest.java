@@ -6,14 +6,23 @@ import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 import eu.stratosphere.sopremo.type.ArrayNode;
 import eu.stratosphere.sopremo.type.BooleanNode;
 import eu.stratosphere.sopremo.type.INumericNode;
 import eu.stratosphere.sopremo.type.IObjectNode;
 import eu.stratosphere.sopremo.type.IntNode;
+import eu.stratosphere.sopremo.type.MissingNode;
+import eu.stratosphere.sopremo.type.NullNode;
 import eu.stratosphere.sopremo.type.ObjectNode;
 import eu.stratosphere.sopremo.type.TextNode;
 
@@ -55,6 +64,22 @@ public class TypedObjectTest {
 		assertSame(nameNode, dummy.getName());
 	}
 
+	@Test
+	public void testModificationOfBackingNode() {
+		PersonInterface dummy = this.factory.getTypedObjectForInterface(PersonInterface.class);
+		dummy.setName(new TextNode("foo"));
+		final TextNode otherName = new TextNode("bar");
+		((TypedObjectNode) dummy).getBackingNode().put("name", otherName);
+		assertSame(otherName, dummy.getName());
+
+		final IObjectNode backingNode = ((TypedObjectNode) dummy).getBackingNode();
+		backingNode.put("name", new TextNode("baz"));
+		backingNode.put("age", IntNode.valueOf(3));
+		assertEquals(new TextNode("baz"), ((TypedObjectNode) dummy).getBackingNode().get("name"));
+		assertEquals(IntNode.valueOf(3), ((TypedObjectNode) dummy).get("age"));
+		assertEquals(new TextNode("baz"), dummy.getName());
+	}
+
 	@Test
 	public void testMultipleInheritanceHierarchies() {
 		PersonWithAgeAndWeightInterface dummy = this.factory.getTypedObjectForInterface(
@@ -221,6 +246,99 @@ public class TypedObjectTest {
 		Assert.assertNotNull(dummy);
 	}
 
+	@Test
+	public void testSlotsAreWrittenToBackingNode() {
+		SomeThingInterface dummy = this.factory.getTypedObjectForInterface(SomeThingInterface.class);
+		TextNode name = new TextNode("foo");
+		dummy.setName(name);
+		dummy.put("undeclared", IntNode.valueOf(42));
+
+		IObjectNode backingNode = ((TypedObjectNode) dummy).getBackingNode();
+		assertSame(name, backingNode.get("name"));
+		assertEquals(IntNode.valueOf(42), backingNode.get("undeclared"));
+		assertEquals(2, dummy.size());
+
+		dummy.setName(null);
+		dummy.remove("undeclared");
+		backingNode = ((TypedObjectNode) dummy).getBackingNode();
+		assertSame(NullNode.getInstance(), backingNode.get("name"));
+		assertSame(MissingNode.getInstance(), backingNode.get("undeclared"));
+	}
+
+	@Test
+	public void testSlotsAreReadFromBackingNode() {
+		SomeThingInterface dummy = this.factory.getTypedObjectForInterface(SomeThingInterface.class);
+		IObjectNode backingNode = new ObjectNode();
+		TextNode name = new TextNode("foo");
+		backingNode.put("name", name);
+		((TypedObjectNode) dummy).setBackingNode(backingNode);
+
+		assertSame(name, dummy.getName());
+		assertSame(name, dummy.get("name"));
+		assertNull(dummy.getAge());
+		assertSame(MissingNode.getInstance(), dummy.get("age"));
+	}
+
+	@Test
+	public void testPositionalSerialization() {
+		InterfaceWithATypedObjectProperty dummy = this.factory.getTypedObjectForInterface(
+			InterfaceWithATypedObjectProperty.class);
+		SomeThingInterface thing = this.factory.getTypedObjectForInterface(SomeThingInterface.class);
+		thing.setName(new TextNode("foo"));
+		thing.setAge(IntNode.valueOf(3));
+		dummy.setIt(thing);
+		dummy.put("undeclared", new TextNode("bar"));
+
+		Kryo kryo = new Kryo();
+		kryo.setReferences(false);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		Output output = new Output(baos);
+		kryo.writeObject(output, dummy);
+		output.close();
+
+		Input input = new Input(new ByteArrayInputStream(baos.toByteArray()));
+		InterfaceWithATypedObjectProperty deserialized = kryo.readObject(input, dummy.getClass());
+		input.close();
+
+		assertEquals(((TypedObjectNode) dummy).getBackingNode(), ((TypedObjectNode) deserialized).getBackingNode());
+		assertEquals(new TextNode("foo"), deserialized.getIt().getName());
+		assertEquals(IntNode.valueOf(3), deserialized.getIt().getAge());
+		assertNull(deserialized.getNumber());
+		assertEquals(new TextNode("bar"), deserialized.get("undeclared"));
+	}
+
+	@Test
+	public void testReusingDeserializationOfMissingSlots() {
+		SomeThingInterface populated = this.factory.getTypedObjectForInterface(SomeThingInterface.class);
+		populated.setName(new TextNode("foo"));
+		populated.setAge(IntNode.valueOf(3));
+		populated.setCool(BooleanNode.TRUE);
+		SomeThingInterface sparse = this.factory.getTypedObjectForInterface(SomeThingInterface.class);
+		sparse.setAge(IntNode.valueOf(4));
+
+		Kryo kryo = new Kryo();
+		kryo.setReferences(false);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		Output output = new Output(baos);
+		kryo.writeObject(output, sparse);
+		output.close();
+
+		Input input = new Input(new ByteArrayInputStream(baos.toByteArray()));
+		TypedObjectNode.TypedObjectNodeSerializer serializer =
+			(TypedObjectNode.TypedObjectNodeSerializer) kryo.getSerializer(populated.getClass());
+		@SuppressWarnings("unchecked")
+		SomeThingInterface deserialized = (SomeThingInterface) serializer.read(kryo, input,
+			(TypedObjectNode) populated, (Class<TypedObjectNode>) (Class<?>) populated.getClass());
+		input.close();
+
+		assertSame(populated, deserialized);
+		assertNull(deserialized.getName());
+		assertSame(MissingNode.getInstance(), deserialized.get("name"));
+		assertEquals(IntNode.valueOf(4), deserialized.getAge());
+		assertNull(deserialized.getCool());
+		assertEquals(((TypedObjectNode) sparse).getBackingNode(), ((TypedObjectNode) deserialized).getBackingNode());
+	}
+
 	@Test
 	public void testDocumentUseCase() {
 		Document document = this.factory.getTypedObjectForInterface(Document.class);